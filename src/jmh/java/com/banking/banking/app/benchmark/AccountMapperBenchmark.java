@@ -0,0 +1,40 @@
+package com.banking.banking.app.benchmark;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.entity.Account;
+import com.banking.banking.app.mapper.AccountMapper;
+import com.banking.banking.app.money.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountMapperBenchmark {
+
+    private final Account account = new Account(42L, "John Doe", 123456L);
+
+    private final AccountDto accountDto = new AccountDto(42L, "John Doe", Money.of("1234.56"));
+
+    @Benchmark
+    public AccountDto mapToAccountDto() {
+        return AccountMapper.mapToAccountDto(account);
+    }
+
+    @Benchmark
+    public Account mapToAccount() {
+        return AccountMapper.mapToaccount(accountDto);
+    }
+}
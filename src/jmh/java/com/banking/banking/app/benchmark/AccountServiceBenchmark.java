@@ -0,0 +1,104 @@
+package com.banking.banking.app.benchmark;
+
+import com.banking.banking.app.BankingAppApplication;
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.dto.TransferFundDto;
+import com.banking.banking.app.exception.AccountException;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service hot paths against an in-memory H2 database, so the numbers track the
+ * application and Hibernate overhead rather than a network round trip.
+ * {@code engine} selects the balance engine (empty = repository path).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountServiceBenchmark {
+
+    private static final Money ONE = Money.of("1.00");
+
+    @Param({"", "striped"})
+    public String engine;
+
+    private ConfigurableApplicationContext context;
+
+    private AccountService accountService;
+
+    private long fromId;
+
+    private long toId;
+
+    private long emptyId;
+
+    private TransferFundDto transfer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(BankingAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+                        "banking.engine.mode=" + engine,
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+        accountService = context.getBean(AccountService.class);
+        fromId = accountService.createAccount(new AccountDto(0, "John Doe", Money.of("1000000000.00"))).getId();
+        toId = accountService.createAccount(new AccountDto(0, "Jane Doe", Money.of("1000000000.00"))).getId();
+        emptyId = accountService.createAccount(new AccountDto(0, "Card Tester", Money.of("0.00"))).getId();
+        transfer = new TransferFundDto(fromId, toId, ONE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AccountDto deposit() {
+        return accountService.deposit(fromId, ONE);
+    }
+
+    @Benchmark
+    public AccountDto withdraw() {
+        return accountService.withdraw(toId, ONE);
+    }
+
+    @Benchmark
+    public void transfer() {
+        accountService.transferFunds(transfer);
+    }
+
+    // The guarded UPDATE matches no row and the withdraw is rejected
+    @Benchmark
+    public String withdrawRejected() {
+        try {
+            accountService.withdraw(emptyId, ONE);
+            throw new IllegalStateException("Withdraw from an empty account succeeded");
+        } catch (AccountException e) {
+            return e.getErrorCode();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.banking.banking.app.benchmark;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.entity.IdempotencyRecord;
+import com.banking.banking.app.idempotency.IdempotencyStore;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Overhead the idempotency check adds in front of a money movement: no key (pass-through)
+ * versus replaying a recent key from memory. The repository is a stub; a replay never reaches it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdempotencyStoreBenchmark {
+
+    private static final int KEYS = 100_000;
+
+    private IdempotencyStore idempotencyStore;
+
+    private final ResponseEntity<AccountDto> response = ResponseEntity.ok(new AccountDto(42L, "John Doe", Money.of("125.00")));
+
+    private String[] keys;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+        when(repository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        idempotencyStore = new IdempotencyStore(repository, new ObjectMapper(), Duration.ofHours(24), KEYS);
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "key-" + i;
+            idempotencyStore.execute(keys[i], "deposit:42:25.00", AccountDto.class, () -> response);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<AccountDto> withoutKey() {
+        return idempotencyStore.execute(null, "deposit:42:25.00", AccountDto.class, () -> response);
+    }
+
+    @Benchmark
+    public ResponseEntity<AccountDto> replayFromMemory() {
+        String key = keys[next++ % KEYS];
+        return idempotencyStore.execute(key, "deposit:42:25.00", AccountDto.class, () -> response);
+    }
+}
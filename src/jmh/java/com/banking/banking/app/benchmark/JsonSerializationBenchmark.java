@@ -0,0 +1,110 @@
+package com.banking.banking.app.benchmark;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.dto.TransactionDto;
+import com.banking.banking.app.exception.AccountException;
+import com.banking.banking.app.exception.ErrorDetails;
+import com.banking.banking.app.money.Money;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// Uses a plain ObjectMapper; the application's mapper adds only modules these DTOs don't need.
+// ErrorDetails needs its date settings, and is also written through bean introspection as a baseline.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    // Turns ErrorDetailsJsonSerializer off again
+    @JsonSerialize(using = JsonSerializer.None.class)
+    private abstract static class BeanSerialized {
+    }
+
+    private ObjectWriter accountWriter;
+
+    private ObjectReader accountReader;
+
+    private ObjectWriter transactionWriter;
+
+    private final AccountDto accountDto = new AccountDto(42L, "John Doe", Money.of("1234.56"));
+
+    private final TransactionDto transactionDto =
+            new TransactionDto(1001L, 42L, "DEPOSIT", Money.of("100.00"), "2024-09-01T12:00:00.123456");
+
+    private ObjectWriter errorWriter;
+
+    private ObjectWriter beanErrorWriter;
+
+    private final ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.of(2024, 9, 1, 12, 0, 0, 123_456_000),
+            "Insufficient amount", "uri=/api/accounts/42/withdraw", AccountException.INSUFFICIENT_FUNDS);
+
+    private byte[] accountJson;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        accountWriter = objectMapper.writerFor(AccountDto.class);
+        accountReader = objectMapper.readerFor(AccountDto.class);
+        transactionWriter = objectMapper.writerFor(TransactionDto.class);
+        accountJson = accountWriter.writeValueAsBytes(accountDto);
+        errorWriter = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build()
+                .writerFor(ErrorDetails.class);
+        beanErrorWriter = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .addMixIn(ErrorDetails.class, BeanSerialized.class)
+                .build()
+                .writerFor(ErrorDetails.class);
+    }
+
+    @Benchmark
+    public byte[] serializeAccountDto() throws IOException {
+        return accountWriter.writeValueAsBytes(accountDto);
+    }
+
+    @Benchmark
+    public AccountDto deserializeAccountDto() throws IOException {
+        return accountReader.readValue(accountJson);
+    }
+
+    @Benchmark
+    public byte[] serializeTransactionDto() throws IOException {
+        return transactionWriter.writeValueAsBytes(transactionDto);
+    }
+
+    @Benchmark
+    public byte[] serializeErrorDetails() throws IOException {
+        return errorWriter.writeValueAsBytes(errorDetails);
+    }
+
+    @Benchmark
+    public byte[] serializeErrorDetailsAsBean() throws IOException {
+        return beanErrorWriter.writeValueAsBytes(errorDetails);
+    }
+}
@@ -0,0 +1,69 @@
+package com.banking.banking.app.benchmark;
+
+import com.banking.banking.app.money.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The balance arithmetic of deposit and withdraw (add, then check-and-subtract) on the three
+ * candidate representations. Run with {@code -Djmh.args="MoneyArithmetic -prof gc"} and compare
+ * {@code gc.alloc.rate.norm}: the minor-unit path used by AccountServiceImpl should report
+ * 0 B/op like {@code double}, while {@code BigDecimal} allocates on every operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyArithmeticBenchmark {
+
+    private double doubleBalance = 1_000_000.00;
+
+    private final double doubleAmount = 0.10;
+
+    private BigDecimal decimalBalance = new BigDecimal("1000000.00");
+
+    private final BigDecimal decimalAmount = new BigDecimal("0.10");
+
+    private long minorBalance = Money.of("1000000.00").minorUnits();
+
+    private final long minorAmount = Money.of("0.10").minorUnits();
+
+    @Benchmark
+    public double depositWithdrawDouble() {
+        doubleBalance = doubleBalance + doubleAmount;
+        if (doubleBalance >= doubleAmount) {
+            doubleBalance = doubleBalance - doubleAmount;
+        }
+        return doubleBalance;
+    }
+
+    @Benchmark
+    public BigDecimal depositWithdrawBigDecimal() {
+        decimalBalance = decimalBalance.add(decimalAmount);
+        if (decimalBalance.compareTo(decimalAmount) >= 0) {
+            decimalBalance = decimalBalance.subtract(decimalAmount);
+        }
+        return decimalBalance;
+    }
+
+    @Benchmark
+    public long depositWithdrawMinorUnits() {
+        minorBalance = Money.add(minorBalance, minorAmount);
+        if (minorBalance >= minorAmount) {
+            minorBalance = Money.subtract(minorBalance, minorAmount);
+        }
+        return minorBalance;
+    }
+}
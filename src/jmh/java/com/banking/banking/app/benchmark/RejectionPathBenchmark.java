@@ -0,0 +1,62 @@
+package com.banking.banking.app.benchmark;
+
+import com.banking.banking.app.exception.AccountException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.CompilerControl;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raising a rejection {@code depth} frames below the code that handles it (a Spring MVC request
+ * is roughly 100 deep at the service): a stack-capturing exception, as AccountException used to
+ * be, against the shared stackless one. Unwinding the frames is paid either way.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RejectionPathBenchmark {
+
+    @Param({"10", "100"})
+    public int depth;
+
+    @Benchmark
+    public String rejectWithStackTrace() {
+        try {
+            return descend(depth, true);
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String rejectStackless() {
+        try {
+            return descend(depth, false);
+        } catch (AccountException e) {
+            return e.getErrorCode();
+        }
+    }
+
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    private static String descend(int frames, boolean captureStack) {
+        if (frames > 0) {
+            return descend(frames - 1, captureStack);
+        }
+        if (captureStack) {
+            throw new RuntimeException("Insufficient amount");
+        }
+        throw AccountException.insufficientFunds();
+    }
+}
@@ -0,0 +1,295 @@
+package com.banking.banking.app.bulk;
+
+import com.banking.banking.app.dto.ImportResultDto;
+import com.banking.banking.app.engine.BalanceEngine;
+import com.banking.banking.app.entity.Transaction;
+import com.banking.banking.app.ledger.LedgerEvents;
+import com.banking.banking.app.metrics.BankingMetrics;
+import com.banking.banking.app.money.MinorUnitsConverter;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.repository.TransactionRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates accounts from a CSV or NDJSON body, one row at a time.
+ * <p>
+ * Rows are parsed incrementally off the stream, validated, and collected into a fixed
+ * batch of {@code banking.import.batch-size} rows. Each full batch is written in its own
+ * database transaction: one JDBC batch insert into {@code accounts}, whose auto-increment
+ * ids come back as the batch's generated keys (one id block per batch with
+ * {@code rewriteBatchedStatements=true} on MySQL), and the OPENING ledger rows of the
+ * non-zero balances, batched by Hibernate on the pooled {@code transactions_seq}. Heap use
+ * therefore depends on the batch size, not on the size of the input.
+ * <p>
+ * Invalid rows are rejected on their own and reported by line number. Malformed input
+ * (an unterminated CSV quote, broken JSON) ends the import at that point; the batches
+ * written before it stay committed, as they do if the database fails mid-import.
+ * <p>
+ * CSV needs a header naming the {@code accountHolderName} and {@code balance} columns,
+ * NDJSON one object per line with those fields. Ids are always allocated by the database.
+ */
+@Component
+public class AccountImporter {
+
+    public enum Format {CSV, NDJSON}
+
+    private static final Logger log = LoggerFactory.getLogger(AccountImporter.class);
+
+    private static final String INSERT_SQL =
+            "insert into accounts (account_holder_name, balance, version) values (?, ?, 0)";
+
+    private static final int MAX_NAME_LENGTH = 255;
+
+    private static final String NAME_FIELD = "accountHolderName";
+
+    private static final String BALANCE_FIELD = "balance";
+
+    // State of one import: the batch being filled and the running totals
+    private final class Run {
+        final String[] names = new String[batchSize];
+        final long[] balances = new long[batchSize];
+        final long[] ids = new long[batchSize];
+        int size;
+        long imported;
+        long rejected;
+        final List<String> errors = new ArrayList<>();
+
+        void reject(long line, String reason) {
+            rejected++;
+            if (errors.size() < maxReported) {
+                errors.add("line " + line + ": " + reason);
+            }
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionRepository transactionRepository;
+
+    private final BankingMetrics bankingMetrics;
+
+    private final JsonFactory jsonFactory;
+
+    // false when the balance engine journals OPENING events itself, as AccountServiceImpl.createAccount
+    private final boolean writesOpenings;
+
+    private final int batchSize;
+
+    private final int maxReported;
+
+    public AccountImporter(DataSource dataSource,
+                           PlatformTransactionManager transactionManager,
+                           TransactionRepository transactionRepository,
+                           BankingMetrics bankingMetrics,
+                           ObjectMapper objectMapper,
+                           @Nullable BalanceEngine balanceEngine,
+                           @Value("${banking.import.batch-size:1000}") int batchSize,
+                           @Value("${banking.import.max-reported:100}") int maxReported) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionRepository = transactionRepository;
+        this.bankingMetrics = bankingMetrics;
+        this.jsonFactory = objectMapper.getFactory();
+        this.writesOpenings = balanceEngine == null || !balanceEngine.opensAccounts();
+        this.batchSize = Math.max(1, batchSize);
+        this.maxReported = Math.max(0, maxReported);
+    }
+
+    public ImportResultDto importAccounts(InputStream body, Format format) throws IOException {
+        long began = System.nanoTime();
+        Run run = new Run();
+        if (format == Format.CSV) {
+            readCsv(body, run);
+        } else {
+            readNdjson(body, run);
+        }
+        flush(run);
+
+        long elapsedMillis = (System.nanoTime() - began) / 1_000_000;
+        bankingMetrics.bulkRows("import", run.imported);
+        log.info("Imported {} accounts from {} in {} ms ({} rows/s), {} rows rejected",
+                run.imported, format, elapsedMillis, run.imported * 1000 / Math.max(1, elapsedMillis), run.rejected);
+        return new ImportResultDto(run.imported, run.rejected, List.copyOf(run.errors), elapsedMillis);
+    }
+
+    private void readCsv(InputStream body, Run run) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        int nameColumn = -1;
+        int balanceColumn = -1;
+        if (csv.next()) {
+            for (int i = 0; i < csv.fieldCount(); i++) {
+                String column = csv.field(i).toString().strip();
+                if (column.equalsIgnoreCase(NAME_FIELD) || column.equalsIgnoreCase("account_holder_name")) {
+                    nameColumn = i;
+                } else if (column.equalsIgnoreCase(BALANCE_FIELD)) {
+                    balanceColumn = i;
+                }
+            }
+        }
+        if (nameColumn < 0 || balanceColumn < 0) {
+            throw new IllegalArgumentException("CSV header must name the " + NAME_FIELD + " and " + BALANCE_FIELD + " columns");
+        }
+
+        int columns = Math.max(nameColumn, balanceColumn) + 1;
+        try {
+            while (csv.next()) {
+                if (csv.fieldCount() < columns) {
+                    run.reject(csv.line(), "Expected at least " + columns + " columns");
+                    continue;
+                }
+                accept(run, csv.line(), csv.field(nameColumn).toString(), csv.field(balanceColumn).toString());
+            }
+        } catch (IllegalArgumentException e) {
+            // the reader cannot resynchronize after a broken quote
+            run.reject(csv.line(), e.getMessage());
+        }
+    }
+
+    private void readNdjson(InputStream body, Run run) throws IOException {
+        long line = 1;
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                line = parser.currentTokenLocation().getLineNr();
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    run.reject(line, "Expected a JSON object");
+                    continue;
+                }
+
+                String name = null;
+                String balance = null;
+                String invalid = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if (NAME_FIELD.equals(field) && value == JsonToken.VALUE_STRING) {
+                        name = parser.getText();
+                    } else if (BALANCE_FIELD.equals(field) && (value == JsonToken.VALUE_NUMBER_INT
+                            || value == JsonToken.VALUE_NUMBER_FLOAT || value == JsonToken.VALUE_STRING)) {
+                        balance = parser.getText();
+                    } else if ((NAME_FIELD.equals(field) || BALANCE_FIELD.equals(field)) && value != JsonToken.VALUE_NULL) {
+                        invalid = "Invalid " + field;
+                    }
+                    // ids and unknown fields are ignored
+                    parser.skipChildren();
+                }
+
+                if (invalid != null) {
+                    run.reject(line, invalid);
+                } else {
+                    accept(run, line, name, balance);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            run.reject(e.getLocation() == null ? line : e.getLocation().getLineNr(), "Malformed JSON");
+        }
+    }
+
+    private void accept(Run run, long line, @Nullable String name, @Nullable String balance) {
+        String holder = name == null ? "" : name.strip();
+        if (holder.isEmpty()) {
+            run.reject(line, NAME_FIELD + " is required");
+            return;
+        }
+        if (holder.length() > MAX_NAME_LENGTH) {
+            run.reject(line, NAME_FIELD + " is longer than " + MAX_NAME_LENGTH + " characters");
+            return;
+        }
+
+        long minorUnits = 0;
+        String amount = balance == null ? "" : balance.strip();
+        if (!amount.isEmpty()) {
+            try {
+                minorUnits = Money.parseMinor(amount);
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                run.reject(line, "Invalid balance " + amount);
+                return;
+            }
+        }
+        if (minorUnits < 0) {
+            run.reject(line, "Opening balance must not be negative");
+            return;
+        }
+
+        run.names[run.size] = holder;
+        run.balances[run.size] = minorUnits;
+        if (++run.size == batchSize) {
+            flush(run);
+        }
+    }
+
+    private void flush(Run run) {
+        if (run.size == 0) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                insertAccounts(connection, run);
+                return null;
+            });
+            if (writesOpenings) {
+                // the initial balances are journaled as in createAccount, so reconciliation holds from the start
+                LocalDateTime now = LocalDateTime.now();
+                List<Transaction> openings = new ArrayList<>(run.size);
+                for (int i = 0; i < run.size; i++) {
+                    if (run.balances[i] != 0) {
+                        openings.add(new Transaction(null, run.ids[i], LedgerEvents.OPENING, run.balances[i], now));
+                    }
+                }
+                transactionRepository.saveAll(openings);
+            }
+        });
+        run.imported += run.size;
+        run.size = 0;
+    }
+
+    private void insertAccounts(Connection connection, Run run) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL, new String[]{"id"})) {
+            for (int i = 0; i < run.size; i++) {
+                insert.setString(1, run.names[i]);
+                insert.setBigDecimal(2, MinorUnitsConverter.toDecimal(run.balances[i]));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+
+            int count = 0;
+            try (ResultSet keys = insert.getGeneratedKeys()) {
+                while (keys.next() && count < run.size) {
+                    run.ids[count++] = keys.getLong(1);
+                }
+            }
+            if (count != run.size) {
+                throw new IllegalStateException("Expected " + run.size + " generated account ids, got " + count);
+            }
+        }
+    }
+}
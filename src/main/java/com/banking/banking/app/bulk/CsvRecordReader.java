@@ -0,0 +1,147 @@
+package com.banking.banking.app.bulk;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental RFC 4180 reader: one record at a time off a {@link Reader}, with quoted
+ * fields, doubled quotes and line breaks inside quotes. The field buffers are reused
+ * from record to record, so a field is only valid until the next call to {@link #next()}.
+ */
+final class CsvRecordReader {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+
+    private int position;
+
+    private int limit;
+
+    private final List<StringBuilder> fields = new ArrayList<>();
+
+    private int fieldCount;
+
+    // 1-based line of the next character, and of the first line of the current record
+    private long line = 1;
+
+    private long recordLine;
+
+    CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the next record, skipping blank lines; false at the end of the input.
+     *
+     * @throws IllegalArgumentException on a quote that is never closed or is followed by text
+     */
+    boolean next() throws IOException {
+        int c = read();
+        while (c == '\r' || c == '\n') {
+            skipLineBreak(c);
+            c = read();
+        }
+        if (c < 0) {
+            return false;
+        }
+
+        recordLine = line;
+        fieldCount = 0;
+        StringBuilder field = nextField();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    throw new IllegalArgumentException("Unterminated quoted field");
+                }
+                if (c == '"') {
+                    c = read();
+                    if (c == '"') {
+                        field.append('"');
+                        c = read();
+                    } else {
+                        quoted = false;
+                        if (c >= 0 && c != ',' && c != '\r' && c != '\n') {
+                            throw new IllegalArgumentException("Unexpected text after a quoted field");
+                        }
+                    }
+                    continue;
+                }
+                if (c == '\n') {
+                    line++;
+                }
+                field.append((char) c);
+                c = read();
+                continue;
+            }
+            if (c < 0 || c == '\r' || c == '\n') {
+                if (c >= 0) {
+                    skipLineBreak(c);
+                }
+                return true;
+            }
+            if (c == ',') {
+                field = nextField();
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    int fieldCount() {
+        return fieldCount;
+    }
+
+    CharSequence field(int index) {
+        return fields.get(index);
+    }
+
+    // Line the current record starts on, for error messages
+    long line() {
+        return recordLine;
+    }
+
+    private StringBuilder nextField() {
+        if (fieldCount == fields.size()) {
+            fields.add(new StringBuilder(64));
+        }
+        StringBuilder field = fields.get(fieldCount++);
+        field.setLength(0);
+        return field;
+    }
+
+    // Consumes the \n of a \r\n line break whose \r was just read
+    private void skipLineBreak(int c) throws IOException {
+        line++;
+        if (c == '\r' && peek() == '\n') {
+            position++;
+        }
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c >= 0) {
+            position++;
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = Math.max(0, reader.read(buffer, 0, buffer.length));
+            position = 0;
+            if (limit == 0) {
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+}
@@ -0,0 +1,109 @@
+package com.banking.banking.app.bulk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip (RFC 1952) in front of another channel. Input buffers go straight into the
+ * {@link Deflater} and the compressed bytes leave through one direct buffer, so nothing
+ * is copied into intermediate streams. {@link #finish()} writes the trailer and leaves
+ * the target open; {@link #close()} also closes it.
+ */
+final class GzipChannel implements WritableByteChannel {
+
+    // magic, deflate, no flags, no mtime, no extra flags, unknown OS
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private static final int TRAILER_SIZE = 8;
+
+    private static final byte[] NO_INPUT = new byte[0];
+
+    private final WritableByteChannel target;
+
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+
+    private final CRC32 crc = new CRC32();
+
+    private final ByteBuffer compressed;
+
+    private boolean finished;
+
+    GzipChannel(WritableByteChannel target, int bufferSize) {
+        this.target = target;
+        this.compressed = ByteBuffer.allocateDirect(Math.max(bufferSize, HEADER.length + TRAILER_SIZE))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        this.compressed.put(HEADER);
+    }
+
+    @Override
+    public int write(ByteBuffer source) throws IOException {
+        if (finished) {
+            throw new ClosedChannelException();
+        }
+        int length = source.remaining();
+        crc.update(source.duplicate());
+        deflater.setInput(source);
+        while (!deflater.needsInput()) {
+            deflate();
+        }
+        // the deflater keeps reading from its input buffer, which the caller is about to reuse
+        deflater.setInput(NO_INPUT);
+        return length;
+    }
+
+    // Compresses what is left, writes the trailer and releases the deflater
+    void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        try {
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflate();
+            }
+            if (compressed.remaining() < TRAILER_SIZE) {
+                drain();
+            }
+            compressed.putInt((int) crc.getValue());
+            compressed.putInt((int) deflater.getBytesRead());
+            drain();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !finished && target.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            target.close();
+        }
+    }
+
+    private void deflate() throws IOException {
+        deflater.deflate(compressed);
+        if (!compressed.hasRemaining()) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        compressed.flip();
+        while (compressed.hasRemaining()) {
+            target.write(compressed);
+        }
+        compressed.clear();
+    }
+}
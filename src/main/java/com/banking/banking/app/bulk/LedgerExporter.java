@@ -0,0 +1,136 @@
+package com.banking.banking.app.bulk;
+
+import com.banking.banking.app.metrics.BankingMetrics;
+import com.banking.banking.app.money.MinorUnitsConverter;
+import com.banking.banking.app.money.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Writes the {@code transactions} rows of an account id range as gzipped CSV
+ * ({@code id,account_id,transaction_type,amount,timestamp}) to a channel, e.g. a
+ * {@link java.nio.channels.FileChannel} or the response body.
+ * <p>
+ * Rows come off one forward-only cursor ordered by account id and id, in a read-only
+ * repeatable-read transaction like {@link com.banking.banking.app.ledger.LedgerReconciler}.
+ * Each row is formatted into one reused {@link StringBuilder} and copied into one reused
+ * buffer that is handed to {@link GzipChannel} when full, so the export allocates little
+ * per row and holds the same memory for ten rows as for a billion. Every field is ASCII
+ * without commas, so the CSV needs no quoting or charset encoder.
+ */
+@Component
+public class LedgerExporter {
+
+    public static final String HEADER = "id,account_id,transaction_type,amount,timestamp";
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerExporter.class);
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String LEDGER_SQL =
+            "select id, account_id, transaction_type, amount, timestamp from transactions " +
+            "where account_id between ? and ? order by account_id, id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BankingMetrics bankingMetrics;
+
+    public LedgerExporter(DataSource dataSource, PlatformTransactionManager transactionManager,
+                          BankingMetrics bankingMetrics) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.bankingMetrics = bankingMetrics;
+    }
+
+    /**
+     * Exports accounts {@code fromAccountId..toAccountId} inclusive and returns the number of
+     * rows written. The gzip stream is complete when this returns; the target is left open.
+     */
+    public long export(long fromAccountId, long toAccountId, WritableByteChannel target) throws IOException {
+        if (fromAccountId > toAccountId) {
+            throw new IllegalArgumentException("fromAccountId must not be after toAccountId");
+        }
+        long began = System.nanoTime();
+        GzipChannel gzip = new GzipChannel(target, BUFFER_SIZE);
+        long rows;
+        try {
+            rows = transactionTemplate.execute(status -> jdbcTemplate.execute((ConnectionCallback<Long>) connection ->
+                    writeRows(connection, fromAccountId, toAccountId, gzip)));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        gzip.finish();
+
+        long elapsedMillis = (System.nanoTime() - began) / 1_000_000;
+        bankingMetrics.bulkRows("export", rows);
+        log.info("Exported {} transactions of accounts {}..{} in {} ms ({} rows/s)",
+                rows, fromAccountId, toAccountId, elapsedMillis, rows * 1000 / Math.max(1, elapsedMillis));
+        return rows;
+    }
+
+    private long writeRows(Connection connection, long fromAccountId, long toAccountId, GzipChannel gzip)
+            throws SQLException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        StringBuilder text = new StringBuilder(128).append(HEADER).append('\n');
+        long rows = 0;
+        try (PreparedStatement query = connection.prepareStatement(LEDGER_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            query.setFetchSize(FETCH_SIZE);
+            query.setLong(1, fromAccountId);
+            query.setLong(2, toAccountId);
+            try (ResultSet ledger = query.executeQuery()) {
+                put(text, buffer, gzip);
+                while (ledger.next()) {
+                    text.setLength(0);
+                    text.append(ledger.getLong(1)).append(',')
+                            .append(ledger.getLong(2)).append(',')
+                            .append(ledger.getString(3)).append(',');
+                    Money.appendTo(text, MinorUnitsConverter.toMinorUnits(ledger.getBigDecimal(4))).append(',')
+                            .append(ledger.getTimestamp(5).toLocalDateTime()).append('\n');
+                    put(text, buffer, gzip);
+                    rows++;
+                }
+            }
+            flush(buffer, gzip);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+
+    private static void put(CharSequence text, ByteBuffer buffer, GzipChannel gzip) throws IOException {
+        if (buffer.remaining() < text.length()) {
+            flush(buffer, gzip);
+        }
+        for (int i = 0; i < text.length(); i++) {
+            buffer.put((byte) text.charAt(i));
+        }
+    }
+
+    private static void flush(ByteBuffer buffer, GzipChannel gzip) throws IOException {
+        buffer.flip();
+        gzip.write(buffer);
+        buffer.clear();
+    }
+}
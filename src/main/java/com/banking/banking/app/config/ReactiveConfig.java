@@ -0,0 +1,78 @@
+package com.banking.banking.app.config;
+
+import com.banking.banking.app.repository.reactive.ReactiveAccountRepository;
+import io.r2dbc.spi.Closeable;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.config.AbstractR2dbcConfiguration;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.data.web.ReactivePageableHandlerMethodArgumentResolver;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * R2DBC and WebFlux setup for the {@code reactive} profile.
+ * <p>
+ * The connection factory is deliberately not a bean: Spring Boot turns off the JDBC
+ * {@code DataSource} as soon as one exists, and writes still go through JPA on that
+ * {@code DataSource}. No reactive transaction manager is registered either, the
+ * reactive side only reads.
+ */
+@Configuration
+@Profile("reactive")
+@EnableR2dbcRepositories(basePackageClasses = ReactiveAccountRepository.class)
+public class ReactiveConfig extends AbstractR2dbcConfiguration implements WebFluxConfigurer {
+
+    private final ConnectionFactory connectionFactory;
+
+    private final int maxPageSize;
+
+    public ReactiveConfig(@Value("${banking.reactive.r2dbc.url}") String url,
+                          @Value("${banking.reactive.r2dbc.username:${spring.datasource.username:}}") String username,
+                          @Value("${banking.reactive.r2dbc.password:${spring.datasource.password:}}") String password,
+                          @Value("${spring.data.web.pageable.max-page-size:2000}") int maxPageSize) {
+        this.connectionFactory = ConnectionFactories.get(ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build());
+        this.maxPageSize = maxPageSize;
+    }
+
+    @Override
+    public ConnectionFactory connectionFactory() {
+        return connectionFactory;
+    }
+
+    // An r2dbc:pool: url gives a connection pool, which holds connections until closed
+    @PreDestroy
+    public void close() {
+        if (connectionFactory instanceof Closeable closeable) {
+            Mono.from(closeable.close()).block(Duration.ofSeconds(10));
+        }
+    }
+
+    // Tomcat is on the classpath for the MVC stack and Spring Boot would prefer it,
+    // but the point of this profile is a small number of event loop threads
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    // Spring Boot only registers the Pageable resolver for Spring MVC
+    @Override
+    public void configureArgumentResolvers(ArgumentResolverConfigurer configurer) {
+        ReactivePageableHandlerMethodArgumentResolver pageable = new ReactivePageableHandlerMethodArgumentResolver();
+        pageable.setMaxPageSize(maxPageSize);
+        configurer.addCustomResolver(pageable);
+    }
+}
@@ -0,0 +1,88 @@
+package com.banking.banking.app.config;
+
+import com.banking.banking.app.routing.ReplicaFencedCacheManager;
+import com.banking.banking.app.routing.RoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read/write split for {@code banking.datasource.routing.enabled}: two Hikari pools, the
+ * primary from {@code spring.datasource.*} and the replica from
+ * {@code banking.datasource.replica.*}, behind a {@link RoutingDataSource} that JPA and the
+ * JDBC repositories use. Which service methods read from the replica is declared with
+ * {@link com.banking.banking.app.routing.RouteTo}.
+ * <p>
+ * Replication itself is the database's business; the schema is only created on the primary.
+ * Both pools report {@code hikaricp.connections.*} tagged with their pool name.
+ * <p>
+ * The cache manager is replaced by a {@link ReplicaFencedCacheManager}, so a replica read
+ * cannot re-cache a balance that a write just evicted.
+ */
+@Configuration
+@ConditionalOnProperty(name = "banking.datasource.routing.enabled", havingValue = "true")
+public class RoutingDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties, MeterRegistry meterRegistry) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("primary");
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+
+    @Bean
+    @ConfigurationProperties("banking.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${banking.datasource.replica.url}") String url,
+                                              @Value("${banking.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${banking.datasource.replica.password:${spring.datasource.password:}}") String password,
+                                              MeterRegistry meterRegistry) {
+        HikariDataSource pool = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        pool.setPoolName("replica");
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        // a replica is read-only; this also stops a mis-declared write from succeeding there
+        pool.setReadOnly(true);
+        return pool;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        return new RoutingDataSource(primary, replica);
+    }
+
+    // Boot's cache auto-configuration backs off for this bean; it takes the same spring.cache.* settings
+    @Bean
+    public CacheManager cacheManager(@Value("${spring.cache.cache-names:}") List<String> cacheNames,
+                                     @Value("${spring.cache.caffeine.spec:}") String spec,
+                                     @Value("${banking.datasource.routing.sticky-window:5s}") Duration stickyWindow) {
+        ReplicaFencedCacheManager cacheManager = new ReplicaFencedCacheManager(stickyWindow);
+        if (!spec.isEmpty()) {
+            cacheManager.setCacheSpecification(spec);
+        }
+        if (!cacheNames.isEmpty()) {
+            cacheManager.setCacheNames(cacheNames);
+        }
+        return cacheManager;
+    }
+}
@@ -0,0 +1,26 @@
+package com.banking.banking.app.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Startup check for the {@code virtual-threads} profile.
+ * <p>
+ * Spring Boot silently ignores {@code spring.threads.virtual.enabled} below Java 21 and
+ * keeps the 200-thread Tomcat pool, while the profile has already shrunk the Hikari
+ * timeouts and raised the connection limits for virtual threads. Refuse to start instead.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    static final int REQUIRED_JAVA = 21;
+
+    public VirtualThreadsConfig() {
+        int running = Runtime.version().feature();
+        if (running < REQUIRED_JAVA) {
+            throw new IllegalStateException("spring.threads.virtual.enabled needs Java " + REQUIRED_JAVA
+                    + "+, running on " + Runtime.version());
+        }
+    }
+}
@@ -1,25 +1,92 @@
 package com.banking.banking.app.controller;
 
+import com.banking.banking.app.bulk.AccountImporter;
+import com.banking.banking.app.bulk.LedgerExporter;
 import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.dto.AccountPageDto;
+import com.banking.banking.app.dto.AccountSliceDto;
+import com.banking.banking.app.dto.ImportResultDto;
+import com.banking.banking.app.dto.StatementDto;
 import com.banking.banking.app.dto.TransactionDto;
+import com.banking.banking.app.dto.TransactionPageDto;
 import com.banking.banking.app.dto.TransferFundDto;
+import com.banking.banking.app.dto.TransferResultDto;
+import com.banking.banking.app.idempotency.IdempotencyStore;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.ratelimit.AccountRateLimiter;
 import com.banking.banking.app.service.AccountService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 
+// ReactiveAccountController serves the same paths under the reactive profile
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/accounts")
 public class AccountController {
 
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private static final String TEXT_CSV = "text/csv";
+
+    private static final String APPLICATION_GZIP = "application/gzip";
+
     private AccountService accountService;
 
-    public AccountController(AccountService accountService) {
+    private final IdempotencyStore idempotencyStore;
+
+    private final AccountRateLimiter accountRateLimiter;
+
+    private final AccountImporter accountImporter;
+
+    private final LedgerExporter ledgerExporter;
+
+    private final ObjectWriter transactionWriter;
+
+    private final ObjectWriter accountWriter;
+
+    private final ObjectReader transferReader;
+
+    private final int maxBatchSize;
+
+    public AccountController(AccountService accountService, IdempotencyStore idempotencyStore,
+                             AccountRateLimiter accountRateLimiter, AccountImporter accountImporter,
+                             LedgerExporter ledgerExporter, ObjectMapper objectMapper,
+                             @Value("${banking.transfers.batch.max-size:10000}") int maxBatchSize) {
         this.accountService = accountService;
+        this.idempotencyStore = idempotencyStore;
+        this.accountRateLimiter = accountRateLimiter;
+        this.accountImporter = accountImporter;
+        this.ledgerExporter = ledgerExporter;
+        this.transactionWriter = objectMapper.writerFor(TransactionDto.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.accountWriter = objectMapper.writerFor(AccountDto.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.transferReader = objectMapper.readerFor(TransferFundDto.class);
+        this.maxBatchSize = maxBatchSize;
     }
 
     //add account rest api
@@ -39,19 +106,24 @@ public class AccountController {
 
     //deposit rest api
     @PutMapping("/{id}/deposit")
-    public ResponseEntity<AccountDto> deposit(@PathVariable Long id, @RequestBody Map<String, Double> request){
-        Double amount = request.get("amount");
-        AccountDto accountDto = accountService.deposit(id,amount);
-        return  ResponseEntity.ok(accountDto);
+    public ResponseEntity<AccountDto> deposit(@PathVariable Long id, @RequestBody Map<String, Money> request,
+                                              @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey){
+        Money amount = request.get("amount");
+        // a replayed response takes no token from the account
+        return idempotencyStore.execute(idempotencyKey, "deposit:" + id + ":" + amount, AccountDto.class,
+                () -> accountRateLimiter.acquireCredit(id, "deposit"),
+                () -> ResponseEntity.ok(accountService.deposit(id, amount)));
     }
 
     //withdraw rest api
 
     @PutMapping("/{id}/withdraw")
-    public ResponseEntity<AccountDto> withdraw(@PathVariable Long id, @RequestBody Map<String, Double> request){
-        double amount = request.get("amount");
-        AccountDto accountDto = accountService.withdraw(id,amount);
-        return  ResponseEntity.ok(accountDto);
+    public ResponseEntity<AccountDto> withdraw(@PathVariable Long id, @RequestBody Map<String, Money> request,
+                                               @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey){
+        Money amount = request.get("amount");
+        return idempotencyStore.execute(idempotencyKey, "withdraw:" + id + ":" + amount, AccountDto.class,
+                () -> accountRateLimiter.acquire(id, "withdraw"),
+                () -> ResponseEntity.ok(accountService.withdraw(id, amount)));
     }
 
     //get all accounts rest api
@@ -62,6 +134,59 @@ public class AccountController {
         return  ResponseEntity.ok(accounts);
     }
 
+    // get one page of accounts, e.g. ?page=0&size=50&sort=balance,desc
+
+    @GetMapping(params = "size")
+    public ResponseEntity<AccountPageDto> getAllAccounts(Pageable pageable){
+        return  ResponseEntity.ok(accountService.getAllAccounts(pageable));
+    }
+
+    // get accounts by keyset, e.g. ?limit=50&cursor=1200
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<AccountSliceDto> getAllAccounts(@RequestParam int limit,
+                                                          @RequestParam(required = false) String cursor){
+        return  ResponseEntity.ok(accountService.getAllAccounts(cursor, limit));
+    }
+
+    // export all accounts as NDJSON, one account per line
+
+    @GetMapping(value = "/export", produces = APPLICATION_NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportAccounts(){
+        StreamingResponseBody body = out -> accountService.streamAllAccounts(writeLine(accountWriter, out));
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON)).body(body);
+    }
+
+    // bulk account import, CSV with an accountHolderName,balance header
+
+    @PostMapping(value = "/import", consumes = TEXT_CSV)
+    public ResponseEntity<ImportResultDto> importAccountsCsv(InputStream body) throws IOException {
+        return ResponseEntity.ok(accountImporter.importAccounts(body, AccountImporter.Format.CSV));
+    }
+
+    // bulk account import, one AccountDto per NDJSON line
+
+    @PostMapping(value = "/import", consumes = APPLICATION_NDJSON)
+    public ResponseEntity<ImportResultDto> importAccountsNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(accountImporter.importAccounts(body, AccountImporter.Format.NDJSON));
+    }
+
+    // export the ledger of an account id range as gzipped CSV, e.g. ?fromAccountId=1&toAccountId=100000
+
+    @GetMapping(value = "/transactions/export", produces = APPLICATION_GZIP)
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@RequestParam(defaultValue = "0") long fromAccountId,
+                                                                    @RequestParam(defaultValue = "" + Long.MAX_VALUE) long toAccountId) {
+        if (fromAccountId > toAccountId) {
+            throw new IllegalArgumentException("fromAccountId must not be after toAccountId");
+        }
+        StreamingResponseBody body = out -> ledgerExporter.export(fromAccountId, toAccountId, Channels.newChannel(out));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_GZIP))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("transactions-" + fromAccountId + "-" + toAccountId + ".csv.gz").build().toString())
+                .body(body);
+    }
+
     //delete account rest api
 
     @DeleteMapping("/{id}")
@@ -73,9 +198,39 @@ public class AccountController {
     // transfer rest api
 
     @PostMapping("/transfer")
-    public ResponseEntity<String> transferFunds(@RequestBody TransferFundDto transferFundDto) {
-        accountService.transferFunds(transferFundDto);
-        return ResponseEntity.ok("Funds transferred successfully.");
+    public ResponseEntity<String> transferFunds(@RequestBody TransferFundDto transferFundDto,
+                                                @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        transferFundDto.requireComplete();
+        String fingerprint = "transfer:" + transferFundDto.fromAccountId() + ":" + transferFundDto.toAccountId()
+                + ":" + transferFundDto.amount();
+        return idempotencyStore.execute(idempotencyKey, fingerprint, String.class,
+                () -> accountRateLimiter.acquire(transferFundDto.fromAccountId(), "transfer"), () -> {
+            accountService.transferFunds(transferFundDto);
+            return ResponseEntity.ok("Funds transferred successfully.");
+        });
+    }
+
+    // batch transfer rest api, JSON array body
+
+    @PostMapping(value = "/transfers/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<TransferResultDto>> transferFundsBatch(@RequestBody List<TransferFundDto> transfers) {
+        return ResponseEntity.ok(accountService.transferFundsBatch(transfers));
+    }
+
+    // batch transfer rest api, one transfer per NDJSON line; reading stops at the first line past the batch limit
+
+    @PostMapping(value = "/transfers/batch", consumes = APPLICATION_NDJSON)
+    public ResponseEntity<List<TransferResultDto>> transferFundsBatch(InputStream body) throws IOException {
+        List<TransferFundDto> transfers = new ArrayList<>();
+        try (MappingIterator<TransferFundDto> lines = transferReader.readValues(body)) {
+            while (lines.hasNextValue()) {
+                if (transfers.size() == maxBatchSize) {
+                    throw new IllegalArgumentException("At most " + maxBatchSize + " transfers per batch");
+                }
+                transfers.add(lines.nextValue());
+            }
+        }
+        return ResponseEntity.ok(accountService.transferFundsBatch(transfers));
     }
 
 
@@ -86,4 +241,41 @@ public class AccountController {
         List<TransactionDto> transactions = accountService.getAccountTransactions(accountId);
         return ResponseEntity.ok(transactions);
     }
+
+    // get account transactions, one keyset page at a time
+
+    @GetMapping(value = "/{accountId}/transactions", params = "limit")
+    public ResponseEntity<TransactionPageDto> fetchAccountTransactionsPage(@PathVariable Long accountId,
+                                                                          @RequestParam int limit,
+                                                                          @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(accountService.getAccountTransactions(accountId, cursor, limit));
+    }
+
+    // stream account transactions as NDJSON, one row per line
+
+    @GetMapping(value = "/{accountId}/transactions", produces = APPLICATION_NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAccountTransactions(@PathVariable Long accountId) {
+        StreamingResponseBody body = out -> accountService.streamAccountTransactions(accountId, writeLine(transactionWriter, out));
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON)).body(body);
+    }
+
+    // daily statement from the rollup tables, e.g. ?from=2024-03-01&to=2024-03-31
+
+    @GetMapping("/{accountId}/statements")
+    public ResponseEntity<StatementDto> getStatement(@PathVariable Long accountId,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(accountService.getStatement(accountId, from, to));
+    }
+
+    private static <T> Consumer<T> writeLine(ObjectWriter writer, OutputStream out) {
+        return value -> {
+            try {
+                writer.writeValue(out, value);
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
 }
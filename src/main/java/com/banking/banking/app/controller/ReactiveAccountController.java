@@ -0,0 +1,172 @@
+package com.banking.banking.app.controller;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.dto.AccountPageDto;
+import com.banking.banking.app.dto.AccountSliceDto;
+import com.banking.banking.app.dto.StatementDto;
+import com.banking.banking.app.dto.TransactionDto;
+import com.banking.banking.app.dto.TransactionPageDto;
+import com.banking.banking.app.dto.TransferFundDto;
+import com.banking.banking.app.dto.TransferResultDto;
+import com.banking.banking.app.idempotency.IdempotencyStore;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.ratelimit.AccountRateLimiter;
+import com.banking.banking.app.service.AccountService;
+import com.banking.banking.app.service.ReactiveAccountService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * The {@code /api/accounts} surface of {@link AccountController} on WebFlux, enabled with
+ * the {@code reactive} profile.
+ * <p>
+ * Reads never block an event loop thread: they come from {@link ReactiveAccountService}
+ * over R2DBC, and the NDJSON streams are written as rows arrive. Writes keep their JPA
+ * path (balance engine, optimistic retries, ledger, idempotency keys) and run on the
+ * bounded elastic scheduler, which caps how many of them wait on the JDBC pool at once.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/accounts")
+public class ReactiveAccountController {
+
+    private final ReactiveAccountService reactiveAccountService;
+
+    private final AccountService accountService;
+
+    private final IdempotencyStore idempotencyStore;
+
+    private final AccountRateLimiter accountRateLimiter;
+
+    private final int maxBatchSize;
+
+    public ReactiveAccountController(ReactiveAccountService reactiveAccountService, AccountService accountService,
+                                     IdempotencyStore idempotencyStore, AccountRateLimiter accountRateLimiter,
+                                     @Value("${banking.transfers.batch.max-size:10000}") int maxBatchSize) {
+        this.reactiveAccountService = reactiveAccountService;
+        this.accountService = accountService;
+        this.idempotencyStore = idempotencyStore;
+        this.accountRateLimiter = accountRateLimiter;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<AccountDto>> addAccount(@RequestBody AccountDto accountDto) {
+        return blocking(() -> new ResponseEntity<>(accountService.createAccount(accountDto), HttpStatus.CREATED));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<AccountDto>> getAccountById(@PathVariable Long id) {
+        return reactiveAccountService.getAccountById(id).map(ResponseEntity::ok);
+    }
+
+    @PutMapping("/{id}/deposit")
+    public Mono<ResponseEntity<AccountDto>> deposit(@PathVariable Long id, @RequestBody Map<String, Money> request,
+                                                    @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        Money amount = request.get("amount");
+        return blocking(() -> idempotencyStore.execute(idempotencyKey, "deposit:" + id + ":" + amount, AccountDto.class,
+                () -> accountRateLimiter.acquireCredit(id, "deposit"),
+                () -> ResponseEntity.ok(accountService.deposit(id, amount))));
+    }
+
+    @PutMapping("/{id}/withdraw")
+    public Mono<ResponseEntity<AccountDto>> withdraw(@PathVariable Long id, @RequestBody Map<String, Money> request,
+                                                     @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        Money amount = request.get("amount");
+        return blocking(() -> idempotencyStore.execute(idempotencyKey, "withdraw:" + id + ":" + amount, AccountDto.class,
+                () -> accountRateLimiter.acquire(id, "withdraw"),
+                () -> ResponseEntity.ok(accountService.withdraw(id, amount))));
+    }
+
+    @GetMapping
+    public Flux<AccountDto> getAllAccounts() {
+        return reactiveAccountService.getAllAccounts();
+    }
+
+    @GetMapping(params = "size")
+    public Mono<ResponseEntity<AccountPageDto>> getAllAccounts(Pageable pageable) {
+        return reactiveAccountService.getAllAccounts(pageable).map(ResponseEntity::ok);
+    }
+
+    @GetMapping(params = "limit")
+    public Mono<ResponseEntity<AccountSliceDto>> getAllAccounts(@RequestParam int limit,
+                                                                @RequestParam(required = false) String cursor) {
+        return reactiveAccountService.getAllAccounts(cursor, limit).map(ResponseEntity::ok);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<AccountDto> exportAccounts() {
+        return reactiveAccountService.streamAllAccounts();
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<String>> deleteAccount(@PathVariable Long id) {
+        return blocking(() -> {
+            accountService.deleteAccount(id);
+            return ResponseEntity.ok("Account deleted successfully!");
+        });
+    }
+
+    @PostMapping("/transfer")
+    public Mono<ResponseEntity<String>> transferFunds(@RequestBody TransferFundDto transferFundDto,
+                                                      @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        transferFundDto.requireComplete();
+        String fingerprint = "transfer:" + transferFundDto.fromAccountId() + ":" + transferFundDto.toAccountId()
+                + ":" + transferFundDto.amount();
+        return blocking(() -> idempotencyStore.execute(idempotencyKey, fingerprint, String.class,
+                () -> accountRateLimiter.acquire(transferFundDto.fromAccountId(), "transfer"), () -> {
+            accountService.transferFunds(transferFundDto);
+            return ResponseEntity.ok("Funds transferred successfully.");
+        }));
+    }
+
+    @PostMapping(value = "/transfers/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<List<TransferResultDto>>> transferFundsBatch(@RequestBody Flux<TransferFundDto> transfers) {
+        // one item past the limit is enough for the service to reject the batch, the rest is never decoded
+        return transfers.take(maxBatchSize + 1L).collectList()
+                .flatMap(batch -> blocking(() -> ResponseEntity.ok(accountService.transferFundsBatch(batch))));
+    }
+
+    @GetMapping("/{accountId}/transactions")
+    public Flux<TransactionDto> fetchAccountTransactions(@PathVariable Long accountId) {
+        return reactiveAccountService.streamAccountTransactions(accountId);
+    }
+
+    @GetMapping(value = "/{accountId}/transactions", params = "limit")
+    public Mono<ResponseEntity<TransactionPageDto>> fetchAccountTransactionsPage(@PathVariable Long accountId,
+                                                                                @RequestParam int limit,
+                                                                                @RequestParam(required = false) String cursor) {
+        return reactiveAccountService.getAccountTransactions(accountId, cursor, limit).map(ResponseEntity::ok);
+    }
+
+    @GetMapping(value = "/{accountId}/transactions", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TransactionDto> streamAccountTransactions(@PathVariable Long accountId) {
+        return reactiveAccountService.streamAccountTransactions(accountId);
+    }
+
+    // reads a few rollup rows through JPA, like the writes
+    @GetMapping("/{accountId}/statements")
+    public Mono<ResponseEntity<StatementDto>> getStatement(@PathVariable Long accountId,
+                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return blocking(() -> ResponseEntity.ok(accountService.getStatement(accountId, from, to)));
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+}
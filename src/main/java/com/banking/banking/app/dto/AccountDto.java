@@ -1,5 +1,6 @@
 package com.banking.banking.app.dto;
 
+import com.banking.banking.app.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,5 +11,10 @@ import lombok.NoArgsConstructor;
 public class AccountDto {
     private long id;
     private String accountHolderName;
-    private double balance;
+    private Money balance;
+
+    // Used by the JPQL constructor projections, which select the entity's minor units
+    public AccountDto(long id, String accountHolderName, long balance) {
+        this(id, accountHolderName, Money.ofMinor(balance));
+    }
 }
@@ -0,0 +1,6 @@
+package com.banking.banking.app.dto;
+
+import java.util.List;
+
+public record AccountPageDto(List<AccountDto> accounts, int page, int size, long totalElements, int totalPages) {
+}
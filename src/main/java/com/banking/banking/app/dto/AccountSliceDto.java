@@ -0,0 +1,7 @@
+package com.banking.banking.app.dto;
+
+import java.util.List;
+
+// Keyset page of accounts ordered by id; nextCursor is null on the last page
+public record AccountSliceDto(List<AccountDto> accounts, String nextCursor) {
+}
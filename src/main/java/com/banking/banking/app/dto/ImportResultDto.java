@@ -0,0 +1,7 @@
+package com.banking.banking.app.dto;
+
+import java.util.List;
+
+// Outcome of a bulk account import; errors holds the first rejected rows as "line N: reason"
+public record ImportResultDto(long imported, long rejected, List<String> errors, long elapsedMillis) {
+}
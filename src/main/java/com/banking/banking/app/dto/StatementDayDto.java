@@ -0,0 +1,20 @@
+package com.banking.banking.app.dto;
+
+import com.banking.banking.app.money.Money;
+
+// Totals of one account for one day; transfer counts outgoing and transferIn incoming transfers
+public record StatementDayDto(String date,
+                              long depositCount, Money depositAmount,
+                              long withdrawCount, Money withdrawAmount,
+                              long transferCount, Money transferAmount,
+                              long transferInCount, Money transferInAmount) {
+
+    // Totals of both days' rows, for the rollup slots of one day
+    public StatementDayDto plus(StatementDayDto other) {
+        return new StatementDayDto(date,
+                depositCount + other.depositCount, depositAmount.plus(other.depositAmount),
+                withdrawCount + other.withdrawCount, withdrawAmount.plus(other.withdrawAmount),
+                transferCount + other.transferCount, transferAmount.plus(other.transferAmount),
+                transferInCount + other.transferInCount, transferInAmount.plus(other.transferInAmount));
+    }
+}
@@ -0,0 +1,7 @@
+package com.banking.banking.app.dto;
+
+import java.util.List;
+
+// Days from..to inclusive that had activity, oldest first
+public record StatementDto(Long accountId, String from, String to, List<StatementDayDto> days) {
+}
@@ -1,5 +1,7 @@
 package com.banking.banking.app.dto;
 
+import com.banking.banking.app.money.Money;
 
-public record TransactionDto(Long id, Long accountId, String transactionType, double amount, String timestamp) {
+
+public record TransactionDto(Long id, Long accountId, String transactionType, Money amount, String timestamp) {
 }
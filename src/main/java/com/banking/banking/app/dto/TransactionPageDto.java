@@ -0,0 +1,7 @@
+package com.banking.banking.app.dto;
+
+import java.util.List;
+
+// nextCursor is null on the last page
+public record TransactionPageDto(List<TransactionDto> transactions, String nextCursor) {
+}
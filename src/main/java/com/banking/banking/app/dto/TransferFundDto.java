@@ -1,4 +1,20 @@
 package com.banking.banking.app.dto;
 
-public record TransferFundDto(Long fromAccountId, Long toAccountId, double amount) {
+import com.banking.banking.app.money.Money;
+
+public record TransferFundDto(Long fromAccountId, Long toAccountId, Money amount) {
+
+    public static final String INCOMPLETE = "fromAccountId, toAccountId and amount are required";
+
+    // Request bodies are bound without validation, so any field may be missing
+    public boolean isComplete() {
+        return fromAccountId != null && toAccountId != null && amount != null;
+    }
+
+    // Throws for a missing field, answered with 400
+    public void requireComplete() {
+        if (!isComplete()) {
+            throw new IllegalArgumentException(INCOMPLETE);
+        }
+    }
 }
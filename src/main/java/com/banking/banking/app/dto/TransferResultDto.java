@@ -0,0 +1,16 @@
+package com.banking.banking.app.dto;
+
+// Outcome of one item of a batch transfer; index is its position in the request
+public record TransferResultDto(int index, String status, String message) {
+
+    public static final String APPLIED = "APPLIED";
+    public static final String REJECTED = "REJECTED";
+
+    public static TransferResultDto applied(int index) {
+        return new TransferResultDto(index, APPLIED, null);
+    }
+
+    public static TransferResultDto rejected(int index, String message) {
+        return new TransferResultDto(index, REJECTED, message);
+    }
+}
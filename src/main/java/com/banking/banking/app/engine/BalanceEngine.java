@@ -0,0 +1,32 @@
+package com.banking.banking.app.engine;
+
+import com.banking.banking.app.entity.Account;
+
+/**
+ * Applies balance mutations for {@link com.banking.banking.app.service.impl.AccountServiceImpl}.
+ * Amounts are in minor units (cents). Implementations throw
+ * {@link com.banking.banking.app.exception.AccountException} for unknown accounts
+ * and insufficient funds, and return a detached snapshot of the updated account.
+ */
+public interface BalanceEngine {
+
+    // Current state of an account as the engine sees it
+    Account get(long accountId);
+
+    Account deposit(long accountId, long amount);
+
+    Account withdraw(long accountId, long amount);
+
+    void transfer(long fromAccountId, long toAccountId, long amount);
+
+    // Drop any state held for an account, e.g. after it has been deleted
+    void evict(long accountId);
+
+    // True when the engine journals each mutation itself, so the caller must not log it again
+    boolean writesLedger();
+
+    // True when the engine journals an account's OPENING event itself on first use
+    default boolean opensAccounts() {
+        return false;
+    }
+}
@@ -0,0 +1,348 @@
+package com.banking.banking.app.engine;
+
+import com.banking.banking.app.entity.Account;
+import com.banking.banking.app.entity.BalanceSnapshot;
+import com.banking.banking.app.entity.Transaction;
+import com.banking.banking.app.exception.AccountException;
+import com.banking.banking.app.ledger.LedgerEvents;
+import com.banking.banking.app.ledger.LedgerRebuilder;
+import com.banking.banking.app.metrics.BankingMetrics;
+import com.banking.banking.app.money.MinorUnitsConverter;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.repository.AccountRepository;
+import com.banking.banking.app.repository.BalanceSnapshotRepository;
+import com.banking.banking.app.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Event-sourced balance engine enabled with {@code banking.engine.mode=event-sourced}.
+ * <p>
+ * The {@code transactions} journal is the source of truth: a mutation appends its events
+ * (see {@link LedgerEvents}) in one database transaction and then applies them to the
+ * in-memory projection; account rows are never updated on the write path. Every
+ * {@code banking.ledger.snapshot-interval-ms} the changed balances are checkpointed into
+ * {@code balance_snapshots} and materialized into {@code accounts.balance}, so listings
+ * lag by at most one interval while single-account reads go through {@link #get(long)}.
+ * <p>
+ * On startup the projection is loaded from the snapshots plus the events journaled after
+ * them. An account without a snapshot is opened on first use: an OPENING event with its
+ * current balance is journaled together with its first snapshot. Like the striped engine,
+ * this assumes it is the only writer.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.engine.mode", havingValue = "event-sourced")
+public class EventSourcedBalanceEngine implements BalanceEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(EventSourcedBalanceEngine.class);
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String SNAPSHOTS_SQL =
+            "select s.account_id, a.account_holder_name, s.balance, s.last_event_id " +
+            "from balance_snapshots s join accounts a on a.id = s.account_id";
+
+    private static final String TAIL_SQL =
+            "select t.account_id, t.id, t.transaction_type, t.amount from transactions t " +
+            "join balance_snapshots s on s.account_id = t.account_id " +
+            "where t.id > s.last_event_id order by t.account_id, t.id";
+
+    private static final String ACCOUNT_TAIL_SQL =
+            "select id, transaction_type, amount from transactions where account_id = ? and id > ? order by id";
+
+    private static final String UPDATE_SNAPSHOT_SQL =
+            "update balance_snapshots set balance = ?, last_event_id = ? where account_id = ?";
+
+    private static final String UPDATE_ACCOUNT_SQL = "update accounts set balance = ?, version = version + 1 where id = ?";
+
+    // Guarded by the stripe lock of its id
+    private static final class Cell {
+        final long id;
+        final String accountHolderName;
+        long balance;
+        long lastEventId;
+        boolean dirty;
+
+        Cell(long id, String accountHolderName, long balance, long lastEventId) {
+            this.id = id;
+            this.accountHolderName = accountHolderName;
+            this.balance = balance;
+            this.lastEventId = lastEventId;
+        }
+
+        void apply(Transaction event) {
+            apply(event.getId(), event.getTransactionType(), event.getAmount());
+        }
+
+        void apply(long eventId, String type, long amount) {
+            balance = LedgerEvents.apply(balance, type, amount);
+            lastEventId = eventId;
+            dirty = true;
+        }
+
+        Account snapshot() {
+            return new Account(id, accountHolderName, balance);
+        }
+    }
+
+    private final ConcurrentHashMap<Long, Cell> cells = new ConcurrentHashMap<>();
+
+    private final StripedLockTable locks;
+
+    private final AccountRepository accountRepository;
+
+    private final TransactionRepository transactionRepository;
+
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+
+    private final LedgerRebuilder ledgerRebuilder;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BankingMetrics bankingMetrics;
+
+    private final boolean rebuildOnStartup;
+
+    public EventSourcedBalanceEngine(AccountRepository accountRepository,
+                                     TransactionRepository transactionRepository,
+                                     BalanceSnapshotRepository balanceSnapshotRepository,
+                                     LedgerRebuilder ledgerRebuilder,
+                                     DataSource dataSource,
+                                     PlatformTransactionManager transactionManager,
+                                     BankingMetrics bankingMetrics,
+                                     @Value("${banking.engine.stripes:1024}") int stripes,
+                                     @Value("${banking.ledger.rebuild-on-startup:false}") boolean rebuildOnStartup) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.balanceSnapshotRepository = balanceSnapshotRepository;
+        this.ledgerRebuilder = ledgerRebuilder;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bankingMetrics = bankingMetrics;
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.locks = new StripedLockTable(stripes);
+    }
+
+    /**
+     * Loads the projection from the latest snapshots and replays the events after them.
+     * Runs before the engine takes writes.
+     */
+    @PostConstruct
+    public void recover() {
+        long began = System.nanoTime();
+        if (rebuildOnStartup) {
+            ledgerRebuilder.rebuild();
+        }
+
+        cells.clear();
+        jdbcTemplate.query(SNAPSHOTS_SQL, rs -> {
+            long id = rs.getLong(1);
+            cells.put(id, new Cell(id, rs.getString(2),
+                    MinorUnitsConverter.toMinorUnits(rs.getBigDecimal(3)), rs.getLong(4)));
+        });
+
+        long[] replayed = new long[1];
+        jdbcTemplate.query(TAIL_SQL, rs -> {
+            Cell cell = cells.get(rs.getLong(1));
+            if (cell != null) {
+                cell.apply(rs.getLong(2), rs.getString(3), MinorUnitsConverter.toMinorUnits(rs.getBigDecimal(4)));
+                replayed[0]++;
+            }
+        });
+
+        log.info("Recovered {} account balances, replayed {} events after their snapshots in {} ms",
+                cells.size(), replayed[0], (System.nanoTime() - began) / 1_000_000);
+    }
+
+    @Override
+    public Account get(long accountId) {
+        locks.lock(accountId);
+        try {
+            return load(accountId).snapshot();
+        } finally {
+            locks.unlock(accountId);
+        }
+    }
+
+    @Override
+    public Account deposit(long accountId, long amount) {
+        locks.lock(accountId);
+        try {
+            Cell cell = load(accountId);
+            Money.add(cell.balance, amount); // fail on overflow before journaling
+            cell.apply(append(accountId, LedgerEvents.DEPOSIT, amount));
+            return cell.snapshot();
+        } finally {
+            locks.unlock(accountId);
+        }
+    }
+
+    @Override
+    public Account withdraw(long accountId, long amount) {
+        locks.lock(accountId);
+        try {
+            Cell cell = load(accountId);
+            if (cell.balance < amount) {
+                bankingMetrics.insufficientFunds("withdraw");
+                throw AccountException.insufficientFunds();
+            }
+            cell.apply(append(accountId, LedgerEvents.WITHDRAW, amount));
+            return cell.snapshot();
+        } finally {
+            locks.unlock(accountId);
+        }
+    }
+
+    @Override
+    public void transfer(long fromAccountId, long toAccountId, long amount) {
+        locks.lockBoth(fromAccountId, toAccountId);
+        try {
+            Cell from = load(fromAccountId);
+            Cell to = load(toAccountId);
+            if (from == to) {
+                return;
+            }
+            if (from.balance < amount) {
+                bankingMetrics.insufficientFunds("transfer");
+                throw AccountException.insufficientFunds();
+            }
+            Money.add(to.balance, amount); // fail on overflow before journaling
+
+            LocalDateTime now = LocalDateTime.now();
+            Transaction debit = new Transaction(null, fromAccountId, LedgerEvents.TRANSFER, amount, now);
+            Transaction credit = new Transaction(null, toAccountId, LedgerEvents.TRANSFER_IN, amount, now);
+            transactionTemplate.executeWithoutResult(status -> transactionRepository.saveAll(List.of(debit, credit)));
+            from.apply(debit);
+            to.apply(credit);
+        } finally {
+            locks.unlockBoth(fromAccountId, toAccountId);
+        }
+    }
+
+    @Override
+    public void evict(long accountId) {
+        locks.lock(accountId);
+        try {
+            cells.remove(accountId);
+            balanceSnapshotRepository.deleteById(accountId);
+        } finally {
+            locks.unlock(accountId);
+        }
+    }
+
+    @Override
+    public boolean writesLedger() {
+        return true;
+    }
+
+    @Override
+    public boolean opensAccounts() {
+        return true;
+    }
+
+    /**
+     * Writes a snapshot of every balance that changed since the last checkpoint and
+     * materializes it into {@code accounts.balance}. Balances that fail to write are
+     * retried on the next run.
+     */
+    @Scheduled(fixedDelayString = "${banking.ledger.snapshot-interval-ms:5000}")
+    @PreDestroy
+    public void checkpoint() {
+        List<Long> ids = new ArrayList<>();
+        List<Object[]> snapshots = new ArrayList<>();
+        List<Object[]> balances = new ArrayList<>();
+        for (Cell cell : cells.values()) {
+            locks.lock(cell.id);
+            try {
+                if (!cell.dirty) {
+                    continue;
+                }
+                cell.dirty = false;
+                ids.add(cell.id);
+                snapshots.add(new Object[]{MinorUnitsConverter.toDecimal(cell.balance), cell.lastEventId, cell.id});
+                balances.add(new Object[]{MinorUnitsConverter.toDecimal(cell.balance), cell.id});
+            } finally {
+                locks.unlock(cell.id);
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(UPDATE_SNAPSHOT_SQL, snapshots);
+                jdbcTemplate.batchUpdate(UPDATE_ACCOUNT_SQL, balances);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Balance checkpoint of {} accounts failed, retrying on the next run", ids.size(), e);
+            for (Long id : ids) {
+                locks.lock(id);
+                try {
+                    Cell cell = cells.get(id);
+                    if (cell != null) {
+                        cell.dirty = true;
+                    }
+                } finally {
+                    locks.unlock(id);
+                }
+            }
+        }
+    }
+
+    // Caller holds the stripe lock, so at most one thread loads or opens a given account
+    private Cell load(long accountId) {
+        Cell cell = cells.get(accountId);
+        if (cell == null) {
+            Account account = accountRepository.findById(accountId)
+                    .orElseThrow(AccountException::notFound);
+            cell = balanceSnapshotRepository.findById(accountId)
+                    .map(snapshot -> replay(account, snapshot))
+                    .orElseGet(() -> open(account));
+            cells.put(accountId, cell);
+        }
+        return cell;
+    }
+
+    private Cell replay(Account account, BalanceSnapshot snapshot) {
+        Cell cell = new Cell(account.getId(), account.getAccountHolderName(), snapshot.getBalance(), snapshot.getLastEventId());
+        jdbcTemplate.query(ACCOUNT_TAIL_SQL, rs -> {
+            cell.apply(rs.getLong(1), rs.getString(2), MinorUnitsConverter.toMinorUnits(rs.getBigDecimal(3)));
+        }, account.getId(), snapshot.getLastEventId());
+        return cell;
+    }
+
+    // Starts the account's journal from its current balance
+    private Cell open(Account account) {
+        Transaction opening = transactionTemplate.execute(status -> {
+            Transaction event = transactionRepository.save(new Transaction(null, account.getId(),
+                    LedgerEvents.OPENING, account.getBalance(), LocalDateTime.now()));
+            balanceSnapshotRepository.save(new BalanceSnapshot(account.getId(), account.getBalance(), event.getId()));
+            return event;
+        });
+        return new Cell(account.getId(), account.getAccountHolderName(), account.getBalance(), opening.getId());
+    }
+
+    private Transaction append(long accountId, String type, long amount) {
+        return transactionTemplate.execute(status ->
+                transactionRepository.save(new Transaction(null, accountId, type, amount, LocalDateTime.now())));
+    }
+}
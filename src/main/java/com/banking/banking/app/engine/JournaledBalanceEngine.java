@@ -0,0 +1,330 @@
+package com.banking.banking.app.engine;
+
+import com.banking.banking.app.entity.Account;
+import com.banking.banking.app.entity.JournalCheckpoint;
+import com.banking.banking.app.entity.Transaction;
+import com.banking.banking.app.exception.AccountException;
+import com.banking.banking.app.journal.JournalRecord;
+import com.banking.banking.app.journal.MappedJournal;
+import com.banking.banking.app.ledger.LedgerEvents;
+import com.banking.banking.app.metrics.BankingMetrics;
+import com.banking.banking.app.money.MinorUnitsConverter;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.repository.AccountRepository;
+import com.banking.banking.app.repository.JournalCheckpointRepository;
+import com.banking.banking.app.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Balance engine enabled with {@code banking.engine.mode=journaled}.
+ * <p>
+ * A mutation is validated against the in-memory balance, appended to the local
+ * {@link MappedJournal} and acknowledged once the journal's fsync policy says the record
+ * is durable; no database round trip is on the request path. A replicator thread then
+ * copies durable records into {@code transactions} and {@code accounts}, in batches,
+ * together with the checkpoint in {@code journal_checkpoints}. On startup every record
+ * after the checkpoint is replicated before the engine takes writes, so the tables are
+ * a complete starting point for the in-memory balances.
+ * <p>
+ * Like the striped engine, this assumes it is the only writer of {@code accounts.balance},
+ * and the journal directory must be on local disk.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.engine.mode", havingValue = "journaled")
+public class JournaledBalanceEngine implements BalanceEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(JournaledBalanceEngine.class);
+
+    private static final String CHECKPOINT = "journal";
+
+    private static final String UPDATE_ACCOUNT_SQL = "update accounts set balance = ?, version = version + 1 where id = ?";
+
+    // Guarded by the stripe lock of its id
+    private static final class Cell {
+        final long id;
+        final String accountHolderName;
+        long balance;
+
+        Cell(long id, String accountHolderName, long balance) {
+            this.id = id;
+            this.accountHolderName = accountHolderName;
+            this.balance = balance;
+        }
+
+        Account snapshot() {
+            return new Account(id, accountHolderName, balance);
+        }
+    }
+
+    private final ConcurrentHashMap<Long, Cell> cells = new ConcurrentHashMap<>();
+
+    private final StripedLockTable locks;
+
+    private final AccountRepository accountRepository;
+
+    private final TransactionRepository transactionRepository;
+
+    private final JournalCheckpointRepository journalCheckpointRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BankingMetrics bankingMetrics;
+
+    private final Path directory;
+
+    private final MappedJournal.FsyncPolicy fsyncPolicy;
+
+    private final int segmentSize;
+
+    private final long fsyncIntervalMs;
+
+    private final int replicationBatchSize;
+
+    private MappedJournal journal;
+
+    // Written only by the replicating thread
+    private volatile long replicatedSequence;
+
+    private volatile boolean running;
+
+    private Thread replicator;
+
+    public JournaledBalanceEngine(AccountRepository accountRepository,
+                                  TransactionRepository transactionRepository,
+                                  JournalCheckpointRepository journalCheckpointRepository,
+                                  DataSource dataSource,
+                                  PlatformTransactionManager transactionManager,
+                                  BankingMetrics bankingMetrics,
+                                  @Value("${banking.engine.stripes:1024}") int stripes,
+                                  @Value("${banking.journal.dir:journal}") Path directory,
+                                  @Value("${banking.journal.fsync:every-write}") MappedJournal.FsyncPolicy fsyncPolicy,
+                                  @Value("${banking.journal.fsync-interval-ms:10}") long fsyncIntervalMs,
+                                  @Value("${banking.journal.segment-size:67108864}") int segmentSize,
+                                  @Value("${banking.journal.replication-batch-size:1000}") int replicationBatchSize) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.journalCheckpointRepository = journalCheckpointRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bankingMetrics = bankingMetrics;
+        this.locks = new StripedLockTable(stripes);
+        this.directory = directory;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalMs = fsyncIntervalMs;
+        this.segmentSize = segmentSize;
+        this.replicationBatchSize = replicationBatchSize;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        journal = new MappedJournal(directory, segmentSize, fsyncPolicy, fsyncIntervalMs);
+        replicatedSequence = journalCheckpointRepository.findById(CHECKPOINT)
+                .orElseGet(() -> journalCheckpointRepository.save(new JournalCheckpoint(CHECKPOINT, 0)))
+                .getReplicatedSequence();
+        if (journal.lastSequence() < replicatedSequence) {
+            log.warn("Journal ends at {} but {} records were replicated; continuing after the checkpoint",
+                    journal.lastSequence(), replicatedSequence);
+            journal.skipTo(replicatedSequence);
+        }
+
+        long recovered = 0;
+        for (int replicated; (replicated = replicateBatch()) > 0; ) {
+            recovered += replicated;
+        }
+        log.info("Replicated {} journal records left from the previous run", recovered);
+
+        bankingMetrics.journalReplicationLag(this, JournaledBalanceEngine::getReplicationLag);
+        running = true;
+        replicator = new Thread(this::replicateLoop, "journal-replicator");
+        replicator.setDaemon(true);
+        replicator.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (replicator != null) {
+            replicator.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    public long getReplicationLag() {
+        return journal.durableSequence() - replicatedSequence;
+    }
+
+    @Override
+    public Account get(long accountId) {
+        locks.lock(accountId);
+        try {
+            return load(accountId).snapshot();
+        } finally {
+            locks.unlock(accountId);
+        }
+    }
+
+    @Override
+    public Account deposit(long accountId, long amount) {
+        locks.lock(accountId);
+        try {
+            Cell cell = load(accountId);
+            long total = Money.add(cell.balance, amount);
+            journal.append(JournalRecord.Type.DEPOSIT, accountId, 0, amount, total, 0);
+            cell.balance = total;
+            return cell.snapshot();
+        } finally {
+            locks.unlock(accountId);
+        }
+    }
+
+    @Override
+    public Account withdraw(long accountId, long amount) {
+        locks.lock(accountId);
+        try {
+            Cell cell = load(accountId);
+            if (cell.balance < amount) {
+                bankingMetrics.insufficientFunds("withdraw");
+                throw AccountException.insufficientFunds();
+            }
+            long total = Money.subtract(cell.balance, amount);
+            journal.append(JournalRecord.Type.WITHDRAW, accountId, 0, amount, total, 0);
+            cell.balance = total;
+            return cell.snapshot();
+        } finally {
+            locks.unlock(accountId);
+        }
+    }
+
+    @Override
+    public void transfer(long fromAccountId, long toAccountId, long amount) {
+        locks.lockBoth(fromAccountId, toAccountId);
+        try {
+            Cell from = load(fromAccountId);
+            Cell to = load(toAccountId);
+            if (from == to) {
+                return;
+            }
+            if (from.balance < amount) {
+                bankingMetrics.insufficientFunds("transfer");
+                throw AccountException.insufficientFunds();
+            }
+            long fromTotal = Money.subtract(from.balance, amount);
+            long toTotal = Money.add(to.balance, amount);
+            journal.append(JournalRecord.Type.TRANSFER, fromAccountId, toAccountId, amount, fromTotal, toTotal);
+            from.balance = fromTotal;
+            to.balance = toTotal;
+        } finally {
+            locks.unlockBoth(fromAccountId, toAccountId);
+        }
+    }
+
+    @Override
+    public void evict(long accountId) {
+        locks.lock(accountId);
+        try {
+            cells.remove(accountId);
+        } finally {
+            locks.unlock(accountId);
+        }
+    }
+
+    @Override
+    public boolean writesLedger() {
+        return true;
+    }
+
+    /**
+     * Copies the next batch of durable records into the database and returns how many
+     * were copied. Called by the replicator thread, and on startup before it exists.
+     */
+    int replicateBatch() {
+        List<JournalRecord> records = new ArrayList<>(Math.min(replicationBatchSize, 1024));
+        journal.readAfter(replicatedSequence, replicationBatchSize, records::add);
+        if (records.isEmpty()) {
+            return 0;
+        }
+
+        List<Transaction> ledger = new ArrayList<>(records.size() * 2);
+        Map<Long, Long> balances = new LinkedHashMap<>();
+        for (JournalRecord record : records) {
+            LocalDateTime timestamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(record.timestampMillis()), ZoneId.systemDefault());
+            ledger.add(new Transaction(null, record.accountId(), record.type().name(), record.amount(), timestamp));
+            balances.put(record.accountId(), record.balance());
+            if (record.type() == JournalRecord.Type.TRANSFER) {
+                ledger.add(new Transaction(null, record.counterpartyId(), LedgerEvents.TRANSFER_IN, record.amount(), timestamp));
+                balances.put(record.counterpartyId(), record.counterpartyBalance());
+            }
+        }
+        List<Object[]> updates = new ArrayList<>(balances.size());
+        balances.forEach((id, balance) -> updates.add(new Object[]{MinorUnitsConverter.toDecimal(balance), id}));
+
+        long last = records.get(records.size() - 1).sequence();
+        transactionTemplate.executeWithoutResult(status -> {
+            transactionRepository.saveAll(ledger);
+            jdbcTemplate.batchUpdate(UPDATE_ACCOUNT_SQL, updates);
+            journalCheckpointRepository.updateReplicatedSequence(CHECKPOINT, last);
+        });
+        replicatedSequence = last;
+        journal.truncateBefore(last);
+        return records.size();
+    }
+
+    private void replicateLoop() {
+        long backoffNanos = TimeUnit.MILLISECONDS.toNanos(1);
+        while (running || getReplicationLag() > 0) {
+            try {
+                if (replicateBatch() == 0) {
+                    if (!running) {
+                        return;
+                    }
+                    LockSupport.parkNanos(backoffNanos);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Journal replication failed at sequence {}, retrying", replicatedSequence, e);
+                LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+                if (!running) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Caller holds the stripe lock, so at most one thread loads a given account
+    private Cell load(long accountId) {
+        Cell cell = cells.get(accountId);
+        if (cell == null) {
+            Account account = accountRepository.findById(accountId)
+                    .orElseThrow(AccountException::notFound);
+            cell = new Cell(accountId, account.getAccountHolderName(), account.getBalance());
+            cells.put(accountId, cell);
+        }
+        return cell;
+    }
+}
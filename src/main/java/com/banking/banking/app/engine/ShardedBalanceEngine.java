@@ -0,0 +1,300 @@
+package com.banking.banking.app.engine;
+
+import com.banking.banking.app.entity.Account;
+import com.banking.banking.app.exception.AccountException;
+import com.banking.banking.app.metrics.BankingMetrics;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.repository.AccountRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Balance engine enabled with {@code banking.engine.mode=sharded}.
+ * <p>
+ * Account ids are hashed to {@code banking.engine.shards} shards. Each shard has one
+ * writer thread that owns its accounts' balances and drains a lock-free queue of
+ * commands, so there are no locks on the hot path and a busy account only ever
+ * occupies its own shard. Balances are written through to the database before
+ * the shard publishes them, as in the striped engine.
+ * <p>
+ * A transfer inside one shard is a single command and a single transaction. A
+ * cross-shard transfer debits the source shard, then credits the target shard;
+ * if the credit fails the debit is compensated by crediting the source back. The
+ * money is in neither account between the two steps, and a failed compensation
+ * is logged with the amount to reconcile. The engine assumes it is the only
+ * writer of {@code accounts.balance}.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.engine.mode", havingValue = "sharded")
+public class ShardedBalanceEngine implements BalanceEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedBalanceEngine.class);
+
+    // Owned by the writer thread of its shard
+    private static final class Cell {
+        final long id;
+        final String accountHolderName;
+        long balance;
+
+        Cell(long id, String accountHolderName, long balance) {
+            this.id = id;
+            this.accountHolderName = accountHolderName;
+            this.balance = balance;
+        }
+
+        Account snapshot() {
+            return new Account(id, accountHolderName, balance);
+        }
+    }
+
+    private record Command(Function<Shard, Account> action, CompletableFuture<Account> result) {
+    }
+
+    private final Shard[] shards;
+
+    private final int mask;
+
+    private final AccountRepository accountRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BankingMetrics bankingMetrics;
+
+    public ShardedBalanceEngine(AccountRepository accountRepository,
+                                PlatformTransactionManager transactionManager,
+                                BankingMetrics bankingMetrics,
+                                @Value("${banking.engine.shards:0}") int shards) {
+        this.accountRepository = accountRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bankingMetrics = bankingMetrics;
+        int requested = shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+        int size = Integer.highestOneBit(Math.max(1, requested - 1)) << 1;
+        this.shards = new Shard[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            this.shards[i] = new Shard(i);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        for (Shard shard : shards) {
+            shard.start();
+        }
+    }
+
+    // Stops accepting commands and runs whatever is still queued
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (Shard shard : shards) {
+            shard.running = false;
+            LockSupport.unpark(shard.writer);
+        }
+        for (Shard shard : shards) {
+            shard.writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    @Override
+    public Account get(long accountId) {
+        return shardOf(accountId).call(shard -> shard.load(accountId).snapshot());
+    }
+
+    @Override
+    public Account deposit(long accountId, long amount) {
+        return shardOf(accountId).call(shard -> shard.credit(accountId, amount));
+    }
+
+    @Override
+    public Account withdraw(long accountId, long amount) {
+        return shardOf(accountId).call(shard -> shard.debit(accountId, amount, "withdraw"));
+    }
+
+    @Override
+    public void transfer(long fromAccountId, long toAccountId, long amount) {
+        Shard source = shardOf(fromAccountId);
+        Shard target = shardOf(toAccountId);
+        if (source == target) {
+            source.call(shard -> shard.transfer(fromAccountId, toAccountId, amount));
+            return;
+        }
+
+        source.call(shard -> shard.debit(fromAccountId, amount, "transfer"));
+        try {
+            target.call(shard -> shard.credit(toAccountId, amount));
+        } catch (RuntimeException e) {
+            try {
+                source.call(shard -> shard.credit(fromAccountId, amount));
+            } catch (RuntimeException compensation) {
+                log.error("Transfer of {} minor units from {} to {} was debited but neither credited nor refunded",
+                        amount, fromAccountId, toAccountId, compensation);
+                e.addSuppressed(compensation);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void evict(long accountId) {
+        shardOf(accountId).call(shard -> {
+            shard.cells.remove(accountId);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean writesLedger() {
+        return false;
+    }
+
+    int shardIndexOf(long accountId) {
+        long h = accountId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private Shard shardOf(long accountId) {
+        return shards[shardIndexOf(accountId)];
+    }
+
+    private final class Shard {
+
+        // Multi-producer, single consumer: request threads offer, the writer polls
+        private final ConcurrentLinkedQueue<Command> queue = new ConcurrentLinkedQueue<>();
+
+        private final Map<Long, Cell> cells = new HashMap<>();
+
+        private final Thread writer;
+
+        private volatile boolean running;
+
+        Shard(int index) {
+            this.writer = new Thread(this::drainLoop, "balance-shard-" + index);
+            this.writer.setDaemon(true);
+        }
+
+        void start() {
+            running = true;
+            writer.start();
+        }
+
+        Account call(Function<Shard, Account> action) {
+            if (!running) {
+                throw new IllegalStateException("Balance shard is stopped");
+            }
+            Command command = new Command(action, new CompletableFuture<>());
+            queue.offer(command);
+            // stop() may have come in between: take the command back unless the writer already has it
+            if (!running && queue.remove(command)) {
+                throw new IllegalStateException("Balance shard is stopped");
+            }
+            LockSupport.unpark(writer);
+            try {
+                return command.result().join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        private void drainLoop() {
+            try {
+                while (running || !queue.isEmpty()) {
+                    Command command = queue.poll();
+                    if (command == null) {
+                        LockSupport.park(this);
+                        continue;
+                    }
+                    // an Error fails only its own command, the shard keeps serving the others
+                    try {
+                        command.result().complete(command.action().apply(this));
+                    } catch (Throwable e) {
+                        command.result().completeExceptionally(e);
+                    }
+                }
+            } finally {
+                // nobody is left to run these, so their callers must not wait for them
+                for (Command command = queue.poll(); command != null; command = queue.poll()) {
+                    command.result().completeExceptionally(new IllegalStateException("Balance shard is stopped"));
+                }
+            }
+        }
+
+        Account credit(long accountId, long amount) {
+            Cell cell = load(accountId);
+            long total = Money.add(cell.balance, amount);
+            transactionTemplate.executeWithoutResult(status -> accountRepository.updateBalance(cell.id, total));
+            cell.balance = total;
+            return cell.snapshot();
+        }
+
+        Account debit(long accountId, long amount, String operation) {
+            Cell cell = load(accountId);
+            if (cell.balance < amount) {
+                bankingMetrics.insufficientFunds(operation);
+                throw AccountException.insufficientFunds();
+            }
+            long total = Money.subtract(cell.balance, amount);
+            transactionTemplate.executeWithoutResult(status -> accountRepository.updateBalance(cell.id, total));
+            cell.balance = total;
+            return cell.snapshot();
+        }
+
+        // Both accounts belong to this shard
+        Account transfer(long fromAccountId, long toAccountId, long amount) {
+            Cell from = load(fromAccountId);
+            Cell to = load(toAccountId);
+            if (from == to) {
+                return null;
+            }
+            if (from.balance < amount) {
+                bankingMetrics.insufficientFunds("transfer");
+                throw AccountException.insufficientFunds();
+            }
+            long fromTotal = Money.subtract(from.balance, amount);
+            long toTotal = Money.add(to.balance, amount);
+            transactionTemplate.executeWithoutResult(status -> {
+                accountRepository.updateBalance(from.id, fromTotal);
+                accountRepository.updateBalance(to.id, toTotal);
+            });
+            from.balance = fromTotal;
+            to.balance = toTotal;
+            return null;
+        }
+
+        Cell load(long accountId) {
+            Cell cell = cells.get(accountId);
+            if (cell == null) {
+                Account account = accountRepository.findById(accountId)
+                        .orElseThrow(AccountException::notFound);
+                cell = new Cell(accountId, account.getAccountHolderName(), account.getBalance());
+                cells.put(accountId, cell);
+            }
+            return cell;
+        }
+    }
+}
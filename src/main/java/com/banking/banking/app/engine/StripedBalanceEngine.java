@@ -0,0 +1,163 @@
+package com.banking.banking.app.engine;
+
+import com.banking.banking.app.entity.Account;
+import com.banking.banking.app.exception.AccountException;
+import com.banking.banking.app.metrics.BankingMetrics;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.repository.AccountRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory balance engine enabled with {@code banking.engine.mode=striped}.
+ * <p>
+ * Balances are kept as long minor units per account, like the entity itself. Writes to the same account are
+ * serialized on a striped lock, the new balance is written through to the database
+ * and only then published in memory, so a failed write never leaves the cache ahead
+ * of the table. The engine assumes it is the only writer of {@code accounts.balance}.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.engine.mode", havingValue = "striped")
+public class StripedBalanceEngine implements BalanceEngine {
+
+    // Guarded by the stripe lock of its id
+    private static final class Cell {
+        final long id;
+        final String accountHolderName;
+        long balance;
+
+        Cell(long id, String accountHolderName, long balance) {
+            this.id = id;
+            this.accountHolderName = accountHolderName;
+            this.balance = balance;
+        }
+
+        Account snapshot() {
+            return new Account(id, accountHolderName, balance);
+        }
+    }
+
+    private final ConcurrentHashMap<Long, Cell> cells = new ConcurrentHashMap<>();
+
+    private final StripedLockTable locks;
+
+    private final AccountRepository accountRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BankingMetrics bankingMetrics;
+
+    public StripedBalanceEngine(AccountRepository accountRepository,
+                                PlatformTransactionManager transactionManager,
+                                BankingMetrics bankingMetrics,
+                                @Value("${banking.engine.stripes:1024}") int stripes) {
+        this.accountRepository = accountRepository;
+        this.bankingMetrics = bankingMetrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.locks = new StripedLockTable(stripes);
+    }
+
+    @Override
+    public Account get(long accountId) {
+        locks.lock(accountId);
+        try {
+            return load(accountId).snapshot();
+        } finally {
+            locks.unlock(accountId);
+        }
+    }
+
+    @Override
+    public Account deposit(long accountId, long amount) {
+        locks.lock(accountId);
+        try {
+            Cell cell = load(accountId);
+            long total = Money.add(cell.balance, amount);
+            transactionTemplate.executeWithoutResult(status -> write(cell.id, total));
+            cell.balance = total;
+            return cell.snapshot();
+        } finally {
+            locks.unlock(accountId);
+        }
+    }
+
+    @Override
+    public Account withdraw(long accountId, long amount) {
+        locks.lock(accountId);
+        try {
+            Cell cell = load(accountId);
+            if (cell.balance < amount) {
+                bankingMetrics.insufficientFunds("withdraw");
+                throw AccountException.insufficientFunds();
+            }
+            long total = Money.subtract(cell.balance, amount);
+            transactionTemplate.executeWithoutResult(status -> write(cell.id, total));
+            cell.balance = total;
+            return cell.snapshot();
+        } finally {
+            locks.unlock(accountId);
+        }
+    }
+
+    @Override
+    public void transfer(long fromAccountId, long toAccountId, long amount) {
+        locks.lockBoth(fromAccountId, toAccountId);
+        try {
+            Cell from = load(fromAccountId);
+            Cell to = load(toAccountId);
+            if (from == to) {
+                return;
+            }
+            if (from.balance < amount) {
+                bankingMetrics.insufficientFunds("transfer");
+                throw AccountException.insufficientFunds();
+            }
+            long fromTotal = Money.subtract(from.balance, amount);
+            long toTotal = Money.add(to.balance, amount);
+            transactionTemplate.executeWithoutResult(status -> {
+                write(from.id, fromTotal);
+                write(to.id, toTotal);
+            });
+            from.balance = fromTotal;
+            to.balance = toTotal;
+        } finally {
+            locks.unlockBoth(fromAccountId, toAccountId);
+        }
+    }
+
+    @Override
+    public void evict(long accountId) {
+        locks.lock(accountId);
+        try {
+            cells.remove(accountId);
+        } finally {
+            locks.unlock(accountId);
+        }
+    }
+
+    @Override
+    public boolean writesLedger() {
+        return false;
+    }
+
+    // Caller holds the stripe lock, so at most one thread loads a given account
+    private Cell load(long accountId) {
+        Cell cell = cells.get(accountId);
+        if (cell == null) {
+            Account account = accountRepository.findById(accountId)
+                    .orElseThrow(AccountException::notFound);
+            cell = new Cell(accountId, account.getAccountHolderName(), account.getBalance());
+            cells.put(accountId, cell);
+        }
+        return cell;
+    }
+
+    private void write(long accountId, long balance) {
+        accountRepository.updateBalance(accountId, balance);
+    }
+}
@@ -0,0 +1,61 @@
+package com.banking.banking.app.engine;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed table of locks indexed by account id. Two accounts are always locked in
+ * stripe order, so concurrent transfers A->B and B->A cannot deadlock.
+ */
+public class StripedLockTable {
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    public StripedLockTable(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.locks = new ReentrantLock[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public int stripeOf(long accountId) {
+        long h = accountId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    public void lock(long accountId) {
+        locks[stripeOf(accountId)].lock();
+    }
+
+    public void unlock(long accountId) {
+        locks[stripeOf(accountId)].unlock();
+    }
+
+    public void lockBoth(long first, long second) {
+        int a = stripeOf(first);
+        int b = stripeOf(second);
+        if (a == b) {
+            locks[a].lock();
+        } else {
+            locks[Math.min(a, b)].lock();
+            locks[Math.max(a, b)].lock();
+        }
+    }
+
+    public void unlockBoth(long first, long second) {
+        int a = stripeOf(first);
+        int b = stripeOf(second);
+        if (a == b) {
+            locks[a].unlock();
+        } else {
+            locks[Math.max(a, b)].unlock();
+            locks[Math.min(a, b)].unlock();
+        }
+    }
+
+    public int size() {
+        return locks.length;
+    }
+}
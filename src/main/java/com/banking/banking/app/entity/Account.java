@@ -1,5 +1,6 @@
 package com.banking.banking.app.entity;
 
+import com.banking.banking.app.money.MinorUnitsConverter;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -20,8 +21,21 @@ public class Account {
 
     @Column(name=  "account_holder_name")
     private String accountHolderName;
-    @Column(name="balance")
-    private double balance;
+    // minor units (cents), see Money
+    @Column(name="balance", precision = 19, scale = 2)
+    @Convert(converter = MinorUnitsConverter.class)
+    private long balance;
+
+    // Optimistic lock: bumped on every update, including the bulk balance updates in AccountRepository
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    public Account(long id, String accountHolderName, long balance) {
+        this.id = id;
+        this.accountHolderName = accountHolderName;
+        this.balance = balance;
+    }
 
     public void setId(Long id) {
         this.id = id;
@@ -0,0 +1,47 @@
+package com.banking.banking.app.entity;
+
+import com.banking.banking.app.money.MinorUnitsConverter;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * One share of a hot account's balance, maintained by
+ * {@link com.banking.banking.app.hotaccount.BalanceSlots}. The {@code accounts} row is slot 0;
+ * slots 1 to N-1 live here, and the account's balance is the sum of all of them.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(BalanceSlot.Key.class)
+@Table(name = "account_balance_slots")
+public class BalanceSlot {
+
+    public record Key(Long accountId, Integer slot) implements Serializable {
+        public Key() {
+            this(null, null);
+        }
+    }
+
+    @Id
+    private Long accountId;
+
+    @Id
+    private Integer slot;
+
+    // minor units (cents), see Money
+    @Column(precision = 19, scale = 2)
+    @Convert(converter = MinorUnitsConverter.class)
+    private long balance;
+}
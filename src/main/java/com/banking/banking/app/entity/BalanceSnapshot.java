@@ -0,0 +1,36 @@
+package com.banking.banking.app.entity;
+
+import com.banking.banking.app.money.MinorUnitsConverter;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Checkpoint of an account's balance in event-sourced mode: the balance after applying
+ * every journal event up to and including {@code lastEventId}. Recovery starts here and
+ * replays only the later events.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "balance_snapshots")
+public class BalanceSnapshot {
+
+    @Id
+    private Long accountId;
+
+    // minor units (cents), see Money
+    @Column(precision = 19, scale = 2)
+    @Convert(converter = MinorUnitsConverter.class)
+    private long balance;
+
+    private long lastEventId;
+}
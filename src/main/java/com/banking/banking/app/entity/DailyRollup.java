@@ -0,0 +1,76 @@
+package com.banking.banking.app.entity;
+
+import com.banking.banking.app.money.MinorUnitsConverter;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Per-account, per-day counts and sums of the {@code transactions} rows, kept up to date
+ * by {@link com.banking.banking.app.ledger.DailyRollups} in the transaction that inserts
+ * the rows. Days without activity have no row; a hot account's day may be spread over
+ * several slot rows, which readers add up.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(DailyRollup.Key.class)
+@Table(name = "account_daily_rollups")
+public class DailyRollup {
+
+    public record Key(Long accountId, LocalDate bookingDate, Integer slot) implements Serializable {
+        public Key() {
+            this(null, null, null);
+        }
+    }
+
+    @Id
+    private Long accountId;
+
+    // Local date of the transactions' timestamps
+    @Id
+    private LocalDate bookingDate;
+
+    // 0, or the balance slot a hot account's deposits went to (see BalanceSlots)
+    @Id
+    private int slot;
+
+    private long depositCount;
+
+    // minor units (cents), see Money
+    @Column(precision = 19, scale = 2)
+    @Convert(converter = MinorUnitsConverter.class)
+    private long depositAmount;
+
+    private long withdrawCount;
+
+    @Column(precision = 19, scale = 2)
+    @Convert(converter = MinorUnitsConverter.class)
+    private long withdrawAmount;
+
+    // Outgoing transfers
+    private long transferCount;
+
+    @Column(precision = 19, scale = 2)
+    @Convert(converter = MinorUnitsConverter.class)
+    private long transferAmount;
+
+    // Incoming transfers, the credit leg journaled next to each TRANSFER debit
+    private long transferInCount;
+
+    @Column(precision = 19, scale = 2)
+    @Convert(converter = MinorUnitsConverter.class)
+    private long transferInAmount;
+}
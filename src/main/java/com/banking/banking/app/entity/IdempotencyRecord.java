@@ -0,0 +1,92 @@
+package com.banking.banking.app.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Stored outcome of a request sent with an Idempotency-Key header, keyed by the client
+ * that sent it and the key, so two clients never share a key.
+ * A row with {@code status == 0} is a claim for a request that is still running.
+ * Implements {@link Persistable} so that saving a new key is always an INSERT and
+ * a concurrent claim on the same key fails on the primary key.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at"))
+public class IdempotencyRecord implements Persistable<IdempotencyRecord.Key> {
+
+    public static final int IN_PROGRESS = 0;
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    @Embeddable
+    public static class Key implements Serializable {
+
+        @Column(name = "client_id", length = 100)
+        private String clientId;
+
+        @Column(name = "idempotency_key", length = 100)
+        private String idempotencyKey;
+    }
+
+    @EmbeddedId
+    private Key key;
+
+    @Column(name = "fingerprint", length = 200)
+    private String fingerprint;
+
+    @Column(name = "status")
+    private int status;
+
+    @Column(name = "response_body", length = 4000)
+    private String responseBody;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Transient
+    private boolean isNew = true;
+
+    public IdempotencyRecord(Key key, String fingerprint, LocalDateTime createdAt) {
+        this.key = key;
+        this.fingerprint = fingerprint;
+        this.status = IN_PROGRESS;
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public Key getId() {
+        return key;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
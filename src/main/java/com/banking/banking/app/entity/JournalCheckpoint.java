@@ -0,0 +1,28 @@
+package com.banking.banking.app.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Last journal sequence number whose effects are in {@code transactions} and {@code accounts}.
+ * Updated in the same database transaction as the replicated rows, so each record is
+ * applied exactly once.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "journal_checkpoints")
+public class JournalCheckpoint {
+
+    @Id
+    private String name;
+
+    private long replicatedSequence;
+}
@@ -0,0 +1,58 @@
+package com.banking.banking.app.entity;
+
+import com.banking.banking.app.money.MinorUnitsConverter;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A balance change waiting to be published, written by
+ * {@link com.banking.banking.app.outbox.AccountOutbox} in the transaction that made the
+ * change and deleted by {@link com.banking.banking.app.outbox.OutboxRelay} once published.
+ * <p>
+ * The id is IDENTITY rather than a pooled sequence: it is assigned at insert time, while
+ * the writer holds the account's row lock, so one account's rows are numbered in commit
+ * order even across instances.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "account_outbox")
+public class OutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long accountId;
+
+    // see LedgerEvents
+    @Column(nullable = false, length = 20)
+    private String eventType;
+
+    // minor units (cents), see Money
+    @Column(precision = 19, scale = 2)
+    @Convert(converter = MinorUnitsConverter.class)
+    private long amount;
+
+    // the account's balance after the change, minor units
+    @Column(precision = 19, scale = 2)
+    @Convert(converter = MinorUnitsConverter.class)
+    private long balance;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
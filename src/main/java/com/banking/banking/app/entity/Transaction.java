@@ -1,8 +1,16 @@
 package com.banking.banking.app.entity;
 
+import com.banking.banking.app.ledger.DailyRollupListener;
+import com.banking.banking.app.money.MinorUnitsConverter;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -16,16 +24,26 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "transactions")
+@EntityListeners(DailyRollupListener.class)
+@Table(name = "transactions",
+        indexes = {
+                @Index(name = "idx_transactions_account_timestamp_id", columnList = "account_id, timestamp, id"),
+                // ledger replay and reconciliation read each account's rows in id order
+                @Index(name = "idx_transactions_account_id", columnList = "account_id, id")})
 public class Transaction {
 
 
+    // Pooled sequence instead of IDENTITY so Hibernate can batch ledger inserts
     @Id
-    @GeneratedValue(strategy = jakarta.persistence.GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
     private Long accountId;
-    private String transactionType; //DEPOSIT, WITHDRAWAL, TRANSFER
-    private double amount;
+    private String transactionType; // see LedgerEvents
+    // minor units (cents), see Money
+    @Column(precision = 19, scale = 2)
+    @Convert(converter = MinorUnitsConverter.class)
+    private long amount;
     private LocalDateTime timestamp;
 
 }
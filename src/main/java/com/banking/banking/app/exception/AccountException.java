@@ -1,7 +1,40 @@
 package com.banking.banking.app.exception;
 
+// A business rejection, not a fault: no stack trace is captured, and the two common ones are
+// shared instances, so a flood of rejected requests costs no more than the lookups behind them
 public class AccountException extends RuntimeException{
+    public static final String ACCOUNT_NOT_FOUND = "ACCOUNT_NOT_FOUND";
+    public static final String INSUFFICIENT_FUNDS = "INSUFFICIENT_FUNDS";
+
+    private static final AccountException NOT_FOUND = new AccountException("Account does not exist.", ACCOUNT_NOT_FOUND);
+    private static final AccountException INSUFFICIENT = new AccountException("Insufficient amount", INSUFFICIENT_FUNDS);
+
+    private final String errorCode;
+
     public AccountException(String message){
-        super(message);
+        this(message, ACCOUNT_NOT_FOUND);
+    }
+
+    public AccountException(String message, String errorCode){
+        // null cause rather than none, so initCause cannot alter a shared instance either
+        super(message, null, false, false);
+        this.errorCode = errorCode;
+    }
+
+    public static AccountException notFound() {
+        return NOT_FOUND;
+    }
+
+    public static AccountException insufficientFunds() {
+        return INSUFFICIENT;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    // The account exists but cannot cover the amount: answered 422 rather than 404
+    public boolean isInsufficientFunds() {
+        return INSUFFICIENT_FUNDS.equals(errorCode);
     }
 }
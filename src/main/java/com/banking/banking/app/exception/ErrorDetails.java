@@ -1,7 +1,10 @@
 package com.banking.banking.app.exception;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 import java.time.LocalDateTime;
 
+@JsonSerialize(using = ErrorDetailsJsonSerializer.class)
 public record ErrorDetails(LocalDateTime timestamp,
                            String message,
                            String details,
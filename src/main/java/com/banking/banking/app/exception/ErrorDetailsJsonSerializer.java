@@ -0,0 +1,28 @@
+package com.banking.banking.app.exception;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+
+// Writes the four fields directly instead of going through bean introspection and the
+// JavaTimeModule; same output as before: an ISO local date-time and the fields in declaration order
+public class ErrorDetailsJsonSerializer extends StdSerializer<ErrorDetails> {
+
+    public ErrorDetailsJsonSerializer() {
+        super(ErrorDetails.class);
+    }
+
+    @Override
+    public void serialize(ErrorDetails value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("timestamp",
+                value.timestamp() == null ? null : DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value.timestamp()));
+        gen.writeStringField("message", value.message());
+        gen.writeStringField("details", value.details());
+        gen.writeStringField("errorCode", value.errorCode());
+        gen.writeEndObject();
+    }
+}
@@ -1,25 +1,85 @@
 package com.banking.banking.app.exception;
 
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 
+// Spring MVC only, ReactiveExceptionHandler is the WebFlux counterpart
 @ControllerAdvice
+@Profile("!reactive")
 public class GlobalExceptionHandler {
     // Handle specific exception
 
-    //Account exception
+    //Account exception: unknown account (404) or insufficient funds (422), also told apart by the error code
     @ExceptionHandler(AccountException.class)
     public ResponseEntity<ErrorDetails> handleAccountException(AccountException exception, WebRequest webRequest) {
         ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(),
                 exception.getMessage(),
                 webRequest.getDescription(false),
-                "ACCOUNT_NOT_FOUND");
-        return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
+                exception.getErrorCode());
+        return new ResponseEntity<>(errorDetails,
+                exception.isInsufficientFunds() ? HttpStatus.UNPROCESSABLE_ENTITY : HttpStatus.NOT_FOUND);
+    }
+
+    //Idempotency-Key reused while the first request is still running
+    @ExceptionHandler(IdempotencyException.class)
+    public ResponseEntity<ErrorDetails> handleIdempotencyException(IdempotencyException exception, WebRequest webRequest) {
+        ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(),
+                exception.getMessage(),
+                webRequest.getDescription(false),
+                "REQUEST_IN_PROGRESS");
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
+    //Too many requests for one account, see AccountRateLimiter
+    @ExceptionHandler(RateLimitException.class)
+    public ResponseEntity<ErrorDetails> handleRateLimitException(RateLimitException exception, WebRequest webRequest) {
+        ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(),
+                exception.getMessage(),
+                webRequest.getDescription(false),
+                "TOO_MANY_REQUESTS");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(exception.getRetryAfterSeconds()))
+                .body(errorDetails);
+    }
+
+    //Invalid request parameter, e.g. a malformed cursor
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorDetails> handleIllegalArgumentException(IllegalArgumentException exception, WebRequest webRequest) {
+        ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(),
+                exception.getMessage(),
+                webRequest.getDescription(false),
+                "BAD_REQUEST");
+        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+    }
+
+    //Request body that does not parse, e.g. an amount with too many decimals or out of range
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorDetails> handleUnreadableBody(HttpMessageNotReadableException exception, WebRequest webRequest) {
+        ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(),
+                "Malformed request body",
+                webRequest.getDescription(false),
+                "BAD_REQUEST");
+        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+    }
+
+    //No database connection within the pool timeout: shed the request instead of queueing it
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<ErrorDetails> handleConnectionUnavailable(RuntimeException exception, WebRequest webRequest) {
+        ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(),
+                "Service is busy, retry later",
+                webRequest.getDescription(false),
+                "SERVICE_UNAVAILABLE");
+        return new ResponseEntity<>(errorDetails, HttpStatus.SERVICE_UNAVAILABLE);
     }
 
 // generic exception
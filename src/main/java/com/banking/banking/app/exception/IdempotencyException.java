@@ -0,0 +1,8 @@
+package com.banking.banking.app.exception;
+
+// A request with the same Idempotency-Key is still being processed
+public class IdempotencyException extends RuntimeException{
+    public IdempotencyException(String message){
+        super(message);
+    }
+}
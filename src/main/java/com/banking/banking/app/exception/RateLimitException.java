@@ -0,0 +1,15 @@
+package com.banking.banking.app.exception;
+
+// A client or an account has used up its request rate; retry after the given number of seconds
+public class RateLimitException extends RuntimeException{
+    private final long retryAfterSeconds;
+
+    public RateLimitException(String message, long retryAfterSeconds){
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,66 @@
+package com.banking.banking.app.exception;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.time.LocalDateTime;
+
+// Same responses as GlobalExceptionHandler, for the WebFlux stack of the reactive profile
+@ControllerAdvice
+@Profile("reactive")
+public class ReactiveExceptionHandler {
+
+    @ExceptionHandler(AccountException.class)
+    public ResponseEntity<ErrorDetails> handleAccountException(AccountException exception, ServerWebExchange exchange) {
+        return error(exception.getMessage(), exchange, exception.getErrorCode(),
+                exception.isInsufficientFunds() ? HttpStatus.UNPROCESSABLE_ENTITY : HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(IdempotencyException.class)
+    public ResponseEntity<ErrorDetails> handleIdempotencyException(IdempotencyException exception, ServerWebExchange exchange) {
+        return error(exception.getMessage(), exchange, "REQUEST_IN_PROGRESS", HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(RateLimitException.class)
+    public ResponseEntity<ErrorDetails> handleRateLimitException(RateLimitException exception, ServerWebExchange exchange) {
+        ResponseEntity<ErrorDetails> response = error(exception.getMessage(), exchange, "TOO_MANY_REQUESTS", HttpStatus.TOO_MANY_REQUESTS);
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(exception.getRetryAfterSeconds()))
+                .body(response.getBody());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorDetails> handleIllegalArgumentException(IllegalArgumentException exception, ServerWebExchange exchange) {
+        return error(exception.getMessage(), exchange, "BAD_REQUEST", HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ErrorDetails> handleUnreadableBody(ServerWebInputException exception, ServerWebExchange exchange) {
+        return error("Malformed request body", exchange, "BAD_REQUEST", HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<ErrorDetails> handleConnectionUnavailable(RuntimeException exception, ServerWebExchange exchange) {
+        return error("Service is busy, retry later", exchange, "SERVICE_UNAVAILABLE", HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorDetails> handleGlobalException(Exception exception, ServerWebExchange exchange) {
+        return error(exception.getMessage(), exchange, "INTERNAL_SERVER_ERROR", HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    // Same description format as WebRequest.getDescription(false)
+    private static ResponseEntity<ErrorDetails> error(String message, ServerWebExchange exchange, String code, HttpStatus status) {
+        ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(), message,
+                "uri=" + exchange.getRequest().getPath().value(), code);
+        return new ResponseEntity<>(errorDetails, status);
+    }
+}
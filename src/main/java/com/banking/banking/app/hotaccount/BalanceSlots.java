@@ -0,0 +1,307 @@
+package com.banking.banking.app.hotaccount;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.ledger.DailyRollups;
+import com.banking.banking.app.metrics.BankingMetrics;
+import com.banking.banking.app.money.MinorUnitsConverter;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.repository.AccountRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Splits the balance of hot accounts over several rows so concurrent deposits stop
+ * queueing on the one {@code accounts} row lock (repository path only).
+ * <p>
+ * {@link HotAccountDetector} samples deposits; an account found hot gets
+ * {@code banking.hot-accounts.slots} - 1 extra rows in {@code account_balance_slots}, the
+ * {@code accounts} row being slot 0, and from then on each deposit adds to a random slot.
+ * Withdrawals and transfers still debit the {@code accounts} row: when it is short, the
+ * slots are folded back into it first, in a transaction of their own that locks the slot
+ * rows before the account row. Reads add the slots to the stored balance, so
+ * {@code AccountDto} is unchanged for callers. A deposit added to a slot books its daily
+ * rollup to the same slot number, so it does not queue on the account-day's rollup row instead.
+ * <p>
+ * Everything here is a no-op unless {@code banking.hot-accounts.enabled} is set; when it is
+ * not, any slots left from an earlier run are folded back at startup. The reactive read
+ * stack adds the slots in its own queries; the balance engines do not see slots.
+ */
+@Component
+public class BalanceSlots implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceSlots.class);
+
+    private static final String SPLIT_SQL =
+            "insert into account_balance_slots (account_id, slot, balance) select id, ?, 0 from accounts a " +
+            "where a.id = ? and not exists (select 1 from account_balance_slots s where s.account_id = a.id and s.slot = ?)";
+
+    private static final String ADD_SQL =
+            "update account_balance_slots set balance = balance + ? where account_id = ? and slot = ?";
+
+    private static final String LOCK_SQL =
+            "select balance from account_balance_slots where account_id = ? for update";
+
+    private static final String CLEAR_SQL =
+            "update account_balance_slots set balance = 0 where account_id = ? and balance <> 0";
+
+    private static final String TOTAL_SQL =
+            "select coalesce(sum(balance), 0) from account_balance_slots where account_id = ?";
+
+    private static final String TOTALS_SQL =
+            "select account_id, sum(balance) from account_balance_slots where balance <> 0 and account_id in (%s) group by account_id";
+
+    private static final String UNFOLDED_SQL =
+            "select distinct account_id from account_balance_slots where balance <> 0";
+
+    private static final String MAIN_BALANCE_SQL = "select balance from accounts where id = ?";
+
+    private static final String DELETE_SQL = "delete from account_balance_slots where account_id = ?";
+
+    // ids per TOTALS_SQL statement
+    private static final int TOTALS_CHUNK = 500;
+
+    private final AccountRepository accountRepository;
+
+    private final BankingMetrics bankingMetrics;
+
+    private final DailyRollups dailyRollups;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // splits and folds commit on their own, whatever the caller's transaction does
+    private final TransactionTemplate ownTransaction;
+
+    private final boolean enabled;
+
+    private final int slots;
+
+    private final HotAccountDetector detector;
+
+    public BalanceSlots(AccountRepository accountRepository,
+                        BankingMetrics bankingMetrics,
+                        DailyRollups dailyRollups,
+                        DataSource dataSource,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${banking.hot-accounts.enabled:false}") boolean enabled,
+                        @Value("${banking.hot-accounts.slots:8}") int slots,
+                        @Value("${banking.hot-accounts.sample-rate:16}") int sampleRate,
+                        @Value("${banking.hot-accounts.threshold:200}") double threshold,
+                        @Value("${banking.hot-accounts.window:1s}") Duration window,
+                        @Value("${banking.hot-accounts.idle-expiry:10m}") Duration idleExpiry,
+                        @Value("${banking.hot-accounts.max-tracked:10000}") long maxTracked) {
+        if (enabled && slots < 2) {
+            throw new IllegalArgumentException("banking.hot-accounts.slots must be at least 2");
+        }
+        this.accountRepository = accountRepository;
+        this.bankingMetrics = bankingMetrics;
+        this.dailyRollups = dailyRollups;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.slots = slots;
+        this.detector = new HotAccountDetector(sampleRate, threshold, window, idleExpiry, maxTracked);
+        if (enabled) {
+            bankingMetrics.hotAccounts(detector, HotAccountDetector::hotCount);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Runs once the schema exists and before the web server takes requests
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (enabled) {
+            return;
+        }
+        List<Long> accounts = jdbcTemplate.queryForList(UNFOLDED_SQL, Long.class);
+        for (long accountId : accounts) {
+            doFold(accountId);
+        }
+        if (!accounts.isEmpty()) {
+            log.info("Folded the balance slots of {} accounts back into their balance", accounts.size());
+        }
+    }
+
+    /**
+     * Counts a deposit to {@code accountId} and picks where it goes: 0 for the
+     * {@code accounts} row, otherwise a slot for {@link #addToSlot}. Call it outside the
+     * deposit's transaction; an account that just turned hot is split first.
+     */
+    public int slotFor(long accountId) {
+        if (!enabled) {
+            return 0;
+        }
+        if (detector.recordWrite(accountId)) {
+            split(accountId);
+        }
+        return detector.isHot(accountId) ? ThreadLocalRandom.current().nextInt(slots) : 0;
+    }
+
+    // False when the slot does not exist (account not split, or deleted); the caller then uses the accounts row
+    public boolean addToSlot(long accountId, int slot, long amount) {
+        if (jdbcTemplate.update(ADD_SQL, MinorUnitsConverter.toDecimal(amount), accountId, slot) != 1) {
+            return false;
+        }
+        dailyRollups.useSlot(accountId, slot);
+        return true;
+    }
+
+    // Creates the missing slot rows of an existing account; other instances may race to do the same
+    void split(long accountId) {
+        ownTransaction.executeWithoutResult(status -> {
+            for (int slot = 1; slot < slots; slot++) {
+                try {
+                    jdbcTemplate.update(SPLIT_SQL, slot, accountId, slot);
+                } catch (DuplicateKeyException e) {
+                    // created concurrently
+                }
+            }
+        });
+        log.info("Account {} is hot, its deposits are spread over {} balance slots", accountId, slots);
+    }
+
+    /**
+     * Moves everything in the account's slots into its {@code accounts} row and returns the
+     * amount moved. Commits on its own, so call it outside any transaction that has already
+     * touched the account.
+     */
+    public long fold(long accountId) {
+        return enabled ? doFold(accountId) : 0;
+    }
+
+    // Folds when the accounts row alone cannot cover amount
+    public void foldIfShort(long accountId, long amount) {
+        if (!enabled) {
+            return;
+        }
+        List<BigDecimal> balance = jdbcTemplate.queryForList(MAIN_BALANCE_SQL, BigDecimal.class, accountId);
+        if (!balance.isEmpty() && MinorUnitsConverter.toMinorUnits(balance.get(0)) < amount) {
+            doFold(accountId);
+        }
+    }
+
+    // Folds every one of the accounts that has money in its slots
+    public void foldAll(Collection<Long> accountIds) {
+        if (!enabled) {
+            return;
+        }
+        for (long accountId : slotTotals(accountIds).keySet()) {
+            doFold(accountId);
+        }
+    }
+
+    private long doFold(long accountId) {
+        Long moved = ownTransaction.execute(status -> {
+            long total = 0;
+            for (BigDecimal balance : jdbcTemplate.queryForList(LOCK_SQL, BigDecimal.class, accountId)) {
+                total += MinorUnitsConverter.toMinorUnits(balance);
+            }
+            if (total != 0) {
+                jdbcTemplate.update(CLEAR_SQL, accountId);
+                accountRepository.addToBalance(accountId, total);
+            }
+            return total;
+        });
+        if (moved != null && moved != 0) {
+            bankingMetrics.slotFold();
+            return moved;
+        }
+        return 0;
+    }
+
+    // What the slots add to the stored balance, minor units
+    public long slotTotal(long accountId) {
+        if (!enabled) {
+            return 0;
+        }
+        BigDecimal total = jdbcTemplate.queryForObject(TOTAL_SQL, BigDecimal.class, accountId);
+        return total == null ? 0 : MinorUnitsConverter.toMinorUnits(total);
+    }
+
+    // Accounts with money in their slots, and how much
+    public Map<Long, Long> slotTotals(Collection<Long> accountIds) {
+        if (!enabled || accountIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, Long> totals = new HashMap<>();
+        List<Long> ids = List.copyOf(accountIds);
+        for (int from = 0; from < ids.size(); from += TOTALS_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + TOTALS_CHUNK));
+            String sql = String.format(TOTALS_SQL, String.join(",", Collections.nCopies(chunk.size(), "?")));
+            jdbcTemplate.query(sql, rs -> {
+                totals.put(rs.getLong(1), MinorUnitsConverter.toMinorUnits(rs.getBigDecimal(2)));
+            }, chunk.toArray());
+        }
+        return totals;
+    }
+
+    // Adds the slots to the balances read from the accounts rows
+    public void addSlotBalances(List<AccountDto> accounts) {
+        if (!enabled || accounts.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(accounts.size());
+        for (AccountDto account : accounts) {
+            ids.add(account.getId());
+        }
+        Map<Long, Long> totals = slotTotals(ids);
+        if (totals.isEmpty()) {
+            return;
+        }
+        for (AccountDto account : accounts) {
+            Long total = totals.get(account.getId());
+            if (total != null) {
+                account.setBalance(Money.ofMinor(account.getBalance().minorUnits() + total));
+            }
+        }
+    }
+
+    // Same as addSlotBalances for a stream, a chunk at a time
+    public void forEachWithSlotBalances(Stream<AccountDto> accounts, Consumer<AccountDto> consumer) {
+        if (!enabled) {
+            accounts.forEach(consumer);
+            return;
+        }
+        List<AccountDto> chunk = new ArrayList<>(TOTALS_CHUNK);
+        accounts.forEach(account -> {
+            chunk.add(account);
+            if (chunk.size() == TOTALS_CHUNK) {
+                addSlotBalances(chunk);
+                chunk.forEach(consumer);
+                chunk.clear();
+            }
+        });
+        addSlotBalances(chunk);
+        chunk.forEach(consumer);
+    }
+
+    public void delete(long accountId) {
+        if (enabled) {
+            jdbcTemplate.update(DELETE_SQL, accountId);
+        }
+    }
+}
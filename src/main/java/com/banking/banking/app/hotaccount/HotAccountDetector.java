@@ -0,0 +1,104 @@
+package com.banking.banking.app.hotaccount;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Finds accounts written faster than a threshold by sampling one write in
+ * {@code sampleRate}. Sampled writes are counted per account over fixed windows; when a
+ * window closes with an estimated rate (samples x sample rate / window length) at or above
+ * the threshold, the account is hot until it has gone {@code idleExpiry} without a write.
+ * <p>
+ * Unsampled writes cost one random number, and only accounts that were sampled in the
+ * current window are tracked, at most {@code maxTracked} of them.
+ */
+public class HotAccountDetector {
+
+    // Sampled writes of one account in the current window
+    // A lock rather than synchronized, so a sampled virtual thread never pins its carrier
+    private static final class Window {
+        final ReentrantLock lock = new ReentrantLock();
+        long startedAt;
+        long samples;
+
+        Window(long startedAt) {
+            this.startedAt = startedAt;
+        }
+    }
+
+    private final int sampleRate;
+
+    private final double threshold;
+
+    private final long windowNanos;
+
+    private final LongSupplier clock;
+
+    private final Cache<Long, Window> windows;
+
+    private final Cache<Long, Boolean> hot;
+
+    public HotAccountDetector(int sampleRate, double writesPerSecond, Duration window, Duration idleExpiry, long maxTracked) {
+        this(sampleRate, writesPerSecond, window, idleExpiry, maxTracked, System::nanoTime);
+    }
+
+    HotAccountDetector(int sampleRate, double writesPerSecond, Duration window, Duration idleExpiry, long maxTracked,
+                       LongSupplier clock) {
+        if (sampleRate < 1 || writesPerSecond <= 0 || window.isZero() || window.isNegative()) {
+            throw new IllegalArgumentException("Sample rate, threshold and window must be positive");
+        }
+        this.sampleRate = sampleRate;
+        this.threshold = writesPerSecond;
+        this.windowNanos = window.toNanos();
+        this.clock = clock;
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(maxTracked)
+                .expireAfterAccess(window.multipliedBy(2))
+                .build();
+        this.hot = Caffeine.newBuilder()
+                .maximumSize(maxTracked)
+                .expireAfterAccess(idleExpiry)
+                .build();
+    }
+
+    /**
+     * Counts a write to {@code accountId}. Returns true only for the write that makes the
+     * account hot, so the caller can prepare it once.
+     */
+    public boolean recordWrite(long accountId) {
+        if (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            return false;
+        }
+        long now = clock.getAsLong();
+        Window window = windows.get(accountId, id -> new Window(now));
+        double rate;
+        window.lock.lock();
+        try {
+            window.samples++;
+            long elapsed = now - window.startedAt;
+            if (elapsed < windowNanos) {
+                return false;
+            }
+            rate = (double) window.samples * sampleRate * 1_000_000_000L / elapsed;
+            window.startedAt = now;
+            window.samples = 0;
+        } finally {
+            window.lock.unlock();
+        }
+        return rate >= threshold && hot.asMap().putIfAbsent(accountId, Boolean.TRUE) == null;
+    }
+
+    // Also keeps a hot account from expiring
+    public boolean isHot(long accountId) {
+        return hot.getIfPresent(accountId) != null;
+    }
+
+    public long hotCount() {
+        return hot.estimatedSize();
+    }
+}
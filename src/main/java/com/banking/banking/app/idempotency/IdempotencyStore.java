@@ -0,0 +1,201 @@
+package com.banking.banking.app.idempotency;
+
+import com.banking.banking.app.entity.IdempotencyRecord;
+import com.banking.banking.app.exception.IdempotencyException;
+import com.banking.banking.app.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * Replays the stored response for a retried request instead of running it again.
+ * <p>
+ * Recent keys live in a bounded in-memory cache, so a replay is a single hash lookup and
+ * never reaches the account or transaction tables. The {@code idempotency_keys} table is the
+ * fallback after a restart or eviction, and its primary key makes sure only one request per
+ * key runs, even across instances. The key is claimed before the operation runs: if the
+ * process dies halfway, retries get 409 until the key expires rather than moving money twice.
+ * Only successful responses are stored; a failed request releases its key.
+ * <p>
+ * Keys are scoped to the client, the {@code banking.ratelimit.client-header} header or else
+ * the remote address as in the rate limiter, so one client can neither replay nor block
+ * another client's request by guessing its key.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    // client of calls made outside an HTTP request
+    private static final String NO_CLIENT = "";
+
+    private record StoredResponse(String fingerprint, int status, Object body) {
+
+        boolean inProgress() {
+            return status == IdempotencyRecord.IN_PROGRESS;
+        }
+    }
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final String clientHeader;
+
+    private final Duration ttl;
+
+    private final Cache<IdempotencyRecord.Key, StoredResponse> recent;
+
+    public IdempotencyStore(IdempotencyRecordRepository idempotencyRecordRepository,
+                            ObjectMapper objectMapper,
+                            @Value("${banking.ratelimit.client-header:X-Client-Id}") String clientHeader,
+                            @Value("${banking.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${banking.idempotency.max-keys:100000}") long maxKeys) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.clientHeader = clientHeader;
+        this.ttl = ttl;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Runs {@code operation} once per client and key. {@code fingerprint} identifies the request
+     * (operation, target and amount); reusing a key for a different request is rejected.
+     */
+    public <T> ResponseEntity<T> execute(String idempotencyKey, String fingerprint, Class<T> bodyType,
+                                         Supplier<ResponseEntity<T>> operation) {
+        return execute(idempotencyKey, fingerprint, bodyType, () -> { }, operation);
+    }
+
+    /**
+     * Same as above, with {@code admission} (a rate limit, say) run only when the operation
+     * is about to run, so a replay of a stored response never pays for it.
+     */
+    public <T> ResponseEntity<T> execute(String idempotencyKey, String fingerprint, Class<T> bodyType,
+                                         Runnable admission, Supplier<ResponseEntity<T>> operation) {
+        if (idempotencyKey == null) {
+            admission.run();
+            return operation.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String client = currentClient();
+        if (client.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(clientHeader + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        IdempotencyRecord.Key key = new IdempotencyRecord.Key(client, idempotencyKey);
+
+        StoredResponse stored = lookup(key, bodyType);
+        if (stored != null) {
+            return replay(stored, fingerprint, bodyType);
+        }
+        admission.run();
+
+        IdempotencyRecord claim = new IdempotencyRecord(key, fingerprint, LocalDateTime.now());
+        try {
+            idempotencyRecordRepository.saveAndFlush(claim);
+        } catch (DataIntegrityViolationException e) {
+            // another request claimed the key between our lookup and insert
+            throw new IdempotencyException("A request with this " + HEADER + " is already in progress");
+        }
+        recent.put(key, new StoredResponse(fingerprint, IdempotencyRecord.IN_PROGRESS, null));
+
+        ResponseEntity<T> response;
+        try {
+            response = operation.get();
+        } catch (RuntimeException e) {
+            recent.invalidate(key);
+            idempotencyRecordRepository.deleteById(key);
+            throw e;
+        }
+
+        claim.setStatus(response.getStatusCode().value());
+        claim.setResponseBody(toJson(response.getBody()));
+        idempotencyRecordRepository.save(claim);
+        recent.put(key, new StoredResponse(fingerprint, claim.getStatus(), response.getBody()));
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${banking.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+    }
+
+    private StoredResponse lookup(IdempotencyRecord.Key key, Class<?> bodyType) {
+        StoredResponse stored = recent.getIfPresent(key);
+        if (stored != null) {
+            return stored;
+        }
+        IdempotencyRecord record = idempotencyRecordRepository.findById(key).orElse(null);
+        if (record == null) {
+            return null;
+        }
+        if (record.getCreatedAt().isBefore(LocalDateTime.now().minus(ttl))) {
+            // expired but not purged yet; free the key for this request
+            idempotencyRecordRepository.delete(record);
+            return null;
+        }
+        stored = new StoredResponse(record.getFingerprint(), record.getStatus(),
+                record.getStatus() == IdempotencyRecord.IN_PROGRESS ? null : fromJson(record.getResponseBody(), bodyType));
+        if (!stored.inProgress()) {
+            recent.put(key, stored);
+        }
+        return stored;
+    }
+
+    private String currentClient() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return NO_CLIENT;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        String client = request.getHeader(clientHeader);
+        return client != null && !client.isBlank() ? client : request.getRemoteAddr();
+    }
+
+    private static <T> ResponseEntity<T> replay(StoredResponse stored, String fingerprint, Class<T> bodyType) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            throw new IllegalArgumentException(HEADER + " was already used for a different request");
+        }
+        if (stored.inProgress()) {
+            throw new IdempotencyException("A request with this " + HEADER + " is already in progress");
+        }
+        return ResponseEntity.status(stored.status()).body(bodyType.cast(stored.body()));
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store response for replay", e);
+        }
+    }
+
+    private Object fromJson(String json, Class<?> bodyType) {
+        try {
+            return objectMapper.readValue(json, bodyType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read stored response", e);
+        }
+    }
+}
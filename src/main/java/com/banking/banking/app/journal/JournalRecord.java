@@ -0,0 +1,20 @@
+package com.banking.banking.app.journal;
+
+/**
+ * One acknowledged mutation as stored in the journal. Amounts and balances are minor units;
+ * the balances are the values after the mutation, so replaying a record is idempotent.
+ * For deposits and withdrawals {@code counterpartyId} and {@code counterpartyBalance} are 0.
+ */
+public record JournalRecord(long sequence, Type type, long accountId, long counterpartyId, long amount,
+                            long balance, long counterpartyBalance, long timestampMillis) {
+
+    public enum Type {
+        DEPOSIT, WITHDRAW, TRANSFER;
+
+        private static final Type[] VALUES = values();
+
+        static Type of(int ordinal) {
+            return ordinal >= 0 && ordinal < VALUES.length ? VALUES[ordinal] : null;
+        }
+    }
+}
@@ -0,0 +1,474 @@
+package com.banking.banking.app.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of fixed-size binary records in memory-mapped segment files.
+ * <p>
+ * Each record is {@value #RECORD_SIZE} bytes and ends with a CRC32C of the rest, and
+ * sequence numbers are contiguous, so on open the journal is scanned up to the first
+ * record that is torn, corrupt or out of sequence; that is the end of the journal, and
+ * everything after it is zeroed. Segments are preallocated files named after their first
+ * sequence number. A segment is only started once the one before it is full and forced,
+ * or by {@link #skipTo}; so a later segment after one that ends short continues the
+ * journal past a skipped range rather than lying beyond its end.
+ * <p>
+ * When {@link #append} returns depends on the {@link FsyncPolicy}:
+ * <ul>
+ *     <li>{@code EVERY_WRITE} - after the record itself has been forced to disk</li>
+ *     <li>{@code GROUP} - after a background sync that covers the record; concurrent
+ *     appenders share one force</li>
+ *     <li>{@code INTERVAL} - immediately; a background thread forces every
+ *     {@code intervalMs}, so an OS crash can lose the last interval (a process crash
+ *     cannot, the mapped pages survive it)</li>
+ * </ul>
+ * Readers only see durable records, see {@link #durableSequence()}.
+ */
+public class MappedJournal implements Closeable {
+
+    public enum FsyncPolicy { EVERY_WRITE, GROUP, INTERVAL }
+
+    public static final int RECORD_SIZE = 64;
+
+    private static final Logger log = LoggerFactory.getLogger(MappedJournal.class);
+
+    private static final String SUFFIX = ".journal";
+
+    // Record layout
+    private static final int SEQUENCE = 0;
+    private static final int ACCOUNT_ID = 8;
+    private static final int COUNTERPARTY_ID = 16;
+    private static final int AMOUNT = 24;
+    private static final int BALANCE = 32;
+    private static final int COUNTERPARTY_BALANCE = 40;
+    private static final int TIMESTAMP = 48;
+    private static final int TYPE = 56;
+    private static final int CRC = 60;
+
+    private static final class Segment {
+        final long firstSequence;
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        volatile int records;
+
+        Segment(long firstSequence, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.firstSequence = firstSequence;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+
+    private final Path directory;
+
+    private final int recordsPerSegment;
+
+    private final FsyncPolicy fsyncPolicy;
+
+    private final long intervalNanos;
+
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    // Guards appends and the active segment
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final byte[] scratch = new byte[RECORD_SIZE];
+
+    private final ByteBuffer scratchBuffer = ByteBuffer.wrap(scratch);
+
+    private final CRC32C crc = new CRC32C();
+
+    private Segment active;
+
+    private volatile long lastSequence;
+
+    // Guards durableSequence hand-off between appenders and the sync thread
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private final Condition written = syncLock.newCondition();
+
+    private final Condition synced = syncLock.newCondition();
+
+    private volatile long durableSequence;
+
+    private volatile boolean open = true;
+
+    private Thread syncer;
+
+    public MappedJournal(Path directory, int segmentSize, FsyncPolicy fsyncPolicy, long intervalMs) throws IOException {
+        if (segmentSize < RECORD_SIZE || segmentSize % RECORD_SIZE != 0) {
+            throw new IllegalArgumentException("Segment size must be a multiple of " + RECORD_SIZE);
+        }
+        this.directory = directory;
+        this.recordsPerSegment = segmentSize / RECORD_SIZE;
+        this.fsyncPolicy = fsyncPolicy;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+        Files.createDirectories(directory);
+        recover();
+
+        if (fsyncPolicy != FsyncPolicy.EVERY_WRITE) {
+            syncer = new Thread(this::syncLoop, "journal-sync");
+            syncer.setDaemon(true);
+            syncer.start();
+        }
+    }
+
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    public long durableSequence() {
+        return durableSequence;
+    }
+
+    /**
+     * Appends a record and returns its sequence number once the fsync policy considers
+     * it durable. Allocation-free; callers serialize per account, the journal serializes
+     * the rest.
+     */
+    public long append(JournalRecord.Type type, long accountId, long counterpartyId, long amount,
+                       long balance, long counterpartyBalance) {
+        long sequence;
+        writeLock.lock();
+        try {
+            if (!open) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            if (active.records == recordsPerSegment) {
+                roll(lastSequence + 1);
+            }
+            sequence = lastSequence + 1;
+            scratchBuffer.putLong(SEQUENCE, sequence)
+                    .putLong(ACCOUNT_ID, accountId)
+                    .putLong(COUNTERPARTY_ID, counterpartyId)
+                    .putLong(AMOUNT, amount)
+                    .putLong(BALANCE, balance)
+                    .putLong(COUNTERPARTY_BALANCE, counterpartyBalance)
+                    .putLong(TIMESTAMP, System.currentTimeMillis())
+                    .putInt(TYPE, type.ordinal());
+            crc.reset();
+            crc.update(scratch, 0, CRC);
+            scratchBuffer.putInt(CRC, (int) crc.getValue());
+
+            int offset = active.records * RECORD_SIZE;
+            active.buffer.put(offset, scratch);
+            active.records++;
+            if (fsyncPolicy == FsyncPolicy.EVERY_WRITE) {
+                active.buffer.force(offset, RECORD_SIZE);
+                durableSequence = sequence;
+            }
+            lastSequence = sequence;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            writeLock.unlock();
+        }
+
+        if (fsyncPolicy == FsyncPolicy.GROUP) {
+            awaitDurable(sequence);
+        }
+        return sequence;
+    }
+
+    /**
+     * Reads up to {@code maxRecords} durable records after {@code sequence}, in order,
+     * and returns how many were read.
+     */
+    public int readAfter(long sequence, int maxRecords, Consumer<JournalRecord> consumer) {
+        long durable = durableSequence;
+        int read = 0;
+        long next = sequence + 1;
+        while (read < maxRecords && next <= durable) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(next);
+            if (entry == null) {
+                // truncated away; start at the oldest segment still on disk
+                entry = segments.firstEntry();
+                if (entry == null || entry.getKey() > durable) {
+                    break;
+                }
+                next = entry.getKey();
+            }
+            Segment segment = entry.getValue();
+            int index = (int) (next - segment.firstSequence);
+            if (index >= segment.records) {
+                // the range skipped by skipTo: go on in the next segment, if there is one
+                Map.Entry<Long, Segment> after = segments.higherEntry(segment.firstSequence);
+                if (after == null || after.getKey() > durable) {
+                    break;
+                }
+                next = after.getKey();
+                continue;
+            }
+            consumer.accept(decode(segment.buffer, index * RECORD_SIZE));
+            read++;
+            next++;
+        }
+        return read;
+    }
+
+    /**
+     * Continues the sequence from {@code sequence} in a fresh segment, e.g. when the journal
+     * directory was lost but the replicated tables are further ahead.
+     */
+    public void skipTo(long sequence) throws IOException {
+        writeLock.lock();
+        try {
+            if (sequence <= lastSequence) {
+                return;
+            }
+            if (active.records == 0) {
+                // nothing in it worth keeping, and no empty segment in front of the skipped range
+                segments.remove(active.firstSequence);
+                closeQuietly(active);
+                Files.delete(active.path);
+                active = null;
+            }
+            roll(sequence + 1);
+            lastSequence = sequence;
+            publishDurable(sequence);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Deletes whole segments whose records are all at or before the given sequence
+    public void truncateBefore(long sequence) {
+        writeLock.lock();
+        try {
+            Iterator<Segment> iterator = segments.values().iterator();
+            while (iterator.hasNext()) {
+                Segment segment = iterator.next();
+                if (segment == active || segment.firstSequence + segment.records - 1 > sequence) {
+                    break;
+                }
+                iterator.remove();
+                closeQuietly(segment);
+                Files.deleteIfExists(segment.path);
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete replicated journal segment", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        writeLock.lock();
+        try {
+            if (!open) {
+                return;
+            }
+            open = false;
+            active.buffer.force();
+            publishDurable(lastSequence);
+        } finally {
+            writeLock.unlock();
+        }
+        if (syncer != null) {
+            syncer.interrupt();
+            try {
+                syncer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        segments.values().forEach(MappedJournal::closeQuietly);
+    }
+
+    private void awaitDurable(long sequence) {
+        syncLock.lock();
+        try {
+            written.signal();
+            while (durableSequence < sequence) {
+                if (!open) {
+                    throw new IllegalStateException("Journal closed before the record was synced");
+                }
+                synced.awaitUninterruptibly();
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void syncLoop() {
+        Segment syncedSegment = null;
+        int syncedRecords = 0;
+        while (open) {
+            Segment segment;
+            int records;
+            long sequence;
+            writeLock.lock();
+            try {
+                segment = active;
+                records = segment.records;
+                sequence = lastSequence;
+            } finally {
+                writeLock.unlock();
+            }
+
+            if (sequence > durableSequence) {
+                // a segment that was rolled over was forced in full by roll()
+                int from = segment == syncedSegment ? syncedRecords : 0;
+                segment.buffer.force(from * RECORD_SIZE, (records - from) * RECORD_SIZE);
+                syncedSegment = segment;
+                syncedRecords = records;
+                publishDurable(sequence);
+            }
+
+            syncLock.lock();
+            try {
+                if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+                    written.awaitNanos(intervalNanos);
+                } else if (lastSequence == durableSequence) {
+                    written.await();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                syncLock.unlock();
+            }
+        }
+    }
+
+    private void publishDurable(long sequence) {
+        syncLock.lock();
+        try {
+            if (sequence > durableSequence) {
+                durableSequence = sequence;
+            }
+            synced.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // Caller holds writeLock
+    private void roll(long firstSequence) throws IOException {
+        if (active != null) {
+            active.buffer.force();
+            publishDurable(lastSequence);
+        }
+        active = map(firstSequence);
+        segments.put(firstSequence, active);
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+
+        long expected = -1;
+        // the previous segment ended short, so the next one may start further on (see skipTo)
+        boolean skipped = false;
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long firstSequence = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+            if (expected != -1 && (skipped ? firstSequence < expected : firstSequence != expected)) {
+                log.warn("Discarding journal segment {} after the end of the journal", file);
+                Files.delete(file);
+                continue;
+            }
+            Segment segment = map(firstSequence);
+            int records = 0;
+            while (records < recordsPerSegment && isValid(segment.buffer, records * RECORD_SIZE, firstSequence + records)) {
+                records++;
+            }
+            segment.records = records;
+            segments.put(firstSequence, segment);
+            expected = firstSequence + records;
+            // a torn or corrupt record ends the journal unless skipTo started a later segment
+            skipped = records < recordsPerSegment;
+            if (skipped) {
+                zeroFrom(segment, records);
+                segment.buffer.force();
+            }
+        }
+
+        if (segments.isEmpty()) {
+            roll(1);
+            lastSequence = 0;
+        } else {
+            active = segments.lastEntry().getValue();
+            lastSequence = active.firstSequence + active.records - 1;
+        }
+        durableSequence = lastSequence;
+        log.info("Opened journal {} at sequence {} ({} segments)", directory, lastSequence, segments.size());
+    }
+
+    private boolean isValid(ByteBuffer buffer, int offset, long expectedSequence) {
+        if (buffer.getLong(offset + SEQUENCE) != expectedSequence) {
+            return false;
+        }
+        buffer.get(offset, scratch, 0, RECORD_SIZE);
+        crc.reset();
+        crc.update(scratch, 0, CRC);
+        return (int) crc.getValue() == buffer.getInt(offset + CRC)
+                && JournalRecord.Type.of(buffer.getInt(offset + TYPE)) != null;
+    }
+
+    // Clears whatever a torn write left behind the last valid record, so it can never be read back
+    private void zeroFrom(Segment segment, int record) {
+        for (int offset = record * RECORD_SIZE; offset < recordsPerSegment * RECORD_SIZE; offset += Long.BYTES) {
+            if (segment.buffer.getLong(offset) != 0) {
+                segment.buffer.putLong(offset, 0);
+            }
+        }
+    }
+
+    private Segment map(long firstSequence) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", firstSequence, SUFFIX));
+        boolean created = Files.notExists(path);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = (long) recordsPerSegment * RECORD_SIZE;
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        if (created) {
+            // make the new file's length durable before any record in it is acknowledged
+            channel.force(true);
+        }
+        return new Segment(firstSequence, path, channel, buffer);
+    }
+
+    private static JournalRecord decode(ByteBuffer buffer, int offset) {
+        return new JournalRecord(
+                buffer.getLong(offset + SEQUENCE),
+                JournalRecord.Type.of(buffer.getInt(offset + TYPE)),
+                buffer.getLong(offset + ACCOUNT_ID),
+                buffer.getLong(offset + COUNTERPARTY_ID),
+                buffer.getLong(offset + AMOUNT),
+                buffer.getLong(offset + BALANCE),
+                buffer.getLong(offset + COUNTERPARTY_BALANCE),
+                buffer.getLong(offset + TIMESTAMP));
+    }
+
+    private static void closeQuietly(Segment segment) {
+        try {
+            segment.channel.close();
+        } catch (IOException e) {
+            log.warn("Could not close journal segment {}", segment.path, e);
+        }
+    }
+}
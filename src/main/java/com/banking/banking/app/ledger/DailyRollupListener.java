@@ -0,0 +1,24 @@
+package com.banking.banking.app.ledger;
+
+import com.banking.banking.app.entity.Transaction;
+import jakarta.persistence.PrePersist;
+import org.springframework.beans.factory.ObjectProvider;
+
+// JPA entity listener on Transaction. Hibernate creates it through Spring while the
+// EntityManagerFactory is being built, so DailyRollups (which needs the transaction
+// manager of that factory) is looked up on first use rather than injected up front.
+// PrePersist rather than PostPersist: the inserts of a flush at commit would only
+// reach PostPersist after the rollups have been written.
+public class DailyRollupListener {
+
+    private final ObjectProvider<DailyRollups> dailyRollups;
+
+    public DailyRollupListener(ObjectProvider<DailyRollups> dailyRollups) {
+        this.dailyRollups = dailyRollups;
+    }
+
+    @PrePersist
+    public void onPersist(Transaction transaction) {
+        dailyRollups.getObject().record(transaction);
+    }
+}
@@ -0,0 +1,248 @@
+package com.banking.banking.app.ledger;
+
+import com.banking.banking.app.entity.Transaction;
+import com.banking.banking.app.money.MinorUnitsConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains {@code account_daily_rollups} from the {@code transactions} rows as they are
+ * inserted, whichever writer inserts them (service, ledger writer, batch transfers,
+ * balance engines).
+ * <p>
+ * {@link DailyRollupListener} hands over every persisted row. The deltas are summed per
+ * account and day for the rest of the database transaction and applied just before it
+ * commits, so a ledger batch costs one update per account-day rather than one per row,
+ * and the rollups commit or roll back together with the rows they count. Updates go in
+ * (account, day) order so concurrent commits lock rollup rows in the same order.
+ * <p>
+ * A deposit that {@link com.banking.banking.app.hotaccount.BalanceSlots} spread to a balance
+ * slot books its rollup delta to the same slot of the account-day, so deposits to a hot
+ * account do not queue on one rollup row either. Statements add up an account-day's slots.
+ * <p>
+ * History written before the table existed is picked up by
+ * {@code banking.rollups.rebuild-on-startup}, which recomputes the table from
+ * {@code transactions} before the application starts serving.
+ */
+@Component
+public class DailyRollups implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(DailyRollups.class);
+
+    private static final String UPDATE_SQL = "update account_daily_rollups set " +
+            "deposit_count = deposit_count + ?, deposit_amount = deposit_amount + ?, " +
+            "withdraw_count = withdraw_count + ?, withdraw_amount = withdraw_amount + ?, " +
+            "transfer_count = transfer_count + ?, transfer_amount = transfer_amount + ?, " +
+            "transfer_in_count = transfer_in_count + ?, transfer_in_amount = transfer_in_amount + ? " +
+            "where account_id = ? and booking_date = ? and slot = ?";
+
+    private static final String INSERT_SQL = "insert into account_daily_rollups (" +
+            "deposit_count, deposit_amount, withdraw_count, withdraw_amount, " +
+            "transfer_count, transfer_amount, transfer_in_count, transfer_in_amount, " +
+            "account_id, booking_date, slot) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String REBUILD_SQL = "insert into account_daily_rollups (" +
+            "account_id, booking_date, slot, deposit_count, deposit_amount, withdraw_count, withdraw_amount, " +
+            "transfer_count, transfer_amount, transfer_in_count, transfer_in_amount) " +
+            "select account_id, cast(timestamp as date), 0, " +
+            sums(LedgerEvents.DEPOSIT) + ", " + sums(LedgerEvents.WITHDRAW) + ", " +
+            sums(LedgerEvents.TRANSFER) + ", " + sums(LedgerEvents.TRANSFER_IN) + " " +
+            "from transactions group by account_id, cast(timestamp as date)";
+
+    private record Key(long accountId, LocalDate bookingDate) {
+    }
+
+    private static final Comparator<Key> LOCK_ORDER =
+            Comparator.comparingLong(Key::accountId).thenComparing(Key::bookingDate);
+
+    // Net change to one rollup row; amounts in minor units
+    private static final class Delta {
+        long depositCount;
+        long depositAmount;
+        long withdrawCount;
+        long withdrawAmount;
+        long transferCount;
+        long transferAmount;
+        long transferInCount;
+        long transferInAmount;
+
+        Object[] parameters(Key key, int slot) {
+            return new Object[]{depositCount, MinorUnitsConverter.toDecimal(depositAmount),
+                    withdrawCount, MinorUnitsConverter.toDecimal(withdrawAmount),
+                    transferCount, MinorUnitsConverter.toDecimal(transferAmount),
+                    transferInCount, MinorUnitsConverter.toDecimal(transferInAmount),
+                    key.accountId(), key.bookingDate(), slot};
+        }
+    }
+
+    // Deltas of the current database transaction, applied from beforeCommit
+    private final class Pending implements TransactionSynchronization {
+
+        private final Map<Key, Delta> deltas = new TreeMap<>(LOCK_ORDER);
+
+        // rollup slot per account, for accounts not booked to slot 0
+        private final Map<Long, Integer> slots = new HashMap<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            apply(deltas, slots);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(DailyRollups.this);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean rebuildOnStartup;
+
+    public DailyRollups(DataSource dataSource,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${banking.rollups.rebuild-on-startup:false}") boolean rebuildOnStartup) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    // Runs once the schema exists and before the web server takes requests
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Recomputes every rollup from {@code transactions} in one database transaction.
+     * Rows inserted concurrently may be counted twice, so run it while nothing writes.
+     */
+    public void rebuild() {
+        long began = System.nanoTime();
+        Integer rows = transactionTemplate.execute(status -> {
+            jdbcTemplate.update("delete from account_daily_rollups");
+            return jdbcTemplate.update(REBUILD_SQL);
+        });
+        log.info("Rebuilt {} daily rollups from the transactions table in {} ms",
+                rows, (System.nanoTime() - began) / 1_000_000);
+    }
+
+    /**
+     * Adds one inserted ledger row to its account-day. Inside a transaction the change is
+     * applied at commit; outside one it is applied straight away.
+     */
+    public void record(Transaction transaction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Map<Key, Delta> deltas = new TreeMap<>(LOCK_ORDER);
+            add(deltas, transaction);
+            apply(deltas, Collections.emptyMap());
+            return;
+        }
+        add(pending().deltas, transaction);
+    }
+
+    /**
+     * Books the current transaction's rows of {@code accountId} to rollup slot {@code slot}
+     * instead of slot 0. Called by {@link com.banking.banking.app.hotaccount.BalanceSlots} for
+     * a deposit it added to a balance slot; a no-op outside a transaction.
+     */
+    public void useSlot(long accountId, int slot) {
+        if (slot != 0 && TransactionSynchronizationManager.isSynchronizationActive()) {
+            pending().slots.put(accountId, slot);
+        }
+    }
+
+    private Pending pending() {
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new Pending();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    private static void add(Map<Key, Delta> deltas, Transaction transaction) {
+        Key key = new Key(transaction.getAccountId(), transaction.getTimestamp().toLocalDate());
+        long amount = transaction.getAmount();
+        switch (transaction.getTransactionType()) {
+            case LedgerEvents.DEPOSIT -> {
+                Delta delta = deltas.computeIfAbsent(key, k -> new Delta());
+                delta.depositCount++;
+                delta.depositAmount += amount;
+            }
+            case LedgerEvents.WITHDRAW -> {
+                Delta delta = deltas.computeIfAbsent(key, k -> new Delta());
+                delta.withdrawCount++;
+                delta.withdrawAmount += amount;
+            }
+            case LedgerEvents.TRANSFER -> {
+                Delta delta = deltas.computeIfAbsent(key, k -> new Delta());
+                delta.transferCount++;
+                delta.transferAmount += amount;
+            }
+            case LedgerEvents.TRANSFER_IN -> {
+                Delta delta = deltas.computeIfAbsent(key, k -> new Delta());
+                delta.transferInCount++;
+                delta.transferInAmount += amount;
+            }
+            default -> {
+                // OPENING and any other bookkeeping event moves no money within the day
+            }
+        }
+    }
+
+    // Updates the existing rows in one batch, then inserts the account-days seen for the first time
+    private void apply(Map<Key, Delta> deltas, Map<Long, Integer> slots) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Key> keys = new ArrayList<>(deltas.keySet());
+        List<Object[]> updates = new ArrayList<>(keys.size());
+        for (Key key : keys) {
+            updates.add(deltas.get(key).parameters(key, slots.getOrDefault(key.accountId(), 0)));
+        }
+
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+        for (int i = 0; i < keys.size(); i++) {
+            Object[] parameters = updates.get(i);
+            // some drivers report SUCCESS_NO_INFO for batched updates; ask again for those rows
+            if (counts[i] == 0 || (counts[i] == Statement.SUCCESS_NO_INFO && jdbcTemplate.update(UPDATE_SQL, parameters) == 0)) {
+                try {
+                    jdbcTemplate.update(INSERT_SQL, parameters);
+                } catch (DuplicateKeyException e) {
+                    // another transaction inserted the account-day first
+                    jdbcTemplate.update(UPDATE_SQL, parameters);
+                }
+            }
+        }
+    }
+
+    private static String sums(String type) {
+        return "sum(case when transaction_type = '" + type + "' then 1 else 0 end), " +
+                "coalesce(sum(case when transaction_type = '" + type + "' then amount else 0 end), 0)";
+    }
+}
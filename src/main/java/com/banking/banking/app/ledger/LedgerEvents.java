@@ -0,0 +1,32 @@
+package com.banking.banking.app.ledger;
+
+import com.banking.banking.app.money.Money;
+
+/**
+ * Transaction types as journal events, and how each one moves its account's balance.
+ * Every row of {@code transactions} touches exactly one account: a transfer is journaled
+ * as a TRANSFER debit plus a TRANSFER_IN credit, and an account's journal starts with an
+ * OPENING event carrying its initial balance (or, in event-sourced mode, its balance when
+ * the engine first loaded it).
+ */
+public final class LedgerEvents {
+
+    public static final String OPENING = "OPENING";
+    public static final String DEPOSIT = "DEPOSIT";
+    public static final String WITHDRAW = "WITHDRAW";
+    public static final String TRANSFER = "TRANSFER";
+    public static final String TRANSFER_IN = "TRANSFER_IN";
+
+    private LedgerEvents() {
+    }
+
+    // Balance after applying one event; amounts are minor units
+    public static long apply(long balance, String type, long amount) {
+        return switch (type) {
+            case OPENING -> amount;
+            case DEPOSIT, TRANSFER_IN -> Money.add(balance, amount);
+            case WITHDRAW, TRANSFER -> Money.subtract(balance, amount);
+            default -> throw new IllegalStateException("Unknown ledger event " + type);
+        };
+    }
+}
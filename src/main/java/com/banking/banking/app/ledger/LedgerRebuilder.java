@@ -0,0 +1,182 @@
+package com.banking.banking.app.ledger;
+
+import com.banking.banking.app.money.MinorUnitsConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recomputes every balance snapshot from the full journal.
+ * <p>
+ * The account id range is split into {@code banking.ledger.rebuild.partitions} slices
+ * that are replayed in parallel, each on its own connection and cursor. An account's
+ * balance is the fold of its events from its OPENING event on; anything journaled
+ * before that (rows from before event-sourced mode) is skipped. The rebuilt balances
+ * replace both the snapshots and {@code accounts.balance}.
+ * <p>
+ * Meant to run offline, before the engine takes writes (see
+ * {@code banking.ledger.rebuild-on-startup}). It is not atomic; if it fails, run it again.
+ */
+@Component
+@ConditionalOnProperty(name = "banking.engine.mode", havingValue = "event-sourced")
+public class LedgerRebuilder {
+
+    public record Result(int accounts, long events, long elapsedMillis) {
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerRebuilder.class);
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final int WRITE_BATCH_SIZE = 1000;
+
+    private static final String RANGE_SQL = "select min(account_id), max(account_id) from transactions";
+
+    private static final String PARTITION_SQL =
+            "select account_id, id, transaction_type, amount from transactions " +
+            "where account_id between ? and ? order by account_id, id";
+
+    private static final String DELETE_SNAPSHOTS_SQL = "delete from balance_snapshots";
+
+    private static final String DELETE_ORPHAN_SNAPSHOTS_SQL =
+            "delete from balance_snapshots where account_id not in (select id from accounts)";
+
+    private static final String INSERT_SNAPSHOT_SQL =
+            "insert into balance_snapshots (account_id, balance, last_event_id) values (?, ?, ?)";
+
+    private static final String UPDATE_ACCOUNT_SQL = "update accounts set balance = ?, version = version + 1 where id = ?";
+
+    // Folds one partition's events, which arrive ordered by account and then id
+    private static final class PartitionProjector {
+        final List<Object[]> snapshots = new ArrayList<>();
+        final List<Object[]> balances = new ArrayList<>();
+        long accountId = -1;
+        boolean opened;
+        long balance;
+        long lastEventId;
+        long events;
+
+        void accept(long eventAccountId, long eventId, String type, long amount) {
+            if (eventAccountId != accountId) {
+                finishAccount();
+                accountId = eventAccountId;
+                opened = false;
+            }
+            if (!opened && !LedgerEvents.OPENING.equals(type)) {
+                return;
+            }
+            opened = true;
+            balance = LedgerEvents.apply(balance, type, amount);
+            lastEventId = eventId;
+            events++;
+        }
+
+        void finishAccount() {
+            if (opened) {
+                snapshots.add(new Object[]{accountId, MinorUnitsConverter.toDecimal(balance), lastEventId});
+                balances.add(new Object[]{MinorUnitsConverter.toDecimal(balance), accountId});
+            }
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int partitions;
+
+    public LedgerRebuilder(DataSource dataSource, PlatformTransactionManager transactionManager,
+                           @Value("${banking.ledger.rebuild.partitions:4}") int partitions) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.partitions = partitions;
+    }
+
+    public Result rebuild() {
+        return rebuild(partitions);
+    }
+
+    public Result rebuild(int partitions) {
+        long began = System.nanoTime();
+        long[] range = jdbcTemplate.query(RANGE_SQL, rs -> {
+            rs.next();
+            long min = rs.getLong(1);
+            return rs.wasNull() ? null : new long[]{min, rs.getLong(2)};
+        });
+
+        jdbcTemplate.update(DELETE_SNAPSHOTS_SQL);
+        if (range == null) {
+            return new Result(0, 0, (System.nanoTime() - began) / 1_000_000);
+        }
+
+        int slices = (int) Math.max(1, Math.min(partitions, range[1] - range[0] + 1));
+        long span = (range[1] - range[0]) / slices + 1;
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(slices,
+                runnable -> new Thread(runnable, "ledger-rebuild-" + threadNumber.incrementAndGet()));
+        try {
+            List<Future<PartitionProjector>> futures = new ArrayList<>(slices);
+            for (int i = 0; i < slices; i++) {
+                long from = range[0] + i * span;
+                long to = Math.min(from + span - 1, range[1]);
+                futures.add(executor.submit(() -> replayPartition(from, to)));
+            }
+
+            int accounts = 0;
+            long events = 0;
+            for (Future<PartitionProjector> future : futures) {
+                PartitionProjector projector = future.get();
+                accounts += projector.snapshots.size();
+                events += projector.events;
+            }
+            jdbcTemplate.update(DELETE_ORPHAN_SNAPSHOTS_SQL);
+
+            Result result = new Result(accounts, events, (System.nanoTime() - began) / 1_000_000);
+            log.info("Rebuilt {} account snapshots from {} events in {} ms using {} partitions",
+                    result.accounts(), result.events(), result.elapsedMillis(), slices);
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ledger rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ledger rebuild failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private PartitionProjector replayPartition(long fromAccountId, long toAccountId) {
+        PartitionProjector projector = new PartitionProjector();
+        jdbcTemplate.query(PARTITION_SQL, rs -> {
+            projector.accept(rs.getLong(1), rs.getLong(2), rs.getString(3),
+                    MinorUnitsConverter.toMinorUnits(rs.getBigDecimal(4)));
+        }, fromAccountId, toAccountId);
+        projector.finishAccount();
+
+        for (int i = 0; i < projector.snapshots.size(); i += WRITE_BATCH_SIZE) {
+            int end = Math.min(i + WRITE_BATCH_SIZE, projector.snapshots.size());
+            List<Object[]> snapshots = projector.snapshots.subList(i, end);
+            List<Object[]> balances = projector.balances.subList(i, end);
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_SNAPSHOT_SQL, snapshots);
+                jdbcTemplate.batchUpdate(UPDATE_ACCOUNT_SQL, balances);
+            });
+        }
+        return projector;
+    }
+}
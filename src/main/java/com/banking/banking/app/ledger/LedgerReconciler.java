@@ -0,0 +1,276 @@
+package com.banking.banking.app.ledger;
+
+import com.banking.banking.app.hotaccount.BalanceSlots;
+import com.banking.banking.app.metrics.BankingMetrics;
+import com.banking.banking.app.money.MinorUnitsConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * End-of-day check that every {@code accounts.balance} equals the fold of that account's
+ * {@code transactions} rows (see {@link LedgerEvents}).
+ * <p>
+ * The account id range is split on a fork/join pool of {@code banking.reconciliation.parallelism}
+ * workers down to chunks of {@code banking.reconciliation.chunk-size} ids. Each chunk opens one
+ * read-only, repeatable-read transaction and merge-joins two forward-only cursors, accounts by id
+ * and transactions by account id, so memory stays constant whatever the size of the ledger.
+ * Every account is compared with its own ledger only, so chunks need no common snapshot.
+ * <p>
+ * The report counts every discrepancy but keeps only the first
+ * {@code banking.reconciliation.max-reported} of them. Writers that journal asynchronously
+ * (write-behind ledger, journaled and event-sourced engines) must be drained first, or their
+ * in-flight accounts are reported too.
+ * <p>
+ * Accounts from before OPENING and TRANSFER_IN rows were journaled do not fold to their balance;
+ * db/upgrade/003-ledger-baseline.sql gives each of them an OPENING row to reconcile from.
+ */
+@Component
+public class LedgerReconciler {
+
+    /**
+     * An account whose balance does not match its ledger; {@code balance} is null for ledger
+     * rows whose account does not exist. Amounts are minor units.
+     */
+    public record Discrepancy(long accountId, Long balance, long ledgerBalance) {
+    }
+
+    public record Report(long accounts, long transactions, long discrepancyCount,
+                         List<Discrepancy> discrepancies, long elapsedMillis) {
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerReconciler.class);
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String ACCOUNT_RANGE_SQL = "select min(id), max(id) from accounts";
+
+    private static final String LEDGER_RANGE_SQL = "select min(account_id), max(account_id) from transactions";
+
+    private static final String ACCOUNTS_SQL =
+            "select id, balance from accounts where id between ? and ? order by id";
+
+    // with hot-account splitting, a balance is the accounts row plus its slots
+    private static final String ACCOUNTS_WITH_SLOTS_SQL =
+            "select a.id, a.balance + coalesce((select sum(s.balance) from account_balance_slots s " +
+            "where s.account_id = a.id), 0) from accounts a where a.id between ? and ? order by a.id";
+
+    private static final String LEDGER_SQL =
+            "select account_id, transaction_type, amount from transactions " +
+            "where account_id between ? and ? order by account_id, id";
+
+    // Totals of a chunk, then of the chunks merged into it
+    private final class Partial {
+        long accounts;
+        long transactions;
+        long discrepancyCount;
+        final List<Discrepancy> discrepancies = new ArrayList<>();
+
+        void add(Discrepancy discrepancy) {
+            discrepancyCount++;
+            if (discrepancies.size() < maxReported) {
+                discrepancies.add(discrepancy);
+            }
+        }
+
+        // other covers higher ids, so the kept discrepancies stay in id order
+        Partial merge(Partial other) {
+            accounts += other.accounts;
+            transactions += other.transactions;
+            discrepancyCount += other.discrepancyCount;
+            for (Discrepancy discrepancy : other.discrepancies) {
+                if (discrepancies.size() >= maxReported) {
+                    break;
+                }
+                discrepancies.add(discrepancy);
+            }
+            return this;
+        }
+    }
+
+    private final class ChunkTask extends RecursiveTask<Partial> {
+        private final long fromAccountId;
+        private final long toAccountId;
+
+        ChunkTask(long fromAccountId, long toAccountId) {
+            this.fromAccountId = fromAccountId;
+            this.toAccountId = toAccountId;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (toAccountId - fromAccountId < chunkSize) {
+                return reconcileChunk(fromAccountId, toAccountId);
+            }
+            long middle = fromAccountId + (toAccountId - fromAccountId) / 2;
+            ChunkTask lower = new ChunkTask(fromAccountId, middle);
+            ChunkTask upper = new ChunkTask(middle + 1, toAccountId);
+            upper.fork();
+            Partial result = lower.compute();
+            return result.merge(upper.join());
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int parallelism;
+
+    private final long chunkSize;
+
+    private final int maxReported;
+
+    private final String accountsSql;
+
+    // Discrepancies found by the last completed run, -1 before the first
+    private volatile long lastDiscrepancyCount = -1;
+
+    public LedgerReconciler(DataSource dataSource,
+                            PlatformTransactionManager transactionManager,
+                            BankingMetrics bankingMetrics,
+                            BalanceSlots balanceSlots,
+                            @Value("${banking.reconciliation.parallelism:0}") int parallelism,
+                            @Value("${banking.reconciliation.chunk-size:10000}") long chunkSize,
+                            @Value("${banking.reconciliation.max-reported:1000}") int maxReported) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxReported = Math.max(0, maxReported);
+        this.accountsSql = balanceSlots.isEnabled() ? ACCOUNTS_WITH_SLOTS_SQL : ACCOUNTS_SQL;
+        bankingMetrics.reconciliationDiscrepancies(this, LedgerReconciler::getLastDiscrepancyCount);
+    }
+
+    public long getLastDiscrepancyCount() {
+        return lastDiscrepancyCount;
+    }
+
+    // Disabled unless banking.reconciliation.cron is set
+    @Scheduled(cron = "${banking.reconciliation.cron:-}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    public Report reconcile() {
+        return reconcile(parallelism);
+    }
+
+    public Report reconcile(int parallelism) {
+        long began = System.nanoTime();
+        long[] range = idRange();
+        Partial total = new Partial();
+        if (range != null) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                thread.setName("reconciliation-" + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+            try {
+                total = pool.invoke(new ChunkTask(range[0], range[1]));
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+
+        Report report = new Report(total.accounts, total.transactions, total.discrepancyCount,
+                List.copyOf(total.discrepancies), (System.nanoTime() - began) / 1_000_000);
+        lastDiscrepancyCount = report.discrepancyCount();
+        for (Discrepancy discrepancy : report.discrepancies()) {
+            log.warn("Account {} has balance {} but its ledger sums to {}", discrepancy.accountId(),
+                    discrepancy.balance() == null ? "none" : MinorUnitsConverter.toDecimal(discrepancy.balance()),
+                    MinorUnitsConverter.toDecimal(discrepancy.ledgerBalance()));
+        }
+        log.info("Reconciled {} accounts against {} transactions in {} ms using {} workers: {} discrepancies",
+                report.accounts(), report.transactions(), report.elapsedMillis(), parallelism,
+                report.discrepancyCount());
+        return report;
+    }
+
+    // Lowest and highest id in either table, or null when both are empty
+    private long[] idRange() {
+        long[] accounts = jdbcTemplate.query(ACCOUNT_RANGE_SQL, LedgerReconciler::readRange);
+        long[] ledger = jdbcTemplate.query(LEDGER_RANGE_SQL, LedgerReconciler::readRange);
+        if (accounts == null || ledger == null) {
+            return accounts == null ? ledger : accounts;
+        }
+        return new long[]{Math.min(accounts[0], ledger[0]), Math.max(accounts[1], ledger[1])};
+    }
+
+    private static long[] readRange(ResultSet rs) throws SQLException {
+        rs.next();
+        long min = rs.getLong(1);
+        return rs.wasNull() ? null : new long[]{min, rs.getLong(2)};
+    }
+
+    private Partial reconcileChunk(long fromAccountId, long toAccountId) {
+        return transactionTemplate.execute(status -> jdbcTemplate.execute((ConnectionCallback<Partial>) connection ->
+                mergeJoin(connection, fromAccountId, toAccountId)));
+    }
+
+    private Partial mergeJoin(Connection connection, long fromAccountId, long toAccountId) throws SQLException {
+        Partial partial = new Partial();
+        try (PreparedStatement accountQuery = prepare(connection, accountsSql, fromAccountId, toAccountId);
+             PreparedStatement ledgerQuery = prepare(connection, LEDGER_SQL, fromAccountId, toAccountId);
+             ResultSet accounts = accountQuery.executeQuery();
+             ResultSet ledger = ledgerQuery.executeQuery()) {
+            boolean hasAccount = accounts.next();
+            boolean hasEvent = ledger.next();
+            while (hasAccount || hasEvent) {
+                long accountRowId = hasAccount ? accounts.getLong(1) : Long.MAX_VALUE;
+                long eventAccountId = hasEvent ? ledger.getLong(1) : Long.MAX_VALUE;
+                long accountId = Math.min(accountRowId, eventAccountId);
+
+                Long balance = null;
+                if (accountRowId == accountId) {
+                    balance = MinorUnitsConverter.toMinorUnits(accounts.getBigDecimal(2));
+                    partial.accounts++;
+                    hasAccount = accounts.next();
+                }
+                long ledgerBalance = 0;
+                while (hasEvent && eventAccountId == accountId) {
+                    ledgerBalance = LedgerEvents.apply(ledgerBalance, ledger.getString(2),
+                            MinorUnitsConverter.toMinorUnits(ledger.getBigDecimal(3)));
+                    partial.transactions++;
+                    hasEvent = ledger.next();
+                    eventAccountId = hasEvent ? ledger.getLong(1) : Long.MAX_VALUE;
+                }
+
+                // an unknown account with a ledger that nets to zero has nothing to explain
+                if (balance == null ? ledgerBalance != 0 : balance != ledgerBalance) {
+                    partial.add(new Discrepancy(accountId, balance, ledgerBalance));
+                }
+            }
+        }
+        return partial;
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql, long fromAccountId, long toAccountId)
+            throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(FETCH_SIZE);
+        statement.setLong(1, fromAccountId);
+        statement.setLong(2, toAccountId);
+        return statement;
+    }
+}
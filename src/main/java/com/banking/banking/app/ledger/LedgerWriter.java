@@ -0,0 +1,243 @@
+package com.banking.banking.app.ledger;
+
+import com.banking.banking.app.entity.Transaction;
+import com.banking.banking.app.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists ledger rows for money movements.
+ * <ul>
+ *     <li>{@code DIRECT} - save each row synchronously (default)</li>
+ *     <li>{@code WRITE_BEHIND} - queue the row and return; a flusher thread inserts rows in batches</li>
+ *     <li>{@code GROUP_COMMIT} - queue the row and wait until the batch holding it has committed</li>
+ * </ul>
+ * A batch is flushed once it reaches {@code banking.ledger.batch-size} rows or
+ * {@code banking.ledger.flush-interval-ms} after its first row, whichever comes first.
+ * <p>
+ * A row appended inside a caller's database transaction must commit or roll back with it,
+ * and the caller must not wait for the flusher while it holds a pooled connection and row
+ * locks, since the flusher needs a connection of its own. So in a transaction,
+ * {@code WRITE_BEHIND} queues the row once the transaction has committed, and
+ * {@code GROUP_COMMIT} (or a full queue) saves it in the caller's transaction: that
+ * transaction's commit is the one the caller waits for.
+ */
+@Component
+public class LedgerWriter {
+
+    public enum Mode { DIRECT, WRITE_BEHIND, GROUP_COMMIT }
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerWriter.class);
+
+    private record Pending(Transaction transaction, CompletableFuture<Void> committed) {
+    }
+
+    private final TransactionRepository transactionRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate lateTransaction;
+
+    private final Mode mode;
+
+    private final int batchSize;
+
+    private final long flushIntervalNanos;
+
+    private final BlockingQueue<Pending> queue;
+
+    // Free queue places; held from append until the flusher takes the row, so a row queued
+    // after its transaction commits always fits
+    private final Semaphore capacity;
+
+    private volatile boolean running;
+
+    private Thread flusher;
+
+    public LedgerWriter(TransactionRepository transactionRepository,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${banking.ledger.mode:direct}") Mode mode,
+                        @Value("${banking.ledger.batch-size:100}") int batchSize,
+                        @Value("${banking.ledger.flush-interval-ms:5}") long flushIntervalMs,
+                        @Value("${banking.ledger.queue-capacity:10000}") int queueCapacity) {
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lateTransaction = new TransactionTemplate(transactionManager);
+        this.lateTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.mode = mode;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.capacity = new Semaphore(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (mode == Mode.DIRECT) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::drainLoop, "ledger-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // Stops accepting new work and flushes whatever is still queued
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (flusher != null) {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    public void append(Transaction transaction) {
+        if (mode == Mode.DIRECT) {
+            transactionRepository.save(transaction);
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            appendInTransaction(transaction);
+            return;
+        }
+
+        Pending pending = new Pending(transaction, mode == Mode.GROUP_COMMIT ? new CompletableFuture<>() : null);
+        try {
+            capacity.acquire();
+            queue.add(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing ledger entry", e);
+        }
+
+        if (pending.committed() != null) {
+            try {
+                pending.committed().join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+
+    private void appendInTransaction(Transaction transaction) {
+        if (mode == Mode.GROUP_COMMIT || !TransactionSynchronizationManager.isSynchronizationActive()
+                || !capacity.tryAcquire()) {
+            transactionRepository.save(transaction);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    capacity.release();
+                } else if (running) {
+                    queue.add(new Pending(transaction, null));
+                } else {
+                    // the flusher has stopped; the caller's resources are still bound, hence a new transaction
+                    capacity.release();
+                    lateTransaction.executeWithoutResult(late -> transactionRepository.save(transaction));
+                }
+            }
+        });
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    // Rows accepted but not yet committed
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // keep draining until stop() has been called and the queue is empty
+            }
+            if (!batch.isEmpty()) {
+                capacity.release(batch.size());
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        List<Transaction> rows = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            rows.add(pending.transaction());
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> transactionRepository.saveAll(rows));
+            for (Pending pending : batch) {
+                complete(pending, null);
+            }
+        } catch (RuntimeException batchFailure) {
+            // isolate the bad row(s): retry one by one so the rest of the batch still lands
+            log.warn("Ledger batch of {} rows failed, retrying individually", batch.size(), batchFailure);
+            for (Pending pending : batch) {
+                try {
+                    pending.transaction().setId(null);
+                    transactionTemplate.executeWithoutResult(status -> transactionRepository.save(pending.transaction()));
+                    complete(pending, null);
+                } catch (RuntimeException rowFailure) {
+                    log.error("Dropping ledger entry for account {}", pending.transaction().getAccountId(), rowFailure);
+                    complete(pending, rowFailure);
+                }
+            }
+        }
+    }
+
+    private static void complete(Pending pending, RuntimeException failure) {
+        if (pending.committed() == null) {
+            return;
+        }
+        if (failure == null) {
+            pending.committed().complete(null);
+        } else {
+            pending.committed().completeExceptionally(failure);
+        }
+    }
+}
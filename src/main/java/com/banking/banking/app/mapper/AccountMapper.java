@@ -2,13 +2,14 @@ package com.banking.banking.app.mapper;
 
 import com.banking.banking.app.dto.AccountDto;
 import com.banking.banking.app.entity.Account;
+import com.banking.banking.app.money.Money;
 
 public class AccountMapper {
     public static Account mapToaccount(AccountDto accountDto){
         Account account = new Account(
                 accountDto.getId(),
                 accountDto.getAccountHolderName(),
-                accountDto.getBalance()
+                accountDto.getBalance() == null ? 0 : accountDto.getBalance().minorUnits()
         );
         return account;
 
@@ -18,7 +19,7 @@ public class AccountMapper {
         AccountDto accountDto = new AccountDto(
                 account.getId(),
                 account.getAccountHolderName(),
-                account.getBalance()
+                Money.ofMinor(account.getBalance())
         );
         return accountDto;
     }
@@ -0,0 +1,195 @@
+package com.banking.banking.app.metrics;
+
+import com.banking.banking.app.ledger.LedgerWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Application meters that are not covered by {@code @Timed} on the service.
+ * Tags are limited to fixed operation and reason names, never account ids.
+ * Connection pool gauges ({@code hikaricp.connections.*}) are exported by Spring Boot,
+ * tagged with the pool name (primary or replica when read/write routing is enabled).
+ */
+@Component
+public class BankingMetrics {
+
+    // Timer name used by @Timed on AccountServiceImpl
+    public static final String OPERATION_TIMER = "banking.operation";
+
+    public static final String REJECTIONS = "banking.rejections";
+
+    public static final String LEDGER_QUEUE_DEPTH = "banking.ledger.queue.depth";
+
+    // Optimistic locking on the repository path, tagged event=conflict|retry|pessimistic
+    public static final String CONTENTION = "banking.contention";
+
+    public static final String JOURNAL_REPLICATION_LAG = "banking.journal.replication.lag";
+
+    // Adaptive concurrency limit on money movements and the requests currently inside it
+    public static final String CONCURRENCY_LIMIT = "banking.concurrency.limit";
+
+    public static final String CONCURRENCY_IN_FLIGHT = "banking.concurrency.inflight";
+
+    public static final String RECONCILIATION_DISCREPANCIES = "banking.reconciliation.discrepancies";
+
+    // Rows written by the bulk account import and ledger export, tagged operation=import|export
+    public static final String BULK_ROWS = "banking.bulk.rows";
+
+    // Transactional outbox: unpublished events, age of the oldest one, and relay output
+    public static final String OUTBOX_DEPTH = "banking.outbox.depth";
+
+    public static final String OUTBOX_LAG = "banking.outbox.lag";
+
+    public static final String OUTBOX_PUBLISHED = "banking.outbox.published";
+
+    public static final String OUTBOX_FAILURES = "banking.outbox.publish.failures";
+
+    // Accounts whose deposits are spread over balance slots, and folds of slots back into the account row
+    public static final String HOT_ACCOUNTS = "banking.accounts.hot";
+
+    public static final String SLOT_FOLDS = "banking.accounts.slot.folds";
+
+    // Routed service calls, tagged pool=primary|replica and pinned=true for read-your-writes reads
+    public static final String DATASOURCE_CALLS = "banking.datasource.calls";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> contention = new ConcurrentHashMap<>();
+
+    public BankingMetrics(MeterRegistry meterRegistry, LedgerWriter ledgerWriter) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder(LEDGER_QUEUE_DEPTH, ledgerWriter, LedgerWriter::getQueueDepth)
+                .description("Ledger rows accepted but not yet committed")
+                .register(meterRegistry);
+    }
+
+    // Registered by the journaled engine, which only exists in that mode
+    public <T> void journalReplicationLag(T source, ToDoubleFunction<T> lag) {
+        Gauge.builder(JOURNAL_REPLICATION_LAG, source, lag)
+                .description("Journal records acknowledged but not yet replicated to the database")
+                .register(meterRegistry);
+    }
+
+    // -1 until the first reconciliation has run
+    public <T> void reconciliationDiscrepancies(T source, ToDoubleFunction<T> discrepancies) {
+        Gauge.builder(RECONCILIATION_DISCREPANCIES, source, discrepancies)
+                .description("Accounts whose balance did not match their ledger in the last reconciliation")
+                .register(meterRegistry);
+    }
+
+    public <T> void concurrencyLimit(T source, ToDoubleFunction<T> limit, ToDoubleFunction<T> inFlight) {
+        Gauge.builder(CONCURRENCY_LIMIT, source, limit)
+                .description("Money movements allowed to run at once")
+                .register(meterRegistry);
+        Gauge.builder(CONCURRENCY_IN_FLIGHT, source, inFlight)
+                .description("Money movements running now")
+                .register(meterRegistry);
+    }
+
+    // Registered by the outbox relay, which only exists when banking.outbox.enabled is set
+    public <T> void outbox(T source, ToDoubleFunction<T> depth, ToDoubleFunction<T> lagSeconds) {
+        Gauge.builder(OUTBOX_DEPTH, source, depth)
+                .description("Account events written to the outbox but not yet published")
+                .register(meterRegistry);
+        Gauge.builder(OUTBOX_LAG, source, lagSeconds)
+                .description("Age of the oldest unpublished account event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    public void outboxPublished(int events) {
+        Counter.builder(OUTBOX_PUBLISHED)
+                .description("Account events published by the outbox relay")
+                .register(meterRegistry).increment(events);
+    }
+
+    public void outboxPublishFailed() {
+        Counter.builder(OUTBOX_FAILURES)
+                .description("Outbox relay cycles that failed and will be retried")
+                .register(meterRegistry).increment();
+    }
+
+    // Registered by BalanceSlots when banking.hot-accounts.enabled is set
+    public <T> void hotAccounts(T source, ToDoubleFunction<T> count) {
+        Gauge.builder(HOT_ACCOUNTS, source, count)
+                .description("Accounts currently detected as hot, whose deposits go to balance slots")
+                .register(meterRegistry);
+    }
+
+    public void slotFold() {
+        Counter.builder(SLOT_FOLDS)
+                .description("Balance slots folded back into the account row for a debit")
+                .register(meterRegistry).increment();
+    }
+
+    // Only called when banking.datasource.routing.enabled is set
+    public void routedCall(String pool, boolean pinned, long nanos) {
+        Timer.builder(DATASOURCE_CALLS)
+                .description("Service calls routed to a connection pool")
+                .tag("pool", pool)
+                .tag("pinned", String.valueOf(pinned))
+                .register(meterRegistry).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void bulkRows(String operation, long rows) {
+        Counter.builder(BULK_ROWS)
+                .description("Rows imported or exported in bulk")
+                .tag("operation", operation)
+                .register(meterRegistry).increment(rows);
+    }
+
+    public void insufficientFunds(String operation) {
+        rejection("insufficient_funds", operation);
+    }
+
+    // A client or an account used up its token bucket; scope is "client" or "account"
+    public void rateLimited(String scope, String operation) {
+        rejection("rate_limited_" + scope, operation);
+    }
+
+    // Shed because the concurrency limit was reached
+    public void overloaded(String operation) {
+        rejection("overloaded", operation);
+    }
+
+    private void rejection(String reason, String operation) {
+        rejections.computeIfAbsent(reason + ':' + operation, key -> Counter.builder(REJECTIONS)
+                .description("Money movements rejected by business rules or admission control")
+                .tag("reason", reason)
+                .tag("operation", operation)
+                .register(meterRegistry)).increment();
+    }
+
+    // A version check failed
+    public void optimisticConflict(String operation) {
+        contention("conflict", operation);
+    }
+
+    // An operation is run again after a conflict
+    public void optimisticRetry(String operation) {
+        contention("retry", operation);
+    }
+
+    // An operation runs under SELECT ... FOR UPDATE instead of a version check
+    public void pessimisticFallback(String operation) {
+        contention("pessimistic", operation);
+    }
+
+    private void contention(String event, String operation) {
+        contention.computeIfAbsent(event + ':' + operation, key -> Counter.builder(CONTENTION)
+                .description("Optimistic locking conflicts, retries and pessimistic fallbacks")
+                .tag("event", event)
+                .tag("operation", operation)
+                .register(meterRegistry)).increment();
+    }
+}
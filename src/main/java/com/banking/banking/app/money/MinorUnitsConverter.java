@@ -0,0 +1,35 @@
+package com.banking.banking.app.money;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Maps an entity's long minor units to a DECIMAL(19, 2) column, so the table keeps holding
+ * readable amounts while Java code never sees a double. Databases whose balance and amount
+ * columns are still DOUBLE need db/upgrade/002-decimal-money-columns.sql first.
+ */
+@Converter
+public class MinorUnitsConverter implements AttributeConverter<Long, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long minorUnits) {
+        return minorUnits == null ? null : toDecimal(minorUnits);
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal amount) {
+        return amount == null ? null : toMinorUnits(amount);
+    }
+
+    // Also used by the plain JDBC readers. Rounding only matters while a column has not been migrated off DOUBLE
+    public static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(Money.SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, Money.SCALE);
+    }
+}
@@ -0,0 +1,181 @@
+package com.banking.banking.app.money;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Immutable fixed-point amount held as a {@code long} of minor units (cents) at
+ * {@link #SCALE} decimal places.
+ * <p>
+ * Entities store balances and amounts as raw minor units, and the hot paths work on
+ * those longs through the static {@link #add(long, long)} / {@link #subtract(long, long)}
+ * helpers, so deposit and withdraw arithmetic allocates nothing. A {@code Money}
+ * instance is only created at the API edge (DTOs, JSON). Arithmetic that would overflow
+ * throws {@link ArithmeticException} rather than wrapping.
+ */
+@JsonSerialize(using = MoneyJsonSerializer.class)
+@JsonDeserialize(using = MoneyJsonDeserializer.class)
+public final class Money implements Comparable<Money>, Serializable {
+
+    public static final int SCALE = 2;
+
+    public static final long MINOR_PER_MAJOR = 100;
+
+    public static final Money ZERO = new Money(0);
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    // Exact conversion; more than SCALE fraction digits is rejected instead of rounded
+    public static Money of(BigDecimal amount) {
+        try {
+            return ofMinor(amount.movePointRight(SCALE).longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid amount " + amount.toPlainString(), e);
+        }
+    }
+
+    public static Money of(String amount) {
+        return ofMinor(parseMinor(amount));
+    }
+
+    /**
+     * Parses a plain decimal such as {@code 125}, {@code -3.5} or {@code 0.07} straight into
+     * minor units without going through {@link BigDecimal}.
+     */
+    public static long parseMinor(CharSequence text) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+        if (i == length) {
+            throw invalid(text);
+        }
+
+        long major = 0;
+        int digits = 0;
+        for (; i < length && text.charAt(i) != '.'; i++, digits++) {
+            major = Math.addExact(Math.multiplyExact(major, 10), digit(text, i));
+        }
+
+        long fraction = 0;
+        int fractionDigits = 0;
+        if (i < length) {
+            for (i++; i < length; i++, fractionDigits++) {
+                if (fractionDigits == SCALE) {
+                    // trailing zeros past the scale are harmless, anything else would be rounded
+                    if (digit(text, i) != 0) {
+                        throw invalid(text);
+                    }
+                    continue;
+                }
+                fraction = fraction * 10 + digit(text, i);
+            }
+        }
+        if (digits == 0 && fractionDigits == 0) {
+            throw invalid(text);
+        }
+        for (int pad = Math.min(fractionDigits, SCALE); pad < SCALE; pad++) {
+            fraction *= 10;
+        }
+
+        long minor = Math.addExact(Math.multiplyExact(major, MINOR_PER_MAJOR), fraction);
+        return negative ? -minor : minor;
+    }
+
+    public static long add(long minorUnits, long amount) {
+        return Math.addExact(minorUnits, amount);
+    }
+
+    public static long subtract(long minorUnits, long amount) {
+        return Math.subtractExact(minorUnits, amount);
+    }
+
+    public long minorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(add(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(subtract(minorUnits, other.minorUnits));
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && other.minorUnits == minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    // Plain decimal with exactly SCALE fraction digits, e.g. "125.00" or "-0.05"
+    @Override
+    public String toString() {
+        return toString(minorUnits);
+    }
+
+    public static String toString(long minorUnits) {
+        return appendTo(new StringBuilder(24), minorUnits).toString();
+    }
+
+    // Same text as toString(long), appended to a reused buffer, e.g. by the ledger export
+    public static StringBuilder appendTo(StringBuilder text, long minorUnits) {
+        long major = Math.abs(minorUnits / MINOR_PER_MAJOR);
+        long fraction = Math.abs(minorUnits % MINOR_PER_MAJOR);
+        if (minorUnits < 0) {
+            text.append('-');
+        }
+        text.append(major).append('.');
+        if (fraction < 10) {
+            text.append('0');
+        }
+        return text.append(fraction);
+    }
+
+    private static int digit(CharSequence text, int index) {
+        char c = text.charAt(index);
+        if (c < '0' || c > '9') {
+            throw invalid(text);
+        }
+        return c - '0';
+    }
+
+    private static IllegalArgumentException invalid(CharSequence text) {
+        return new IllegalArgumentException("Invalid amount " + text);
+    }
+}
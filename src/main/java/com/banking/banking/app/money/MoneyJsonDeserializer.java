@@ -0,0 +1,44 @@
+package com.banking.banking.app.money;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads a JSON number or numeric string into {@link Money}. Plain decimals are parsed from
+ * the token text directly; exponent notation goes through {@link java.math.BigDecimal}.
+ * Amounts with more than {@link Money#SCALE} significant fraction digits are rejected.
+ */
+public class MoneyJsonDeserializer extends StdDeserializer<Money> {
+
+    public MoneyJsonDeserializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            try {
+                return Money.ofMinor(Math.multiplyExact(p.getLongValue(), Money.MINOR_PER_MAJOR));
+            } catch (ArithmeticException e) {
+                return (Money) ctxt.handleWeirdNumberValue(Money.class, p.getNumberValue(), "Amount out of range");
+            }
+        }
+        if (token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_STRING) {
+            String text = p.getText().trim();
+            try {
+                if (text.indexOf('e') < 0 && text.indexOf('E') < 0) {
+                    return Money.ofMinor(Money.parseMinor(text));
+                }
+                return Money.of(p.getDecimalValue());
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                return (Money) ctxt.handleWeirdStringValue(Money.class, text, e.getMessage());
+            }
+        }
+        return (Money) ctxt.handleUnexpectedToken(Money.class, p);
+    }
+}
@@ -0,0 +1,7 @@
+package com.banking.banking.app.outbox;
+
+import com.banking.banking.app.money.Money;
+
+// A published balance change; id increases with every event of the same account
+public record AccountEvent(long id, long accountId, String eventType, Money amount, Money balance, String timestamp) {
+}
@@ -0,0 +1,103 @@
+package com.banking.banking.app.outbox;
+
+import com.banking.banking.app.entity.OutboxEntry;
+import com.banking.banking.app.money.MinorUnitsConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes an {@code account_outbox} row for every balance change, so downstream systems
+ * learn about deposits, withdrawals and transfers from {@link OutboxRelay} instead of
+ * polling the transaction history.
+ * <p>
+ * The insert runs on the JDBC connection of the surrounding transaction, so the event
+ * commits or rolls back with the change it describes. Callers write it after the
+ * account's row is locked (the balance update), which keeps each account's events in
+ * commit order. The relay is woken after commit instead of waiting for its next poll.
+ * Nothing is written unless {@code banking.outbox.enabled} is set.
+ */
+@Component
+public class AccountOutbox {
+
+    private static final String INSERT_SQL =
+            "insert into account_outbox (account_id, event_type, amount, balance, created_at) values (?, ?, ?, ?, ?)";
+
+    // Wakes the relay once per committed transaction, however many events it wrote
+    private final class WakeUp implements TransactionSynchronization {
+
+        @Override
+        public void afterCommit() {
+            listener.run();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(AccountOutbox.this);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final boolean enabled;
+
+    private volatile Runnable listener = () -> { };
+
+    public AccountOutbox(DataSource dataSource,
+                         @Value("${banking.outbox.enabled:false}") boolean enabled) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Called by the relay; runs after each commit that wrote events
+    void onCommit(Runnable listener) {
+        this.listener = listener;
+    }
+
+    // Amount and balance after the change in minor units; type is one of LedgerEvents
+    public void record(long accountId, String eventType, long amount, long balance) {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.update(INSERT_SQL, accountId, eventType, MinorUnitsConverter.toDecimal(amount),
+                MinorUnitsConverter.toDecimal(balance), LocalDateTime.now());
+        wakeAfterCommit();
+    }
+
+    // Same as record for many events, in one JDBC batch; the entries' ids are not used
+    public void recordAll(List<OutboxEntry> entries) {
+        if (!enabled || entries.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(entries.size());
+        for (OutboxEntry entry : entries) {
+            rows.add(new Object[]{entry.getAccountId(), entry.getEventType(), MinorUnitsConverter.toDecimal(entry.getAmount()),
+                    MinorUnitsConverter.toDecimal(entry.getBalance()), entry.getCreatedAt()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        wakeAfterCommit();
+    }
+
+    private void wakeAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            listener.run();
+            return;
+        }
+        if (!TransactionSynchronizationManager.hasResource(this)) {
+            WakeUp wakeUp = new WakeUp();
+            TransactionSynchronizationManager.bindResource(this, wakeUp);
+            TransactionSynchronizationManager.registerSynchronization(wakeUp);
+        }
+    }
+}
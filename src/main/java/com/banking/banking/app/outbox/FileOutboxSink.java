@@ -0,0 +1,63 @@
+package com.banking.banking.app.outbox;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Stand-in sink that appends every event as one NDJSON line to
+ * {@code banking.outbox.file} and forces the file to disk before the relay deletes the
+ * batch. Replayed batches show up as repeated lines with the same event id.
+ */
+@Component
+@ConditionalOnExpression("${banking.outbox.enabled:false} and '${banking.outbox.sink:file}' == 'file'")
+public class FileOutboxSink implements OutboxSink {
+
+    private final ObjectWriter writer;
+
+    private final FileChannel channel;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+
+    public FileOutboxSink(ObjectMapper objectMapper,
+                          @Value("${banking.outbox.file:outbox/account-events.ndjson}") Path file) throws IOException {
+        this.writer = objectMapper.writerFor(AccountEvent.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    // Called from the relay thread only
+    @Override
+    public void publish(List<AccountEvent> events) throws IOException {
+        buffer.reset();
+        for (AccountEvent event : events) {
+            writer.writeValue(buffer, event);
+            buffer.write('\n');
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        channel.force(false);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,55 @@
+package com.banking.banking.app.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-process stand-in sink for tests: keeps every published event, and can be told to
+ * fail the next few publishes to exercise the relay's retries.
+ */
+@Component
+@ConditionalOnExpression("${banking.outbox.enabled:false} and '${banking.outbox.sink:file}' == 'memory'")
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<AccountEvent> published = new ArrayList<>();
+
+    private int failures;
+
+    @Override
+    public synchronized void publish(List<AccountEvent> events) {
+        if (failures > 0) {
+            failures--;
+            throw new IllegalStateException("Simulated sink failure");
+        }
+        published.addAll(events);
+        notifyAll();
+    }
+
+    public synchronized List<AccountEvent> events() {
+        return List.copyOf(published);
+    }
+
+    public synchronized void clear() {
+        published.clear();
+    }
+
+    public synchronized void failNext(int publishes) {
+        failures = publishes;
+    }
+
+    // Waits until at least count events have been published; false on timeout
+    public synchronized boolean awaitEvents(int count, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (published.size() < count) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+}
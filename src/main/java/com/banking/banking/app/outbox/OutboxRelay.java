@@ -0,0 +1,229 @@
+package com.banking.banking.app.outbox;
+
+import com.banking.banking.app.metrics.BankingMetrics;
+import com.banking.banking.app.money.MinorUnitsConverter;
+import com.banking.banking.app.money.Money;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains {@code account_outbox} into the {@link OutboxSink} on one background thread.
+ * <p>
+ * Each cycle reads the oldest {@code banking.outbox.batch-size} rows in id order, publishes
+ * them in one call and then deletes them, so delivery is at-least-once: a failed publish is
+ * retried with the same rows after a backoff, and a crash between publish and delete
+ * publishes the rows again. Per-account order holds because the rows of one account are
+ * numbered in commit order (see {@link com.banking.banking.app.entity.OutboxEntry}) and a
+ * batch is only deleted after it was published. Run one relay per database, e.g. by setting
+ * {@code banking.outbox.relay-enabled} on a single instance.
+ * <p>
+ * Full batches are drained back to back; otherwise the relay waits for the next commit that
+ * wrote an event, or {@code banking.outbox.poll-interval-ms} for writes from other instances.
+ * The age of the oldest unpublished event is exported as the relay lag and logged when it
+ * exceeds {@code banking.outbox.max-lag}.
+ */
+@Component
+@ConditionalOnExpression("${banking.outbox.enabled:false} and ${banking.outbox.relay-enabled:true}")
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final String PENDING_SQL =
+            "select id, account_id, event_type, amount, balance, created_at from account_outbox order by id limit ?";
+
+    private static final String DELETE_SQL = "delete from account_outbox where id = ?";
+
+    private static final String DEPTH_SQL = "select count(*) from account_outbox";
+
+    // a full backlog is counted at most this often
+    private static final long DEPTH_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final AccountOutbox accountOutbox;
+
+    private final OutboxSink sink;
+
+    private final BankingMetrics bankingMetrics;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final long pollIntervalMs;
+
+    private final long backoffMaxMs;
+
+    private final Duration maxLag;
+
+    private final Semaphore wakeUp = new Semaphore(0);
+
+    private volatile boolean running;
+
+    private Thread relay;
+
+    private volatile long depth;
+
+    private volatile double lagSeconds;
+
+    private long depthCountedAt;
+
+    private boolean lagging;
+
+    public OutboxRelay(AccountOutbox accountOutbox,
+                       OutboxSink sink,
+                       BankingMetrics bankingMetrics,
+                       DataSource dataSource,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${banking.outbox.batch-size:500}") int batchSize,
+                       @Value("${banking.outbox.poll-interval-ms:1000}") long pollIntervalMs,
+                       @Value("${banking.outbox.backoff-max-ms:30000}") long backoffMaxMs,
+                       @Value("${banking.outbox.max-lag:30s}") Duration maxLag) {
+        this.accountOutbox = accountOutbox;
+        this.sink = sink;
+        this.bankingMetrics = bankingMetrics;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.pollIntervalMs = pollIntervalMs;
+        this.backoffMaxMs = backoffMaxMs;
+        this.maxLag = maxLag;
+        bankingMetrics.outbox(this, OutboxRelay::getDepth, OutboxRelay::getLagSeconds);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        accountOutbox.onCommit(this::wake);
+        relay = new Thread(this::relayLoop, "outbox-relay");
+        relay.setDaemon(true);
+        relay.start();
+    }
+
+    // Finishes the batch in flight; what is left stays in the table for the next start
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        wake();
+        if (relay != null) {
+            relay.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    // Events not yet published, as of the last cycle
+    public long getDepth() {
+        return depth;
+    }
+
+    // Age of the oldest event not yet published, as of the last cycle
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+
+    private void wake() {
+        if (wakeUp.availablePermits() == 0) {
+            wakeUp.release();
+        }
+    }
+
+    private void relayLoop() {
+        int failures = 0;
+        while (running) {
+            long waitMs = pollIntervalMs;
+            try {
+                if (relayBatch() == batchSize) {
+                    waitMs = 0;
+                }
+                failures = 0;
+            } catch (Exception e) {
+                failures++;
+                bankingMetrics.outboxPublishFailed();
+                waitMs = Math.min(backoffMaxMs, pollIntervalMs << Math.min(failures, 20));
+                log.warn("Outbox relay failed {} times in a row, retrying in {} ms", failures, waitMs, e);
+            }
+            if (waitMs > 0) {
+                try {
+                    // a failing sink is not retried early just because new events arrived
+                    if (failures > 0) {
+                        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMs);
+                        while (running && System.nanoTime() < deadline) {
+                            Thread.sleep(Math.min(100, waitMs));
+                        }
+                    } else if (wakeUp.tryAcquire(waitMs, TimeUnit.MILLISECONDS)) {
+                        wakeUp.drainPermits();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Publishes and deletes the oldest batch; returns its size
+    int relayBatch() throws Exception {
+        List<AccountEvent> batch = jdbcTemplate.query(PENDING_SQL, OutboxRelay::toEvent, batchSize);
+        updateLag(batch);
+        if (batch.isEmpty()) {
+            depth = 0;
+            return 0;
+        }
+
+        sink.publish(batch);
+
+        List<Object[]> ids = new ArrayList<>(batch.size());
+        for (AccountEvent event : batch) {
+            ids.add(new Object[]{event.id()});
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(DELETE_SQL, ids));
+        bankingMetrics.outboxPublished(batch.size());
+
+        if (batch.size() < batchSize) {
+            depth = 0;
+        } else if (System.nanoTime() - depthCountedAt > DEPTH_REFRESH_NANOS) {
+            Long count = jdbcTemplate.queryForObject(DEPTH_SQL, Long.class);
+            depth = count == null ? 0 : count;
+            depthCountedAt = System.nanoTime();
+        }
+        return batch.size();
+    }
+
+    private void updateLag(List<AccountEvent> batch) {
+        Duration lag = batch.isEmpty()
+                ? Duration.ZERO
+                : Duration.between(LocalDateTime.parse(batch.get(0).timestamp()), LocalDateTime.now());
+        lagSeconds = Math.max(0, lag.toMillis() / 1000.0);
+        if (lag.compareTo(maxLag) > 0 && !lagging) {
+            log.warn("Outbox relay is {} s behind, above banking.outbox.max-lag of {} s", lag.toSeconds(), maxLag.toSeconds());
+        }
+        lagging = lag.compareTo(maxLag) > 0;
+    }
+
+    private static AccountEvent toEvent(ResultSet rs, int row) throws SQLException {
+        return new AccountEvent(
+                rs.getLong(1),
+                rs.getLong(2),
+                rs.getString(3),
+                Money.ofMinor(MinorUnitsConverter.toMinorUnits(rs.getBigDecimal(4))),
+                Money.ofMinor(MinorUnitsConverter.toMinorUnits(rs.getBigDecimal(5))),
+                rs.getTimestamp(6).toLocalDateTime().toString());
+    }
+}
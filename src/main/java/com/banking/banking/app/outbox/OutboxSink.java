@@ -0,0 +1,17 @@
+package com.banking.banking.app.outbox;
+
+import java.util.List;
+
+/**
+ * Where {@link OutboxRelay} delivers account events, e.g. a message broker.
+ * <p>
+ * Events arrive in id order. A call that throws is retried with the same events, and a
+ * call that returns may still be repeated if the process dies before the relay deletes
+ * the rows, so consumers must tolerate duplicates (the event id identifies them).
+ * {@code banking.outbox.sink} selects one of the stand-ins, file or memory; any other
+ * value leaves the sink to an {@code OutboxSink} bean of the application.
+ */
+public interface OutboxSink {
+
+    void publish(List<AccountEvent> events) throws Exception;
+}
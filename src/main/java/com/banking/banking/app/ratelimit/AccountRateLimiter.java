@@ -0,0 +1,64 @@
+package com.banking.banking.app.ratelimit;
+
+import com.banking.banking.app.exception.RateLimitException;
+import com.banking.banking.app.metrics.BankingMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-account token buckets for money movements, checked by the controllers once the
+ * account is known (a transfer's source account is only in its body, past the servlet
+ * filters). Limits how fast any one account can be debited or credited, whichever
+ * clients the requests come from.
+ * <p>
+ * Credits can be exempted with {@code banking.ratelimit.account.exempt-credits}, which
+ * defaults to on with {@code banking.hot-accounts.enabled}: a hot account is one credited
+ * far faster than this limit allows, and its balance slots are there to take that load.
+ */
+@Component
+public class AccountRateLimiter {
+
+    private final boolean enabled;
+
+    private final boolean exemptCredits;
+
+    private final TokenBucketLimiter<Long> limiter;
+
+    private final BankingMetrics bankingMetrics;
+
+    public AccountRateLimiter(BankingMetrics bankingMetrics,
+                              @Value("${banking.ratelimit.enabled:true}") boolean enabled,
+                              @Value("${banking.ratelimit.account.rate:20}") double ratePerSecond,
+                              @Value("${banking.ratelimit.account.burst:40}") int burst,
+                              @Value("${banking.ratelimit.account.exempt-credits:${banking.hot-accounts.enabled:false}}") boolean exemptCredits,
+                              @Value("${banking.ratelimit.max-keys:100000}") long maxKeys,
+                              @Value("${banking.ratelimit.idle-expiry:10m}") Duration idleExpiry) {
+        this.bankingMetrics = bankingMetrics;
+        this.enabled = enabled;
+        this.exemptCredits = exemptCredits;
+        this.limiter = new TokenBucketLimiter<>(ratePerSecond, burst, maxKeys, idleExpiry);
+    }
+
+    // Same as acquire, for an operation that only credits the account
+    public void acquireCredit(long accountId, String operation) {
+        if (!exemptCredits) {
+            acquire(accountId, operation);
+        }
+    }
+
+    // Throws RateLimitException when the account has no token left for this operation
+    public void acquire(long accountId, String operation) {
+        if (!enabled) {
+            return;
+        }
+        long waitNanos = limiter.tryAcquire(accountId);
+        if (waitNanos > 0) {
+            bankingMetrics.rateLimited("account", operation);
+            throw new RateLimitException("Too many requests for this account",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)));
+        }
+    }
+}
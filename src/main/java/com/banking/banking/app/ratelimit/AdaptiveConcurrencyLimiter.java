@@ -0,0 +1,187 @@
+package com.banking.banking.app.ratelimit;
+
+import com.banking.banking.app.metrics.BankingMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Caps how many money movements run at once, and adapts the cap to how the database copes.
+ * <p>
+ * Every {@code banking.shedding.sample-interval-ms} the mean latency of the requests that
+ * completed, and the mean time Hikari made them wait for a connection
+ * ({@code hikaricp.connections.acquire}), are compared with their thresholds. Above either
+ * one the limit shrinks by {@code backoff-ratio} (multiplicative decrease); otherwise it
+ * grows by one (additive increase), within {@code min-limit} and {@code max-limit}.
+ * Requests beyond the limit are rejected at once rather than queued for a connection.
+ * Acquire and release are a CAS and two adders; the adjustment runs on whichever request
+ * completes first after the interval.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final String POOL_ACQUIRE_TIMER = "hikaricp.connections.acquire";
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder latencyNanos = new LongAdder();
+
+    private final LongAdder completions = new LongAdder();
+
+    // Held by the thread adjusting the limit; also publishes the fields below
+    private final AtomicBoolean adjusting = new AtomicBoolean();
+
+    private final boolean enabled;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double backoffRatio;
+
+    private final long latencyThresholdNanos;
+
+    private final double poolWaitThresholdMillis;
+
+    private final long intervalNanos;
+
+    private final DoubleSupplier poolWaitMillis;
+
+    private final LongSupplier clock;
+
+    private volatile int limit;
+
+    private volatile long nextAdjustmentNanos;
+
+    @Autowired
+    public AdaptiveConcurrencyLimiter(MeterRegistry meterRegistry,
+                                      BankingMetrics bankingMetrics,
+                                      @Value("${banking.shedding.enabled:true}") boolean enabled,
+                                      @Value("${banking.shedding.initial-limit:50}") int initialLimit,
+                                      @Value("${banking.shedding.min-limit:4}") int minLimit,
+                                      @Value("${banking.shedding.max-limit:200}") int maxLimit,
+                                      @Value("${banking.shedding.backoff-ratio:0.9}") double backoffRatio,
+                                      @Value("${banking.shedding.latency-threshold-ms:250}") long latencyThresholdMs,
+                                      @Value("${banking.shedding.pool-wait-threshold-ms:50}") double poolWaitThresholdMs,
+                                      @Value("${banking.shedding.sample-interval-ms:500}") long intervalMs) {
+        this(enabled, initialLimit, minLimit, maxLimit, backoffRatio, latencyThresholdMs, poolWaitThresholdMs,
+                intervalMs, new PoolWaitProbe(meterRegistry), System::nanoTime);
+        bankingMetrics.concurrencyLimit(this, AdaptiveConcurrencyLimiter::getLimit,
+                AdaptiveConcurrencyLimiter::getInFlight);
+    }
+
+    AdaptiveConcurrencyLimiter(boolean enabled, int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                               long latencyThresholdMs, double poolWaitThresholdMs, long intervalMs,
+                               DoubleSupplier poolWaitMillis, LongSupplier clock) {
+        this.enabled = enabled;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs);
+        this.poolWaitThresholdMillis = poolWaitThresholdMs;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+        this.poolWaitMillis = poolWaitMillis;
+        this.clock = clock;
+        this.nextAdjustmentNanos = clock.getAsLong() + intervalNanos;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    // Returns the start time to hand back to release, or -1 when the request must be shed
+    public long tryAcquire() {
+        for (;;) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return clock.getAsLong();
+            }
+        }
+    }
+
+    public void release(long startNanos) {
+        long now = clock.getAsLong();
+        inFlight.decrementAndGet();
+        latencyNanos.add(now - startNanos);
+        completions.increment();
+        if (now - nextAdjustmentNanos >= 0) {
+            adjust(now);
+        }
+    }
+
+    private void adjust(long now) {
+        if (!adjusting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (now - nextAdjustmentNanos < 0) {
+                return;
+            }
+            nextAdjustmentNanos = now + intervalNanos;
+            long count = completions.sumThenReset();
+            long total = latencyNanos.sumThenReset();
+            double poolWait = poolWaitMillis.getAsDouble();
+            if (count == 0) {
+                return;
+            }
+            if (total / count > latencyThresholdNanos || poolWait > poolWaitThresholdMillis) {
+                limit = Math.max(minLimit, (int) (limit * backoffRatio));
+            } else if (limit < maxLimit) {
+                limit = limit + 1;
+            }
+        } finally {
+            adjusting.set(false);
+        }
+    }
+
+    // Mean connection wait since the previous call, over every Hikari pool
+    static final class PoolWaitProbe implements DoubleSupplier {
+
+        private final MeterRegistry meterRegistry;
+
+        private double lastTotalMillis;
+
+        private long lastCount;
+
+        PoolWaitProbe(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        // Called by the adjusting thread only
+        @Override
+        public double getAsDouble() {
+            double totalMillis = 0;
+            long count = 0;
+            for (Timer timer : meterRegistry.find(POOL_ACQUIRE_TIMER).timers()) {
+                totalMillis += timer.totalTime(TimeUnit.MILLISECONDS);
+                count += timer.count();
+            }
+            double waited = totalMillis - lastTotalMillis;
+            long acquired = count - lastCount;
+            lastTotalMillis = totalMillis;
+            lastCount = count;
+            return acquired > 0 ? waited / acquired : 0;
+        }
+    }
+}
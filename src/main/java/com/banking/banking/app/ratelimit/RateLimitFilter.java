@@ -0,0 +1,144 @@
+package com.banking.banking.app.ratelimit;
+
+import com.banking.banking.app.exception.ErrorDetails;
+import com.banking.banking.app.metrics.BankingMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Admission control in front of the money-movement endpoints of {@code AccountController}
+ * (deposit, withdraw, transfer and batch transfer); reads are not limited.
+ * <p>
+ * A request first takes a token from its client's bucket, keyed by the
+ * {@code banking.ratelimit.client-header} header (set by the gateway) or else the remote
+ * address, and gets 429 with {@code Retry-After} when there is none. It is then admitted by
+ * {@link AdaptiveConcurrencyLimiter} or shed with 503, before its body is read or a
+ * connection is taken. Per-account limits are applied later by {@link AccountRateLimiter}.
+ */
+@Component
+@Profile("!reactive")
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Pattern MONEY_MOVEMENT =
+            Pattern.compile("/api/accounts/(?:\\d+/(deposit|withdraw)|(transfer)|transfers/batch)");
+
+    private final boolean rateLimitEnabled;
+
+    private final String clientHeader;
+
+    private final TokenBucketLimiter<String> clientLimiter;
+
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    private final BankingMetrics bankingMetrics;
+
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(AdaptiveConcurrencyLimiter concurrencyLimiter,
+                           BankingMetrics bankingMetrics,
+                           ObjectMapper objectMapper,
+                           @Value("${banking.ratelimit.enabled:true}") boolean rateLimitEnabled,
+                           @Value("${banking.ratelimit.client-header:X-Client-Id}") String clientHeader,
+                           @Value("${banking.ratelimit.client.rate:50}") double ratePerSecond,
+                           @Value("${banking.ratelimit.client.burst:100}") int burst,
+                           @Value("${banking.ratelimit.max-keys:100000}") long maxKeys,
+                           @Value("${banking.ratelimit.idle-expiry:10m}") Duration idleExpiry) {
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.bankingMetrics = bankingMetrics;
+        this.objectMapper = objectMapper;
+        this.rateLimitEnabled = rateLimitEnabled;
+        this.clientHeader = clientHeader;
+        this.clientLimiter = new TokenBucketLimiter<>(ratePerSecond, burst, maxKeys, idleExpiry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !rateLimitEnabled && !concurrencyLimiter.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String operation = operation(request.getMethod(), path);
+        if (operation == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        if (rateLimitEnabled) {
+            long waitNanos = clientLimiter.tryAcquire(clientKey(request));
+            if (waitNanos > 0) {
+                bankingMetrics.rateLimited("client", operation);
+                long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+                reject(response, path, HttpStatus.TOO_MANY_REQUESTS, "Too many requests from this client",
+                        "TOO_MANY_REQUESTS", retryAfter);
+                return;
+            }
+        }
+
+        if (!concurrencyLimiter.isEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long started = concurrencyLimiter.tryAcquire();
+        if (started < 0) {
+            bankingMetrics.overloaded(operation);
+            reject(response, path, HttpStatus.SERVICE_UNAVAILABLE, "Service is busy, retry later",
+                    "SERVICE_UNAVAILABLE", 1);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            concurrencyLimiter.release(started);
+        }
+    }
+
+    // Operation name for metrics, or null when the request is not a money movement
+    static String operation(String method, String path) {
+        Matcher matcher = MONEY_MOVEMENT.matcher(path);
+        if (!matcher.matches()) {
+            return null;
+        }
+        if (matcher.group(1) != null) {
+            return "PUT".equals(method) ? matcher.group(1) : null;
+        }
+        if (!"POST".equals(method)) {
+            return null;
+        }
+        return matcher.group(2) != null ? "transfer" : "transfer_batch";
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        String client = request.getHeader(clientHeader);
+        return client != null && !client.isBlank() ? client : request.getRemoteAddr();
+    }
+
+    // Same body as GlobalExceptionHandler, which is not reached from a filter
+    private void reject(HttpServletResponse response, String path, HttpStatus status, String message,
+                        String errorCode, long retryAfterSeconds) throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorDetails(LocalDateTime.now(), message, "uri=" + path, errorCode));
+    }
+}
@@ -0,0 +1,73 @@
+package com.banking.banking.app.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets keyed by client or account, refilled at {@code ratePerSecond} up to
+ * {@code burst} tokens.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the time from which its next token
+ * may be taken (the generic cell rate algorithm), so taking a token is one compare-and-set
+ * and needs no lock or refill thread. Buckets live in a Caffeine cache bounded to
+ * {@code maxKeys} and dropped after {@code idleExpiry} without use; an evicted bucket
+ * comes back full, which is what an idle key has earned anyway.
+ */
+public class TokenBucketLimiter<K> {
+
+    private final Cache<K, AtomicLong> buckets;
+
+    // Nanoseconds to earn one token
+    private final long intervalNanos;
+
+    // Idle time a bucket can bank: the whole burst
+    private final long toleranceNanos;
+
+    private final LongSupplier clock;
+
+    public TokenBucketLimiter(double ratePerSecond, int burst, long maxKeys, Duration idleExpiry) {
+        this(ratePerSecond, burst, maxKeys, idleExpiry, System::nanoTime);
+    }
+
+    TokenBucketLimiter(double ratePerSecond, int burst, long maxKeys, Duration idleExpiry, LongSupplier clock) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond));
+        this.toleranceNanos = intervalNanos * burst;
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleExpiry)
+                .build();
+    }
+
+    /**
+     * Takes one token for {@code key}. Returns 0 when it was granted, otherwise the
+     * nanoseconds until the next token is earned; nothing is taken in that case.
+     */
+    public long tryAcquire(K key) {
+        long now = clock.getAsLong();
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(now - toleranceNanos));
+        long earliest = now - toleranceNanos + intervalNanos;
+        for (;;) {
+            long available = bucket.get();
+            long at = available - earliest > 0 ? available : earliest;
+            if (at - now > 0) {
+                return at - now;
+            }
+            if (bucket.compareAndSet(available, at + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    public long size() {
+        return buckets.estimatedSize();
+    }
+}
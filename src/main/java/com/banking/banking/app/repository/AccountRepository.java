@@ -1,8 +1,50 @@
 package com.banking.banking.app.repository;
 
+import com.banking.banking.app.dto.AccountDto;
 import com.banking.banking.app.entity.Account;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface AccountRepository extends JpaRepository<Account, Long> {
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface AccountRepository extends JpaRepository<Account, Long>, AccountRepositoryCustom {
+
+    // Overwrites the stored balance without loading the entity first; bumps the version so optimistic readers notice
+    @Modifying
+    @Query("update Account a set a.balance = :balance, a.version = a.version + 1 where a.id = :id")
+    int updateBalance(@Param("id") long id, @Param("balance") long balance);
+
+    // SELECT ... FOR UPDATE over a set of accounts, in id order to keep lock acquisition deadlock-free
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.id in :ids order by a.id")
+    List<Account> findAllForUpdate(@Param("ids") Collection<Long> ids);
+
+    // The projections below build AccountDto straight from the query, no managed entities
+
+    @Query(value = "select new com.banking.banking.app.dto.AccountDto(a.id, a.accountHolderName, a.balance) from Account a",
+            countQuery = "select count(a) from Account a")
+    Page<AccountDto> findAllAsDto(Pageable pageable);
+
+    @Query("select new com.banking.banking.app.dto.AccountDto(a.id, a.accountHolderName, a.balance) " +
+            "from Account a where a.id > :afterId order by a.id")
+    List<AccountDto> findAllAsDtoAfter(@Param("afterId") long afterId, Limit limit);
+
+    // Must be consumed inside a transaction and closed
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select new com.banking.banking.app.dto.AccountDto(a.id, a.accountHolderName, a.balance) from Account a order by a.id")
+    Stream<AccountDto> streamAllAsDto();
 }
@@ -0,0 +1,16 @@
+package com.banking.banking.app.repository;
+
+import com.banking.banking.app.dto.AccountDto;
+
+import java.util.Optional;
+
+public interface AccountRepositoryCustom {
+
+    // Deposit in one statement; 0 rows means the account does not exist
+    int addToBalance(long id, long amount);
+
+    // Guarded withdraw in one statement; 0 rows means the account does not exist or holds less than amount
+    int subtractFromBalance(long id, long amount);
+
+    Optional<AccountDto> findAsDtoById(long id);
+}
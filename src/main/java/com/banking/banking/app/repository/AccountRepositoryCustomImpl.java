@@ -0,0 +1,54 @@
+package com.banking.banking.app.repository;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.money.MinorUnitsConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Balance updates as single SQL statements on the JDBC connection of the surrounding
+ * transaction. A JPQL bulk update would do the same in SQL, but Hibernate also runs
+ * its bulk-operation cleanup on every call, which costs more than the statement on
+ * this path. The version column is bumped so optimistic writers see the change.
+ */
+public class AccountRepositoryCustomImpl implements AccountRepositoryCustom {
+
+    private static final String ADD_SQL =
+            "update accounts set balance = balance + ?, version = version + 1 where id = ?";
+
+    private static final String SUBTRACT_SQL =
+            "update accounts set balance = balance - ?, version = version + 1 where id = ? and balance >= ?";
+
+    private static final String FIND_SQL =
+            "select id, account_holder_name, balance from accounts where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AccountRepositoryCustomImpl(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public int addToBalance(long id, long amount) {
+        return jdbcTemplate.update(ADD_SQL, MinorUnitsConverter.toDecimal(amount), id);
+    }
+
+    @Override
+    public int subtractFromBalance(long id, long amount) {
+        BigDecimal decimal = MinorUnitsConverter.toDecimal(amount);
+        return jdbcTemplate.update(SUBTRACT_SQL, decimal, id, decimal);
+    }
+
+    @Override
+    public Optional<AccountDto> findAsDtoById(long id) {
+        List<AccountDto> rows = jdbcTemplate.query(FIND_SQL, (rs, n) -> new AccountDto(
+                rs.getLong(1),
+                rs.getString(2),
+                MinorUnitsConverter.toMinorUnits(rs.getBigDecimal(3))), id);
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+    }
+}
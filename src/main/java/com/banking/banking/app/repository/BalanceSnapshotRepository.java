@@ -0,0 +1,7 @@
+package com.banking.banking.app.repository;
+
+import com.banking.banking.app.entity.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, Long> {
+}
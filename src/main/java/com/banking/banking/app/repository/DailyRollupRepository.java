@@ -0,0 +1,13 @@
+package com.banking.banking.app.repository;
+
+import com.banking.banking.app.entity.DailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyRollupRepository extends JpaRepository<DailyRollup, DailyRollup.Key> {
+
+    // Range scan of the primary key, one row per active day and rollup slot
+    List<DailyRollup> findByAccountIdAndBookingDateBetweenOrderByBookingDate(Long accountId, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,14 @@
+package com.banking.banking.app.repository;
+
+import com.banking.banking.app.entity.JournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface JournalCheckpointRepository extends JpaRepository<JournalCheckpoint, String> {
+
+    @Modifying
+    @Query("update JournalCheckpoint c set c.replicatedSequence = :sequence where c.name = :name")
+    int updateReplicatedSequence(@Param("name") String name, @Param("sequence") long sequence);
+}
@@ -1,11 +1,27 @@
 package com.banking.banking.app.repository;
 
 import com.banking.banking.app.entity.Transaction;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionRepositoryCustom {
 
-    List<Transaction> findByIdOrderByTimestampDesc(Long accountId);
+    List<Transaction> findByAccountIdOrderByTimestampDescIdDesc(Long accountId);
+
+    // First keyset page, newest first
+    List<Transaction> findByAccountIdOrderByTimestampDescIdDesc(Long accountId, Limit limit);
+
+    // Keyset page strictly after the (timestamp, id) of the last row already returned
+    @Query("select t from Transaction t where t.accountId = :accountId " +
+            "and (t.timestamp < :timestamp or (t.timestamp = :timestamp and t.id < :id)) " +
+            "order by t.timestamp desc, t.id desc")
+    List<Transaction> findPageAfter(@Param("accountId") Long accountId,
+                                    @Param("timestamp") LocalDateTime timestamp,
+                                    @Param("id") Long id,
+                                    Limit limit);
 }
@@ -0,0 +1,11 @@
+package com.banking.banking.app.repository;
+
+import com.banking.banking.app.dto.TransactionDto;
+
+import java.util.function.Consumer;
+
+public interface TransactionRepositoryCustom {
+
+    // Pushes an account's history, newest first, to the consumer one row at a time
+    void streamByAccountId(Long accountId, Consumer<TransactionDto> consumer);
+}
@@ -0,0 +1,42 @@
+package com.banking.banking.app.repository;
+
+import com.banking.banking.app.dto.TransactionDto;
+import com.banking.banking.app.money.MinorUnitsConverter;
+import com.banking.banking.app.money.Money;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.function.Consumer;
+
+/**
+ * Streams rows off a JDBC cursor instead of materializing entities, so memory use does
+ * not grow with the size of the history. On MySQL this needs {@code useCursorFetch=true}
+ * on the connection URL for the fetch size to take effect.
+ */
+public class TransactionRepositoryCustomImpl implements TransactionRepositoryCustom {
+
+    private static final int FETCH_SIZE = 500;
+
+    private static final String HISTORY_SQL =
+            "select id, account_id, transaction_type, amount, timestamp from transactions " +
+            "where account_id = ? order by timestamp desc, id desc";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionRepositoryCustomImpl(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    @Override
+    public void streamByAccountId(Long accountId, Consumer<TransactionDto> consumer) {
+        jdbcTemplate.query(HISTORY_SQL, rs -> {
+            consumer.accept(new TransactionDto(
+                    rs.getLong(1),
+                    rs.getLong(2),
+                    rs.getString(3),
+                    Money.ofMinor(MinorUnitsConverter.toMinorUnits(rs.getBigDecimal(4))),
+                    rs.getTimestamp(5).toLocalDateTime().toString()));
+        }, accountId);
+    }
+}
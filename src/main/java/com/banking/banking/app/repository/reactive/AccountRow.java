@@ -0,0 +1,11 @@
+package com.banking.banking.app.repository.reactive;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+
+// Read model of the accounts table for R2DBC; balance is the DECIMAL(19,2) column as stored
+@Table("accounts")
+public record AccountRow(@Id Long id, String accountHolderName, BigDecimal balance) {
+}
@@ -0,0 +1,17 @@
+package com.banking.banking.app.repository.reactive;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+
+public interface ReactiveAccountRepository extends ReactiveCrudRepository<AccountRow, Long> {
+
+    Flux<AccountRow> findAllBy(Pageable pageable);
+
+    @Query("select id, account_holder_name, balance from accounts where id > :afterId order by id limit :limit")
+    Flux<AccountRow> findAllAfter(long afterId, int limit);
+
+    @Query("select id, account_holder_name, balance from accounts order by id")
+    Flux<AccountRow> findAllOrderById();
+}
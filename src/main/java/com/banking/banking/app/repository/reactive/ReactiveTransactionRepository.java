@@ -0,0 +1,25 @@
+package com.banking.banking.app.repository.reactive;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+// Same ordering and keyset predicate as TransactionRepository, so cursors are interchangeable
+public interface ReactiveTransactionRepository extends ReactiveCrudRepository<TransactionRow, Long> {
+
+    @Query("select id, account_id, transaction_type, amount, timestamp from transactions " +
+            "where account_id = :accountId order by timestamp desc, id desc")
+    Flux<TransactionRow> findHistory(long accountId);
+
+    @Query("select id, account_id, transaction_type, amount, timestamp from transactions " +
+            "where account_id = :accountId order by timestamp desc, id desc limit :limit")
+    Flux<TransactionRow> findHistory(long accountId, int limit);
+
+    @Query("select id, account_id, transaction_type, amount, timestamp from transactions " +
+            "where account_id = :accountId " +
+            "and (timestamp < :timestamp or (timestamp = :timestamp and id < :id)) " +
+            "order by timestamp desc, id desc limit :limit")
+    Flux<TransactionRow> findHistoryAfter(long accountId, LocalDateTime timestamp, long id, int limit);
+}
@@ -0,0 +1,13 @@
+package com.banking.banking.app.repository.reactive;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Read model of the transactions table for R2DBC; rows are still written through JPA
+@Table("transactions")
+public record TransactionRow(@Id Long id, Long accountId, String transactionType, BigDecimal amount,
+                             LocalDateTime timestamp) {
+}
@@ -0,0 +1,16 @@
+package com.banking.banking.app.routing;
+
+/**
+ * The connection pool a service method runs on when read/write routing is enabled,
+ * see {@link RouteTo}.
+ */
+public enum DataSourceRoute {
+
+    PRIMARY,
+
+    REPLICA;
+
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
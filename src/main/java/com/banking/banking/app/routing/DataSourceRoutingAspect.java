@@ -0,0 +1,105 @@
+package com.banking.banking.app.routing;
+
+import com.banking.banking.app.metrics.BankingMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+
+/**
+ * Applies {@link RouteTo} to service methods and keeps the read-your-writes windows.
+ * <p>
+ * A write records its client, the {@code banking.ratelimit.client-header} header or else
+ * the remote address as in the rate limiter, once it has returned, i.e. after commit. For
+ * {@code banking.datasource.routing.sticky-window} afterwards that client's replica reads
+ * go to the primary, so a replica that lags by less than the window never shows a client
+ * an older balance than the one its own write returned. Calls outside an HTTP request have
+ * no client and always read from the replica. At most
+ * {@code banking.datasource.routing.max-clients} windows are kept.
+ * <p>
+ * Runs outside the cache and transaction advice, so the route is set before a connection
+ * is taken and pinned reads can skip the accounts cache.
+ */
+@Aspect
+@Component
+@Order(0)
+@ConditionalOnProperty(name = "banking.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingAspect {
+
+    private final BankingMetrics bankingMetrics;
+
+    private final String clientHeader;
+
+    // clients that wrote within the window
+    private final Cache<String, Boolean> recentWriters;
+
+    public DataSourceRoutingAspect(BankingMetrics bankingMetrics,
+                                   @Value("${banking.ratelimit.client-header:X-Client-Id}") String clientHeader,
+                                   @Value("${banking.datasource.routing.sticky-window:5s}") Duration stickyWindow,
+                                   @Value("${banking.datasource.routing.max-clients:100000}") long maxClients) {
+        this.bankingMetrics = bankingMetrics;
+        this.clientHeader = clientHeader;
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterWrite(stickyWindow)
+                .build();
+    }
+
+    @Around("@annotation(routeTo)")
+    public Object route(ProceedingJoinPoint joinPoint, RouteTo routeTo) throws Throwable {
+        DataSourceRoute outer = RoutingDataSource.currentRoute();
+        boolean outerPinned = RoutingDataSource.isPinnedToPrimary();
+        String client = currentClient();
+
+        DataSourceRoute route = routeTo.value();
+        boolean pinned = false;
+        if (route == DataSourceRoute.REPLICA) {
+            if (outer == DataSourceRoute.PRIMARY || TransactionSynchronizationManager.isActualTransactionActive()) {
+                route = DataSourceRoute.PRIMARY;
+                pinned = outerPinned;
+            } else if (client != null && recentWriters.getIfPresent(client) != null) {
+                route = DataSourceRoute.PRIMARY;
+                pinned = true;
+            }
+        }
+
+        long start = System.nanoTime();
+        RoutingDataSource.setRoute(route, pinned);
+        try {
+            Object result = joinPoint.proceed();
+            if (routeTo.value() == DataSourceRoute.PRIMARY && client != null) {
+                recentWriters.put(client, Boolean.TRUE);
+            }
+            return result;
+        } finally {
+            if (outer == null) {
+                RoutingDataSource.clearRoute();
+            } else {
+                RoutingDataSource.setRoute(outer, outerPinned);
+            }
+            bankingMetrics.routedCall(route.tag(), pinned, System.nanoTime() - start);
+        }
+    }
+
+    private String currentClient() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return null;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        String client = request.getHeader(clientHeader);
+        return client != null && !client.isBlank() ? client : request.getRemoteAddr();
+    }
+}
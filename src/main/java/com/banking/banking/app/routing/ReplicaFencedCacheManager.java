@@ -0,0 +1,109 @@
+package com.banking.banking.app.routing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Caffeine cache manager for read/write routing that keeps replica reads from putting an
+ * evicted value back before the replica has caught up.
+ * <p>
+ * Writes evict the entries they change. For {@code banking.datasource.routing.sticky-window}
+ * after an eviction the key is fenced: reads still run, on the replica, but their result is
+ * not stored. Otherwise a client outside the writer's window could cache the replica's older
+ * balance for the whole cache TTL, and the writer would be served it once its own window
+ * ends. A replica that lags by less than the window has caught up when the fence lifts.
+ * The caches stay {@link CaffeineCache}s, so they still report {@code cache.*} metrics.
+ */
+public class ReplicaFencedCacheManager extends CaffeineCacheManager {
+
+    private final Duration window;
+
+    public ReplicaFencedCacheManager(Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    protected org.springframework.cache.Cache adaptCaffeineCache(String name, Cache<Object, Object> cache) {
+        return new FencedCache(name, cache, isAllowNullValues(), window);
+    }
+
+    static final class FencedCache extends CaffeineCache {
+
+        // keys evicted within the last window; bounded by the writes of one window
+        private final Cache<Object, Boolean> fenced;
+
+        private final long windowNanos;
+
+        // every key is fenced until this System.nanoTime() after a clear()
+        private volatile long clearedUntil = System.nanoTime();
+
+        FencedCache(String name, Cache<Object, Object> cache, boolean allowNullValues, Duration window) {
+            super(name, cache, allowNullValues);
+            this.fenced = Caffeine.newBuilder().expireAfterWrite(window).build();
+            this.windowNanos = window.toNanos();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            if (!isFenced(key)) {
+                return super.get(key, valueLoader);
+            }
+            ValueWrapper cached = get(key);
+            if (cached != null) {
+                return (T) cached.get();
+            }
+            try {
+                return valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            if (!isFenced(key)) {
+                super.put(key, value);
+            }
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            return isFenced(key) ? get(key) : super.putIfAbsent(key, value);
+        }
+
+        // Fence before evicting, so no load can slip in between and store the old value
+        @Override
+        public void evict(Object key) {
+            fenced.put(key, Boolean.TRUE);
+            super.evict(key);
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            fenced.put(key, Boolean.TRUE);
+            return super.evictIfPresent(key);
+        }
+
+        @Override
+        public void clear() {
+            clearedUntil = System.nanoTime() + windowNanos;
+            super.clear();
+        }
+
+        @Override
+        public boolean invalidate() {
+            clearedUntil = System.nanoTime() + windowNanos;
+            return super.invalidate();
+        }
+
+        private boolean isFenced(Object key) {
+            return System.nanoTime() - clearedUntil < 0 || fenced.getIfPresent(key) != null;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.banking.banking.app.routing;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares which pool a service method's queries go to when
+ * {@code banking.datasource.routing.enabled} is set; without it everything uses the primary.
+ * <p>
+ * {@link DataSourceRoute#REPLICA} methods read from the replica, except inside a
+ * transaction that is already running and for clients that wrote recently, see
+ * {@link DataSourceRoutingAspect}. {@link DataSourceRoute#PRIMARY} methods are writes:
+ * they use the primary and start the calling client's read-your-writes window.
+ * Unannotated methods use the primary and start no window.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RouteTo {
+
+    DataSourceRoute value();
+}
@@ -0,0 +1,56 @@
+package com.banking.banking.app.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Hands out primary or replica connections depending on the route
+ * {@link DataSourceRoutingAspect} set for the current thread; the primary when none is set.
+ * The route only matters when a connection is taken: a transaction that already holds one
+ * keeps it, whatever a nested method declares.
+ */
+public class RoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<DataSourceRoute> ROUTE = new ThreadLocal<>();
+
+    // Set while a replica method runs for a client inside its read-your-writes window
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    public RoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(DataSourceRoute.PRIMARY, primary, DataSourceRoute.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    // Whether the current read was moved to the primary for read-your-writes; such reads
+    // must not be answered from, or fill, caches that replica reads populate
+    public static boolean isPinnedToPrimary() {
+        return PINNED.get() != null;
+    }
+
+    static DataSourceRoute currentRoute() {
+        return ROUTE.get();
+    }
+
+    static void setRoute(DataSourceRoute route, boolean pinned) {
+        ROUTE.set(route);
+        if (pinned) {
+            PINNED.set(Boolean.TRUE);
+        } else {
+            PINNED.remove();
+        }
+    }
+
+    static void clearRoute() {
+        ROUTE.remove();
+        PINNED.remove();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        DataSourceRoute route = ROUTE.get();
+        return route == null ? DataSourceRoute.PRIMARY : route;
+    }
+}
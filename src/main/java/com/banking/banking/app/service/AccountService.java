@@ -2,38 +2,65 @@ package com.banking.banking.app.service;
 
 
 import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.dto.AccountPageDto;
+import com.banking.banking.app.dto.AccountSliceDto;
+import com.banking.banking.app.dto.StatementDto;
 import com.banking.banking.app.dto.TransactionDto;
+import com.banking.banking.app.dto.TransactionPageDto;
 import com.banking.banking.app.dto.TransferFundDto;
+import com.banking.banking.app.dto.TransferResultDto;
 import com.banking.banking.app.entity.Account;
 import com.banking.banking.app.exception.AccountException;
+import com.banking.banking.app.money.Money;
 import com.banking.banking.app.repository.AccountRepository;
+import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface AccountService {
     AccountDto createAccount(AccountDto account);
 
     AccountDto getAccountById(Long id);
 
-    AccountDto deposit(long id, double amount);
+    AccountDto deposit(long id, Money amount);
 
-    AccountDto withdraw(long id, double amount);
+    AccountDto withdraw(long id, Money amount);
 
     List<AccountDto> getAllAccounts();
 
+    AccountPageDto getAllAccounts(Pageable pageable);
+
+    // Keyset page ordered by id; pass the previous page's nextCursor, or null for the first page
+    AccountSliceDto getAllAccounts(String cursor, int limit);
+
+    void streamAllAccounts(Consumer<AccountDto> consumer);
+
     void deleteAccount(Long id);
 
     void transferFunds(TransferFundDto transferFundDto);
 
+    // Applies many transfers in one call; the result list has one entry per transfer, in order
+    List<TransferResultDto> transferFundsBatch(List<TransferFundDto> transfers);
+
 
     List<TransactionDto> getAccountTransactions(Long accountId);
 
+    // Keyset page of the history; pass the previous page's nextCursor, or null for the first page
+    TransactionPageDto getAccountTransactions(Long accountId, String cursor, int limit);
+
+    void streamAccountTransactions(Long accountId, Consumer<TransactionDto> consumer);
+
+    // Daily totals from the rollup tables, from and to inclusive; null to means today, null from a month before to
+    StatementDto getStatement(Long accountId, LocalDate from, LocalDate to);
+
 
     // Default method to check if an account exists by ID
     default Account findAccountById(AccountRepository accountRepository, Long id) {
         return accountRepository
                 .findById(id)
-                .orElseThrow(() -> new AccountException("Account does not exist."));
+                .orElseThrow(AccountException::notFound);
     }
 
 
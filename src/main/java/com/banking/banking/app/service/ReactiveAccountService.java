@@ -0,0 +1,31 @@
+package com.banking.banking.app.service;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.dto.AccountPageDto;
+import com.banking.banking.app.dto.AccountSliceDto;
+import com.banking.banking.app.dto.TransactionDto;
+import com.banking.banking.app.dto.TransactionPageDto;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Non-blocking reads of accounts and their history over R2DBC, for the reactive profile
+public interface ReactiveAccountService {
+    Mono<AccountDto> getAccountById(long id);
+
+    Flux<AccountDto> getAllAccounts();
+
+    Mono<AccountPageDto> getAllAccounts(Pageable pageable);
+
+    // Keyset page ordered by id; pass the previous page's nextCursor, or null for the first page
+    Mono<AccountSliceDto> getAllAccounts(String cursor, int limit);
+
+    // Rows are read as the subscriber requests them
+    Flux<AccountDto> streamAllAccounts();
+
+    // Newest first; rows are read as the subscriber requests them
+    Flux<TransactionDto> streamAccountTransactions(long accountId);
+
+    // Keyset page of the history; pass the previous page's nextCursor, or null for the first page
+    Mono<TransactionPageDto> getAccountTransactions(long accountId, String cursor, int limit);
+}
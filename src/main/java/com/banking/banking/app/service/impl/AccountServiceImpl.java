@@ -1,157 +1,551 @@
 package com.banking.banking.app.service.impl;
 
 import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.dto.AccountPageDto;
+import com.banking.banking.app.dto.AccountSliceDto;
+import com.banking.banking.app.dto.StatementDayDto;
+import com.banking.banking.app.dto.StatementDto;
 import com.banking.banking.app.dto.TransactionDto;
+import com.banking.banking.app.dto.TransactionPageDto;
 import com.banking.banking.app.dto.TransferFundDto;
+import com.banking.banking.app.dto.TransferResultDto;
 import com.banking.banking.app.entity.Account;
+import com.banking.banking.app.entity.DailyRollup;
 import com.banking.banking.app.entity.Transaction;
+import com.banking.banking.app.engine.BalanceEngine;
 import com.banking.banking.app.exception.AccountException;
+import com.banking.banking.app.hotaccount.BalanceSlots;
+import com.banking.banking.app.ledger.LedgerWriter;
 import com.banking.banking.app.mapper.AccountMapper;
+import com.banking.banking.app.metrics.BankingMetrics;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.outbox.AccountOutbox;
 import com.banking.banking.app.repository.AccountRepository;
+import com.banking.banking.app.repository.DailyRollupRepository;
 import com.banking.banking.app.repository.TransactionRepository;
+import com.banking.banking.app.routing.DataSourceRoute;
+import com.banking.banking.app.routing.RouteTo;
 import com.banking.banking.app.service.AccountService;
 
+import io.micrometer.core.annotation.Timed;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 
 @Service
 public class AccountServiceImpl implements AccountService {
 
+    // Read-through AccountDto cache. Writes evict after they commit; since Caffeine loads
+    // a key atomically, an eviction waits for any in-flight load, so a read that follows
+    // a local write never gets the old balance back from the cache. With read/write routing
+    // a miss may be filled from the replica, but not for an account written within the sticky window
+    // (see ReplicaFencedCacheManager); reads pinned to the primary bypass the cache.
+    public static final String ACCOUNTS_CACHE = "accounts";
+
+    static final int MAX_PAGE_SIZE = 500;
+
+    static final Set<String> ACCOUNT_SORT_PROPERTIES = Set.of("id", "accountHolderName", "balance");
+
+    static final int MAX_STATEMENT_DAYS = 366;
+
     private final AccountRepository accountRepository;
 
     private TransactionRepository transactionRepository;
 
+    private final DailyRollupRepository dailyRollupRepository;
+
+    private final LedgerWriter ledgerWriter;
+
+    private final TransferBatchProcessor transferBatchProcessor;
+
+    private final AccountOutbox accountOutbox;
+
+    private final BalanceSlots balanceSlots;
+
+    private final BankingMetrics bankingMetrics;
+
+    private final OptimisticRetryPolicy optimisticRetryPolicy;
+
+    private final TransactionTemplate transactionTemplate;
 
-    public AccountServiceImpl(AccountRepository accountRepository, TransactionRepository transactionRepository) {
+    // Present only when banking.engine.mode is set; otherwise balances are updated through the repository
+    private final BalanceEngine balanceEngine;
+
+
+    public AccountServiceImpl(AccountRepository accountRepository, TransactionRepository transactionRepository,
+                              DailyRollupRepository dailyRollupRepository, LedgerWriter ledgerWriter, TransferBatchProcessor transferBatchProcessor,
+                              AccountOutbox accountOutbox, BalanceSlots balanceSlots, BankingMetrics bankingMetrics, OptimisticRetryPolicy optimisticRetryPolicy,
+                              PlatformTransactionManager transactionManager, @Nullable BalanceEngine balanceEngine) {
         this.accountRepository = accountRepository;
         this.transactionRepository = transactionRepository;
+        this.dailyRollupRepository = dailyRollupRepository;
+        this.ledgerWriter = ledgerWriter;
+        this.transferBatchProcessor = transferBatchProcessor;
+        this.accountOutbox = accountOutbox;
+        this.balanceSlots = balanceSlots;
+        this.bankingMetrics = bankingMetrics;
+        this.optimisticRetryPolicy = optimisticRetryPolicy;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.balanceEngine = balanceEngine;
     }
 
     @Override
+    @RouteTo(DataSourceRoute.PRIMARY)
     public AccountDto createAccount(AccountDto account) {
         Account account1 = AccountMapper.mapToaccount(account);
         Account savedAccount = accountRepository.save(account1);
+
+        // the initial balance is journaled too, so balance = sum of the ledger holds from the start
+        if (savedAccount.getBalance() != 0 && (balanceEngine == null || !balanceEngine.opensAccounts())) {
+            logTransaction(savedAccount.getId(), "OPENING", Money.ofMinor(savedAccount.getBalance()));
+        }
         return AccountMapper.mapToAccountDto(savedAccount);
     }
 
     @Override
+    @Cacheable(cacheNames = ACCOUNTS_CACHE, key = "#id", sync = true,
+            condition = "!T(com.banking.banking.app.routing.RoutingDataSource).isPinnedToPrimary()")
+    @RouteTo(DataSourceRoute.REPLICA)
     public AccountDto getAccountById(Long id) {
+        if (balanceEngine != null) {
+            return AccountMapper.mapToAccountDto(balanceEngine.get(id));
+        }
+
         Account account = findAccountById(accountRepository, id); // Reuse default method
-        return AccountMapper.mapToAccountDto(account);
+        return withSlotBalance(AccountMapper.mapToAccountDto(account));
     }
 
 
     @Override
-    public AccountDto deposit(long id, double amount) {
-        Account account = findAccountById(accountRepository, id); // Reuse default method
-        double total = account.getBalance() + amount;
-        account.setBalance(total);
-
-        // log deposit transaction
-
-        Transaction transaction = new Transaction();
-        transaction.setAccountId(id);
-        transaction.setAmount(amount);
-        transaction.setTransactionType("DEPOSIT");
-        transaction.setTimestamp(LocalDateTime.now());
-
-
-        transactionRepository.save(transaction);
-
-        Account savedAccount = accountRepository.save(account);
-        return AccountMapper.mapToAccountDto(savedAccount);
+    @CacheEvict(cacheNames = ACCOUNTS_CACHE, key = "#id")
+    @Timed(value = BankingMetrics.OPERATION_TIMER, extraTags = {"operation", "deposit"}, histogram = true, percentiles = {0.5, 0.95, 0.99})
+    @RouteTo(DataSourceRoute.PRIMARY)
+    public AccountDto deposit(long id, Money amount) {
+        requireNonNegative(amount);
+        if (balanceEngine != null) {
+            Account account = balanceEngine.deposit(id, amount.minorUnits());
+            if (!balanceEngine.writesLedger()) {
+                logTransaction(id, "DEPOSIT", amount);
+            }
+            accountOutbox.record(id, "DEPOSIT", amount.minorUnits(), account.getBalance());
+            return AccountMapper.mapToAccountDto(account);
+        }
+
+        // one UPDATE ... SET balance = balance + ?, so concurrent deposits cannot overwrite each other;
+        // a hot account's deposits are spread over its balance slots
+        int slot = balanceSlots.slotFor(id);
+        return transactionTemplate.execute(status -> {
+            if ((slot == 0 || !balanceSlots.addToSlot(id, slot, amount.minorUnits()))
+                    && accountRepository.addToBalance(id, amount.minorUnits()) == 0) {
+                throw AccountException.notFound();
+            }
+
+            // log deposit transaction
+            logTransaction(id, "DEPOSIT", amount);
+
+            AccountDto account = findAccountDto(id);
+            accountOutbox.record(id, "DEPOSIT", amount.minorUnits(), account.getBalance().minorUnits());
+            return account;
+        });
     }
 
     @Override
-    public AccountDto withdraw(long id, double amount) {
-        Account account = findAccountById(accountRepository, id); // Reuse default method
-
-
-       if (account.getBalance() < amount) {
-           throw new AccountException("Insufficient amount");
-       }
-
-       double total = account.getBalance() - amount;
-       account.setBalance(total);
-
-
-        // log withdraw transaction
-
-
-        Transaction transaction = new Transaction();
-        transaction.setAccountId(id);
-        transaction.setTransactionType("WITHDRAW");
-        transaction.setAmount(amount);
-        transaction.setTimestamp(LocalDateTime.now());
-
-
-        transactionRepository.save(transaction);
+    @CacheEvict(cacheNames = ACCOUNTS_CACHE, key = "#id")
+    @Timed(value = BankingMetrics.OPERATION_TIMER, extraTags = {"operation", "withdraw"}, histogram = true, percentiles = {0.5, 0.95, 0.99})
+    @RouteTo(DataSourceRoute.PRIMARY)
+    public AccountDto withdraw(long id, Money amount) {
+        requireNonNegative(amount);
+        if (balanceEngine != null) {
+            Account account = balanceEngine.withdraw(id, amount.minorUnits());
+            if (!balanceEngine.writesLedger()) {
+                logTransaction(id, "WITHDRAW", amount);
+            }
+            accountOutbox.record(id, "WITHDRAW", amount.minorUnits(), account.getBalance());
+            return AccountMapper.mapToAccountDto(account);
+        }
+
+        // the accounts row alone may be short while a hot account's slots hold the rest
+        AccountDto account = withdrawFromAccountRow(id, amount);
+        if (account == null && balanceSlots.fold(id) != 0) {
+            account = withdrawFromAccountRow(id, amount);
+        }
+        if (account == null) {
+            bankingMetrics.insufficientFunds("withdraw");
+            throw AccountException.insufficientFunds();
+        }
+        return account;
+    }
 
+    // a negative amount would turn a credit into a debit and a guarded debit into an unguarded credit
+    private static void requireNonNegative(Money amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount is required");
+        }
+        if (amount.minorUnits() < 0) {
+            throw new IllegalArgumentException("Amount must not be negative");
+        }
+    }
 
-       Account savedAccount = accountRepository.save(account);
-        return AccountMapper.mapToAccountDto(savedAccount);
+    // guarded UPDATE ... WHERE balance >= ?; no row updated means missing account or insufficient funds (null)
+    private AccountDto withdrawFromAccountRow(long id, Money amount) {
+        return transactionTemplate.execute(status -> {
+            if (accountRepository.subtractFromBalance(id, amount.minorUnits()) == 0) {
+                if (!accountRepository.existsById(id)) {
+                    throw AccountException.notFound();
+                }
+                return null;
+            }
+
+            // log withdraw transaction
+            logTransaction(id, "WITHDRAW", amount);
+
+            AccountDto account = findAccountDto(id);
+            accountOutbox.record(id, "WITHDRAW", amount.minorUnits(), account.getBalance().minorUnits());
+            return account;
+        });
     }
 
     @Override
+    @Timed(value = BankingMetrics.OPERATION_TIMER, extraTags = {"operation", "list"}, histogram = true, percentiles = {0.5, 0.95, 0.99})
+    @RouteTo(DataSourceRoute.REPLICA)
     public List<AccountDto> getAllAccounts() {
        List<Account> accounts = accountRepository.findAll();
-       return accounts.stream().map(AccountMapper::mapToAccountDto)
+       List<AccountDto> dtos = accounts.stream().map(AccountMapper::mapToAccountDto)
                .collect(Collectors.toList());
+       balanceSlots.addSlotBalances(dtos);
+       return dtos;
     }
 
     @Override
+    @Timed(value = BankingMetrics.OPERATION_TIMER, extraTags = {"operation", "list"}, histogram = true, percentiles = {0.5, 0.95, 0.99})
+    @RouteTo(DataSourceRoute.REPLICA)
+    public AccountPageDto getAllAccounts(Pageable pageable) {
+        if (pageable.getPageSize() > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be at most " + MAX_PAGE_SIZE);
+        }
+        for (Sort.Order order : pageable.getSort()) {
+            if (!ACCOUNT_SORT_PROPERTIES.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Cannot sort accounts by " + order.getProperty());
+            }
+        }
+
+        Page<AccountDto> page = accountRepository.findAllAsDto(pageable);
+        balanceSlots.addSlotBalances(page.getContent());
+        return new AccountPageDto(page.getContent(), page.getNumber(), page.getSize(),
+                page.getTotalElements(), page.getTotalPages());
+    }
+
+    @Override
+    @Timed(value = BankingMetrics.OPERATION_TIMER, extraTags = {"operation", "list"}, histogram = true, percentiles = {0.5, 0.95, 0.99})
+    @RouteTo(DataSourceRoute.REPLICA)
+    public AccountSliceDto getAllAccounts(String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        long afterId;
+        try {
+            afterId = cursor == null ? 0 : Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+
+        List<AccountDto> accounts = accountRepository.findAllAsDtoAfter(afterId, Limit.of(limit));
+        balanceSlots.addSlotBalances(accounts);
+        String nextCursor = accounts.size() == limit
+                ? String.valueOf(accounts.get(accounts.size() - 1).getId())
+                : null;
+        return new AccountSliceDto(accounts, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Timed(value = BankingMetrics.OPERATION_TIMER, extraTags = {"operation", "list"}, histogram = true, percentiles = {0.5, 0.95, 0.99})
+    public void streamAllAccounts(Consumer<AccountDto> consumer) {
+        try (Stream<AccountDto> accounts = accountRepository.streamAllAsDto()) {
+            balanceSlots.forEachWithSlotBalances(accounts, consumer);
+        }
+    }
+
+    @Override
+    @CacheEvict(cacheNames = ACCOUNTS_CACHE, key = "#id")
+    @RouteTo(DataSourceRoute.PRIMARY)
     public void deleteAccount(Long id) {
         Account account = findAccountById(accountRepository, id); // Reuse default method
 
         accountRepository.deleteById(id);
+        balanceSlots.delete(id);
+        if (balanceEngine != null) {
+            balanceEngine.evict(id);
+        }
     }
 
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = ACCOUNTS_CACHE, key = "#transferFundDto.fromAccountId()"),
+            @CacheEvict(cacheNames = ACCOUNTS_CACHE, key = "#transferFundDto.toAccountId()")
+    })
+    @Timed(value = BankingMetrics.OPERATION_TIMER, extraTags = {"operation", "transfer"}, histogram = true, percentiles = {0.5, 0.95, 0.99})
+    @RouteTo(DataSourceRoute.PRIMARY)
     public void transferFunds(TransferFundDto transferFundDto) {
-        Account fromAccount = accountRepository.findById(transferFundDto.fromAccountId())
-                .orElseThrow(() -> new AccountException("Account does not exist."));
+        transferFundDto.requireComplete();
+        requireNonNegative(transferFundDto.amount());
+        if (balanceEngine != null) {
+            balanceEngine.transfer(transferFundDto.fromAccountId(), transferFundDto.toAccountId(),
+                    transferFundDto.amount().minorUnits());
+            if (!balanceEngine.writesLedger()) {
+                logTransaction(transferFundDto.fromAccountId(), "TRANSFER", transferFundDto.amount());
+                logTransaction(transferFundDto.toAccountId(), "TRANSFER_IN", transferFundDto.amount());
+            }
+            if (accountOutbox.isEnabled()) {
+                // the engine has no database transaction to join; balances are read back after the fact
+                long amount = transferFundDto.amount().minorUnits();
+                accountOutbox.record(transferFundDto.fromAccountId(), "TRANSFER", amount,
+                        balanceEngine.get(transferFundDto.fromAccountId()).getBalance());
+                accountOutbox.record(transferFundDto.toAccountId(), "TRANSFER_IN", amount,
+                        balanceEngine.get(transferFundDto.toAccountId()).getBalance());
+            }
+            return;
+        }
+
+        long fromAccountId = transferFundDto.fromAccountId();
+        long toAccountId = transferFundDto.toAccountId();
+        // before the transfer's transaction, which debits the accounts row only
+        balanceSlots.foldIfShort(fromAccountId, transferFundDto.amount().minorUnits());
+        optimisticRetryPolicy.execute("transfer", lockRows -> {
+            if (lockRows) {
+                // one FOR UPDATE query in id order, as the batch processor does
+                accountRepository.findAllForUpdate(List.of(Math.min(fromAccountId, toAccountId), Math.max(fromAccountId, toAccountId)));
+            }
+            Account fromAccount = accountRepository.findById(fromAccountId)
+                    .orElseThrow(AccountException::notFound);
+
+            Account toAccount = accountRepository.findById(toAccountId)
+                    .orElseThrow(AccountException::notFound);
+
+            long amount = transferFundDto.amount().minorUnits();
+            if (fromAccount.getBalance() < amount) {
+                bankingMetrics.insufficientFunds("transfer");
+                throw AccountException.insufficientFunds();
+            }
+
+            // nothing to move
+            if (amount == 0) {
+                return null;
+            }
+
+            fromAccount.setBalance(Money.subtract(fromAccount.getBalance(), amount));
+            toAccount.setBalance(Money.add(toAccount.getBalance(), amount));
+
+            accountRepository.save(fromAccount);
+            accountRepository.save(toAccount);
+            accountRepository.flush();
+
+            // log both legs of the transfer
+            logTransaction(fromAccount.getId(), "TRANSFER", transferFundDto.amount());
+            logTransaction(toAccount.getId(), "TRANSFER_IN", transferFundDto.amount());
+
+            // after the flush, so both rows are locked and the events are numbered in commit order
+            if (accountOutbox.isEnabled()) {
+                accountOutbox.record(fromAccount.getId(), "TRANSFER", amount,
+                        fromAccount.getBalance() + balanceSlots.slotTotal(fromAccount.getId()));
+                accountOutbox.record(toAccount.getId(), "TRANSFER_IN", amount,
+                        toAccount.getBalance() + balanceSlots.slotTotal(toAccount.getId()));
+            }
+            return null;
+        }, fromAccountId, toAccountId);
+    }
+
+    @Override
+    @CacheEvict(cacheNames = ACCOUNTS_CACHE, allEntries = true)
+    @Timed(value = BankingMetrics.OPERATION_TIMER, extraTags = {"operation", "batch_transfer"}, histogram = true, percentiles = {0.5, 0.95, 0.99})
+    @RouteTo(DataSourceRoute.PRIMARY)
+    public List<TransferResultDto> transferFundsBatch(List<TransferFundDto> transfers) {
+        transferBatchProcessor.checkBatchSize(transfers.size());
+
+        // the engine owns balances in memory, so its transfers cannot be written behind its back
+        if (balanceEngine != null) {
+            List<TransferResultDto> results = new ArrayList<>(transfers.size());
+            for (int i = 0; i < transfers.size(); i++) {
+                if (transfers.get(i) == null) {
+                    results.add(TransferResultDto.rejected(i, TransferFundDto.INCOMPLETE));
+                    continue;
+                }
+                try {
+                    transferFunds(transfers.get(i));
+                    results.add(TransferResultDto.applied(i));
+                } catch (AccountException | IllegalArgumentException e) {
+                    results.add(TransferResultDto.rejected(i, e.getMessage()));
+                }
+            }
+            return results;
+        }
+
+        // the batch debits the accounts rows only
+        if (balanceSlots.isEnabled()) {
+            balanceSlots.foldAll(transfers.stream().filter(Objects::nonNull).map(TransferFundDto::fromAccountId)
+                    .filter(Objects::nonNull).collect(Collectors.toSet()));
+        }
+        return transferBatchProcessor.apply(transfers);
+    }
 
-        Account toAccount = accountRepository.findById(transferFundDto.toAccountId())
-                .orElseThrow(() -> new AccountException("Account does not exist."));
+    @Override
+    @Timed(value = BankingMetrics.OPERATION_TIMER, extraTags = {"operation", "history"}, histogram = true, percentiles = {0.5, 0.95, 0.99})
+    @RouteTo(DataSourceRoute.REPLICA)
+    public List<TransactionDto> getAccountTransactions(Long accountId) {
 
-        fromAccount.setBalance(fromAccount.getBalance() - transferFundDto.amount());
-        toAccount.setBalance(toAccount.getBalance() + transferFundDto.amount());
+        List<Transaction> transactions = transactionRepository
+                .findByAccountIdOrderByTimestampDescIdDesc(accountId);
 
 
-        // log transfer transaction
+        return transactions.stream()
+                .map((transaction) -> convertEntityToTransactionDto(transaction))
+                        .collect(Collectors.toList());
 
+    }
 
-        Transaction transaction = new Transaction();
-        transaction.setAccountId(fromAccount.getId());
-        transaction.setTransactionType("TRANSFER");
-        transaction.setAmount(transferFundDto.amount());
-        transaction.setTimestamp(LocalDateTime.now());
+    @Override
+    @Timed(value = BankingMetrics.OPERATION_TIMER, extraTags = {"operation", "history"}, histogram = true, percentiles = {0.5, 0.95, 0.99})
+    @RouteTo(DataSourceRoute.REPLICA)
+    public TransactionPageDto getAccountTransactions(Long accountId, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        List<Transaction> transactions;
+        if (cursor == null) {
+            transactions = transactionRepository.findByAccountIdOrderByTimestampDescIdDesc(accountId, Limit.of(limit));
+        } else {
+            String[] position = decodeCursor(cursor);
+            transactions = transactionRepository.findPageAfter(accountId,
+                    LocalDateTime.parse(position[0]), Long.parseLong(position[1]), Limit.of(limit));
+        }
+
+        String nextCursor = null;
+        if (transactions.size() == limit) {
+            Transaction last = transactions.get(transactions.size() - 1);
+            nextCursor = encodeCursor(last);
+        }
+
+        return new TransactionPageDto(transactions.stream()
+                .map(this::convertEntityToTransactionDto)
+                .collect(Collectors.toList()), nextCursor);
+    }
 
+    @Override
+    @Timed(value = BankingMetrics.OPERATION_TIMER, extraTags = {"operation", "history"}, histogram = true, percentiles = {0.5, 0.95, 0.99})
+    public void streamAccountTransactions(Long accountId, Consumer<TransactionDto> consumer) {
+        transactionRepository.streamByAccountId(accountId, consumer);
+    }
 
-        transactionRepository.save(transaction);
+    @Override
+    @Timed(value = BankingMetrics.OPERATION_TIMER, extraTags = {"operation", "statement"}, histogram = true, percentiles = {0.5, 0.95, 0.99})
+    public StatementDto getStatement(Long accountId, LocalDate from, LocalDate to) {
+        LocalDate end = to == null ? LocalDate.now() : to;
+        LocalDate start = from == null ? end.minusMonths(1).plusDays(1) : from;
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_STATEMENT_DAYS) {
+            throw new IllegalArgumentException("A statement covers at most " + MAX_STATEMENT_DAYS + " days");
+        }
+        if (!accountRepository.existsById(accountId)) {
+            throw AccountException.notFound();
+        }
+
+        // one rollup row per active day (a few for a hot account's days), never the transactions themselves
+        List<StatementDayDto> days = new ArrayList<>();
+        for (DailyRollup rollup : dailyRollupRepository.findByAccountIdAndBookingDateBetweenOrderByBookingDate(accountId, start, end)) {
+            StatementDayDto day = toStatementDay(rollup);
+            int last = days.size() - 1;
+            if (last >= 0 && days.get(last).date().equals(day.date())) {
+                day = days.remove(last).plus(day);
+            }
+            days.add(day);
+        }
+        return new StatementDto(accountId, start.toString(), end.toString(), days);
+    }
 
+    private static StatementDayDto toStatementDay(DailyRollup rollup) {
+        return new StatementDayDto(rollup.getBookingDate().toString(),
+                rollup.getDepositCount(), Money.ofMinor(rollup.getDepositAmount()),
+                rollup.getWithdrawCount(), Money.ofMinor(rollup.getWithdrawAmount()),
+                rollup.getTransferCount(), Money.ofMinor(rollup.getTransferAmount()),
+                rollup.getTransferInCount(), Money.ofMinor(rollup.getTransferInAmount()));
+    }
 
-        accountRepository.save(fromAccount);
-        accountRepository.save(toAccount);
+    // Cursor is the (timestamp, id) of the last row returned, opaque to clients
+    private static String encodeCursor(Transaction transaction) {
+        return encodeCursor(transaction.getTimestamp(), transaction.getId());
     }
 
-    @Override
-    public List<TransactionDto> getAccountTransactions(Long accountId) {
+    // Shared with the reactive service so cursors work against either stack
+    static String encodeCursor(LocalDateTime timestamp, long id) {
+        String position = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
 
-        List<Transaction> transactions = transactionRepository
-                .findByIdOrderByTimestampDesc(accountId);
+    static String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
 
+    private AccountDto findAccountDto(long id) {
+        return withSlotBalance(accountRepository.findAsDtoById(id)
+                .orElseThrow(AccountException::notFound));
+    }
 
-        return transactions.stream()
-                .map((transaction) -> convertEntityToTransactionDto(transaction))
-                        .collect(Collectors.toList());
+    // A hot account's balance is its accounts row plus its balance slots
+    private AccountDto withSlotBalance(AccountDto account) {
+        long slots = balanceSlots.slotTotal(account.getId());
+        if (slots != 0) {
+            account.setBalance(Money.ofMinor(account.getBalance().minorUnits() + slots));
+        }
+        return account;
+    }
+
+    private void logTransaction(Long accountId, String transactionType, Money amount) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(accountId);
+        transaction.setTransactionType(transactionType);
+        transaction.setAmount(amount.minorUnits());
+        transaction.setTimestamp(LocalDateTime.now());
 
+        ledgerWriter.append(transaction);
     }
 
     private TransactionDto convertEntityToTransactionDto(Transaction transaction) {
@@ -159,7 +553,7 @@ public class AccountServiceImpl implements AccountService {
                 transaction.getId(),
                 transaction.getAccountId(),
                 transaction.getTransactionType(),
-                transaction.getAmount(),
+                Money.ofMinor(transaction.getAmount()),
                 transaction.getTimestamp().toString()
         );
     }
@@ -0,0 +1,133 @@
+package com.banking.banking.app.service.impl;
+
+import com.banking.banking.app.metrics.BankingMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a read-modify-write on {@link com.banking.banking.app.entity.Account} rows in its
+ * own transaction and retries it when the {@code @Version} check fails.
+ * <p>
+ * Retries wait a random time up to an exponentially growing bound ("full jitter"),
+ * so writers that collided do not collide again in lockstep. An account that
+ * conflicts {@code hot-threshold} times within {@code hot-window} is treated as hot:
+ * its operations skip the optimistic attempt and lock the row with
+ * {@code SELECT ... FOR UPDATE} until the window ends. An operation that runs out of
+ * optimistic attempts also takes the pessimistic path once, so it is not failed for
+ * contention alone.
+ */
+@Component
+public class OptimisticRetryPolicy {
+
+    @FunctionalInterface
+    public interface Attempt<T> {
+        // lockRows: read the accounts with SELECT ... FOR UPDATE instead of a plain read
+        T run(boolean lockRows);
+    }
+
+    private final TransactionOperations transactionOperations;
+
+    private final BankingMetrics bankingMetrics;
+
+    private final int maxAttempts;
+
+    private final long initialBackoffNanos;
+
+    private final long maxBackoffNanos;
+
+    private final int hotThreshold;
+
+    // Conflicts per account id, counted from the first conflict until the window expires
+    private final Cache<Long, AtomicInteger> conflicts;
+
+    @Autowired
+    public OptimisticRetryPolicy(PlatformTransactionManager transactionManager,
+                                 BankingMetrics bankingMetrics,
+                                 @Value("${banking.contention.max-attempts:5}") int maxAttempts,
+                                 @Value("${banking.contention.backoff-initial-ms:2}") long initialBackoffMs,
+                                 @Value("${banking.contention.backoff-max-ms:50}") long maxBackoffMs,
+                                 @Value("${banking.contention.hot-threshold:3}") int hotThreshold,
+                                 @Value("${banking.contention.hot-window:10s}") Duration hotWindow) {
+        this(new TransactionTemplate(transactionManager), bankingMetrics, maxAttempts,
+                initialBackoffMs, maxBackoffMs, hotThreshold, hotWindow);
+    }
+
+    OptimisticRetryPolicy(TransactionOperations transactionOperations, BankingMetrics bankingMetrics,
+                          int maxAttempts, long initialBackoffMs, long maxBackoffMs,
+                          int hotThreshold, Duration hotWindow) {
+        this.transactionOperations = transactionOperations;
+        this.bankingMetrics = bankingMetrics;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffNanos = TimeUnit.MILLISECONDS.toNanos(initialBackoffMs);
+        this.maxBackoffNanos = TimeUnit.MILLISECONDS.toNanos(maxBackoffMs);
+        this.hotThreshold = hotThreshold;
+        this.conflicts = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(hotWindow)
+                .build();
+    }
+
+    /**
+     * Runs {@code attempt} in a transaction for an operation touching {@code accountIds}.
+     * If any of them is hot the operation goes straight to the pessimistic path.
+     */
+    public <T> T execute(String operation, Attempt<T> attempt, long... accountIds) {
+        if (isHot(accountIds)) {
+            return runLocked(operation, attempt);
+        }
+        for (int n = 1; ; n++) {
+            try {
+                return transactionOperations.execute(status -> attempt.run(false));
+            } catch (OptimisticLockingFailureException e) {
+                bankingMetrics.optimisticConflict(operation);
+                recordConflict(accountIds);
+                if (n >= maxAttempts) {
+                    return runLocked(operation, attempt);
+                }
+                bankingMetrics.optimisticRetry(operation);
+                backoff(n);
+            }
+        }
+    }
+
+    boolean isHot(long... accountIds) {
+        for (long id : accountIds) {
+            AtomicInteger count = conflicts.getIfPresent(id);
+            if (count != null && count.get() >= hotThreshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private <T> T runLocked(String operation, Attempt<T> attempt) {
+        bankingMetrics.pessimisticFallback(operation);
+        return transactionOperations.execute(status -> attempt.run(true));
+    }
+
+    private void recordConflict(long... accountIds) {
+        for (long id : accountIds) {
+            conflicts.get(id, key -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    private void backoff(int attempt) {
+        long bound = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 20));
+        if (bound > 0) {
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(bound + 1));
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.banking.banking.app.service.impl;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.dto.AccountPageDto;
+import com.banking.banking.app.dto.AccountSliceDto;
+import com.banking.banking.app.dto.TransactionDto;
+import com.banking.banking.app.dto.TransactionPageDto;
+import com.banking.banking.app.exception.AccountException;
+import com.banking.banking.app.money.MinorUnitsConverter;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.repository.reactive.AccountRow;
+import com.banking.banking.app.repository.reactive.ReactiveAccountRepository;
+import com.banking.banking.app.repository.reactive.ReactiveTransactionRepository;
+import com.banking.banking.app.repository.reactive.TransactionRow;
+import com.banking.banking.app.service.ReactiveAccountService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.banking.banking.app.service.impl.AccountServiceImpl.ACCOUNT_SORT_PROPERTIES;
+import static com.banking.banking.app.service.impl.AccountServiceImpl.MAX_PAGE_SIZE;
+
+/**
+ * Reads for the reactive profile, straight from the tables over R2DBC.
+ * <p>
+ * Limits, sort properties and cursors are the same as {@link AccountServiceImpl}, so
+ * clients can move between the two stacks. The streams request rows from the driver in
+ * batches of {@code banking.reactive.stream-prefetch} as the HTTP response drains, so a
+ * slow client holds back the query instead of buffering its whole history in memory.
+ * There is no account cache on this path, and with an in-memory balance engine the
+ * tables can trail the engine by its replication lag. With {@code banking.hot-accounts.enabled}
+ * balances add the account's {@code account_balance_slots} rows, looked up a batch of
+ * accounts at a time, as the JPA reads do.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveAccountServiceImpl implements ReactiveAccountService {
+
+    private static final String SLOT_TOTALS_SQL =
+            "select account_id, sum(balance) from account_balance_slots where balance <> 0 and account_id in (:ids) group by account_id";
+
+    private final ReactiveAccountRepository accountRepository;
+
+    private final ReactiveTransactionRepository transactionRepository;
+
+    private final DatabaseClient databaseClient;
+
+    private final int streamPrefetch;
+
+    private final boolean hotAccounts;
+
+    public ReactiveAccountServiceImpl(ReactiveAccountRepository accountRepository,
+                                      ReactiveTransactionRepository transactionRepository,
+                                      DatabaseClient databaseClient,
+                                      @Value("${banking.reactive.stream-prefetch:256}") int streamPrefetch,
+                                      @Value("${banking.hot-accounts.enabled:false}") boolean hotAccounts) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.databaseClient = databaseClient;
+        this.streamPrefetch = streamPrefetch;
+        this.hotAccounts = hotAccounts;
+    }
+
+    @Override
+    public Mono<AccountDto> getAccountById(long id) {
+        return accountRepository.findById(id)
+                .map(ReactiveAccountServiceImpl::toAccountDto)
+                .flatMap(account -> addSlotBalances(List.of(account)).thenReturn(account))
+                .switchIfEmpty(Mono.error(AccountException::notFound));
+    }
+
+    @Override
+    public Flux<AccountDto> getAllAccounts() {
+        return withSlotBalances(accountRepository.findAllOrderById());
+    }
+
+    @Override
+    public Mono<AccountPageDto> getAllAccounts(Pageable pageable) {
+        if (pageable.getPageSize() > MAX_PAGE_SIZE) {
+            return Mono.error(new IllegalArgumentException("size must be at most " + MAX_PAGE_SIZE));
+        }
+        for (Sort.Order order : pageable.getSort()) {
+            if (!ACCOUNT_SORT_PROPERTIES.contains(order.getProperty())) {
+                return Mono.error(new IllegalArgumentException("Cannot sort accounts by " + order.getProperty()));
+            }
+        }
+
+        return Mono.zip(withSlotBalances(accountRepository.findAllBy(pageable)).collectList(),
+                        accountRepository.count())
+                .map(result -> {
+                    PageImpl<AccountDto> page = new PageImpl<>(result.getT1(), pageable, result.getT2());
+                    return new AccountPageDto(page.getContent(), page.getNumber(), page.getSize(),
+                            page.getTotalElements(), page.getTotalPages());
+                });
+    }
+
+    @Override
+    public Mono<AccountSliceDto> getAllAccounts(String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return Mono.error(new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE));
+        }
+        long afterId;
+        try {
+            afterId = cursor == null ? 0 : Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            return Mono.error(new IllegalArgumentException("Invalid cursor", e));
+        }
+
+        return withSlotBalances(accountRepository.findAllAfter(afterId, limit))
+                .collectList()
+                .map(accounts -> new AccountSliceDto(accounts, accounts.size() == limit
+                        ? String.valueOf(accounts.get(accounts.size() - 1).getId())
+                        : null));
+    }
+
+    @Override
+    public Flux<AccountDto> streamAllAccounts() {
+        return withSlotBalances(accountRepository.findAllOrderById().limitRate(streamPrefetch));
+    }
+
+    @Override
+    public Flux<TransactionDto> streamAccountTransactions(long accountId) {
+        return transactionRepository.findHistory(accountId)
+                .limitRate(streamPrefetch)
+                .map(ReactiveAccountServiceImpl::toTransactionDto);
+    }
+
+    @Override
+    public Mono<TransactionPageDto> getAccountTransactions(long accountId, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return Mono.error(new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE));
+        }
+
+        Flux<TransactionRow> rows;
+        if (cursor == null) {
+            rows = transactionRepository.findHistory(accountId, limit);
+        } else {
+            String[] position;
+            try {
+                position = AccountServiceImpl.decodeCursor(cursor);
+            } catch (IllegalArgumentException e) {
+                return Mono.error(e);
+            }
+            rows = transactionRepository.findHistoryAfter(accountId,
+                    LocalDateTime.parse(position[0]), Long.parseLong(position[1]), limit);
+        }
+
+        return rows.collectList().map(transactions -> {
+            String nextCursor = null;
+            if (transactions.size() == limit) {
+                TransactionRow last = transactions.get(transactions.size() - 1);
+                nextCursor = AccountServiceImpl.encodeCursor(last.timestamp(), last.id());
+            }
+            List<TransactionDto> page = transactions.stream()
+                    .map(ReactiveAccountServiceImpl::toTransactionDto)
+                    .toList();
+            return new TransactionPageDto(page, nextCursor);
+        });
+    }
+
+    // Maps rows to accounts, adding the balance slots a batch of streamPrefetch accounts at a time
+    private Flux<AccountDto> withSlotBalances(Flux<AccountRow> rows) {
+        Flux<AccountDto> accounts = rows.map(ReactiveAccountServiceImpl::toAccountDto);
+        if (!hotAccounts) {
+            return accounts;
+        }
+        return accounts.buffer(streamPrefetch)
+                .concatMap(batch -> addSlotBalances(batch).thenMany(Flux.fromIterable(batch)));
+    }
+
+    private Mono<Void> addSlotBalances(List<AccountDto> accounts) {
+        if (!hotAccounts || accounts.isEmpty()) {
+            return Mono.empty();
+        }
+        Map<Long, AccountDto> byId = new HashMap<>();
+        for (AccountDto account : accounts) {
+            byId.put(account.getId(), account);
+        }
+        return databaseClient.sql(SLOT_TOTALS_SQL)
+                .bind("ids", byId.keySet())
+                .map((row, metadata) -> {
+                    AccountDto account = byId.get(row.get(0, Long.class));
+                    long total = MinorUnitsConverter.toMinorUnits(row.get(1, BigDecimal.class));
+                    account.setBalance(Money.ofMinor(account.getBalance().minorUnits() + total));
+                    return account;
+                })
+                .all()
+                .then();
+    }
+
+    private static AccountDto toAccountDto(AccountRow row) {
+        return new AccountDto(row.id(), row.accountHolderName(),
+                Money.ofMinor(MinorUnitsConverter.toMinorUnits(row.balance())));
+    }
+
+    private static TransactionDto toTransactionDto(TransactionRow row) {
+        return new TransactionDto(row.id(), row.accountId(), row.transactionType(),
+                Money.ofMinor(MinorUnitsConverter.toMinorUnits(row.amount())), row.timestamp().toString());
+    }
+}
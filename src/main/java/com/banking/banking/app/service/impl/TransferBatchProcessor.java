@@ -0,0 +1,135 @@
+package com.banking.banking.app.service.impl;
+
+import com.banking.banking.app.dto.TransferFundDto;
+import com.banking.banking.app.dto.TransferResultDto;
+import com.banking.banking.app.entity.Account;
+import com.banking.banking.app.entity.OutboxEntry;
+import com.banking.banking.app.entity.Transaction;
+import com.banking.banking.app.hotaccount.BalanceSlots;
+import com.banking.banking.app.metrics.BankingMetrics;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.outbox.AccountOutbox;
+import com.banking.banking.app.repository.AccountRepository;
+import com.banking.banking.app.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Applies a list of transfers in one database transaction.
+ * <p>
+ * All involved accounts are loaded with a single locking {@code IN} query, the transfers
+ * are applied in request order against the in-memory balances, and Hibernate flushes
+ * the changed balances and the new ledger rows as JDBC batches on commit. An item that
+ * cannot be applied is rejected on its own and does not affect the others.
+ */
+@Component
+public class TransferBatchProcessor {
+
+    private final AccountRepository accountRepository;
+
+    private final TransactionRepository transactionRepository;
+
+    private final BankingMetrics bankingMetrics;
+
+    private final AccountOutbox accountOutbox;
+
+    private final BalanceSlots balanceSlots;
+
+    private final int maxBatchSize;
+
+    public TransferBatchProcessor(AccountRepository accountRepository, TransactionRepository transactionRepository,
+                                  BankingMetrics bankingMetrics, AccountOutbox accountOutbox, BalanceSlots balanceSlots,
+                                  @Value("${banking.transfers.batch.max-size:10000}") int maxBatchSize) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.bankingMetrics = bankingMetrics;
+        this.accountOutbox = accountOutbox;
+        this.balanceSlots = balanceSlots;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public void checkBatchSize(int size) {
+        if (size > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " transfers per batch");
+        }
+    }
+
+    @Transactional
+    public List<TransferResultDto> apply(List<TransferFundDto> transfers) {
+        // sorted ids, so two batches always lock rows in the same order
+        TreeSet<Long> ids = new TreeSet<>();
+        for (TransferFundDto transfer : transfers) {
+            if (transfer != null && transfer.isComplete()) {
+                ids.add(transfer.fromAccountId());
+                ids.add(transfer.toAccountId());
+            }
+        }
+
+        Map<Long, Account> accounts = new HashMap<>(ids.size() * 2);
+        for (Account account : accountRepository.findAllForUpdate(ids)) {
+            accounts.put(account.getId(), account);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<TransferResultDto> results = new ArrayList<>(transfers.size());
+        List<Transaction> ledger = new ArrayList<>(transfers.size() * 2);
+        List<OutboxEntry> events = new ArrayList<>(accountOutbox.isEnabled() ? transfers.size() * 2 : 0);
+        // events carry the whole balance, including what a hot account holds in its slots
+        Map<Long, Long> slotTotals = accountOutbox.isEnabled() ? balanceSlots.slotTotals(ids) : Map.of();
+        for (int i = 0; i < transfers.size(); i++) {
+            TransferFundDto transfer = transfers.get(i);
+            if (transfer == null || !transfer.isComplete()) {
+                results.add(TransferResultDto.rejected(i, TransferFundDto.INCOMPLETE));
+                continue;
+            }
+            Account from = accounts.get(transfer.fromAccountId());
+            Account to = accounts.get(transfer.toAccountId());
+
+            if (from == null || to == null) {
+                results.add(TransferResultDto.rejected(i, "Account does not exist."));
+                continue;
+            }
+            long amount = transfer.amount().minorUnits();
+            if (amount < 0) {
+                results.add(TransferResultDto.rejected(i, "Amount must not be negative"));
+                continue;
+            }
+            if (from.getBalance() < amount) {
+                bankingMetrics.insufficientFunds("batch_transfer");
+                results.add(TransferResultDto.rejected(i, "Insufficient amount"));
+                continue;
+            }
+
+            // same rule as the single transfer: nothing to move
+            if (amount == 0 || from == to) {
+                results.add(TransferResultDto.applied(i));
+                continue;
+            }
+
+            from.setBalance(Money.subtract(from.getBalance(), amount));
+            to.setBalance(Money.add(to.getBalance(), amount));
+            ledger.add(new Transaction(null, from.getId(), "TRANSFER", amount, now));
+            ledger.add(new Transaction(null, to.getId(), "TRANSFER_IN", amount, now));
+            if (accountOutbox.isEnabled()) {
+                events.add(new OutboxEntry(null, from.getId(), "TRANSFER", amount,
+                        from.getBalance() + slotTotals.getOrDefault(from.getId(), 0L), now));
+                events.add(new OutboxEntry(null, to.getId(), "TRANSFER_IN", amount,
+                        to.getBalance() + slotTotals.getOrDefault(to.getId(), 0L), now));
+            }
+            results.add(TransferResultDto.applied(i));
+        }
+
+        transactionRepository.saveAll(ledger);
+        // the rows are locked above, so the events are numbered in commit order per account
+        accountOutbox.recordAll(events);
+        return results;
+    }
+}
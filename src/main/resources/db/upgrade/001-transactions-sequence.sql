@@ -0,0 +1,13 @@
+-- Transaction ids moved from IDENTITY to the pooled transactions_seq generator (allocationSize 50).
+-- On MySQL, Hibernate keeps that sequence in a one-row table; ddl-auto=update creates it starting at 1,
+-- which hands out ids that AUTO_INCREMENT already assigned. Run once with the application stopped,
+-- before the first start of the new version (and again if it was already started against old data).
+-- The pooled optimizer hands out next_val - 49 .. next_val on its first fetch, so max(id) + 51 is the
+-- lowest safe value.
+
+CREATE TABLE IF NOT EXISTS transactions_seq (next_val BIGINT) ENGINE = InnoDB;
+
+DELETE FROM transactions_seq;
+
+INSERT INTO transactions_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 51 FROM transactions;
@@ -0,0 +1,8 @@
+-- Balances and amounts moved from double to long minor units, stored as DECIMAL(19, 2).
+-- ddl-auto=update never alters the type of an existing column, so databases created before that
+-- change keep their DOUBLE columns. MySQL rounds each value to the nearest cent while converting.
+-- Run once with the application stopped, before the first start of the new version.
+
+ALTER TABLE accounts MODIFY balance DECIMAL(19, 2) NOT NULL;
+
+ALTER TABLE transactions MODIFY amount DECIMAL(19, 2) NOT NULL;
@@ -0,0 +1,19 @@
+-- Every account's journal now starts with an OPENING row and a transfer credits its target with a
+-- TRANSFER_IN row. Accounts opened, or credited by a transfer, before that change have neither, so
+-- LedgerReconciler (and the event-sourced engine) would fold their ledger to the wrong balance.
+-- This appends one OPENING row per account carrying its current balance: OPENING resets the fold,
+-- so the rows before it no longer count and reconciliation starts from this baseline.
+-- Run once with the application stopped, before the first start of the new version.
+
+INSERT INTO transactions (id, account_id, transaction_type, amount, timestamp)
+SELECT last.id + ROW_NUMBER() OVER (ORDER BY a.id), a.id, 'OPENING', a.balance, CURRENT_TIMESTAMP
+FROM accounts a
+CROSS JOIN (SELECT COALESCE(MAX(id), 0) AS id FROM transactions) last;
+
+-- the baseline rows took ids past the sequence, move it on as in 001-transactions-sequence.sql
+CREATE TABLE IF NOT EXISTS transactions_seq (next_val BIGINT) ENGINE = InnoDB;
+
+DELETE FROM transactions_seq;
+
+INSERT INTO transactions_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 51 FROM transactions;
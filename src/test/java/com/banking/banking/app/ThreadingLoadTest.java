@@ -0,0 +1,126 @@
+package com.banking.banking.app;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.service.AccountService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares platform and virtual request threads under the same burst of concurrent clients.
+ * Each request is held for a fixed time to stand in for a blocking MySQL round trip.
+ * Run with: mvn test -Pperf on a Java 21+ runtime; on older runtimes Spring Boot ignores
+ * spring.threads.virtual.enabled and only the platform leg is measured.
+ */
+@Tag("perf")
+public class ThreadingLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadingLoadTest.class);
+
+    private static final int CLIENTS = 1000;
+    private static final int REQUESTS_PER_CLIENT = 3;
+    private static final long SIMULATED_DB_MILLIS = 50;
+
+    // Tracks how many requests are inside the server at once
+    public static class InFlightFilter extends OncePerRequestFilter {
+
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(SIMULATED_DB_MILLIS);
+                chain.doFilter(request, response);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    @Test
+    public void testPlatformVersusVirtualThreads() throws Exception {
+        run("platform", false);
+        if (Runtime.version().feature() >= 21) {
+            run("virtual", true);
+        } else {
+            log.info("virtual threads need Java 21+, skipped on {}", Runtime.version());
+        }
+    }
+
+    private void run(String label, boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BankingAppApplication.class, InFlightFilter.class)
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:threading_" + label + ";DB_CLOSE_DELAY=-1")
+                .run()) {
+            long id = context.getBean(AccountService.class).createAccount(new AccountDto(0, "John Doe", Money.of("100.00"))).getId();
+            URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                    + "/api/accounts/" + id);
+            InFlightFilter filter = context.getBean(InFlightFilter.class);
+
+            long[] latencies = new long[CLIENTS * REQUESTS_PER_CLIENT];
+            AtomicInteger failures = new AtomicInteger();
+            CountDownLatch done = new CountDownLatch(CLIENTS);
+            ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+            try {
+                HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+                for (int c = 0; c < CLIENTS; c++) {
+                    int client = c;
+                    clients.execute(() -> {
+                        try {
+                            for (int n = 0; n < REQUESTS_PER_CLIENT; n++) {
+                                long began = System.nanoTime();
+                                HttpResponse<Void> response = http.send(HttpRequest.newBuilder(uri).GET().build(),
+                                        HttpResponse.BodyHandlers.discarding());
+                                latencies[client * REQUESTS_PER_CLIENT + n] = System.nanoTime() - began;
+                                if (response.statusCode() != 200) {
+                                    failures.incrementAndGet();
+                                }
+                            }
+                        } catch (Exception e) {
+                            failures.incrementAndGet();
+                        } finally {
+                            done.countDown();
+                        }
+                    });
+                }
+                assertTrue(done.await(5, TimeUnit.MINUTES));
+            } finally {
+                clients.shutdown();
+            }
+
+            Arrays.sort(latencies);
+            long p99 = latencies[(int) (latencies.length * 0.99) - 1];
+            log.info(String.format("%-8s threads: max in-flight %5d, p99 %,8.1f ms, %d failures",
+                    label, filter.maxInFlight.get(), p99 / 1_000_000.0, failures.get()));
+        }
+    }
+}
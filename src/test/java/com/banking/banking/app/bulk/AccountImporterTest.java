@@ -0,0 +1,135 @@
+package com.banking.banking.app.bulk;
+
+import com.banking.banking.app.dto.ImportResultDto;
+import com.banking.banking.app.ledger.LedgerReconciler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:account_importer;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "banking.import.batch-size=2",
+        "banking.import.max-reported=3"})
+@AutoConfigureMockMvc
+public class AccountImporterTest {
+
+    @Autowired
+    private AccountImporter accountImporter;
+
+    @Autowired
+    private LedgerReconciler ledgerReconciler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void clean() {
+        jdbcTemplate.update("delete from transactions");
+        jdbcTemplate.update("delete from accounts");
+    }
+
+    @Test
+    public void testCsvImportInsertsAccountsAndOpeningRows() throws IOException {
+        // Given
+        String csv = "id,accountHolderName,balance\r\n" +
+                "99,John Doe,100.50\r\n" +
+                "\r\n" +
+                ",\"Doe, Jane \"\"JD\"\"\",0\n" +
+                ",\"Max\nMustermann\",7\n" +
+                ",Erika Mustermann,";
+
+        // When
+        ImportResultDto result = importAccounts(csv, AccountImporter.Format.CSV);
+
+        // Then
+        assertEquals(4, result.imported());
+        assertEquals(0, result.rejected());
+        List<Map<String, Object>> accounts = jdbcTemplate.queryForList(
+                "select id, account_holder_name, balance from accounts order by id");
+        assertEquals(List.of("John Doe", "Doe, Jane \"JD\"", "Max\nMustermann", "Erika Mustermann"),
+                accounts.stream().map(row -> row.get("ACCOUNT_HOLDER_NAME")).toList());
+        assertNotEquals(99L, accounts.get(0).get("ID"));
+        assertEquals(0, new BigDecimal("100.50").compareTo((BigDecimal) accounts.get(0).get("BALANCE")));
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "select count(*) from transactions where transaction_type = 'OPENING'", Integer.class));
+        assertEquals(0, ledgerReconciler.reconcile().discrepancyCount());
+    }
+
+    @Test
+    public void testInvalidRowsAreRejectedByLine() throws IOException {
+        // Given
+        String ndjson = """
+                {"accountHolderName":"John Doe","balance":12.34}
+                {"accountHolderName":" ","balance":1}
+                {"accountHolderName":"Jane Doe","balance":-5}
+                [1, 2]
+                {"accountHolderName":"Max Mustermann","balance":"0.001","id":7}
+                {"accountHolderName":"Erika Mustermann","balance":{"amount":3}}
+                {"accountHolderName":"Alex Doe"}
+                """;
+
+        // When
+        ImportResultDto result = importAccounts(ndjson, AccountImporter.Format.NDJSON);
+
+        // Then
+        assertEquals(2, result.imported());
+        assertEquals(5, result.rejected());
+        assertEquals(List.of("line 2: accountHolderName is required",
+                "line 3: Opening balance must not be negative",
+                "line 4: Expected a JSON object"), result.errors());
+        assertEquals(2, jdbcTemplate.queryForObject("select count(*) from accounts", Integer.class));
+    }
+
+    @Test
+    public void testMalformedInputStopsTheImportAfterCommittedBatches() throws IOException {
+        // Given
+        String csv = "accountHolderName,balance\nA,1\nB,2\nC,3\n\"D,4\nE,5\n";
+
+        // When
+        ImportResultDto result = importAccounts(csv, AccountImporter.Format.CSV);
+
+        // Then
+        assertEquals(3, result.imported());
+        assertEquals(List.of("line 5: Unterminated quoted field"), result.errors());
+        assertEquals(3, jdbcTemplate.queryForObject("select count(*) from accounts", Integer.class));
+    }
+
+    @Test
+    public void testImportEndpoints() throws Exception {
+        mockMvc.perform(post("/api/accounts/import").contentType("text/csv")
+                        .content("accountHolderName,balance\nJohn Doe,1.00\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1));
+        mockMvc.perform(post("/api/accounts/import").contentType("application/x-ndjson")
+                        .content("{\"accountHolderName\":\"Jane Doe\",\"balance\":2}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1));
+        mockMvc.perform(post("/api/accounts/import").contentType("text/csv")
+                        .content("name,amount\nJohn Doe,1.00\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ImportResultDto importAccounts(String body, AccountImporter.Format format) throws IOException {
+        return accountImporter.importAccounts(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format);
+    }
+}
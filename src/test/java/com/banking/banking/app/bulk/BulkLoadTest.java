@@ -0,0 +1,110 @@
+package com.banking.banking.app.bulk;
+
+import com.banking.banking.app.dto.ImportResultDto;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Run with: mvn test -Pperf -Dtest=BulkLoadTest [-Dbulk.rows=1000000]
+// File-backed H2 and files under target/, so neither the input nor the tables live in the heap
+@Tag("perf")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/bulk;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.show-sql=false"
+})
+public class BulkLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkLoadTest.class);
+
+    private static final int ROWS = Integer.getInteger("bulk.rows", 1_000_000);
+
+    @Autowired
+    private AccountImporter accountImporter;
+
+    @Autowired
+    private LedgerExporter ledgerExporter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testImportAndExportInBoundedMemory() throws Exception {
+        jdbcTemplate.update("delete from account_daily_rollups");
+        jdbcTemplate.update("delete from transactions");
+        jdbcTemplate.update("delete from accounts");
+
+        Path csv = Path.of("target", "bulk-accounts.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            writer.write("accountHolderName,balance\n");
+            for (int i = 0; i < ROWS; i++) {
+                writer.write("\"Holder " + i + "\"," + (i % 100_000) + "." + (i % 100) + "\n");
+            }
+        }
+
+        ImportResultDto result = measure("import", ROWS, () -> {
+            try (InputStream in = Files.newInputStream(csv)) {
+                return accountImporter.importAccounts(in, AccountImporter.Format.CSV);
+            }
+        });
+        assertEquals(ROWS, result.imported());
+        assertEquals(0, result.rejected());
+
+        Path gzip = Path.of("target", "bulk-transactions.csv.gz");
+        long rows = measure("export", ROWS, () -> {
+            try (FileChannel channel = FileChannel.open(gzip, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                return ledgerExporter.export(0, Long.MAX_VALUE, channel);
+            }
+        });
+        // every row but the zero balances has an OPENING row
+        assertEquals(ROWS - ROWS / 100_000 - (ROWS % 100_000 == 0 ? 0 : 1), rows);
+        log.info(String.format("export file: %,d KB for %,d rows", Files.size(gzip) >> 10, rows));
+    }
+
+    private static <T> T measure(String operation, long rows, Callable<T> work) throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+        AtomicLong peak = new AtomicLong(baseline);
+        Thread sampler = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.setDaemon(true);
+        sampler.start();
+        long began = System.nanoTime();
+        T result = work.call();
+        long elapsedMillis = Math.max(1, (System.nanoTime() - began) / 1_000_000);
+        sampler.interrupt();
+        sampler.join();
+
+        log.info(String.format("%s: %,d rows in %,d ms, %,.0f rows/s, peak heap +%,d MB of %,d MB",
+                operation, rows, elapsedMillis, rows * 1000.0 / elapsedMillis,
+                (peak.get() - baseline) >> 20, Runtime.getRuntime().maxMemory() >> 20));
+        return result;
+    }
+}
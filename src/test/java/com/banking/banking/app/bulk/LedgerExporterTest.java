@@ -0,0 +1,129 @@
+package com.banking.banking.app.bulk;
+
+import com.banking.banking.app.entity.Transaction;
+import com.banking.banking.app.ledger.LedgerEvents;
+import com.banking.banking.app.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ledger_exporter;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"})
+@AutoConfigureMockMvc
+public class LedgerExporterTest {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2024, 3, 1, 9, 30, 15);
+
+    @Autowired
+    private LedgerExporter ledgerExporter;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void clean() {
+        jdbcTemplate.update("delete from account_daily_rollups");
+        jdbcTemplate.update("delete from transactions");
+    }
+
+    @Test
+    public void testExportsAccountRangeInAccountAndIdOrder() throws IOException {
+        // Given
+        Transaction first = save(2, LedgerEvents.DEPOSIT, 1050);
+        save(1, LedgerEvents.OPENING, 10_000);
+        Transaction third = save(2, LedgerEvents.WITHDRAW, 5);
+        save(3, LedgerEvents.TRANSFER_IN, 1);
+
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = ledgerExporter.export(2, 2, Channels.newChannel(out));
+
+        // Then
+        assertEquals(2, rows);
+        assertEquals(List.of(LedgerExporter.HEADER,
+                first.getId() + ",2,DEPOSIT,10.50,2024-03-01T09:30:15",
+                third.getId() + ",2,WITHDRAW,0.05,2024-03-01T09:30:15"), gunzip(out.toByteArray()));
+    }
+
+    @Test
+    public void testLargeExportSpansManyBuffers() throws IOException {
+        // Given
+        List<Transaction> ledger = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            ledger.add(new Transaction(null, 10L + i % 7, LedgerEvents.DEPOSIT, i, TIMESTAMP));
+        }
+        transactionRepository.saveAll(ledger);
+
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = ledgerExporter.export(0, Long.MAX_VALUE, Channels.newChannel(out));
+
+        // Then
+        List<String> lines = gunzip(out.toByteArray());
+        assertEquals(5_000, rows);
+        assertEquals(5_001, lines.size());
+        assertTrue(lines.get(1).contains(",10,DEPOSIT,"));
+        assertTrue(lines.get(5_000).contains(",16,DEPOSIT,"));
+    }
+
+    @Test
+    public void testExportEndpoint() throws Exception {
+        // Given
+        save(5, LedgerEvents.DEPOSIT, 100);
+
+        // When
+        MvcResult started = mockMvc.perform(get("/api/accounts/transactions/export")
+                        .param("fromAccountId", "5").param("toAccountId", "5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/gzip"))
+                .andReturn();
+
+        // Then
+        assertEquals(2, gunzip(result.getResponse().getContentAsByteArray()).size());
+        mockMvc.perform(get("/api/accounts/transactions/export")
+                        .param("fromAccountId", "6").param("toAccountId", "5"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Transaction save(long accountId, String type, long amount) {
+        return transactionRepository.save(new Transaction(null, accountId, type, amount, TIMESTAMP));
+    }
+
+    private static List<String> gunzip(byte[] gzip) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return new String(in.readAllBytes(), StandardCharsets.US_ASCII).lines().toList();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.banking.banking.app.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.NestedExceptionUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VirtualThreadsConfigTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withUserConfiguration(VirtualThreadsConfig.class);
+
+    @Test
+    public void testVirtualThreads_RefusedBelowJava21() {
+        runner.withPropertyValues("spring.threads.virtual.enabled=true").run(context -> {
+            if (Runtime.version().feature() < VirtualThreadsConfig.REQUIRED_JAVA) {
+                Throwable cause = NestedExceptionUtils.getRootCause(context.getStartupFailure());
+                assertInstanceOf(IllegalStateException.class, cause);
+                assertTrue(cause.getMessage().contains("needs Java 21+"));
+            } else {
+                assertNull(context.getStartupFailure());
+            }
+        });
+    }
+
+    @Test
+    public void testPlatformThreads_StartOnAnyJava() {
+        runner.run(context -> assertNull(context.getStartupFailure()));
+    }
+}
@@ -0,0 +1,175 @@
+package com.banking.banking.app.controller;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.dto.TransactionDto;
+import com.banking.banking.app.dto.TransactionPageDto;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.service.AccountService;
+import com.banking.banking.app.service.ReactiveAccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.main.web-application-type=reactive",
+        "spring.datasource.url=jdbc:h2:mem:reactive_api;DB_CLOSE_DELAY=-1",
+        "banking.reactive.r2dbc.url=r2dbc:h2:mem:///reactive_api;DB_CLOSE_DELAY=-1",
+        "banking.reactive.stream-prefetch=2",
+        "banking.hot-accounts.enabled=true"})
+@ActiveProfiles("reactive")
+public class ReactiveAccountControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private ReactiveAccountService reactiveAccountService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testWritesThroughJpaAreReadBackOverR2dbc() {
+        // Given
+        AccountDto created = webTestClient.post().uri("/api/accounts")
+                .bodyValue(new AccountDto(0, "John Doe", Money.of("100.00")))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(AccountDto.class).returnResult().getResponseBody();
+
+        // When
+        webTestClient.put().uri("/api/accounts/{id}/deposit", created.getId())
+                .bodyValue(Map.of("amount", "25.50"))
+                .exchange()
+                .expectStatus().isOk();
+
+        // Then
+        webTestClient.get().uri("/api/accounts/{id}", created.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.accountHolderName").isEqualTo("John Doe")
+                .jsonPath("$.balance").isEqualTo(125.50);
+        webTestClient.put().uri("/api/accounts/{id}/withdraw", created.getId())
+                .bodyValue(Map.of("amount", "1000.00"))
+                .exchange()
+                .expectStatus().isEqualTo(422)
+                .expectBody().jsonPath("$.message").isEqualTo("Insufficient amount");
+        webTestClient.get().uri("/api/accounts/{id}", Long.MAX_VALUE)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.errorCode").isEqualTo("ACCOUNT_NOT_FOUND")
+                .jsonPath("$.details").isEqualTo("uri=/api/accounts/" + Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testHistoryStreamsAsNdjsonAndPagesWithTheMvcCursor() {
+        // Given
+        long id = accountService.createAccount(new AccountDto(0, "Jane Doe", Money.ZERO)).getId();
+        for (int i = 1; i <= 5; i++) {
+            accountService.deposit(id, Money.of(i + ".00"));
+        }
+
+        // When
+        List<TransactionDto> streamed = webTestClient.get().uri("/api/accounts/{id}/transactions", id)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(TransactionDto.class)
+                .getResponseBody()
+                .collectList()
+                .block(Duration.ofSeconds(10));
+        TransactionPageDto first = webTestClient.get().uri("/api/accounts/{id}/transactions?limit=3", id)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TransactionPageDto.class).returnResult().getResponseBody();
+        TransactionPageDto mvcSecond = accountService.getAccountTransactions(id, first.nextCursor(), 3);
+
+        // Then
+        assertEquals(accountService.getAccountTransactions(id), streamed);
+        assertEquals(streamed.subList(0, 3), first.transactions());
+        assertEquals(streamed.subList(3, 5), mvcSecond.transactions());
+        webTestClient.get().uri("/api/accounts/{id}/transactions?limit=3&cursor=bogus", id)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void testHistoryStreamOnlyReadsWhatIsRequested() {
+        // Given
+        long id = accountService.createAccount(new AccountDto(0, "Max Mustermann", Money.ZERO)).getId();
+        for (int i = 1; i <= 10; i++) {
+            accountService.deposit(id, Money.of("1.00"));
+        }
+
+        // When / Then: nothing is emitted without demand, and each request gets exactly that many rows
+        StepVerifier.create(reactiveAccountService.streamAccountTransactions(id), 0)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(200))
+                .thenRequest(1)
+                .expectNextCount(1)
+                .expectNoEvent(Duration.ofMillis(200))
+                .thenRequest(3)
+                .expectNextCount(3)
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    public void testPagedListingUsesTheSameLimitsAsMvc() {
+        // Given
+        accountService.createAccount(new AccountDto(0, "Alice", Money.of("1.00")));
+        accountService.createAccount(new AccountDto(0, "Bob", Money.of("2.00")));
+
+        // Then
+        webTestClient.get().uri("/api/accounts?page=0&size=1&sort=balance,desc")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.accounts.length()").isEqualTo(1)
+                .jsonPath("$.size").isEqualTo(1);
+        webTestClient.get().uri("/api/accounts?page=0&size=10&sort=version")
+                .exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/accounts?limit=0")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void testBalancesIncludeHotAccountSlots() {
+        // Given: an account whose balance is split over two slot rows
+        long id = accountService.createAccount(new AccountDto(0, "Erika Mustermann", Money.of("10.00"))).getId();
+        jdbcTemplate.update("insert into account_balance_slots (account_id, slot, balance) values (?, 1, 2.50)", id);
+        jdbcTemplate.update("insert into account_balance_slots (account_id, slot, balance) values (?, 2, 0.25)", id);
+
+        // When / Then
+        webTestClient.get().uri("/api/accounts/{id}", id)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.balance").isEqualTo(12.75);
+        List<AccountDto> streamed = reactiveAccountService.streamAllAccounts()
+                .filter(account -> account.getId() == id)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+        assertEquals(List.of(new AccountDto(id, "Erika Mustermann", Money.of("12.75"))), streamed);
+        assertEquals(Money.of("12.75"), reactiveAccountService.getAllAccounts(String.valueOf(id - 1), 1)
+                .block(Duration.ofSeconds(10)).accounts().get(0).getBalance());
+    }
+}
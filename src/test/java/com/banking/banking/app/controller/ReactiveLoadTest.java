@@ -0,0 +1,115 @@
+package com.banking.banking.app.controller;
+
+import com.banking.banking.app.BankingAppApplication;
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.service.AccountService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Same read mix against the MVC stack and the reactive profile, both on an in-memory H2
+ * database: balance reads and first pages of transaction history, {@code CONCURRENCY}
+ * requests in flight from one asynchronous client. The account cache is off so both legs
+ * go to the database on every request. Reports requests per second and per second of
+ * process CPU time, which divides out the number of cores the machine happens to have.
+ * Run with: mvn test -Pperf -Dtest=ReactiveLoadTest [-Dload.requests=50000 -Dload.warmup=20000]
+ */
+@Tag("perf")
+public class ReactiveLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveLoadTest.class);
+
+    private static final int ACCOUNTS = 200;
+    private static final int DEPOSITS_PER_ACCOUNT = 20;
+    private static final int CONCURRENCY = 256;
+    private static final int WARMUP_REQUESTS = Integer.getInteger("load.warmup", 20_000);
+    private static final int REQUESTS = Integer.getInteger("load.requests", 50_000);
+
+    @Test
+    public void testMvcVersusReactiveReads() throws Exception {
+        run("mvc", false);
+        run("reactive", true);
+    }
+
+    private void run(String label, boolean reactive) throws Exception {
+        // Passed as arguments so they take precedence over application-reactive.properties
+        List<String> args = new ArrayList<>(List.of("--server.port=0",
+                "--spring.cache.type=none",
+                "--spring.jpa.show-sql=false",
+                "--spring.datasource.url=jdbc:h2:mem:load_" + label + ";DB_CLOSE_DELAY=-1"));
+        if (reactive) {
+            args.add("--banking.reactive.r2dbc.url=r2dbc:pool:h2:mem:///load_" + label + ";DB_CLOSE_DELAY=-1?maxSize=10");
+        }
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BankingAppApplication.class)
+                .web(reactive ? WebApplicationType.REACTIVE : WebApplicationType.SERVLET)
+                .profiles(reactive ? new String[]{"reactive"} : new String[0])
+                .run(args.toArray(String[]::new))) {
+            AccountService accountService = context.getBean(AccountService.class);
+            long[] ids = new long[ACCOUNTS];
+            for (int a = 0; a < ACCOUNTS; a++) {
+                ids[a] = accountService.createAccount(new AccountDto(0, "Holder " + a, Money.ZERO)).getId();
+                for (int d = 0; d < DEPOSITS_PER_ACCOUNT; d++) {
+                    accountService.deposit(ids[a], Money.of("1.00"));
+                }
+            }
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/accounts/";
+            HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+            drive(http, base, ids, WARMUP_REQUESTS);
+            com.sun.management.OperatingSystemMXBean os =
+                    (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+            long cpuBefore = os.getProcessCpuTime();
+            long began = System.nanoTime();
+            int failures = drive(http, base, ids, REQUESTS);
+            double seconds = (System.nanoTime() - began) / 1e9;
+            double cpuSeconds = (os.getProcessCpuTime() - cpuBefore) / 1e9;
+
+            log.info(String.format("%-8s %,9.0f req/s, %,9.0f req per CPU-second, %d cores, %d failures",
+                    label, REQUESTS / seconds, REQUESTS / cpuSeconds, Runtime.getRuntime().availableProcessors(), failures));
+            assertEquals(0, failures);
+        }
+    }
+
+    // Keeps CONCURRENCY requests in flight until count have completed; returns the non-200 count
+    private int drive(HttpClient http, String base, long[] ids, int count) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        AtomicInteger failures = new AtomicInteger();
+        for (int n = 0; n < count; n++) {
+            long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+            String path = (n & 1) == 0 ? String.valueOf(id) : id + "/transactions?limit=20";
+            inFlight.acquire();
+            CompletableFuture<HttpResponse<Void>> response = http.sendAsync(
+                    HttpRequest.newBuilder(URI.create(base + path)).GET().build(), HttpResponse.BodyHandlers.discarding());
+            response.whenComplete((r, e) -> {
+                if (e != null || r.statusCode() != 200) {
+                    if (failures.getAndIncrement() == 0) {
+                        log.info("first failure: {}", e != null ? e : r.statusCode() + " " + path);
+                    }
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(CONCURRENCY);
+        return failures.get();
+    }
+}
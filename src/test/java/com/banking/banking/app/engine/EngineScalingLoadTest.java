@@ -0,0 +1,147 @@
+package com.banking.banking.app.engine;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.dto.TransferFundDto;
+import com.banking.banking.app.exception.AccountException;
+import com.banking.banking.app.hotaccount.BalanceSlots;
+import com.banking.banking.app.ledger.LedgerWriter;
+import com.banking.banking.app.metrics.BankingMetrics;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.outbox.AccountOutbox;
+import com.banking.banking.app.repository.AccountRepository;
+import com.banking.banking.app.repository.DailyRollupRepository;
+import com.banking.banking.app.repository.TransactionRepository;
+import com.banking.banking.app.service.AccountService;
+import com.banking.banking.app.service.impl.AccountServiceImpl;
+import com.banking.banking.app.service.impl.OptimisticRetryPolicy;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Run with: mvn test -Pperf [-Dscaling.threads=1,2,4,8,16,32]
+// Thread counts stand in for cores; the curve only means something when the machine has that many.
+@Tag("perf")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:engine_scaling;DB_CLOSE_DELAY=-1")
+public class EngineScalingLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(EngineScalingLoadTest.class);
+
+    private static final int ACCOUNTS = 64;
+    private static final int HOT_ACCOUNTS = 4;
+    private static final int TRANSFERS_PER_THREAD = 2_000;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private DailyRollupRepository dailyRollupRepository;
+
+    @Autowired
+    private LedgerWriter ledgerWriter;
+
+    @Autowired
+    private AccountOutbox accountOutbox;
+
+    @Autowired
+    private BalanceSlots balanceSlots;
+
+    @Autowired
+    private BankingMetrics bankingMetrics;
+
+    @Autowired
+    private OptimisticRetryPolicy optimisticRetryPolicy;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void testTransferThroughput_RepositoryVersusStripedVersusSharded() throws Exception {
+        long[] ids = new long[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            ids[i] = accountService.createAccount(new AccountDto(0, "Holder " + i, Money.of("1000000.00"))).getId();
+        }
+
+        log.info(String.format("cores=%d, %d accounts, 80%% of transfers touch %d hot accounts",
+                Runtime.getRuntime().availableProcessors(), ACCOUNTS, HOT_ACCOUNTS));
+        log.info(String.format("%8s %16s %16s %16s", "threads", "repository/s", "striped/s", "sharded/s"));
+        for (String value : System.getProperty("scaling.threads", "1,2,4,8,16,32").split(",")) {
+            int threads = Integer.parseInt(value.trim());
+
+            double repository = run(new AccountServiceImpl(accountRepository, transactionRepository, dailyRollupRepository, ledgerWriter,
+                    null, accountOutbox, balanceSlots, bankingMetrics, optimisticRetryPolicy, transactionManager, null), ids, threads);
+
+            double striped = run(new AccountServiceImpl(accountRepository, transactionRepository, dailyRollupRepository, ledgerWriter,
+                    null, accountOutbox, balanceSlots, bankingMetrics, optimisticRetryPolicy, transactionManager, new StripedBalanceEngine(accountRepository, transactionManager, bankingMetrics, 1024)),
+                    ids, threads);
+
+            ShardedBalanceEngine engine = new ShardedBalanceEngine(accountRepository, transactionManager, bankingMetrics, threads);
+            engine.start();
+            double sharded;
+            try {
+                sharded = run(new AccountServiceImpl(accountRepository, transactionRepository, dailyRollupRepository, ledgerWriter,
+                        null, accountOutbox, balanceSlots, bankingMetrics, optimisticRetryPolicy, transactionManager, engine), ids, threads);
+            } finally {
+                engine.stop();
+            }
+            log.info(String.format("%8d %,16.0f %,16.0f %,16.0f", threads, repository, striped, sharded));
+        }
+    }
+
+    private double run(AccountService service, long[] ids, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int n = 0; n < TRANSFERS_PER_THREAD; n++) {
+                        int a = pick(random);
+                        int b = pick(random);
+                        if (a == b) {
+                            b = (a + 1) % ACCOUNTS;
+                        }
+                        try {
+                            service.transferFunds(new TransferFundDto(ids[a], ids[b], Money.ofMinor(1 + random.nextInt(100))));
+                        } catch (AccountException ignored) {
+                            // rejected transfers still count as served
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        assertTrue(done.await(10, TimeUnit.MINUTES));
+        long elapsed = System.nanoTime() - began;
+        executor.shutdown();
+        return (double) threads * TRANSFERS_PER_THREAD / (elapsed / 1_000_000_000.0);
+    }
+
+    private static int pick(ThreadLocalRandom random) {
+        return random.nextInt(10) < 8 ? random.nextInt(HOT_ACCOUNTS) : HOT_ACCOUNTS + random.nextInt(ACCOUNTS - HOT_ACCOUNTS);
+    }
+}
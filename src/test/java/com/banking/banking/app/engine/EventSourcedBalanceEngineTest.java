@@ -0,0 +1,108 @@
+package com.banking.banking.app.engine;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.dto.TransactionDto;
+import com.banking.banking.app.dto.TransferFundDto;
+import com.banking.banking.app.exception.AccountException;
+import com.banking.banking.app.ledger.LedgerEvents;
+import com.banking.banking.app.ledger.LedgerRebuilder;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.repository.AccountRepository;
+import com.banking.banking.app.repository.BalanceSnapshotRepository;
+import com.banking.banking.app.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "banking.engine.mode=event-sourced",
+        "banking.ledger.snapshot-interval-ms=3600000",
+        "spring.datasource.url=jdbc:h2:mem:event_sourced;DB_CLOSE_DELAY=-1"
+})
+public class EventSourcedBalanceEngineTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private EventSourcedBalanceEngine balanceEngine;
+
+    @Autowired
+    private LedgerRebuilder ledgerRebuilder;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+
+    @Test
+    public void testMutations_JournaledAndCheckpointed() {
+        // Given
+        long from = accountService.createAccount(new AccountDto(0, "John Doe", Money.of("100.00"))).getId();
+        long to = accountService.createAccount(new AccountDto(0, "Jane Doe", Money.of("10.00"))).getId();
+
+        // When
+        accountService.deposit(from, Money.of("50.00"));
+        accountService.withdraw(from, Money.of("20.00"));
+        accountService.transferFunds(new TransferFundDto(from, to, Money.of("30.00")));
+        assertThrows(AccountException.class, () -> accountService.withdraw(to, Money.of("1000.00")));
+
+        // Then: reads see the projection while the account rows still hold the opening balances
+        assertEquals(Money.of("100.00"), accountService.getAccountById(from).getBalance());
+        assertEquals(Money.of("40.00"), accountService.getAccountById(to).getBalance());
+        assertEquals(10000, accountRepository.findById(from).orElseThrow().getBalance());
+
+        List<String> types = accountService.getAccountTransactions(to).stream().map(TransactionDto::transactionType).toList();
+        assertEquals(List.of(LedgerEvents.TRANSFER_IN, LedgerEvents.OPENING), types);
+        assertEquals(4, accountService.getAccountTransactions(from).size());
+
+        balanceEngine.checkpoint();
+        assertEquals(10000, accountRepository.findById(from).orElseThrow().getBalance());
+        assertEquals(4000, accountRepository.findById(to).orElseThrow().getBalance());
+        assertEquals(4000, balanceSnapshotRepository.findById(to).orElseThrow().getBalance());
+    }
+
+    @Test
+    public void testRecover_ReplaysEventsAfterSnapshot() {
+        // Given: a checkpoint, then more events that only exist in the journal
+        long id = accountService.createAccount(new AccountDto(0, "John Doe", Money.of("100.00"))).getId();
+        accountService.deposit(id, Money.of("1.00"));
+        balanceEngine.checkpoint();
+        accountService.deposit(id, Money.of("2.00"));
+        accountService.withdraw(id, Money.of("0.50"));
+
+        // When: the projection is thrown away and rebuilt as on startup
+        balanceEngine.recover();
+
+        // Then
+        assertEquals(10100, balanceSnapshotRepository.findById(id).orElseThrow().getBalance());
+        assertEquals(Money.of("102.50"), accountService.getAccountById(id).getBalance());
+    }
+
+    @Test
+    public void testRebuild_ReplaysFullJournalPerPartition() {
+        // Given: several accounts whose snapshots are then lost
+        long[] ids = new long[5];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = accountService.createAccount(new AccountDto(0, "Holder " + i, Money.of("10.00"))).getId();
+            accountService.deposit(ids[i], Money.ofMinor(i + 1));
+        }
+        accountService.transferFunds(new TransferFundDto(ids[0], ids[4], Money.of("5.00")));
+        balanceSnapshotRepository.deleteAll();
+
+        // When
+        LedgerRebuilder.Result result = ledgerRebuilder.rebuild(3);
+        balanceEngine.recover();
+
+        // Then
+        assertTrue(result.accounts() >= ids.length);
+        assertEquals(Money.of("5.01"), accountService.getAccountById(ids[0]).getBalance());
+        assertEquals(1003, accountRepository.findById(ids[2]).orElseThrow().getBalance());
+        assertEquals(Money.of("15.05"), accountService.getAccountById(ids[4]).getBalance());
+    }
+}
@@ -0,0 +1,103 @@
+package com.banking.banking.app.engine;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.dto.TransactionDto;
+import com.banking.banking.app.dto.TransferFundDto;
+import com.banking.banking.app.exception.AccountException;
+import com.banking.banking.app.journal.JournalRecord;
+import com.banking.banking.app.journal.MappedJournal;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.repository.AccountRepository;
+import com.banking.banking.app.repository.JournalCheckpointRepository;
+import com.banking.banking.app.repository.TransactionRepository;
+import com.banking.banking.app.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "banking.engine.mode=journaled",
+        "banking.journal.fsync=group",
+        "banking.journal.segment-size=65536",
+        "spring.datasource.url=jdbc:h2:mem:journaled;DB_CLOSE_DELAY=-1"
+})
+public class JournaledBalanceEngineTest {
+
+    // Left in the journal by a "previous run" that stopped before replicating it
+    private static final long UNREPLICATED_ACCOUNT = 900_001L;
+
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) throws IOException {
+        Path directory = Files.createTempDirectory("journal-test");
+        try (MappedJournal journal = new MappedJournal(directory, 65536, MappedJournal.FsyncPolicy.EVERY_WRITE, 10)) {
+            journal.append(JournalRecord.Type.DEPOSIT, UNREPLICATED_ACCOUNT, 0, 500, 500, 0);
+            journal.append(JournalRecord.Type.WITHDRAW, UNREPLICATED_ACCOUNT, 0, 200, 300, 0);
+        }
+        registry.add("banking.journal.dir", directory::toString);
+    }
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private JournaledBalanceEngine balanceEngine;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JournalCheckpointRepository journalCheckpointRepository;
+
+    @Test
+    public void testMutations_AcknowledgedFromJournalThenReplicated() throws InterruptedException {
+        // Given
+        long from = accountService.createAccount(new AccountDto(0, "John Doe", Money.of("100.00"))).getId();
+        long to = accountService.createAccount(new AccountDto(0, "Jane Doe", Money.of("10.00"))).getId();
+
+        // When
+        accountService.deposit(from, Money.of("50.00"));
+        accountService.withdraw(from, Money.of("20.00"));
+        accountService.transferFunds(new TransferFundDto(from, to, Money.of("30.00")));
+        assertThrows(AccountException.class, () -> accountService.withdraw(to, Money.of("1000.00")));
+
+        // Then
+        assertEquals(Money.of("100.00"), accountService.getAccountById(from).getBalance());
+        assertEquals(Money.of("40.00"), accountService.getAccountById(to).getBalance());
+
+        awaitReplication();
+        assertEquals(10000, accountRepository.findById(from).orElseThrow().getBalance());
+        assertEquals(4000, accountRepository.findById(to).orElseThrow().getBalance());
+        List<String> types = accountService.getAccountTransactions(from).stream().map(TransactionDto::transactionType).toList();
+        assertEquals(4, types.size());
+        assertTrue(types.containsAll(List.of("OPENING", "DEPOSIT", "WITHDRAW", "TRANSFER")));
+        assertTrue(accountService.getAccountTransactions(to).stream().map(TransactionDto::transactionType)
+                .toList().contains("TRANSFER_IN"));
+    }
+
+    @Test
+    public void testStartup_ReplicatesRecordsLeftInJournal() {
+        // Then: replicated before the engine took writes, and checkpointed
+        assertEquals(2, transactionRepository.findByAccountIdOrderByTimestampDescIdDesc(UNREPLICATED_ACCOUNT).size());
+        assertTrue(journalCheckpointRepository.findById("journal").orElseThrow().getReplicatedSequence() >= 2);
+    }
+
+    private void awaitReplication() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (balanceEngine.getReplicationLag() > 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "replication did not catch up");
+            Thread.sleep(10);
+        }
+    }
+}
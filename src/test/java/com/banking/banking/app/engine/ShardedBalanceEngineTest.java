@@ -0,0 +1,192 @@
+package com.banking.banking.app.engine;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.dto.TransferFundDto;
+import com.banking.banking.app.dto.TransferResultDto;
+import com.banking.banking.app.entity.Account;
+import com.banking.banking.app.exception.AccountException;
+import com.banking.banking.app.metrics.BankingMetrics;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.repository.AccountRepository;
+import com.banking.banking.app.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(properties = {
+        "banking.engine.mode=sharded",
+        "banking.engine.shards=4",
+        "spring.datasource.url=jdbc:h2:mem:sharded_engine;DB_CLOSE_DELAY=-1"
+})
+public class ShardedBalanceEngineTest {
+
+    private static final int THREADS = 8;
+    private static final int OPS_PER_THREAD = 250;
+    private static final int ACCOUNTS = 8;
+    private static final Money OPENING_BALANCE = Money.of("1000.00");
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private ShardedBalanceEngine balanceEngine;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Test
+    public void testConcurrentTransfers_NoLostUpdatesWithinOrAcrossShards() throws Exception {
+        // Given
+        long[] ids = new long[ACCOUNTS];
+        AtomicLongArray expected = new AtomicLongArray(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            ids[i] = accountService.createAccount(new AccountDto(0, "Holder " + i, OPENING_BALANCE)).getId();
+            expected.set(i, OPENING_BALANCE.minorUnits());
+        }
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int n = 0; n < OPS_PER_THREAD; n++) {
+                    int a = random.nextInt(ACCOUNTS);
+                    int b = (a + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                    long cents = 1 + random.nextInt(50_000);
+                    try {
+                        accountService.transferFunds(new TransferFundDto(ids[a], ids[b], Money.ofMinor(cents)));
+                        expected.addAndGet(a, -cents);
+                        expected.addAndGet(b, cents);
+                    } catch (AccountException ignored) {
+                        // rejected transfers do not move money
+                    }
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(2, TimeUnit.MINUTES));
+        executor.shutdown();
+
+        // Then
+        long total = 0;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            long stored = accountRepository.findById(ids[i]).orElseThrow().getBalance();
+            assertEquals(expected.get(i), stored, "account " + ids[i]);
+            assertEquals(stored, accountService.getAccountById(ids[i]).getBalance().minorUnits());
+            total += stored;
+        }
+        assertEquals(ACCOUNTS * OPENING_BALANCE.minorUnits(), total);
+    }
+
+    @Test
+    public void testCrossShardTransfer_FailedCreditIsCompensated() {
+        // Given: a missing target account that hashes to another shard than the source
+        long from = accountService.createAccount(new AccountDto(0, "John Doe", Money.of("100.00"))).getId();
+        long missing = 1_000_000;
+        while (balanceEngine.shardIndexOf(missing) == balanceEngine.shardIndexOf(from)) {
+            missing++;
+        }
+        long to = missing;
+
+        // When
+        AccountException e = assertThrows(AccountException.class,
+                () -> accountService.transferFunds(new TransferFundDto(from, to, Money.of("40.00"))));
+
+        // Then: the debit was refunded
+        assertEquals("Account does not exist.", e.getMessage());
+        assertEquals(Money.of("100.00"), accountService.getAccountById(from).getBalance());
+        assertEquals(10000, accountRepository.findById(from).orElseThrow().getBalance());
+    }
+
+    @Test
+    public void testTransferFundsBatch_IncompleteItemsRejected() {
+        long from = accountService.createAccount(new AccountDto(0, "John Doe", Money.of("100.00"))).getId();
+        long to = accountService.createAccount(new AccountDto(0, "Jane Doe", Money.of("0.00"))).getId();
+
+        List<TransferResultDto> results = accountService.transferFundsBatch(Arrays.asList(
+                new TransferFundDto(null, to, Money.of("1.00")),
+                new TransferFundDto(from, to, null),
+                null,
+                new TransferFundDto(from, to, Money.of("2.50"))));
+
+        assertEquals(TransferFundDto.INCOMPLETE, results.get(0).message());
+        assertEquals(TransferFundDto.INCOMPLETE, results.get(1).message());
+        assertEquals(TransferFundDto.INCOMPLETE, results.get(2).message());
+        assertEquals(TransferResultDto.APPLIED, results.get(3).status());
+        assertEquals(Money.of("2.50"), accountService.getAccountById(to).getBalance());
+    }
+
+    @Test
+    public void testWithdraw_InsufficientFundsRejectedOnOwningShard() {
+        long id = accountService.createAccount(new AccountDto(0, "John Doe", Money.of("10.00"))).getId();
+
+        assertThrows(AccountException.class, () -> accountService.withdraw(id, Money.of("10.01")));
+        assertEquals(Money.of("7.50"), accountService.withdraw(id, Money.of("2.50")).getBalance());
+    }
+
+    @Test
+    public void testError_FailsOnlyItsCommand() throws Exception {
+        // Given: a standalone single-shard engine whose repository overflows the stack for one account
+        AccountRepository repository = mock(AccountRepository.class);
+        when(repository.findById(1L)).thenThrow(new StackOverflowError());
+        when(repository.findById(2L)).thenReturn(Optional.of(new Account(2L, "Jane Doe", 500)));
+        ShardedBalanceEngine engine = new ShardedBalanceEngine(repository, mock(PlatformTransactionManager.class),
+                mock(BankingMetrics.class), 1);
+        engine.start();
+
+        // When / Then: the writer survives and serves the next command
+        try {
+            assertThrows(StackOverflowError.class, () -> engine.get(1L));
+            assertEquals(500, engine.get(2L).getBalance());
+        } finally {
+            engine.stop();
+        }
+    }
+
+    @Test
+    public void testStop_CallsRacingWithItNeverHang() throws Exception {
+        // Given: callers hammering a standalone engine
+        AccountRepository repository = mock(AccountRepository.class);
+        when(repository.findById(anyLong())).thenAnswer(invocation ->
+                Optional.of(new Account(invocation.<Long>getArgument(0), "Holder", 100)));
+        ShardedBalanceEngine engine = new ShardedBalanceEngine(repository, mock(PlatformTransactionManager.class),
+                mock(BankingMetrics.class), 2);
+        engine.start();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            executor.execute(() -> {
+                try {
+                    for (long id = 0; ; id++) {
+                        engine.get(id % 64);
+                    }
+                } catch (IllegalStateException stopped) {
+                    done.countDown();
+                }
+            });
+        }
+
+        // When
+        Thread.sleep(100);
+        engine.stop();
+
+        // Then: every caller got an answer or was turned away
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdownNow();
+    }
+}
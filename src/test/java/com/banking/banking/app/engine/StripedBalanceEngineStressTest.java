@@ -0,0 +1,171 @@
+package com.banking.banking.app.engine;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.dto.TransferFundDto;
+import com.banking.banking.app.exception.AccountException;
+import com.banking.banking.app.hotaccount.BalanceSlots;
+import com.banking.banking.app.ledger.LedgerWriter;
+import com.banking.banking.app.metrics.BankingMetrics;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.outbox.AccountOutbox;
+import com.banking.banking.app.repository.AccountRepository;
+import com.banking.banking.app.repository.DailyRollupRepository;
+import com.banking.banking.app.repository.TransactionRepository;
+import com.banking.banking.app.service.AccountService;
+import com.banking.banking.app.service.impl.AccountServiceImpl;
+import com.banking.banking.app.service.impl.OptimisticRetryPolicy;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "banking.engine.mode=striped",
+        "spring.datasource.url=jdbc:h2:mem:engine_stress;DB_CLOSE_DELAY=-1"
+})
+public class StripedBalanceEngineStressTest {
+
+    // throughput is only logged here; EngineScalingLoadTest (perf) is the measurement
+    private static final Logger log = LoggerFactory.getLogger(StripedBalanceEngineStressTest.class);
+
+    private static final int THREADS = 8;
+    private static final int OPS_PER_THREAD = 250;
+    private static final int ACCOUNTS = 4;
+    private static final Money OPENING_BALANCE = Money.of("1000000.00");
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private DailyRollupRepository dailyRollupRepository;
+
+    @Autowired
+    private LedgerWriter ledgerWriter;
+
+    @Autowired
+    private AccountOutbox accountOutbox;
+
+    @Autowired
+    private BalanceSlots balanceSlots;
+
+    @Autowired
+    private BankingMetrics bankingMetrics;
+
+    @Autowired
+    private OptimisticRetryPolicy optimisticRetryPolicy;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    public void testConcurrentMutations_NoLostUpdates() throws Exception {
+        long[] ids = openAccounts();
+        AtomicLongArray expected = new AtomicLongArray(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            expected.set(i, OPENING_BALANCE.minorUnits());
+        }
+
+        double opsPerSecond = hammer(accountService, ids, expected);
+
+        for (int i = 0; i < ACCOUNTS; i++) {
+            long stored = accountRepository.findById(ids[i]).orElseThrow().getBalance();
+            assertEquals(expected.get(i), stored, "account " + ids[i]);
+        }
+        log.info("striped engine: {} ops/sec over {} threads", Math.round(opsPerSecond), THREADS);
+    }
+
+    @Test
+    public void testConcurrentMutations_RepositoryPathBaseline() throws Exception {
+        AccountService repositoryPath = new AccountServiceImpl(accountRepository, transactionRepository, dailyRollupRepository, ledgerWriter, null, accountOutbox, balanceSlots, bankingMetrics, optimisticRetryPolicy, transactionManager, null);
+        long[] ids = openAccounts();
+        AtomicLongArray expected = new AtomicLongArray(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            expected.set(i, OPENING_BALANCE.minorUnits());
+        }
+
+        double opsPerSecond = hammer(repositoryPath, ids, expected);
+
+        long drift = 0;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            long stored = accountRepository.findById(ids[i]).orElseThrow().getBalance();
+            drift += Math.abs(expected.get(i) - stored);
+        }
+        // The repository path relies on atomic balance updates and @Version retries instead of a lock table
+        assertEquals(0, drift);
+        log.info("repository path: {} ops/sec over {} threads", Math.round(opsPerSecond), THREADS);
+    }
+
+    private long[] openAccounts() {
+        long[] ids = new long[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            ids[i] = accountService.createAccount(new AccountDto(0, "Holder " + i, OPENING_BALANCE)).getId();
+        }
+        return ids;
+    }
+
+    private double hammer(AccountService service, long[] ids, AtomicLongArray expected) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int n = 0; n < OPS_PER_THREAD; n++) {
+                        int a = random.nextInt(ACCOUNTS);
+                        int b = (a + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                        long cents = 1 + random.nextInt(500);
+                        Money amount = Money.ofMinor(cents);
+                        try {
+                            switch (random.nextInt(3)) {
+                                case 0 -> {
+                                    service.deposit(ids[a], amount);
+                                    expected.addAndGet(a, cents);
+                                }
+                                case 1 -> {
+                                    service.withdraw(ids[a], amount);
+                                    expected.addAndGet(a, -cents);
+                                }
+                                default -> {
+                                    service.transferFunds(new TransferFundDto(ids[a], ids[b], amount));
+                                    expected.addAndGet(a, -cents);
+                                    expected.addAndGet(b, cents);
+                                }
+                            }
+                        } catch (AccountException ignored) {
+                            // rejected operations do not move money
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        assertTrue(done.await(2, TimeUnit.MINUTES));
+        long elapsed = System.nanoTime() - began;
+        executor.shutdown();
+        return THREADS * OPS_PER_THREAD / (elapsed / 1_000_000_000.0);
+    }
+}
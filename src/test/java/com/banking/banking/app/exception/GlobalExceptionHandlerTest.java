@@ -0,0 +1,86 @@
+package com.banking.banking.app.exception;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:exception_handler;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"})
+@AutoConfigureMockMvc
+public class GlobalExceptionHandlerTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testRejectionsCarryTheirErrorCode() throws Exception {
+        // Given
+        long id = accountService.createAccount(new AccountDto(0, "John Doe", Money.of("5.00"))).getId();
+
+        // When / Then
+        mockMvc.perform(put("/api/accounts/" + id + "/withdraw")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\": 10.0}"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message").value("Insufficient amount"))
+                .andExpect(jsonPath("$.errorCode").value("INSUFFICIENT_FUNDS"))
+                .andExpect(jsonPath("$.details").value("uri=/api/accounts/" + id + "/withdraw"))
+                .andExpect(jsonPath("$.timestamp").isString());
+        mockMvc.perform(get("/api/accounts/" + Long.MAX_VALUE))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Account does not exist."))
+                .andExpect(jsonPath("$.errorCode").value("ACCOUNT_NOT_FOUND"));
+    }
+
+    @Test
+    public void testUnreadableAmountsAnswer400() throws Exception {
+        // Given
+        long id = accountService.createAccount(new AccountDto(0, "Max Mustermann", Money.ZERO)).getId();
+
+        // When / Then: too many decimals, and an integer that overflows once scaled to cents
+        for (String amount : new String[]{"0.125", "1000000000000000000"}) {
+            mockMvc.perform(put("/api/accounts/" + id + "/deposit")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"amount\": " + amount + "}"))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.errorCode").value("BAD_REQUEST"));
+        }
+        assertEquals(Money.ZERO, accountService.getAccountById(id).getBalance());
+    }
+
+    @Test
+    public void testBusinessRejectionsAreSharedAndStackless() {
+        // Given
+        long id = accountService.createAccount(new AccountDto(0, "Jane Doe", Money.of("1.00"))).getId();
+
+        // When
+        AccountException first = assertThrows(AccountException.class, () -> accountService.withdraw(id, Money.of("2.00")));
+        AccountException second = assertThrows(AccountException.class, () -> accountService.withdraw(id, Money.of("3.00")));
+        AccountException missing = assertThrows(AccountException.class, () -> accountService.getAccountById(Long.MAX_VALUE));
+
+        // Then
+        assertSame(AccountException.insufficientFunds(), first);
+        assertSame(first, second);
+        assertSame(AccountException.notFound(), missing);
+        assertEquals(0, first.getStackTrace().length);
+        assertThrows(IllegalStateException.class, () -> first.initCause(new RuntimeException()));
+        first.addSuppressed(new RuntimeException());
+        assertEquals(0, first.getSuppressed().length);
+    }
+}
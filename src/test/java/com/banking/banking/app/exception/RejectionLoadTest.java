@@ -0,0 +1,106 @@
+package com.banking.banking.app.exception;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.service.AccountService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+// Run with: mvn test -Pperf -Dtest=RejectionLoadTest [-Drejection.threads=8]
+// A card-testing flood: every request is rejected, for insufficient funds or an unknown account.
+// Admission control is off so each request reaches the service and the exception handler.
+@Tag("perf")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rejection_load;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "banking.ratelimit.enabled=false",
+        "banking.shedding.enabled=false",
+        "logging.level.root=WARN"})
+@AutoConfigureMockMvc
+public class RejectionLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RejectionLoadTest.class);
+
+    private static final int REQUESTS_PER_THREAD = 5_000;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testRejectionThroughput() throws Exception {
+        int threads = Integer.getInteger("rejection.threads", 8);
+        long id = accountService.createAccount(new AccountDto(0, "Card Tester", Money.of("0.00"))).getId();
+
+        log.info(String.format("cores=%d, %d threads, %d requests each",
+                Runtime.getRuntime().availableProcessors(), threads, REQUESTS_PER_THREAD));
+        log.info(String.format("%-20s %16s", "rejection", "requests/s"));
+        // first pass warms up the JIT, second is reported
+        for (int pass = 0; pass < 2; pass++) {
+            double insufficient = run(threads, () -> mockMvc.perform(put("/api/accounts/" + id + "/withdraw")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"amount\": 1.00}")).andReturn().getResponse());
+            double unknown = run(threads, () -> mockMvc.perform(get("/api/accounts/" + Long.MAX_VALUE))
+                    .andReturn().getResponse());
+            if (pass == 1) {
+                log.info(String.format("%-20s %,16.0f", "insufficient funds", insufficient));
+                log.info(String.format("%-20s %,16.0f", "unknown account", unknown));
+            }
+        }
+    }
+
+    private interface Request {
+        MockHttpServletResponse perform() throws Exception;
+    }
+
+    private double run(int threads, Request request) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        LongAdder unexpected = new LongAdder();
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int n = 0; n < REQUESTS_PER_THREAD; n++) {
+                        int status = request.perform().getStatus();
+                        if (status != 404 && status != 422) {
+                            unexpected.increment();
+                        }
+                    }
+                } catch (Exception e) {
+                    unexpected.increment();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        assertTrue(done.await(10, TimeUnit.MINUTES));
+        long elapsed = System.nanoTime() - began;
+        executor.shutdown();
+        assertEquals(0, unexpected.sum());
+        return (double) threads * REQUESTS_PER_THREAD / (elapsed / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,142 @@
+package com.banking.banking.app.hotaccount;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.dto.TransferFundDto;
+import com.banking.banking.app.exception.AccountException;
+import com.banking.banking.app.ledger.LedgerReconciler;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:balance_slots;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "banking.hot-accounts.enabled=true",
+        "banking.hot-accounts.slots=4",
+        "banking.hot-accounts.sample-rate=1",
+        "banking.hot-accounts.threshold=1",
+        "banking.hot-accounts.window=50ms"})
+public class BalanceSlotsTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private LedgerReconciler ledgerReconciler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testHotAccountDepositsAreSpreadOverSlotsAndSummedOnRead() throws Exception {
+        // Given
+        long id = openHotAccount();
+
+        // When
+        for (int i = 0; i < 200; i++) {
+            accountService.deposit(id, Money.of("1.00"));
+        }
+
+        // Then
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "select count(*) from account_balance_slots where account_id = ?", Integer.class, id));
+        assertTrue(slotSum(id).signum() > 0);
+        assertTrue(accountRow(id).compareTo(new BigDecimal("202.00")) < 0);
+
+        Money expected = Money.of("202.00");
+        assertEquals(expected, accountService.getAccountById(id).getBalance());
+        assertEquals(expected, balanceIn(accountService.getAllAccounts(), id));
+        assertEquals(expected, balanceIn(accountService.getAllAccounts(PageRequest.of(0, 500)).accounts(), id));
+        assertEquals(expected, balanceIn(accountService.getAllAccounts(null, 500).accounts(), id));
+        assertEquals(0, ledgerReconciler.reconcile().discrepancyCount());
+    }
+
+    @Test
+    public void testDebitsFoldTheSlotsWhenTheAccountRowIsShort() throws Exception {
+        // Given
+        long id = openHotAccount();
+        long other = accountService.createAccount(new AccountDto(0, "Payee", Money.of("0.00"))).getId();
+        for (int i = 0; i < 100; i++) {
+            accountService.deposit(id, Money.of("1.00"));
+        }
+
+        // When
+        AccountDto afterWithdraw = accountService.withdraw(id, Money.of("90.00"));
+        for (int i = 0; i < 50; i++) {
+            accountService.deposit(id, Money.of("1.00"));
+        }
+        accountService.transferFunds(new TransferFundDto(id, other, Money.of("62.00")));
+
+        // Then
+        assertEquals(Money.of("12.00"), afterWithdraw.getBalance());
+        assertEquals(Money.of("0.00"), accountService.getAccountById(id).getBalance());
+        assertEquals(Money.of("62.00"), accountService.getAccountById(other).getBalance());
+        AccountException e = assertThrows(AccountException.class, () -> accountService.withdraw(id, Money.of("0.01")));
+        assertEquals("Insufficient amount", e.getMessage());
+        assertEquals(0, ledgerReconciler.reconcile().discrepancyCount());
+    }
+
+    @Test
+    public void testConcurrentDepositsToAHotAccountAreNotLost() throws Exception {
+        // Given
+        long id = openHotAccount();
+        int threads = 8;
+        int depositsPerThread = 100;
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    for (int n = 0; n < depositsPerThread; n++) {
+                        accountService.deposit(id, Money.of("1.00"));
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(2, TimeUnit.MINUTES));
+        executor.shutdown();
+
+        // Then
+        assertEquals(Money.of("802.00"), accountService.getAccountById(id).getBalance());
+        assertEquals(0, new BigDecimal("802.00").compareTo(accountRow(id).add(slotSum(id))));
+    }
+
+    // Two deposits a window apart are far above a threshold of one per second
+    private long openHotAccount() throws InterruptedException {
+        long id = accountService.createAccount(new AccountDto(0, "Merchant", Money.of("0.00"))).getId();
+        accountService.deposit(id, Money.of("1.00"));
+        Thread.sleep(60);
+        accountService.deposit(id, Money.of("1.00"));
+        return id;
+    }
+
+    private static Money balanceIn(List<AccountDto> accounts, long id) {
+        return accounts.stream().filter(account -> account.getId() == id).findFirst().orElseThrow().getBalance();
+    }
+
+    private BigDecimal accountRow(long id) {
+        return jdbcTemplate.queryForObject("select balance from accounts where id = ?", BigDecimal.class, id);
+    }
+
+    private BigDecimal slotSum(long id) {
+        return jdbcTemplate.queryForObject(
+                "select coalesce(sum(balance), 0) from account_balance_slots where account_id = ?", BigDecimal.class, id);
+    }
+}
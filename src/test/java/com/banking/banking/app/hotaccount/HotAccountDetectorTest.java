@@ -0,0 +1,70 @@
+package com.banking.banking.app.hotaccount;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HotAccountDetectorTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    @Test
+    public void testAccountTurnsHotOnceWhenAWindowCloseAboveThreshold() {
+        // Given: every write sampled, hot at 100 writes per second over 100ms windows
+        HotAccountDetector detector = new HotAccountDetector(1, 100, Duration.ofMillis(100), Duration.ofMinutes(10), 100, now::get);
+
+        // When: 50 writes per second, then 200 per second
+        boolean slow = writes(detector, 1L, 5, 20);
+        boolean cold = detector.isHot(1L);
+        boolean turnedHot = writes(detector, 1L, 21, 5);
+
+        // Then
+        assertFalse(slow);
+        assertFalse(cold);
+        assertTrue(turnedHot);
+        assertTrue(detector.isHot(1L));
+        assertFalse(detector.isHot(2L));
+        assertEquals(1, detector.hotCount());
+
+        // and later windows above the threshold do not report it again
+        assertFalse(writes(detector, 1L, 60, 2));
+    }
+
+    @Test
+    public void testSlowAccountStaysCold() {
+        // Given
+        HotAccountDetector detector = new HotAccountDetector(1, 100, Duration.ofMillis(100), Duration.ofMinutes(10), 100, now::get);
+
+        // When: 50 writes per second for a second
+        boolean turnedHot = writes(detector, 7L, 50, 20);
+
+        // Then
+        assertFalse(turnedHot);
+        assertFalse(detector.isHot(7L));
+        assertEquals(0, detector.hotCount());
+    }
+
+    @Test
+    public void testRejectsNonPositiveSettings() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new HotAccountDetector(0, 100, Duration.ofMillis(100), Duration.ofMinutes(10), 100));
+        assertThrows(IllegalArgumentException.class,
+                () -> new HotAccountDetector(1, 0, Duration.ofMillis(100), Duration.ofMinutes(10), 100));
+        assertThrows(IllegalArgumentException.class,
+                () -> new HotAccountDetector(1, 100, Duration.ZERO, Duration.ofMinutes(10), 100));
+    }
+
+    // count writes stepMillis apart; true if one of them turned the account hot
+    private boolean writes(HotAccountDetector detector, long accountId, int count, int stepMillis) {
+        boolean turnedHot = false;
+        for (int i = 0; i < count; i++) {
+            turnedHot |= detector.recordWrite(accountId);
+            now.addAndGet(TimeUnit.MILLISECONDS.toNanos(stepMillis));
+        }
+        return turnedHot;
+    }
+}
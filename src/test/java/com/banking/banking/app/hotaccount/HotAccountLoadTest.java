@@ -0,0 +1,146 @@
+package com.banking.banking.app.hotaccount;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.ledger.DailyRollups;
+import com.banking.banking.app.ledger.LedgerWriter;
+import com.banking.banking.app.metrics.BankingMetrics;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.outbox.AccountOutbox;
+import com.banking.banking.app.repository.AccountRepository;
+import com.banking.banking.app.repository.DailyRollupRepository;
+import com.banking.banking.app.repository.TransactionRepository;
+import com.banking.banking.app.service.AccountService;
+import com.banking.banking.app.service.impl.AccountServiceImpl;
+import com.banking.banking.app.service.impl.OptimisticRetryPolicy;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Run with: mvn test -Pperf -Dtest=HotAccountLoadTest [-Dhot.slots=1,2,4,8,16] [-Dhot.threads=16] [-Dhot.ledger=direct]
+// Every thread deposits into the same account; 1 slot is the unsplit accounts row, whose waiters
+// would outlast H2's default one-second lock timeout. Each deposit also updates its account-day's
+// rollup row in the same transaction, spread over the same slots as the balance. hot.ledger picks
+// banking.ledger.mode (direct, the default, or write_behind / group_commit); the write-behind queue
+// must hold every run's backlog, or deposits block on it while holding the connections the flusher needs.
+@Tag("perf")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:hot_account_load;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000",
+        "spring.jpa.show-sql=false",
+        "banking.ledger.mode=${hot.ledger:direct}",
+        "banking.ledger.queue-capacity=200000"})
+public class HotAccountLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(HotAccountLoadTest.class);
+
+    private static final int DEPOSITS_PER_THREAD = 500;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private DailyRollupRepository dailyRollupRepository;
+
+    @Autowired
+    private LedgerWriter ledgerWriter;
+
+    @Autowired
+    private DailyRollups dailyRollups;
+
+    @Autowired
+    private AccountOutbox accountOutbox;
+
+    @Autowired
+    private BankingMetrics bankingMetrics;
+
+    @Autowired
+    private OptimisticRetryPolicy optimisticRetryPolicy;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testSingleAccountDepositThroughputBySlotCount() throws Exception {
+        int threads = Integer.getInteger("hot.threads", 16);
+        log.info(String.format("cores=%d, %d threads depositing into one account, %s ledger",
+                Runtime.getRuntime().availableProcessors(), threads, ledgerWriter.getMode()));
+        log.info(String.format("%8s %16s", "slots", "deposits/s"));
+        for (String value : System.getProperty("hot.slots", "1,2,4,8,16").split(",")) {
+            int slots = Integer.parseInt(value.trim());
+            // sampling every write with a threshold of one per second: the account is hot once a window closes
+            BalanceSlots balanceSlots = new BalanceSlots(accountRepository, bankingMetrics, dailyRollups, dataSource, transactionManager,
+                    slots > 1, Math.max(2, slots), 1, 1, Duration.ofMillis(10), Duration.ofMinutes(10), 10_000);
+            AccountService service = new AccountServiceImpl(accountRepository, transactionRepository, dailyRollupRepository, ledgerWriter,
+                    null, accountOutbox, balanceSlots, bankingMetrics, optimisticRetryPolicy, transactionManager, null);
+
+            long id = accountService.createAccount(new AccountDto(0, "Merchant " + slots, Money.of("0.00"))).getId();
+            int warmup = 0;
+            do {
+                service.deposit(id, Money.of("1.00"));
+                warmup++;
+                Thread.sleep(15);
+            } while (slots > 1 && jdbcTemplate.queryForObject(
+                    "select count(*) from account_balance_slots where account_id = ?", Integer.class, id) == 0);
+
+            double rate = run(service, id, threads);
+            assertEquals(Money.ofMinor(100L * (warmup + (long) threads * DEPOSITS_PER_THREAD)), service.getAccountById(id).getBalance());
+            if (ledgerWriter.getMode() == LedgerWriter.Mode.DIRECT) {
+                // the rollup slots add up to every deposit
+                assertEquals(warmup + (long) threads * DEPOSITS_PER_THREAD,
+                        service.getStatement(id, null, null).days().get(0).depositCount());
+            }
+            log.info(String.format("%8d %,16.0f", slots, rate));
+        }
+    }
+
+    private double run(AccountService service, long id, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int n = 0; n < DEPOSITS_PER_THREAD; n++) {
+                        service.deposit(id, Money.of("1.00"));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        assertTrue(done.await(10, TimeUnit.MINUTES));
+        long elapsed = System.nanoTime() - began;
+        executor.shutdown();
+        return (double) threads * DEPOSITS_PER_THREAD / (elapsed / 1_000_000_000.0);
+    }
+}
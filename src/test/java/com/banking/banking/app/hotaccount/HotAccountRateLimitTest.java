@@ -0,0 +1,81 @@
+package com.banking.banking.app.hotaccount;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Hot accounts together with the per-account rate limit, over HTTP
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:hot_account_rate_limit;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "banking.ratelimit.enabled=true",
+        "banking.ratelimit.client.rate=1000",
+        "banking.ratelimit.client.burst=1000",
+        "banking.ratelimit.account.rate=0.01",
+        "banking.ratelimit.account.burst=5",
+        "banking.hot-accounts.enabled=true",
+        "banking.hot-accounts.slots=4",
+        "banking.hot-accounts.sample-rate=1",
+        "banking.hot-accounts.threshold=1",
+        "banking.hot-accounts.window=20ms"})
+@AutoConfigureMockMvc
+public class HotAccountRateLimitTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testDepositsPastTheAccountLimitMakeTheAccountHot() throws Exception {
+        // Given
+        long id = accountService.createAccount(new AccountDto(0, "John Doe", Money.ZERO)).getId();
+
+        // When: far more deposits than the account's burst, until it has been split
+        int deposits = 0;
+        while (deposits < 20 || slotRows(id) == 0) {
+            assertTrue(deposits < 1_000, "account never became hot");
+            move(id, "deposit").andExpect(status().isOk());
+            deposits++;
+            Thread.sleep(1);
+        }
+
+        // Then: the balance reads back with the slots, and debits are still limited
+        mockMvc.perform(get("/api/accounts/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value((double) deposits));
+        for (int i = 0; i < 5; i++) {
+            move(id, "withdraw").andExpect(status().isOk());
+        }
+        move(id, "withdraw").andExpect(status().isTooManyRequests());
+        assertEquals(Money.of((deposits - 5) + ".00"), accountService.getAccountById(id).getBalance());
+    }
+
+    private ResultActions move(long id, String operation) throws Exception {
+        return mockMvc.perform(put("/api/accounts/" + id + "/" + operation).header("X-Client-Id", "merchant")
+                .contentType(MediaType.APPLICATION_JSON).content("{\"amount\":1.00}"));
+    }
+
+    private int slotRows(long id) {
+        return jdbcTemplate.queryForObject(
+                "select count(*) from account_balance_slots where account_id = ?", Integer.class, id);
+    }
+}
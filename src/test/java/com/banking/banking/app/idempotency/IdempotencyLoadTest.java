@@ -0,0 +1,145 @@
+package com.banking.banking.app.idempotency;
+
+import com.banking.banking.app.BankingAppApplication;
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.service.AccountService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cost of the Idempotency-Key header on the deposit endpoint: closed-loop deposits without
+ * the header, with a fresh key per request (claimed, then stored), and retries of keys that
+ * already succeeded (answered from memory). Each thread deposits to its own account.
+ * Run with: mvn test -Pperf -Dtest=IdempotencyLoadTest
+ */
+@Tag("perf")
+public class IdempotencyLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyLoadTest.class);
+
+    private static final int THREADS = 8;
+
+    private static final long WARMUP_SECONDS = 5;
+
+    private static final long PHASE_SECONDS = 10;
+
+    // replayed keys per thread, each stored once before its phase
+    private static final int REPLAY_KEYS = 1_000;
+
+    @Test
+    public void testDepositWithAndWithoutKey() throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BankingAppApplication.class)
+                // arguments, not default properties, so they override the test application.properties
+                .run("--server.port=0",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.datasource.url=jdbc:h2:mem:idempotency_load;DB_CLOSE_DELAY=-1",
+                        "--banking.ratelimit.enabled=false",
+                        "--banking.shedding.enabled=false",
+                        "--banking.idempotency.max-keys=1000000")) {
+            AccountService accountService = context.getBean(AccountService.class);
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/accounts/";
+            URI[] accounts = new URI[THREADS];
+            for (int t = 0; t < THREADS; t++) {
+                long id = accountService.createAccount(new AccountDto(0, "Holder " + t, Money.ZERO)).getId();
+                accounts[t] = URI.create(base + id + "/deposit");
+            }
+            HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newFixedThreadPool(THREADS)).build();
+
+            AtomicInteger fresh = new AtomicInteger();
+            run(http, accounts, WARMUP_SECONDS, t -> n -> "warmup-" + fresh.incrementAndGet());
+
+            report("no key", run(http, accounts, PHASE_SECONDS, t -> n -> null));
+            report("new key", run(http, accounts, PHASE_SECONDS, t -> n -> "new-" + fresh.incrementAndGet()));
+            IntFunction<IntFunction<String>> replayed = t -> n -> "replay-" + t + "-" + (n % REPLAY_KEYS);
+            for (int t = 0; t < THREADS; t++) {
+                for (int n = 0; n < REPLAY_KEYS; n++) {
+                    assertEquals(200, send(http, accounts[t], replayed.apply(t).apply(n)));
+                }
+            }
+            report("replayed key", run(http, accounts, PHASE_SECONDS, replayed));
+        }
+    }
+
+    // Latencies of successful deposits; keys.apply(thread).apply(n) is the n-th request's key, null for none
+    private List<Long> run(HttpClient http, URI[] accounts, long seconds,
+                           IntFunction<IntFunction<String>> keys) throws Exception {
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger failures = new AtomicInteger();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    IntFunction<String> key = keys.apply(thread);
+                    for (int n = 0; System.nanoTime() < deadline; n++) {
+                        long began = System.nanoTime();
+                        if (send(http, accounts[thread], key.apply(n)) == 200) {
+                            latencies.add(System.nanoTime() - began);
+                        } else {
+                            failures.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertFalse(latencies.isEmpty());
+        assertEquals(0, failures.get());
+        return latencies;
+    }
+
+    private static void report(String label, List<Long> latencies) {
+        log.info(String.format("%-12s %8.0f deposits/s, p50 %6.2f ms, p99 %6.2f ms",
+                label, latencies.size() / (double) PHASE_SECONDS, percentile(latencies, 0.50), percentile(latencies, 0.99)));
+    }
+
+    private static int send(HttpClient http, URI uri, String key) {
+        try {
+            HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"amount\":1.00}"));
+            if (key != null) {
+                request.header(IdempotencyStore.HEADER, key);
+            }
+            return http.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static double percentile(List<Long> latencies, double percentile) {
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return sorted.get(Math.max(0, (int) Math.ceil(sorted.size() * percentile) - 1)) / 1_000_000.0;
+    }
+}
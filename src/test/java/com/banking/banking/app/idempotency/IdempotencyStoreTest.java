@@ -0,0 +1,127 @@
+package com.banking.banking.app.idempotency;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.entity.IdempotencyRecord;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.repository.AccountRepository;
+import com.banking.banking.app.repository.IdempotencyRecordRepository;
+import com.banking.banking.app.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class IdempotencyStoreTest {
+
+    // MockMvc's remote address, the client of requests without X-Client-Id
+    private static final String LOCAL_CLIENT = "127.0.0.1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Test
+    public void testDeposit_RetryWithSameKeyIsReplayed() throws Exception {
+        long id = accountService.createAccount(new AccountDto(0, "John Doe", Money.of("100.00"))).getId();
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            mockMvc.perform(put("/api/accounts/" + id + "/deposit")
+                            .header(IdempotencyStore.HEADER, "deposit-" + id)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"amount\": 25.0}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.balance").value(125.0));
+        }
+
+        assertEquals(12500, accountRepository.findById(id).orElseThrow().getBalance());
+        assertEquals(200, idempotencyRecordRepository.findById(new IdempotencyRecord.Key(LOCAL_CLIENT, "deposit-" + id)).orElseThrow().getStatus());
+    }
+
+    @Test
+    public void testDeposit_SameKeyFromAnotherClientIsNotReplayed() throws Exception {
+        long id = accountService.createAccount(new AccountDto(0, "John Doe", Money.of("100.00"))).getId();
+
+        for (String client : new String[]{"client-a", "client-b", "client-a"}) {
+            mockMvc.perform(put("/api/accounts/" + id + "/deposit")
+                            .header("X-Client-Id", client)
+                            .header(IdempotencyStore.HEADER, "shared-" + id)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"amount\": 25.0}"))
+                    .andExpect(status().isOk());
+        }
+
+        // one deposit per client, the second client-a request was a replay
+        assertEquals(15000, accountRepository.findById(id).orElseThrow().getBalance());
+        assertTrue(idempotencyRecordRepository.existsById(new IdempotencyRecord.Key("client-a", "shared-" + id)));
+        assertTrue(idempotencyRecordRepository.existsById(new IdempotencyRecord.Key("client-b", "shared-" + id)));
+    }
+
+    @Test
+    public void testTransfer_RetryWithSameKeyIsReplayed() throws Exception {
+        long from = accountService.createAccount(new AccountDto(0, "John Doe", Money.of("100.00"))).getId();
+        long to = accountService.createAccount(new AccountDto(0, "Jane Doe", Money.of("0.00"))).getId();
+        String body = "{\"fromAccountId\":" + from + ",\"toAccountId\":" + to + ",\"amount\":40.0}";
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/accounts/transfer")
+                            .header(IdempotencyStore.HEADER, "transfer-" + from)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("Funds transferred successfully."));
+        }
+
+        assertEquals(6000, accountRepository.findById(from).orElseThrow().getBalance());
+        assertEquals(4000, accountRepository.findById(to).orElseThrow().getBalance());
+    }
+
+    @Test
+    public void testWithdraw_KeyReusedForDifferentRequestIsRejected() throws Exception {
+        long id = accountService.createAccount(new AccountDto(0, "John Doe", Money.of("100.00"))).getId();
+
+        mockMvc.perform(put("/api/accounts/" + id + "/withdraw")
+                        .header(IdempotencyStore.HEADER, "withdraw-" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\": 10.0}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/api/accounts/" + id + "/withdraw")
+                        .header(IdempotencyStore.HEADER, "withdraw-" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\": 20.0}"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(9000, accountRepository.findById(id).orElseThrow().getBalance());
+    }
+
+    @Test
+    public void testWithdraw_FailedRequestReleasesKey() throws Exception {
+        long id = accountService.createAccount(new AccountDto(0, "John Doe", Money.of("5.00"))).getId();
+
+        mockMvc.perform(put("/api/accounts/" + id + "/withdraw")
+                        .header(IdempotencyStore.HEADER, "failed-" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\": 10.0}"))
+                .andExpect(status().isUnprocessableEntity());
+
+        assertFalse(idempotencyRecordRepository.existsById(new IdempotencyRecord.Key(LOCAL_CLIENT, "failed-" + id)));
+    }
+}
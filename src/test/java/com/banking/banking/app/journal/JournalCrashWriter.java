@@ -0,0 +1,16 @@
+package com.banking.banking.app.journal;
+
+import java.nio.file.Path;
+
+// Child process for MappedJournalTest: appends until killed, printing each acknowledged sequence
+public class JournalCrashWriter {
+
+    public static void main(String[] args) throws Exception {
+        MappedJournal journal = new MappedJournal(Path.of(args[0]), Integer.parseInt(args[1]),
+                MappedJournal.FsyncPolicy.valueOf(args[2]), 10);
+        for (long n = 1; ; n++) {
+            long sequence = journal.append(JournalRecord.Type.DEPOSIT, n, 0, n * 100, n * 1000, 0);
+            System.out.println("ack " + sequence);
+        }
+    }
+}
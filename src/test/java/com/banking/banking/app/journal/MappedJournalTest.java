@@ -0,0 +1,205 @@
+package com.banking.banking.app.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedJournalTest {
+
+    // 100 records per segment, so the tests cross segment boundaries
+    private static final int SEGMENT_SIZE = 100 * MappedJournal.RECORD_SIZE;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testReopen_ReadsBackEveryRecordAcrossSegments() throws Exception {
+        // Given
+        MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE, MappedJournal.FsyncPolicy.EVERY_WRITE, 10);
+        for (long n = 1; n <= 250; n++) {
+            journal.append(JournalRecord.Type.TRANSFER, n, n + 1, n * 10, n * 100, n * 1000);
+        }
+        journal.close();
+
+        // When
+        MappedJournal reopened = new MappedJournal(directory, SEGMENT_SIZE, MappedJournal.FsyncPolicy.EVERY_WRITE, 10);
+        List<JournalRecord> records = readAll(reopened);
+
+        // Then
+        assertEquals(250, reopened.lastSequence());
+        assertEquals(250, records.size());
+        JournalRecord record = records.get(141);
+        assertEquals(142, record.sequence());
+        assertEquals(JournalRecord.Type.TRANSFER, record.type());
+        assertEquals(143, record.counterpartyId());
+        assertEquals(142_000, record.counterpartyBalance());
+        assertEquals(251, reopened.append(JournalRecord.Type.DEPOSIT, 1, 0, 1, 1, 0));
+        reopened.close();
+    }
+
+    @Test
+    public void testReopen_TornRecordEndsJournalAndIsNeverResurrected() throws Exception {
+        // Given: ten records, the eighth damaged on disk
+        MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE, MappedJournal.FsyncPolicy.EVERY_WRITE, 10);
+        for (long n = 1; n <= 10; n++) {
+            journal.append(JournalRecord.Type.DEPOSIT, n, 0, n, n, 0);
+        }
+        journal.close();
+        try (FileChannel channel = FileChannel.open(onlySegment(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}), 7L * MappedJournal.RECORD_SIZE + 20);
+        }
+
+        // When
+        MappedJournal reopened = new MappedJournal(directory, SEGMENT_SIZE, MappedJournal.FsyncPolicy.EVERY_WRITE, 10);
+        long next = reopened.append(JournalRecord.Type.WITHDRAW, 99, 0, 1, 1, 0);
+        reopened.close();
+        MappedJournal again = new MappedJournal(directory, SEGMENT_SIZE, MappedJournal.FsyncPolicy.EVERY_WRITE, 10);
+
+        // Then: record 8 is replaced and the stale 9 and 10 are gone
+        assertEquals(8, next);
+        List<JournalRecord> records = readAll(again);
+        assertEquals(8, records.size());
+        assertEquals(99, records.get(7).accountId());
+        again.close();
+    }
+
+    @Test
+    public void testGroupPolicy_ConcurrentAppendersGetContiguousSequences() throws Exception {
+        MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE, MappedJournal.FsyncPolicy.GROUP, 10);
+        Set<Long> sequences = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int n = 0; n < 100; n++) {
+                    long sequence = journal.append(JournalRecord.Type.DEPOSIT, 1, 0, 1, 1, 0);
+                    // acknowledged means durable
+                    assertTrue(journal.durableSequence() >= sequence);
+                    sequences.add(sequence);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        assertEquals(800, sequences.size());
+        assertEquals(800, journal.lastSequence());
+        assertEquals(800, readAll(journal).size());
+        journal.close();
+    }
+
+    @Test
+    public void testKilledProcess_NoAcknowledgedRecordLostUnderStrictFsync() throws Exception {
+        // Given: a writer process that is killed with SIGKILL while appending
+        Process writer = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                JournalCrashWriter.class.getName(),
+                directory.toString(), String.valueOf(SEGMENT_SIZE), "EVERY_WRITE")
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        long acknowledged = 0;
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(writer.getInputStream()))) {
+            String line;
+            while (acknowledged < 2_000 && (line = output.readLine()) != null) {
+                if (line.startsWith("ack ")) {
+                    acknowledged = Long.parseLong(line.substring(4));
+                }
+            }
+            writer.destroyForcibly();
+            assertTrue(writer.waitFor(30, TimeUnit.SECONDS));
+        }
+
+        // When
+        MappedJournal recovered = new MappedJournal(directory, SEGMENT_SIZE, MappedJournal.FsyncPolicy.EVERY_WRITE, 10);
+
+        // Then: every acknowledged record is there, intact and in order
+        assertEquals(2_000, acknowledged);
+        assertTrue(recovered.lastSequence() >= acknowledged);
+        List<JournalRecord> records = readAll(recovered);
+        for (int i = 0; i < acknowledged; i++) {
+            JournalRecord record = records.get(i);
+            assertEquals(i + 1, record.sequence());
+            assertEquals(record.accountId() * 1000, record.balance());
+        }
+        recovered.close();
+    }
+
+    @Test
+    public void testSkipTo_SurvivesReopenBeforeTruncation() throws Exception {
+        // Given: a lost journal directory, continued after the replicated sequence
+        MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE, MappedJournal.FsyncPolicy.EVERY_WRITE, 10);
+        journal.skipTo(1_000);
+        for (long n = 1; n <= 5; n++) {
+            assertEquals(1_000 + n, journal.append(JournalRecord.Type.DEPOSIT, n, 0, n, n * 10, 0));
+        }
+        journal.close();
+
+        // When: reopened before anything was truncated
+        MappedJournal reopened = new MappedJournal(directory, SEGMENT_SIZE, MappedJournal.FsyncPolicy.EVERY_WRITE, 10);
+        List<JournalRecord> records = new ArrayList<>();
+        reopened.readAfter(1_000, 64, records::add);
+
+        // Then
+        assertEquals(1_005, reopened.lastSequence());
+        assertEquals(5, records.size());
+        assertEquals(1_001, records.get(0).sequence());
+        assertEquals(50, records.get(4).balance());
+        assertEquals(1_006, reopened.append(JournalRecord.Type.DEPOSIT, 6, 0, 6, 60, 0));
+        reopened.close();
+    }
+
+    @Test
+    public void testSkipTo_AfterSomeRecordsKeepsBothRangesOnReopen() throws Exception {
+        // Given
+        MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE, MappedJournal.FsyncPolicy.EVERY_WRITE, 10);
+        for (long n = 1; n <= 3; n++) {
+            journal.append(JournalRecord.Type.DEPOSIT, n, 0, n, n, 0);
+        }
+        journal.skipTo(500);
+        journal.append(JournalRecord.Type.DEPOSIT, 501, 0, 1, 1, 0);
+        journal.append(JournalRecord.Type.DEPOSIT, 502, 0, 1, 1, 0);
+        journal.close();
+
+        // When
+        MappedJournal reopened = new MappedJournal(directory, SEGMENT_SIZE, MappedJournal.FsyncPolicy.EVERY_WRITE, 10);
+        List<JournalRecord> records = new ArrayList<>();
+        while (reopened.readAfter(records.isEmpty() ? 0 : records.get(records.size() - 1).sequence(), 64, records::add) > 0) {
+            // keep reading, across the skipped range
+        }
+
+        // Then
+        assertEquals(502, reopened.lastSequence());
+        assertEquals(List.of(1L, 2L, 3L, 501L, 502L), records.stream().map(JournalRecord::sequence).toList());
+        reopened.close();
+    }
+
+    private static List<JournalRecord> readAll(MappedJournal journal) {
+        List<JournalRecord> records = new ArrayList<>();
+        while (journal.readAfter(records.size(), 64, records::add) > 0) {
+            // keep reading
+        }
+        return records;
+    }
+
+    private Path onlySegment() throws Exception {
+        try (var files = Files.list(directory)) {
+            return files.findFirst().orElseThrow();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.banking.banking.app.ledger;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.dto.StatementDayDto;
+import com.banking.banking.app.dto.StatementDto;
+import com.banking.banking.app.dto.TransferFundDto;
+import com.banking.banking.app.entity.Transaction;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.repository.DailyRollupRepository;
+import com.banking.banking.app.repository.TransactionRepository;
+import com.banking.banking.app.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:daily_rollups;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"})
+public class DailyRollupsTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private DailyRollupRepository dailyRollupRepository;
+
+    @Autowired
+    private DailyRollups dailyRollups;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testStatementCountsEveryKindOfWrite() {
+        // Given
+        long from = accountService.createAccount(new AccountDto(0, "John Doe", Money.of("100.00"))).getId();
+        long to = accountService.createAccount(new AccountDto(0, "Jane Doe", Money.ZERO)).getId();
+
+        // When
+        accountService.deposit(from, Money.of("50.00"));
+        accountService.deposit(from, Money.of("25.25"));
+        accountService.withdraw(from, Money.of("10.00"));
+        accountService.transferFunds(new TransferFundDto(from, to, Money.of("5.00")));
+        accountService.transferFundsBatch(List.of(new TransferFundDto(from, to, Money.of("1.00")),
+                new TransferFundDto(from, to, Money.of("2.00"))));
+        StatementDto statement = accountService.getStatement(from, null, null);
+
+        // Then
+        assertEquals(1, statement.days().size());
+        StatementDayDto today = statement.days().get(0);
+        assertEquals(LocalDate.now().toString(), today.date());
+        assertEquals(2, today.depositCount());
+        assertEquals(Money.of("75.25"), today.depositAmount());
+        assertEquals(1, today.withdrawCount());
+        assertEquals(Money.of("10.00"), today.withdrawAmount());
+        assertEquals(3, today.transferCount());
+        assertEquals(Money.of("8.00"), today.transferAmount());
+        StatementDayDto credited = accountService.getStatement(to, null, null).days().get(0);
+        assertEquals(0, credited.transferCount());
+        assertEquals(3, credited.transferInCount());
+        assertEquals(Money.of("8.00"), credited.transferInAmount());
+    }
+
+    @Test
+    public void testRolledBackRowsAreNotCounted() {
+        // Given
+        long id = accountService.createAccount(new AccountDto(0, "Max Mustermann", Money.ZERO)).getId();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            transactionRepository.save(new Transaction(null, id, LedgerEvents.DEPOSIT, 1000, LocalDateTime.now()));
+            status.setRollbackOnly();
+        });
+
+        // Then
+        assertTrue(accountService.getStatement(id, null, null).days().isEmpty());
+    }
+
+    @Test
+    public void testSlotRowsAddUpInTheStatement() {
+        // Given
+        long id = accountService.createAccount(new AccountDto(0, "Hot Merchant", Money.ZERO)).getId();
+        accountService.deposit(id, Money.of("1.00"));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // When: a deposit spread to balance slot 3, as BalanceSlots books it
+        transactionTemplate.executeWithoutResult(status -> {
+            dailyRollups.useSlot(id, 3);
+            transactionRepository.save(new Transaction(null, id, LedgerEvents.DEPOSIT, 250, LocalDateTime.now()));
+        });
+
+        // Then
+        assertEquals(List.of(0, 3), jdbcTemplate.queryForList(
+                "select slot from account_daily_rollups where account_id = ? order by slot", Integer.class, id));
+        StatementDayDto today = accountService.getStatement(id, null, null).days().get(0);
+        assertEquals(2, today.depositCount());
+        assertEquals(Money.of("3.50"), today.depositAmount());
+    }
+
+    @Test
+    public void testConcurrentWritersOnOneAccountDay() throws Exception {
+        // Given
+        long id = accountService.createAccount(new AccountDto(0, "Erika Mustermann", Money.ZERO)).getId();
+        int threads = 8;
+        int depositsPerThread = 25;
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int n = 0; n < depositsPerThread; n++) {
+                        accountService.deposit(id, Money.of("1.00"));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Then
+        StatementDayDto today = accountService.getStatement(id, null, null).days().get(0);
+        assertEquals(threads * depositsPerThread, today.depositCount());
+        assertEquals(Money.of(threads * depositsPerThread + ".00"), today.depositAmount());
+    }
+
+    @Test
+    public void testRebuildMatchesIncrementalRollups() {
+        // Given: history across several days, including rows written before this run
+        long id = accountService.createAccount(new AccountDto(0, "Alex Doe", Money.ZERO)).getId();
+        LocalDateTime start = LocalDateTime.now().minusDays(3);
+        for (int day = 0; day < 3; day++) {
+            transactionRepository.save(new Transaction(null, id, LedgerEvents.DEPOSIT, 500, start.plusDays(day)));
+            transactionRepository.save(new Transaction(null, id, LedgerEvents.TRANSFER_IN, 200, start.plusDays(day)));
+            transactionRepository.save(new Transaction(null, id, LedgerEvents.OPENING, 0, start.plusDays(day)));
+        }
+        List<Map<String, Object>> incremental = rollupRows(id);
+
+        // When
+        dailyRollups.rebuild();
+
+        // Then
+        assertEquals(3, incremental.size());
+        assertEquals(incremental, rollupRows(id));
+        assertEquals(3, dailyRollupRepository.findByAccountIdAndBookingDateBetweenOrderByBookingDate(
+                id, start.toLocalDate(), LocalDate.now()).size());
+        StatementDayDto first = accountService.getStatement(id, start.toLocalDate(), start.toLocalDate()).days().get(0);
+        assertEquals(1, first.transferInCount());
+        assertEquals(Money.of("2.00"), first.transferInAmount());
+    }
+
+    private List<Map<String, Object>> rollupRows(long accountId) {
+        return jdbcTemplate.queryForList("select * from account_daily_rollups where account_id = ? order by booking_date", accountId);
+    }
+}
@@ -0,0 +1,119 @@
+package com.banking.banking.app.ledger;
+
+import com.banking.banking.app.engine.EventSourcedBalanceEngine;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Run with: mvn test -Pperf -Dtest=EventSourcedRecoveryLoadTest [-Dledger.events=10000000]
+// File-backed H2 so a 10M-event journal does not have to fit in the heap
+@Tag("perf")
+@SpringBootTest(properties = {
+        "banking.engine.mode=event-sourced",
+        "banking.ledger.snapshot-interval-ms=3600000",
+        "spring.datasource.url=jdbc:h2:file:./target/es_recovery;DB_CLOSE_ON_EXIT=FALSE"
+})
+public class EventSourcedRecoveryLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(EventSourcedRecoveryLoadTest.class);
+
+    private static final int ACCOUNTS = 10_000;
+
+    private static final int INSERT_BATCH = 10_000;
+
+    private static final long EVENTS = Long.getLong("ledger.events", 10_000_000L);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LedgerRebuilder ledgerRebuilder;
+
+    @Autowired
+    private EventSourcedBalanceEngine balanceEngine;
+
+    @Test
+    public void testStartupTime_SnapshotTailVersusFullReplay() {
+        long began = System.nanoTime();
+        long nextEventId = generateJournal();
+        log.info(String.format("generated %,d events over %,d accounts in %,d ms",
+                EVENTS, ACCOUNTS, (System.nanoTime() - began) / 1_000_000));
+
+        LedgerRebuilder.Result serial = ledgerRebuilder.rebuild(1);
+        LedgerRebuilder.Result parallel = ledgerRebuilder.rebuild(4);
+        assertEquals(EVENTS, serial.events());
+        assertEquals(serial.events(), parallel.events());
+        log.info(String.format("full replay, 1 partition:  %,8d ms", serial.elapsedMillis()));
+        log.info(String.format("full replay, 4 partitions: %,8d ms (%d cores)",
+                parallel.elapsedMillis(), Runtime.getRuntime().availableProcessors()));
+
+        // 1% of the journal written after the last snapshot
+        appendDeposits(nextEventId, EVENTS / 100);
+        began = System.nanoTime();
+        balanceEngine.recover();
+        log.info(String.format("startup from snapshots + %,d tail events: %,8d ms",
+                EVENTS / 100, (System.nanoTime() - began) / 1_000_000));
+    }
+
+    // OPENING per account, then deposits and withdrawals spread over the accounts; returns the next free id
+    private long generateJournal() {
+        jdbcTemplate.update("delete from balance_snapshots");
+        jdbcTemplate.update("delete from transactions");
+        jdbcTemplate.update("delete from accounts");
+
+        List<Object[]> accounts = new ArrayList<>(ACCOUNTS);
+        for (int i = 1; i <= ACCOUNTS; i++) {
+            accounts.add(new Object[]{(long) i, "Holder " + i, new BigDecimal("1000000.00")});
+        }
+        jdbcTemplate.batchUpdate("insert into accounts (id, account_holder_name, balance) values (?, ?, ?)", accounts);
+
+        long id = 1;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+        for (int i = 1; i <= ACCOUNTS; i++) {
+            rows.add(new Object[]{id++, (long) i, LedgerEvents.OPENING, new BigDecimal("1000000.00"), now});
+        }
+        insert(rows);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (long n = ACCOUNTS; n < EVENTS; n++) {
+            String type = random.nextBoolean() ? LedgerEvents.DEPOSIT : LedgerEvents.WITHDRAW;
+            rows.add(new Object[]{id++, 1L + random.nextInt(ACCOUNTS), type, BigDecimal.valueOf(1 + random.nextInt(500), 2), now});
+            if (rows.size() == INSERT_BATCH) {
+                insert(rows);
+            }
+        }
+        insert(rows);
+        return id;
+    }
+
+    private void appendDeposits(long firstId, long count) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (long id = firstId; id < firstId + count; id++) {
+            rows.add(new Object[]{id, 1L + random.nextInt(ACCOUNTS), LedgerEvents.DEPOSIT, new BigDecimal("0.01"), now});
+            if (rows.size() == INSERT_BATCH) {
+                insert(rows);
+            }
+        }
+        insert(rows);
+    }
+
+    private void insert(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("insert into transactions (id, account_id, transaction_type, amount, timestamp) values (?, ?, ?, ?, ?)", rows);
+        rows.clear();
+    }
+}
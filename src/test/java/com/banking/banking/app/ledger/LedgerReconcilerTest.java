@@ -0,0 +1,83 @@
+package com.banking.banking.app.ledger;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.dto.TransferFundDto;
+import com.banking.banking.app.entity.Transaction;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.repository.TransactionRepository;
+import com.banking.banking.app.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ledger_reconciler;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "banking.reconciliation.parallelism=4",
+        "banking.reconciliation.chunk-size=2"})
+public class LedgerReconcilerTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerReconciler ledgerReconciler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testEveryKindOfWriteReconciles() {
+        // Given
+        long a = accountService.createAccount(new AccountDto(0, "John Doe", Money.of("100.00"))).getId();
+        long b = accountService.createAccount(new AccountDto(0, "Jane Doe", Money.ZERO)).getId();
+        long c = accountService.createAccount(new AccountDto(0, "Max Mustermann", Money.of("10.00"))).getId();
+        accountService.deposit(a, Money.of("50.00"));
+        accountService.withdraw(c, Money.of("2.50"));
+        accountService.transferFunds(new TransferFundDto(a, b, Money.of("30.00")));
+        accountService.transferFunds(new TransferFundDto(b, b, Money.of("1.00")));
+        accountService.transferFundsBatch(List.of(new TransferFundDto(b, c, Money.of("5.00")),
+                new TransferFundDto(c, a, Money.of("0.25"))));
+
+        // When
+        LedgerReconciler.Report report = ledgerReconciler.reconcile();
+
+        // Then
+        assertTrue(report.discrepancies().stream().noneMatch(d -> d.accountId() == a || d.accountId() == b || d.accountId() == c),
+                () -> "unexpected discrepancies " + report.discrepancies());
+        assertTrue(report.accounts() >= 3);
+        assertTrue(report.transactions() >= 11);
+    }
+
+    @Test
+    public void testReportsTamperedBalancesAndOrphanLedgers() {
+        // Given
+        long tampered = accountService.createAccount(new AccountDto(0, "Erika Mustermann", Money.of("20.00"))).getId();
+        long untouched = accountService.createAccount(new AccountDto(0, "Alex Doe", Money.of("20.00"))).getId();
+        accountService.deposit(tampered, Money.of("5.00"));
+        jdbcTemplate.update("update accounts set balance = 99.99 where id = ?", tampered);
+        long orphan = untouched + 1_000;
+        transactionRepository.save(new Transaction(null, orphan, LedgerEvents.DEPOSIT, 700, LocalDateTime.now()));
+        transactionRepository.save(new Transaction(null, orphan + 1, LedgerEvents.DEPOSIT, 700, LocalDateTime.now()));
+        transactionRepository.save(new Transaction(null, orphan + 1, LedgerEvents.WITHDRAW, 700, LocalDateTime.now()));
+
+        // When
+        LedgerReconciler.Report report = ledgerReconciler.reconcile();
+
+        // Then
+        assertTrue(report.discrepancies().contains(new LedgerReconciler.Discrepancy(tampered, 9999L, 2500)));
+        assertTrue(report.discrepancies().contains(new LedgerReconciler.Discrepancy(orphan, null, 700)));
+        assertTrue(report.discrepancies().stream().noneMatch(d -> d.accountId() == untouched || d.accountId() == orphan + 1));
+        assertEquals(report.discrepancies().size(), report.discrepancyCount());
+        assertEquals(report.discrepancyCount(), ledgerReconciler.getLastDiscrepancyCount());
+    }
+}
@@ -0,0 +1,96 @@
+package com.banking.banking.app.ledger;
+
+import com.banking.banking.app.entity.Transaction;
+import com.banking.banking.app.repository.TransactionRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Run with: mvn test -Pperf
+@Tag("perf")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:ledger_load;DB_CLOSE_DELAY=-1")
+public class LedgerWriterLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerWriterLoadTest.class);
+
+    private static final int APPENDS_PER_DEPOSITOR = 10;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @ParameterizedTest
+    @CsvSource({"DIRECT, 1000", "GROUP_COMMIT, 1000", "DIRECT, 10000", "GROUP_COMMIT, 10000"})
+    public void testAppendLatencyAndThroughput(LedgerWriter.Mode mode, int depositors) throws Exception {
+        LedgerWriter ledgerWriter = new LedgerWriter(transactionRepository, transactionManager, mode, 200, 2, 20_000);
+        ledgerWriter.start();
+        long before = transactionRepository.count();
+
+        long[] latencies = new long[depositors * APPENDS_PER_DEPOSITOR];
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(depositors);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(depositors);
+        for (int d = 0; d < depositors; d++) {
+            int depositor = d;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int n = 0; n < APPENDS_PER_DEPOSITOR; n++) {
+                        long began = System.nanoTime();
+                        try {
+                            ledgerWriter.append(deposit(depositor));
+                        } catch (RuntimeException e) {
+                            failures.incrementAndGet();
+                        }
+                        latencies[depositor * APPENDS_PER_DEPOSITOR + n] = System.nanoTime() - began;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        assertTrue(done.await(10, TimeUnit.MINUTES));
+        ledgerWriter.stop();
+        long elapsed = System.nanoTime() - began;
+        executor.shutdown();
+
+        long inserted = transactionRepository.count() - before;
+        Arrays.sort(latencies);
+        long p99 = latencies[(int) (latencies.length * 0.99) - 1];
+        log.info(String.format("%-12s %6d depositors: %,10.0f inserts/sec, p99 %,8.2f ms, %d failures",
+                mode, depositors, inserted / (elapsed / 1_000_000_000.0), p99 / 1_000_000.0, failures.get()));
+        assertEquals(latencies.length - failures.get(), inserted);
+    }
+
+    private static Transaction deposit(long accountId) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(accountId);
+        transaction.setTransactionType("DEPOSIT");
+        transaction.setAmount(100);
+        transaction.setTimestamp(LocalDateTime.now());
+        return transaction;
+    }
+}
@@ -0,0 +1,170 @@
+package com.banking.banking.app.ledger;
+
+import com.banking.banking.app.entity.Transaction;
+import com.banking.banking.app.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class LedgerWriterTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LedgerWriter ledgerWriter;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        if (ledgerWriter != null) {
+            ledgerWriter.stop();
+        }
+    }
+
+    @Test
+    public void testAppend_DirectModeSavesImmediately() {
+        ledgerWriter = start(LedgerWriter.Mode.DIRECT, 10, 5);
+        Transaction transaction = deposit(1L);
+
+        ledgerWriter.append(transaction);
+
+        verify(transactionRepository, times(1)).save(transaction);
+        verify(transactionRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    public void testAppend_WriteBehindFlushesPartialBatchAfterInterval() {
+        ledgerWriter = start(LedgerWriter.Mode.WRITE_BEHIND, 100, 20);
+
+        ledgerWriter.append(deposit(1L));
+        ledgerWriter.append(deposit(2L));
+        ledgerWriter.append(deposit(3L));
+
+        verify(transactionRepository, timeout(2000).times(1)).saveAll(argThat(rows -> size(rows) == 3));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    public void testAppend_GroupCommitWaitsForBatchAndRespectsBatchSize() throws Exception {
+        ledgerWriter = start(LedgerWriter.Mode.GROUP_COMMIT, 4, 50);
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        List<Future<?>> calls = new ArrayList<>();
+        for (long i = 0; i < 10; i++) {
+            long accountId = i;
+            calls.add(executor.submit(() -> ledgerWriter.append(deposit(accountId))));
+        }
+        for (Future<?> call : calls) {
+            call.get();
+        }
+        executor.shutdown();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Iterable<Transaction>> batches = ArgumentCaptor.forClass(Iterable.class);
+        verify(transactionRepository, atLeast(3)).saveAll(batches.capture());
+        int total = 0;
+        for (Iterable<Transaction> batch : batches.getAllValues()) {
+            assertTrue(size(batch) <= 4);
+            total += size(batch);
+        }
+        assertEquals(10, total);
+    }
+
+    @Test
+    public void testAppend_GroupCommitSurfacesRowFailure() {
+        ledgerWriter = start(LedgerWriter.Mode.GROUP_COMMIT, 10, 5);
+        when(transactionRepository.saveAll(anyList())).thenThrow(new IllegalStateException("batch failed"));
+        when(transactionRepository.save(any(Transaction.class))).thenThrow(new IllegalStateException("row failed"));
+
+        IllegalStateException failure = assertThrows(IllegalStateException.class, () -> ledgerWriter.append(deposit(1L)));
+        assertEquals("row failed", failure.getMessage());
+    }
+
+    @Test
+    public void testAppend_WriteBehindInTransactionQueuesOnlyAfterCommit() {
+        ledgerWriter = start(LedgerWriter.Mode.WRITE_BEHIND, 100, 5);
+
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () -> ledgerWriter.append(deposit(1L)));
+        inTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> {
+            ledgerWriter.append(deposit(2L));
+            assertEquals(0, ledgerWriter.getQueueDepth());
+        });
+
+        verify(transactionRepository, timeout(2000).times(1)).saveAll(argThat(rows -> size(rows) == 1
+                && rows.iterator().next().getAccountId() == 2L));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
+    @Test
+    public void testAppend_GroupCommitInTransactionSavesWithoutWaiting() {
+        ledgerWriter = start(LedgerWriter.Mode.GROUP_COMMIT, 100, 5);
+        Transaction transaction = deposit(1L);
+
+        inTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> ledgerWriter.append(transaction));
+
+        verify(transactionRepository, times(1)).save(transaction);
+        verify(transactionRepository, never()).saveAll(anyList());
+    }
+
+    // Runs work as if inside a transaction that then ends with status
+    private static void inTransaction(int status, Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            work.run();
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(status);
+            }
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private LedgerWriter start(LedgerWriter.Mode mode, int batchSize, long flushIntervalMs) {
+        LedgerWriter writer = new LedgerWriter(transactionRepository, transactionManager, mode, batchSize, flushIntervalMs, 1000);
+        writer.start();
+        return writer;
+    }
+
+    private static Transaction deposit(long accountId) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId(accountId);
+        transaction.setTransactionType("DEPOSIT");
+        transaction.setAmount(1000);
+        transaction.setTimestamp(LocalDateTime.now());
+        return transaction;
+    }
+
+    private static int size(Iterable<?> rows) {
+        int n = 0;
+        for (Object ignored : rows) {
+            n++;
+        }
+        return n;
+    }
+}
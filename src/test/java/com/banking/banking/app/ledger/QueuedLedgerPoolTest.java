@@ -0,0 +1,76 @@
+package com.banking.banking.app.ledger;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.dto.TransferFundDto;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// More concurrent writers than pooled connections: writers must not wait on the flusher while
+// holding a connection the flusher needs
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:queued_ledger_pool;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=5000",
+        "banking.ledger.mode=group_commit"})
+public class QueuedLedgerPoolTest {
+
+    private static final int WRITERS = 8;
+
+    private static final int OPERATIONS_PER_WRITER = 25;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private LedgerReconciler ledgerReconciler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testGroupCommitWithMoreWritersThanConnections() throws Exception {
+        // Given
+        long a = accountService.createAccount(new AccountDto(0, "Pool A", Money.of("1000.00"))).getId();
+        long b = accountService.createAccount(new AccountDto(0, "Pool B", Money.of("1000.00"))).getId();
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            writers.add(executor.submit(() -> {
+                for (int n = 0; n < OPERATIONS_PER_WRITER; n++) {
+                    accountService.deposit(a, Money.of("1.00"));
+                    accountService.withdraw(b, Money.of("1.00"));
+                    accountService.transferFunds(new TransferFundDto(a, b, Money.of("1.00")));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> writer : writers) {
+            writer.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        // Then
+        int operations = WRITERS * OPERATIONS_PER_WRITER;
+        assertEquals(Money.of("1000.00"), accountService.getAccountById(a).getBalance());
+        assertEquals(Money.of("1000.00"), accountService.getAccountById(b).getBalance());
+        assertEquals(2 + 4 * operations, jdbcTemplate.queryForObject(
+                "select count(*) from transactions where account_id in (?, ?)", Integer.class, a, b));
+        assertEquals(0, ledgerReconciler.reconcile().discrepancyCount());
+    }
+}
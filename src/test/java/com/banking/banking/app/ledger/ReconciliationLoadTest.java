@@ -0,0 +1,122 @@
+package com.banking.banking.app.ledger;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Run with: mvn test -Pperf -Dtest=ReconciliationLoadTest [-Dreconciliation.transactions=50000000]
+// File-backed H2 so the ledger does not have to fit in the heap
+@Tag("perf")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/reconciliation;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.show-sql=false"
+})
+public class ReconciliationLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ReconciliationLoadTest.class);
+
+    private static final int ACCOUNTS = 100_000;
+
+    private static final long INSERT_BATCH = 500_000;
+
+    private static final long OPENING_BALANCE = 100_000_000;
+
+    private static final long TRANSACTIONS = Long.getLong("reconciliation.transactions", 10_000_000L);
+
+    private static final long[] TAMPERED = {17, ACCOUNTS / 2, ACCOUNTS - 3};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LedgerReconciler ledgerReconciler;
+
+    @Test
+    public void testReconcileLargeLedgerInBoundedMemory() throws Exception {
+        long began = System.nanoTime();
+        generateLedger();
+        log.info(String.format("generated %,d transactions over %,d accounts in %,d ms",
+                TRANSACTIONS + ACCOUNTS, ACCOUNTS, (System.nanoTime() - began) / 1_000_000));
+
+        for (int parallelism : new int[]{1, 4}) {
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            System.gc();
+            long baseline = memory.getHeapMemoryUsage().getUsed();
+            AtomicLong peak = new AtomicLong(baseline);
+            Thread sampler = new Thread(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    peak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+            sampler.setDaemon(true);
+            sampler.start();
+            LedgerReconciler.Report report = ledgerReconciler.reconcile(parallelism);
+            sampler.interrupt();
+            sampler.join();
+
+            assertEquals(ACCOUNTS, report.accounts());
+            assertEquals(TRANSACTIONS + ACCOUNTS, report.transactions());
+            assertEquals(TAMPERED.length, report.discrepancyCount());
+            log.info(String.format("reconciled with %d workers: %,8d ms, %,.0f transactions/s, peak heap +%,d MB of %,d MB (%d cores)",
+                    parallelism, report.elapsedMillis(), report.transactions() * 1000.0 / Math.max(1, report.elapsedMillis()),
+                    (peak.get() - baseline) >> 20, Runtime.getRuntime().maxMemory() >> 20,
+                    Runtime.getRuntime().availableProcessors()));
+        }
+    }
+
+    // OPENING per account, then a deterministic mix of the other events; balances are folded here
+    private void generateLedger() {
+        jdbcTemplate.update("delete from account_daily_rollups");
+        jdbcTemplate.update("delete from transactions");
+        jdbcTemplate.update("delete from accounts");
+
+        // ids 1..ACCOUNTS are the OPENING rows, so they come first in every account's id order
+        jdbcTemplate.update("insert into transactions (id, account_id, transaction_type, amount, timestamp) " +
+                "select x, x, 'OPENING', ?, current_timestamp from system_range(1, ?)",
+                BigDecimal.valueOf(OPENING_BALANCE, 2), ACCOUNTS);
+        // one statement per INSERT_BATCH ids: a single 50M-row insert keeps its whole undo log in the file
+        for (long first = ACCOUNTS + 1; first <= ACCOUNTS + TRANSACTIONS; first += INSERT_BATCH) {
+            jdbcTemplate.update("insert into transactions (id, account_id, transaction_type, amount, timestamp) " +
+                    "select x, mod(x, ?) + 1, " +
+                    "case mod(x, 4) when 0 then 'DEPOSIT' when 1 then 'WITHDRAW' when 2 then 'TRANSFER' else 'TRANSFER_IN' end, " +
+                    "(mod(x, 500) + 1) / 100.0, current_timestamp from system_range(?, ?)",
+                    ACCOUNTS, first, Math.min(first + INSERT_BATCH - 1, ACCOUNTS + TRANSACTIONS));
+        }
+
+        long[] balances = new long[ACCOUNTS + 1];
+        Arrays.fill(balances, OPENING_BALANCE);
+        String[] types = {LedgerEvents.DEPOSIT, LedgerEvents.WITHDRAW, LedgerEvents.TRANSFER, LedgerEvents.TRANSFER_IN};
+        for (long x = ACCOUNTS + 1; x <= ACCOUNTS + TRANSACTIONS; x++) {
+            int account = (int) (x % ACCOUNTS) + 1;
+            balances[account] = LedgerEvents.apply(balances[account], types[(int) (x % 4)], x % 500 + 1);
+        }
+        for (long id : TAMPERED) {
+            balances[(int) id] += 1;
+        }
+
+        List<Object[]> accounts = new ArrayList<>(ACCOUNTS);
+        for (int i = 1; i <= ACCOUNTS; i++) {
+            accounts.add(new Object[]{(long) i, "Holder " + i, BigDecimal.valueOf(balances[i], 2), 0L});
+        }
+        jdbcTemplate.batchUpdate("insert into accounts (id, account_holder_name, balance, version) values (?, ?, ?, ?)", accounts);
+    }
+}
@@ -0,0 +1,46 @@
+package com.banking.banking.app.metrics;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.exception.AccountException;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.service.AccountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class BankingMetricsTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testOperationTimersAndRejectionCounter() {
+        long id = accountService.createAccount(new AccountDto(0, "John Doe", Money.of("100.00"))).getId();
+
+        accountService.deposit(id, Money.of("10.00"));
+        accountService.getAccountTransactions(id);
+        assertThrows(AccountException.class, () -> accountService.withdraw(id, Money.of("1000.00")));
+
+        Timer deposit = meterRegistry.get(BankingMetrics.OPERATION_TIMER).tag("operation", "deposit").timer();
+        assertTrue(deposit.count() >= 1);
+        assertTrue(meterRegistry.get(BankingMetrics.OPERATION_TIMER).tag("operation", "history").timer().count() >= 1);
+        assertTrue(meterRegistry.get(BankingMetrics.OPERATION_TIMER).tag("operation", "withdraw")
+                .tag("exception", "AccountException").timer().count() >= 1);
+        assertTrue(meterRegistry.get(BankingMetrics.REJECTIONS).tag("reason", "insufficient_funds")
+                .tag("operation", "withdraw").counter().count() >= 1);
+    }
+
+    @Test
+    public void testPoolAndLedgerGauges() {
+        assertNotNull(meterRegistry.get(BankingMetrics.LEDGER_QUEUE_DEPTH).gauge());
+        assertNotNull(meterRegistry.get("hikaricp.connections.active").gauge());
+    }
+}
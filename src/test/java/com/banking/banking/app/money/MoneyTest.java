@@ -0,0 +1,78 @@
+package com.banking.banking.app.money;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.dto.TransferFundDto;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testParseMinor_PlainDecimals() {
+        assertEquals(12500, Money.parseMinor("125"));
+        assertEquals(12550, Money.parseMinor("125.5"));
+        assertEquals(7, Money.parseMinor("0.07"));
+        assertEquals(-350, Money.parseMinor("-3.50"));
+        assertEquals(10, Money.parseMinor(".1"));
+        assertEquals(100, Money.parseMinor("1.000"));
+    }
+
+    @Test
+    public void testParseMinor_RejectsRoundingAndGarbage() {
+        assertThrows(IllegalArgumentException.class, () -> Money.parseMinor("0.001"));
+        assertThrows(IllegalArgumentException.class, () -> Money.parseMinor("1.2.3"));
+        assertThrows(IllegalArgumentException.class, () -> Money.parseMinor("-"));
+        assertThrows(IllegalArgumentException.class, () -> Money.parseMinor("abc"));
+        assertThrows(ArithmeticException.class, () -> Money.parseMinor("99999999999999999999"));
+    }
+
+    @Test
+    public void testArithmetic_NoDrift() {
+        // Given: the classic 0.1 + 0.2 that a double gets wrong
+        long balance = Money.add(Money.of("0.10").minorUnits(), Money.of("0.20").minorUnits());
+
+        // Then
+        assertEquals(Money.of("0.30"), Money.ofMinor(balance));
+        assertEquals("0.30", Money.toString(balance));
+        assertEquals("-0.05", Money.ofMinor(-5).toString());
+        assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1));
+    }
+
+    @Test
+    public void testJson_RoundTrip() throws Exception {
+        // Given
+        AccountDto account = new AccountDto(7L, "John Doe", Money.of("1234.50"));
+
+        // When
+        String json = objectMapper.writeValueAsString(account);
+        TransferFundDto transfer = objectMapper.readValue(
+                "{\"fromAccountId\":1,\"toAccountId\":2,\"amount\":15.5}", TransferFundDto.class);
+
+        // Then
+        assertEquals("{\"id\":7,\"accountHolderName\":\"John Doe\",\"balance\":1234.50}", json);
+        assertEquals(account, objectMapper.readValue(json, AccountDto.class));
+        assertEquals(1550, transfer.amount().minorUnits());
+        assertEquals(Money.of("100.00"), objectMapper.readValue("1e2", Money.class));
+        assertEquals(Money.of("3.00"), objectMapper.readValue("3", Money.class));
+        assertThrows(JsonMappingException.class, () -> objectMapper.readValue("0.125", Money.class));
+        // overflows long once scaled to minor units
+        assertThrows(JsonMappingException.class, () -> objectMapper.readValue("1000000000000000000", Money.class));
+    }
+
+    @Test
+    public void testConverter_DecimalColumn() {
+        MinorUnitsConverter converter = new MinorUnitsConverter();
+
+        assertEquals(new BigDecimal("125.05"), converter.convertToDatabaseColumn(12505L));
+        assertEquals(12505L, converter.convertToEntityAttribute(new BigDecimal("125.05")));
+        // a value left behind by the old DOUBLE column
+        assertEquals(30L, converter.convertToEntityAttribute(new BigDecimal(0.1 + 0.2)));
+    }
+}
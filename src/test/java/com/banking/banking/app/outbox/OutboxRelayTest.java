@@ -0,0 +1,133 @@
+package com.banking.banking.app.outbox;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.dto.TransferFundDto;
+import com.banking.banking.app.exception.AccountException;
+import com.banking.banking.app.metrics.BankingMetrics;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.service.AccountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox_relay;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "banking.outbox.enabled=true",
+        "banking.outbox.sink=memory",
+        "banking.outbox.batch-size=3",
+        "banking.outbox.poll-interval-ms=50",
+        "banking.outbox.backoff-max-ms=200"})
+public class OutboxRelayTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private InMemoryOutboxSink sink;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testBalanceChangesArePublishedInOrderPerAccount() throws Exception {
+        // Given
+        long from = open("100.00");
+        long to = open("0.00");
+        int before = sink.events().size();
+
+        // When
+        accountService.deposit(from, Money.of("25.00"));
+        accountService.withdraw(from, Money.of("5.00"));
+        accountService.transferFunds(new TransferFundDto(from, to, Money.of("20.00")));
+        assertThrows(AccountException.class, () -> accountService.withdraw(to, Money.of("50.00")));
+
+        // Then
+        assertTrue(sink.awaitEvents(before + 4, 5_000));
+        List<AccountEvent> fromEvents = eventsOf(from);
+        assertEquals(List.of("DEPOSIT", "WITHDRAW", "TRANSFER"), fromEvents.stream().map(AccountEvent::eventType).toList());
+        assertEquals(List.of(Money.of("125.00"), Money.of("120.00"), Money.of("100.00")),
+                fromEvents.stream().map(AccountEvent::balance).toList());
+
+        // the rejected withdrawal rolled back without an event
+        List<AccountEvent> toEvents = eventsOf(to);
+        assertEquals(1, toEvents.size());
+        assertEquals("TRANSFER_IN", toEvents.get(0).eventType());
+        assertEquals(Money.of("20.00"), toEvents.get(0).amount());
+        assertEquals(Money.of("20.00"), toEvents.get(0).balance());
+        assertTrue(toEvents.get(0).id() > fromEvents.get(1).id());
+
+        awaitEmptyOutbox();
+        assertTrue(meterRegistry.get(BankingMetrics.OUTBOX_PUBLISHED).counter().count() >= 4);
+    }
+
+    @Test
+    public void testBatchTransfersArePublishedWithIntermediateBalances() throws Exception {
+        // Given
+        long a = open("10.00");
+        long b = open("0.00");
+
+        // When
+        accountService.transferFundsBatch(List.of(
+                new TransferFundDto(a, b, Money.of("4.00")),
+                new TransferFundDto(a, b, Money.of("3.00"))));
+
+        // Then
+        awaitEmptyOutbox();
+        assertEquals(List.of(Money.of("6.00"), Money.of("3.00")), eventsOf(a).stream().map(AccountEvent::balance).toList());
+        assertEquals(List.of(Money.of("4.00"), Money.of("7.00")), eventsOf(b).stream().map(AccountEvent::balance).toList());
+    }
+
+    @Test
+    public void testFailedPublishIsRetriedUntilDelivered() throws Exception {
+        // Given
+        long id = open("0.00");
+        double failuresBefore = failures();
+        sink.failNext(2);
+
+        // When
+        for (int i = 1; i <= 5; i++) {
+            accountService.deposit(id, Money.of(i + ".00"));
+        }
+
+        // Then: at-least-once, so every deposit arrives, in order
+        awaitEmptyOutbox();
+        List<AccountEvent> events = eventsOf(id);
+        assertEquals(List.of(Money.of("1.00"), Money.of("3.00"), Money.of("6.00"), Money.of("10.00"), Money.of("15.00")),
+                events.stream().map(AccountEvent::balance).distinct().toList());
+        assertTrue(failures() >= failuresBefore + 2);
+        assertEquals(0, outboxRelay.getDepth());
+    }
+
+    private long open(String balance) {
+        return accountService.createAccount(new AccountDto(0, "Outbox Holder", Money.of(balance))).getId();
+    }
+
+    private List<AccountEvent> eventsOf(long accountId) {
+        return sink.events().stream().filter(event -> event.accountId() == accountId).toList();
+    }
+
+    private double failures() {
+        return meterRegistry.find(BankingMetrics.OUTBOX_FAILURES).counters().stream().mapToDouble(c -> c.count()).sum();
+    }
+
+    private void awaitEmptyOutbox() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (jdbcTemplate.queryForObject("select count(*) from account_outbox", Long.class) > 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "outbox not drained");
+            Thread.sleep(20);
+        }
+    }
+}
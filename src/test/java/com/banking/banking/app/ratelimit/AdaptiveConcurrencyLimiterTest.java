@@ -0,0 +1,64 @@
+package com.banking.banking.app.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private double poolWaitMillis;
+
+    // Limit 10 within [2, 20], thresholds 100 ms latency and 20 ms pool wait, adjusted every second
+    private AdaptiveConcurrencyLimiter limiter() {
+        return new AdaptiveConcurrencyLimiter(true, 10, 2, 20, 0.5, 100, 20, 1000, () -> poolWaitMillis, now::get);
+    }
+
+    @Test
+    public void testShedsBeyondTheLimit() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire() >= 0);
+        }
+
+        // When / Then
+        assertEquals(-1, limiter.tryAcquire());
+        limiter.release(now.get());
+        assertTrue(limiter.tryAcquire() >= 0);
+        assertEquals(10, limiter.getInFlight());
+    }
+
+    @Test
+    public void testLimitFollowsLatencyAndPoolWait() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = limiter();
+
+        // When: slow requests complete after the interval
+        complete(limiter, 150, 1100);
+        // Then: multiplicative decrease
+        assertEquals(5, limiter.getLimit());
+
+        // fast requests, but Hikari made them wait
+        poolWaitMillis = 40;
+        complete(limiter, 5, 1100);
+        assertEquals(2, limiter.getLimit());
+
+        // healthy again: additive increase, one step per interval
+        poolWaitMillis = 0;
+        complete(limiter, 5, 1100);
+        complete(limiter, 5, 1100);
+        assertEquals(4, limiter.getLimit());
+    }
+
+    private void complete(AdaptiveConcurrencyLimiter limiter, long latencyMs, long advanceMs) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(advanceMs - latencyMs));
+        long started = limiter.tryAcquire();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(latencyMs));
+        limiter.release(started);
+    }
+}
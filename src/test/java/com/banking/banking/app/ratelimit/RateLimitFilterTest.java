@@ -0,0 +1,151 @@
+package com.banking.banking.app.ratelimit;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.idempotency.IdempotencyStore;
+import com.banking.banking.app.metrics.BankingMetrics;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.service.AccountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rate_limit;DB_CLOSE_DELAY=-1",
+        "banking.ratelimit.enabled=true",
+        "banking.ratelimit.client.rate=0.01",
+        "banking.ratelimit.client.burst=3",
+        "banking.ratelimit.account.rate=0.01",
+        "banking.ratelimit.account.burst=5",
+        "banking.shedding.enabled=true",
+        "banking.shedding.initial-limit=10"})
+@AutoConfigureMockMvc
+public class RateLimitFilterTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testClientBucketAnswers429AndSparesOtherClients() throws Exception {
+        // Given
+        long id = accountService.createAccount(new AccountDto(0, "John Doe", Money.of("100.00"))).getId();
+
+        // When / Then
+        for (int i = 0; i < 3; i++) {
+            deposit(id, "flooder").andExpect(status().isOk());
+        }
+        deposit(id, "flooder")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("$.errorCode").value("TOO_MANY_REQUESTS"));
+        deposit(id, "polite").andExpect(status().isOk());
+        // reads are not limited
+        mockMvc.perform(get("/api/accounts/" + id).header("X-Client-Id", "flooder")).andExpect(status().isOk());
+        assertTrue(meterRegistry.get(BankingMetrics.REJECTIONS).tag("reason", "rate_limited_client")
+                .tag("operation", "deposit").counter().count() >= 1);
+    }
+
+    @Test
+    public void testAccountBucketAppliesAcrossClients() throws Exception {
+        // Given
+        long from = accountService.createAccount(new AccountDto(0, "Jane Doe", Money.of("100.00"))).getId();
+        long to = accountService.createAccount(new AccountDto(0, "Max Mustermann", Money.ZERO)).getId();
+        String transfer = "{\"fromAccountId\":" + from + ",\"toAccountId\":" + to + ",\"amount\":1.00}";
+
+        // When: each request from a fresh client, all debiting the same account
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(post("/api/accounts/transfer").header("X-Client-Id", "client-" + i)
+                    .contentType(MediaType.APPLICATION_JSON).content(transfer)).andExpect(status().isOk());
+        }
+
+        // Then
+        mockMvc.perform(post("/api/accounts/transfer").header("X-Client-Id", "client-5")
+                        .contentType(MediaType.APPLICATION_JSON).content(transfer))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        assertEquals(Money.of("95.00"), accountService.getAccountById(from).getBalance());
+    }
+
+    @Test
+    public void testReplayTakesNoAccountToken() throws Exception {
+        // Given: the account's first withdrawal under a key, then its bucket emptied
+        long id = accountService.createAccount(new AccountDto(0, "Erika Mustermann", Money.of("100.00"))).getId();
+        mockMvc.perform(withdraw(id, "replay-0").header(IdempotencyStore.HEADER, "withdraw-once"))
+                .andExpect(status().isOk());
+        for (int i = 1; i < 5; i++) {
+            mockMvc.perform(withdraw(id, "replay-" + i)).andExpect(status().isOk());
+        }
+        mockMvc.perform(withdraw(id, "replay-5")).andExpect(status().isTooManyRequests());
+
+        // When / Then: the client's retry is answered from the stored response
+        mockMvc.perform(withdraw(id, "replay-0").header(IdempotencyStore.HEADER, "withdraw-once"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(99.00));
+        assertEquals(Money.of("95.00"), accountService.getAccountById(id).getBalance());
+    }
+
+    @Test
+    public void testTransferWithoutSourceAccountAnswers400() throws Exception {
+        mockMvc.perform(post("/api/accounts/transfer").header("X-Client-Id", "no-source")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"toAccountId\":1,\"amount\":1.00}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("BAD_REQUEST"));
+    }
+
+    @Test
+    public void testShedsWith503AtTheConcurrencyLimit() throws Exception {
+        // Given: every slot taken by requests still running
+        long id = accountService.createAccount(new AccountDto(0, "Erika Mustermann", Money.ZERO)).getId();
+        int limit = concurrencyLimiter.getLimit();
+        long[] started = new long[limit];
+        for (int i = 0; i < limit; i++) {
+            started[i] = concurrencyLimiter.tryAcquire();
+        }
+
+        // When / Then
+        try {
+            deposit(id, "shed-me")
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                    .andExpect(jsonPath("$.errorCode").value("SERVICE_UNAVAILABLE"));
+        } finally {
+            for (long start : started) {
+                concurrencyLimiter.release(start);
+            }
+        }
+        deposit(id, "shed-me").andExpect(status().isOk());
+    }
+
+    private MockHttpServletRequestBuilder withdraw(long id, String client) {
+        return put("/api/accounts/" + id + "/withdraw").header("X-Client-Id", client)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"amount\":1.00}");
+    }
+
+    private ResultActions deposit(long id, String client) throws Exception {
+        return mockMvc.perform(put("/api/accounts/" + id + "/deposit").header("X-Client-Id", client)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"amount\":1.00}"));
+    }
+}
@@ -0,0 +1,162 @@
+package com.banking.banking.app.ratelimit;
+
+import com.banking.banking.app.BankingAppApplication;
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.service.AccountService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Latency of well-behaved clients while one client floods the deposit endpoint, with admission
+ * control off and on. Each polite client sends one deposit every PACE_MILLIS to its own account;
+ * the flooder runs FLOOD_THREADS closed loops under one client id against another account.
+ * Run with: mvn test -Pperf -Dtest=RateLimitLoadTest
+ */
+@Tag("perf")
+public class RateLimitLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitLoadTest.class);
+
+    private static final int POLITE_CLIENTS = 8;
+
+    private static final long PACE_MILLIS = 100;
+
+    private static final int FLOOD_THREADS = 64;
+
+    private static final long PHASE_SECONDS = 10;
+
+    @Test
+    public void testPoliteP99UnderFlood() throws Exception {
+        run("limiter off", false);
+        run("limiter on", true);
+    }
+
+    private void run(String label, boolean limited) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BankingAppApplication.class)
+                // arguments, not default properties, so they override the test application.properties
+                .run("--server.port=0",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.datasource.hikari.maximum-pool-size=4",
+                        "--spring.datasource.url=jdbc:h2:mem:rate_limit_load_" + limited + ";DB_CLOSE_DELAY=-1",
+                        "--banking.ratelimit.enabled=" + limited,
+                        "--banking.shedding.enabled=" + limited)) {
+            AccountService accountService = context.getBean(AccountService.class);
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/accounts/";
+            long[] politeAccounts = new long[POLITE_CLIENTS];
+            for (int c = 0; c < POLITE_CLIENTS; c++) {
+                politeAccounts[c] = accountService.createAccount(new AccountDto(0, "Polite " + c, Money.ZERO)).getId();
+            }
+            long floodAccount = accountService.createAccount(new AccountDto(0, "Flooder", Money.ZERO)).getId();
+            HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newFixedThreadPool(8)).build();
+
+            List<Long> quiet = politePhase(http, base, politeAccounts, null);
+
+            Map<Integer, LongAdder> floodStatuses = new ConcurrentHashMap<>();
+            List<Long> flooded = politePhase(http, base, politeAccounts,
+                    () -> flood(http, base + floodAccount + "/deposit", floodStatuses));
+
+            log.info(String.format("%-11s polite p50 %6.1f ms, p99 %7.1f ms quiet | p50 %6.1f ms, p99 %7.1f ms under flood | flooder %s",
+                    label, percentile(quiet, 0.50), percentile(quiet, 0.99),
+                    percentile(flooded, 0.50), percentile(flooded, 0.99), floodStatuses));
+        }
+    }
+
+    // Latencies of the polite clients' successful deposits, while background runs on FLOOD_THREADS threads
+    private List<Long> politePhase(HttpClient http, String base, long[] accounts, Runnable background) throws Exception {
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger failures = new AtomicInteger();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(PHASE_SECONDS);
+        ExecutorService executor = Executors.newFixedThreadPool(POLITE_CLIENTS + (background == null ? 0 : FLOOD_THREADS));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            if (background != null) {
+                for (int t = 0; t < FLOOD_THREADS; t++) {
+                    futures.add(executor.submit(() -> {
+                        while (System.nanoTime() < deadline) {
+                            background.run();
+                        }
+                    }));
+                }
+            }
+            for (int c = 0; c < POLITE_CLIENTS; c++) {
+                int client = c;
+                futures.add(executor.submit(() -> {
+                    URI uri = URI.create(base + accounts[client] + "/deposit");
+                    long next = System.nanoTime();
+                    while (next < deadline) {
+                        LockSupport.parkNanos(next - System.nanoTime());
+                        long began = System.nanoTime();
+                        int status = send(http, uri, "polite-" + client);
+                        if (status == 200) {
+                            latencies.add(System.nanoTime() - began);
+                        } else {
+                            failures.incrementAndGet();
+                        }
+                        next += TimeUnit.MILLISECONDS.toNanos(PACE_MILLIS);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertFalse(latencies.isEmpty());
+        if (failures.get() > 0) {
+            log.info(String.format("%d polite deposits failed", failures.get()));
+        }
+        return latencies;
+    }
+
+    private void flood(HttpClient http, String uri, Map<Integer, LongAdder> statuses) {
+        int status = send(http, URI.create(uri), "flooder");
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    private static int send(HttpClient http, URI uri, String client) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .header("X-Client-Id", client)
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"amount\":1.00}"))
+                    .build();
+            return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static double percentile(List<Long> latencies, double percentile) {
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return sorted.get(Math.max(0, (int) Math.ceil(sorted.size() * percentile) - 1)) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,88 @@
+package com.banking.banking.app.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    @Test
+    public void testBurstThenRefillAtRate() {
+        // Given: 10 tokens per second, bursts of 3
+        TokenBucketLimiter<String> limiter = new TokenBucketLimiter<>(10, 3, 100, Duration.ofMinutes(1), now::get);
+
+        // When / Then: a full bucket grants the burst, then reports when the next token is earned
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("b"));
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+
+        // idle time refills up to the burst, never beyond it
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("a"));
+        }
+        assertTrue(limiter.tryAcquire("a") > 0);
+    }
+
+    @Test
+    public void testConcurrentCallersShareOneBurst() throws Exception {
+        // Given: a frozen clock, so only the burst can be granted
+        TokenBucketLimiter<String> limiter = new TokenBucketLimiter<>(1, 50, 100, Duration.ofMinutes(1), now::get);
+        AtomicInteger granted = new AtomicInteger();
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int n = 0; n < 100; n++) {
+                        if (limiter.tryAcquire("hot") == 0) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Then
+        assertEquals(50, granted.get());
+    }
+
+    @Test
+    public void testKeysAreBounded() {
+        // Given
+        TokenBucketLimiter<Integer> limiter = new TokenBucketLimiter<>(1, 1, 1_000, Duration.ofMinutes(1), now::get);
+
+        // When: one new key per call, as from a client rotating its ids
+        for (int key = 0; key < 100_000; key++) {
+            limiter.tryAcquire(key);
+        }
+
+        // Then
+        assertTrue(limiter.size() <= 2_000, () -> "kept " + limiter.size() + " buckets");
+    }
+}
@@ -0,0 +1,163 @@
+package com.banking.banking.app.routing;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.metrics.BankingMetrics;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.service.AccountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "banking.datasource.routing.enabled=true",
+        "banking.datasource.routing.sticky-window=500ms",
+        "banking.datasource.replica.url=jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1"})
+@AutoConfigureMockMvc
+public class ReadWriteRoutingTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testReadsGoToReplicaAndWritesToPrimary() throws Exception {
+        // Given: the replica has caught up, then diverges so reads show where they came from
+        long id = accountService.createAccount(new AccountDto(0, "Routed Holder", Money.of("100.00"))).getId();
+        replicate();
+        new JdbcTemplate(replicaDataSource).update("update accounts set balance = 999.00 where id = ?", id);
+        long replicaCalls = calls("replica", false);
+
+        // When
+        mockMvc.perform(get("/api/accounts/" + id).header("X-Client-Id", "reader"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(999.00));
+        mockMvc.perform(get("/api/accounts/" + id + "/transactions").header("X-Client-Id", "reader"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+        accountService.deposit(id, Money.of("50.00"));
+
+        // Then
+        assertEquals(0, new BigDecimal("150.00").compareTo(balance(primaryDataSource, id)));
+        assertEquals(0, new BigDecimal("999.00").compareTo(balance(replicaDataSource, id)));
+        assertTrue(calls("replica", false) >= replicaCalls + 2);
+        assertTrue(calls("primary", false) >= 2);
+        assertNotNull(meterRegistry.find("hikaricp.connections.usage").tag("pool", "replica").timer());
+        assertNotNull(meterRegistry.find("hikaricp.connections.usage").tag("pool", "primary").timer());
+    }
+
+    @Test
+    public void testClientReadsItsOwnWritesWithinStickyWindow() throws Exception {
+        // Given
+        long id = accountService.createAccount(new AccountDto(0, "Sticky Holder", Money.of("100.00"))).getId();
+        replicate();
+
+        // When: the writer deposits; the replica has not seen it yet
+        mockMvc.perform(put("/api/accounts/" + id + "/deposit")
+                        .header("X-Client-Id", "writer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\": 25.00}"))
+                .andExpect(status().isOk());
+
+        // Then: the writer reads the primary, everybody else the replica
+        mockMvc.perform(get("/api/accounts/" + id).header("X-Client-Id", "other"))
+                .andExpect(jsonPath("$.balance").value(100.00));
+        mockMvc.perform(get("/api/accounts/" + id).header("X-Client-Id", "writer"))
+                .andExpect(jsonPath("$.balance").value(125.00));
+        mockMvc.perform(get("/api/accounts").header("X-Client-Id", "writer"))
+                .andExpect(status().isOk());
+        assertTrue(calls("primary", true) >= 2);
+
+        // and after the window, the writer is back on the replica
+        Thread.sleep(700);
+        replicate();
+        mockMvc.perform(get("/api/accounts/" + id + "/transactions").header("X-Client-Id", "writer"))
+                .andExpect(jsonPath("$.length()").value(2));
+        new JdbcTemplate(replicaDataSource).update("update accounts set balance = 999.00 where id = ?", id);
+        mockMvc.perform(get("/api/accounts?limit=500").header("X-Client-Id", "writer"))
+                .andExpect(jsonPath("$.accounts[?(@.id == " + id + ")].balance").value(999.00));
+    }
+
+    @Test
+    public void testReplicaReadAfterWriteIsNotCachedForTheWriter() throws Exception {
+        // Given
+        long id = accountService.createAccount(new AccountDto(0, "Fenced Holder", Money.of("100.00"))).getId();
+        replicate();
+
+        // When: the writer deposits, and another client reads the lagging replica right after
+        mockMvc.perform(put("/api/accounts/" + id + "/deposit")
+                        .header("X-Client-Id", "writer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\": 25.00}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/accounts/" + id).header("X-Client-Id", "other"))
+                .andExpect(jsonPath("$.balance").value(100.00));
+
+        // Then: once the window is over and the replica has caught up, the writer does not get
+        // the other client's stale read back from the cache
+        Thread.sleep(700);
+        replicate();
+        mockMvc.perform(get("/api/accounts/" + id).header("X-Client-Id", "writer"))
+                .andExpect(jsonPath("$.balance").value(125.00));
+        mockMvc.perform(get("/api/accounts/" + id).header("X-Client-Id", "other"))
+                .andExpect(jsonPath("$.balance").value(125.00));
+    }
+
+    // Stands in for replication: copies the primary's schema and rows to the replica
+    private void replicate() throws IOException {
+        Path script = Files.createTempFile("replicate", ".sql");
+        try {
+            new JdbcTemplate(primaryDataSource).execute("script to '" + script + "'");
+            JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+            replica.execute("drop all objects");
+            replica.execute("runscript from '" + script + "'");
+        } finally {
+            Files.deleteIfExists(script);
+        }
+    }
+
+    private static BigDecimal balance(DataSource dataSource, long id) {
+        return new JdbcTemplate(dataSource).queryForObject("select balance from accounts where id = ?", BigDecimal.class, id);
+    }
+
+    private long calls(String pool, boolean pinned) {
+        Timer timer = meterRegistry.find(BankingMetrics.DATASOURCE_CALLS)
+                .tag("pool", pool)
+                .tag("pinned", String.valueOf(pinned))
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
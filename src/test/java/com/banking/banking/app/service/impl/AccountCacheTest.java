@@ -0,0 +1,63 @@
+package com.banking.banking.app.service.impl;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.dto.TransferFundDto;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.service.AccountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class AccountCacheTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testGetAccountById_ReadThroughAndInvalidatedByWrites() {
+        Cache cache = cacheManager.getCache(AccountServiceImpl.ACCOUNTS_CACHE);
+        long from = accountService.createAccount(new AccountDto(0, "John Doe", Money.of("500.00"))).getId();
+        long to = accountService.createAccount(new AccountDto(0, "Jane Doe", Money.of("100.00"))).getId();
+
+        accountService.getAccountById(from);
+        assertNotNull(cache.get(from));
+
+        accountService.deposit(from, Money.of("50.00"));
+        assertNull(cache.get(from));
+        assertEquals(Money.of("550.00"), accountService.getAccountById(from).getBalance());
+
+        accountService.withdraw(from, Money.of("25.00"));
+        assertEquals(Money.of("525.00"), accountService.getAccountById(from).getBalance());
+
+        accountService.getAccountById(to);
+        accountService.transferFunds(new TransferFundDto(from, to, Money.of("100.00")));
+        assertEquals(Money.of("425.00"), accountService.getAccountById(from).getBalance());
+        assertEquals(Money.of("200.00"), accountService.getAccountById(to).getBalance());
+
+        accountService.deleteAccount(to);
+        assertNull(cache.get(to));
+    }
+
+    @Test
+    public void testCacheMetricsExported() {
+        long id = accountService.createAccount(new AccountDto(0, "John Doe", Money.of("500.00"))).getId();
+        accountService.getAccountById(id);
+        accountService.getAccountById(id);
+
+        assertTrue(meterRegistry.get("cache.gets").tag("cache", AccountServiceImpl.ACCOUNTS_CACHE)
+                .tag("result", "hit").functionCounter().count() >= 1);
+        assertNotNull(meterRegistry.get("cache.evictions").tag("cache", AccountServiceImpl.ACCOUNTS_CACHE).functionCounter());
+    }
+}
@@ -0,0 +1,74 @@
+package com.banking.banking.app.service.impl;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.service.AccountService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Run with: mvn test -Pperf
+@Tag("perf")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:account_listing;DB_CLOSE_DELAY=-1;LAZY_QUERY_EXECUTION=1")
+public class AccountListingHeapTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountListingHeapTest.class);
+
+    private static final int ACCOUNTS = 200_000;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testHeapRetainedByListVersusStream() {
+        List<Object[]> rows = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            rows.add(new Object[]{"Holder " + i, (double) i});
+        }
+        jdbcTemplate.batchUpdate("insert into accounts (account_holder_name, balance) values (?, ?)", rows);
+        rows = null;
+
+        // warm up both paths so database and Hibernate caches are not counted as retained
+        accountService.getAllAccounts();
+        accountService.streamAllAccounts(account -> { });
+
+        long listBaseline = usedHeapAfterGc();
+        List<AccountDto> all = accountService.getAllAccounts();
+        long listRetained = usedHeapAfterGc() - listBaseline;
+        assertEquals(ACCOUNTS, all.size());
+        all = null;
+
+        long streamBaseline = usedHeapAfterGc();
+        AtomicLong streamed = new AtomicLong();
+        AtomicLong streamRetained = new AtomicLong();
+        accountService.streamAllAccounts(account -> {
+            if (streamed.incrementAndGet() == ACCOUNTS / 2) {
+                streamRetained.set(usedHeapAfterGc() - streamBaseline);
+            }
+        });
+        assertEquals(ACCOUNTS, streamed.get());
+
+        log.info(String.format("getAllAccounts list: %,d KB retained for %,d accounts", listRetained / 1024, ACCOUNTS));
+        log.info(String.format("streamAllAccounts:   %,d KB retained mid-stream", streamRetained.get() / 1024));
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -1,17 +1,40 @@
 package com.banking.banking.app.service.impl;
 
 import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.dto.AccountSliceDto;
+import com.banking.banking.app.dto.StatementDto;
+import com.banking.banking.app.dto.TransactionPageDto;
 import com.banking.banking.app.dto.TransferFundDto;
 import com.banking.banking.app.entity.Account;
+import com.banking.banking.app.entity.DailyRollup;
+import com.banking.banking.app.entity.Transaction;
 import com.banking.banking.app.exception.AccountException;
 import com.banking.banking.app.exception.InsufficientFundsException;
+import com.banking.banking.app.hotaccount.BalanceSlots;
+import com.banking.banking.app.ledger.LedgerWriter;
+import com.banking.banking.app.metrics.BankingMetrics;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.outbox.AccountOutbox;
 import com.banking.banking.app.repository.AccountRepository;
+import com.banking.banking.app.repository.DailyRollupRepository;
+import com.banking.banking.app.repository.TransactionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-
+import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -23,6 +46,31 @@ public class AccountServiceImplTest {
     @Mock
     private AccountRepository accountRepository;
 
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private DailyRollupRepository dailyRollupRepository;
+
+    @Mock
+    private LedgerWriter ledgerWriter;
+
+    @Mock
+    private AccountOutbox accountOutbox;
+
+    @Mock
+    private BalanceSlots balanceSlots;
+
+    @Mock
+    private BankingMetrics bankingMetrics;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private OptimisticRetryPolicy optimisticRetryPolicy = new OptimisticRetryPolicy(
+            TransactionOperations.withoutTransaction(), mock(BankingMetrics.class), 3, 0, 0, 3, Duration.ofSeconds(10));
+
     @InjectMocks
     private AccountServiceImpl accountServiceImpl;
 
@@ -34,11 +82,11 @@ public class AccountServiceImplTest {
     @Test
     public void testCreateAccount() {
         // Given
-        AccountDto accountDto = new AccountDto(1L, "John Doe", 500.0);
+        AccountDto accountDto = new AccountDto(1L, "John Doe", Money.of("500.00"));
         Account account = new Account();
         account.setId(1L);
         account.setAccountHolderName("John Doe");
-        account.setBalance(500.0);
+        account.setBalance(50000);
 
         when(accountRepository.save(any(Account.class))).thenReturn(account);
 
@@ -49,7 +97,7 @@ public class AccountServiceImplTest {
         assertNotNull(createdAccount);
         assertEquals(1L, createdAccount.getId());
         assertEquals("John Doe", createdAccount.getAccountHolderName());
-        assertEquals(500.0, createdAccount.getBalance());
+        assertEquals(Money.of("500.00"), createdAccount.getBalance());
         verify(accountRepository, times(1)).save(any(Account.class));
     }
 
@@ -60,9 +108,9 @@ public class AccountServiceImplTest {
         Account account = new Account();
         account.setId(accountId);
         account.setAccountHolderName("John Doe");
-        account.setBalance(500.0);
+        account.setBalance(50000);
 
-        AccountDto expectedAccountDto = new AccountDto(accountId, "John Doe", 500.0);
+        AccountDto expectedAccountDto = new AccountDto(accountId, "John Doe", Money.of("500.00"));
         when(accountRepository.findById(accountId)).thenReturn(Optional.of(account));
 
         // When
@@ -72,7 +120,7 @@ public class AccountServiceImplTest {
         assertNotNull(accountDto);
         assertEquals(1L, accountDto.getId());
         assertEquals("John Doe", accountDto.getAccountHolderName());
-        assertEquals(500.0, accountDto.getBalance());
+        assertEquals(Money.of("500.00"), accountDto.getBalance());
         verify(accountRepository, times(1)).findById(accountId);
     }
 
@@ -80,56 +128,83 @@ public class AccountServiceImplTest {
     public void testDeposit_AccountExists() {
         // Given
         Long accountId = 1L;
-        double depositAmount = 100.0;
-        Account account = new Account();
-        account.setId(accountId);
-        account.setAccountHolderName("John Doe");
-        account.setBalance(500.0);
-
-        Account updatedAccount = new Account();
-        updatedAccount.setId(accountId);
-        updatedAccount.setAccountHolderName("John Doe");
-        updatedAccount.setBalance(600.0);
+        Money depositAmount = Money.of("100.00");
 
-        when(accountRepository.findById(accountId)).thenReturn(Optional.of(account));
-        when(accountRepository.save(account)).thenReturn(updatedAccount);
+        when(accountRepository.addToBalance(accountId, 10000)).thenReturn(1);
+        when(accountRepository.findAsDtoById(accountId)).thenReturn(Optional.of(new AccountDto(accountId, "John Doe", 60000)));
 
         // When
         AccountDto updatedAccountDto = accountServiceImpl.deposit(accountId, depositAmount);
 
         // Then
         assertNotNull(updatedAccountDto);
-        assertEquals(600.0, updatedAccountDto.getBalance());
-        verify(accountRepository, times(1)).findById(accountId);
-        verify(accountRepository, times(1)).save(account);
+        assertEquals(Money.of("600.00"), updatedAccountDto.getBalance());
+        verify(accountRepository, times(1)).addToBalance(accountId, 10000);
+        verify(accountRepository, never()).findById(any());
+        verify(accountRepository, never()).save(any(Account.class));
+        verify(ledgerWriter, times(1)).append(any(Transaction.class));
+    }
+
+    @Test
+    public void testDeposit_AccountNotFound() {
+        when(accountRepository.addToBalance(9L, 10000)).thenReturn(0);
+
+        assertThrows(AccountException.class, () -> accountServiceImpl.deposit(9L, Money.of("100.00")));
+        verify(ledgerWriter, never()).append(any(Transaction.class));
     }
 
     @Test
     public void testWithdraw_AccountExists() {
         // Given
         Long accountId = 1L;
-        double withdrawAmount = 50.0;
-        Account account = new Account();
-        account.setId(accountId);
-        account.setAccountHolderName("John Doe");
-        account.setBalance(500.0);
-
-        Account updatedAccount = new Account();
-        updatedAccount.setId(accountId);
-        updatedAccount.setAccountHolderName("John Doe");
-        updatedAccount.setBalance(450.0);
+        Money withdrawAmount = Money.of("50.00");
 
-        when(accountRepository.findById(accountId)).thenReturn(Optional.of(account));
-        when(accountRepository.save(account)).thenReturn(updatedAccount);
+        when(accountRepository.subtractFromBalance(accountId, 5000)).thenReturn(1);
+        when(accountRepository.findAsDtoById(accountId)).thenReturn(Optional.of(new AccountDto(accountId, "John Doe", 45000)));
 
         // When
         AccountDto updatedAccountDto = accountServiceImpl.withdraw(accountId, withdrawAmount);
 
         // Then
         assertNotNull(updatedAccountDto);
-        assertEquals(450.0, updatedAccountDto.getBalance());
-        verify(accountRepository, times(1)).findById(accountId);
-        verify(accountRepository, times(1)).save(account);
+        assertEquals(Money.of("450.00"), updatedAccountDto.getBalance());
+        verify(accountRepository, times(1)).subtractFromBalance(accountId, 5000);
+        verify(accountRepository, never()).save(any(Account.class));
+    }
+
+    @Test
+    public void testWithdraw_InsufficientFundsFromAffectedRowCount() {
+        // Given: the guarded update matched no row, but the account exists
+        Long accountId = 1L;
+        when(accountRepository.subtractFromBalance(accountId, 100000)).thenReturn(0);
+        when(accountRepository.existsById(accountId)).thenReturn(true);
+
+        // When & Then
+        AccountException e = assertThrows(AccountException.class,
+                () -> accountServiceImpl.withdraw(accountId, Money.of("1000.00")));
+        assertEquals("Insufficient amount", e.getMessage());
+        verify(bankingMetrics, times(1)).insufficientFunds("withdraw");
+        verify(ledgerWriter, never()).append(any(Transaction.class));
+    }
+
+    @Test
+    public void testTransferFunds_RetriedAfterVersionConflict() {
+        // Given: the first flush loses the race against another writer
+        Account staleFrom = new Account(1L, "John Doe", 50000);
+        Account freshFrom = new Account(1L, "John Doe", 70000);
+        Account to = new Account(2L, "Jane Doe", 0);
+
+        when(accountRepository.findById(1L)).thenReturn(Optional.of(staleFrom), Optional.of(freshFrom));
+        when(accountRepository.findById(2L)).thenReturn(Optional.of(to));
+        doThrow(new ObjectOptimisticLockingFailureException(Account.class, 1L)).doNothing().when(accountRepository).flush();
+
+        // When
+        accountServiceImpl.transferFunds(new TransferFundDto(1L, 2L, Money.of("100.00")));
+
+        // Then: applied to the re-read balance and both legs logged once
+        assertEquals(60000, freshFrom.getBalance());
+        verify(accountRepository, times(2)).findById(1L);
+        verify(ledgerWriter, times(2)).append(any(Transaction.class));
     }
 
     @Test
@@ -137,15 +212,15 @@ public class AccountServiceImplTest {
         // Given
         Long fromAccountId = 1L;
         Long toAccountId = 2L;
-        double transferAmount = 100.0;
+        Money transferAmount = Money.of("100.00");
 
         Account fromAccount = new Account();
         fromAccount.setId(fromAccountId);
-        fromAccount.setBalance(500.0);
+        fromAccount.setBalance(50000);
 
         Account toAccount = new Account();
         toAccount.setId(toAccountId);
-        toAccount.setBalance(200.0);
+        toAccount.setBalance(20000);
 
         TransferFundDto transferFundDto = new TransferFundDto(fromAccountId, toAccountId, transferAmount);
 
@@ -156,8 +231,8 @@ public class AccountServiceImplTest {
         accountServiceImpl.transferFunds(transferFundDto);
 
         // Then
-        assertEquals(400.0, fromAccount.getBalance());
-        assertEquals(300.0, toAccount.getBalance());
+        assertEquals(40000, fromAccount.getBalance());
+        assertEquals(30000, toAccount.getBalance());
         verify(accountRepository, times(1)).save(fromAccount);
         verify(accountRepository, times(1)).save(toAccount);
     }
@@ -167,7 +242,7 @@ public class AccountServiceImplTest {
         // Given
         Long fromAccountId = 1L;
         Long toAccountId = 2L;
-        double transferAmount = 100.0;
+        Money transferAmount = Money.of("100.00");
 
         TransferFundDto transferFundDto = new TransferFundDto(fromAccountId, toAccountId, transferAmount);
 
@@ -183,11 +258,11 @@ public class AccountServiceImplTest {
         // Given
         Long fromAccountId = 1L;
         Long toAccountId = 2L;
-        double transferAmount = 100.0;
+        Money transferAmount = Money.of("100.00");
 
         Account fromAccount = new Account();
         fromAccount.setId(fromAccountId);
-        fromAccount.setBalance(500.0);
+        fromAccount.setBalance(50000);
 
         TransferFundDto transferFundDto = new TransferFundDto(fromAccountId, toAccountId, transferAmount);
 
@@ -204,15 +279,15 @@ public class AccountServiceImplTest {
         // Given
         Long fromAccountId = 1L;
         Long toAccountId = 2L;
-        double transferAmount = 600.0;
+        Money transferAmount = Money.of("600.00");
 
         Account fromAccount = new Account();
         fromAccount.setId(fromAccountId);
-        fromAccount.setBalance(500.0);
+        fromAccount.setBalance(50000);
 
         Account toAccount = new Account();
         toAccount.setId(toAccountId);
-        toAccount.setBalance(200.0);
+        toAccount.setBalance(20000);
 
         TransferFundDto transferFundDto = new TransferFundDto(fromAccountId, toAccountId, transferAmount);
 
@@ -220,12 +295,23 @@ public class AccountServiceImplTest {
         when(accountRepository.findById(toAccountId)).thenReturn(Optional.of(toAccount));
 
         // When & Then
-//        assertThrows(InsufficientFundsException.class, () -> {
-//            accountServiceImpl.transferFunds(transferFundDto);
-//        });
-//        assertEquals(500.0, fromAccount.getBalance());
-//        assertEquals(200.0, toAccount.getBalance());
-//        verify(accountRepository, never()).save(any(Account.class));
+        AccountException e = assertThrows(AccountException.class,
+                () -> accountServiceImpl.transferFunds(transferFundDto));
+        assertEquals("Insufficient amount", e.getMessage());
+        assertEquals(50000, fromAccount.getBalance());
+        assertEquals(20000, toAccount.getBalance());
+        verify(accountRepository, never()).save(any(Account.class));
+        verify(bankingMetrics, times(1)).insufficientFunds("transfer");
+    }
+
+    @Test
+    public void testNegativeAmountsRejected() {
+        // When & Then: none of them reaches the repository
+        assertThrows(IllegalArgumentException.class, () -> accountServiceImpl.deposit(1L, Money.of("-1.00")));
+        assertThrows(IllegalArgumentException.class, () -> accountServiceImpl.withdraw(1L, Money.of("-1.00")));
+        assertThrows(IllegalArgumentException.class,
+                () -> accountServiceImpl.transferFunds(new TransferFundDto(1L, 2L, Money.of("-1.00"))));
+        verifyNoInteractions(accountRepository);
     }
 
     @Test
@@ -233,15 +319,15 @@ public class AccountServiceImplTest {
         // Given
         Long fromAccountId = 1L;
         Long toAccountId = 2L;
-        double transferAmount = 0.0;
+        Money transferAmount = Money.of("0.00");
 
         Account fromAccount = new Account();
         fromAccount.setId(fromAccountId);
-        fromAccount.setBalance(500.0);
+        fromAccount.setBalance(50000);
 
         Account toAccount = new Account();
         toAccount.setId(toAccountId);
-        toAccount.setBalance(200.0);
+        toAccount.setBalance(20000);
 
         TransferFundDto transferFundDto = new TransferFundDto(fromAccountId, toAccountId, transferAmount);
 
@@ -252,8 +338,108 @@ public class AccountServiceImplTest {
         accountServiceImpl.transferFunds(transferFundDto);
 
         // Then
-        assertEquals(500.0, fromAccount.getBalance());
-        assertEquals(200.0, toAccount.getBalance());
+        assertEquals(50000, fromAccount.getBalance());
+        assertEquals(20000, toAccount.getBalance());
         verify(accountRepository, never()).save(any(Account.class));
     }
+
+    @Test
+    public void testGetAccountTransactions_KeysetPaging() {
+        // Given
+        Long accountId = 1L;
+        LocalDateTime now = LocalDateTime.of(2024, 9, 1, 12, 0);
+        Transaction newest = new Transaction(12L, accountId, "DEPOSIT", 1000, now);
+        Transaction older = new Transaction(11L, accountId, "WITHDRAW", 500, now.minusMinutes(1));
+        Transaction oldest = new Transaction(10L, accountId, "DEPOSIT", 100, now.minusMinutes(2));
+
+        when(transactionRepository.findByAccountIdOrderByTimestampDescIdDesc(accountId, Limit.of(2)))
+                .thenReturn(List.of(newest, older));
+        when(transactionRepository.findPageAfter(accountId, older.getTimestamp(), 11L, Limit.of(2)))
+                .thenReturn(List.of(oldest));
+
+        // When
+        TransactionPageDto firstPage = accountServiceImpl.getAccountTransactions(accountId, null, 2);
+        TransactionPageDto lastPage = accountServiceImpl.getAccountTransactions(accountId, firstPage.nextCursor(), 2);
+
+        // Then
+        assertEquals(2, firstPage.transactions().size());
+        assertNotNull(firstPage.nextCursor());
+        assertEquals(1, lastPage.transactions().size());
+        assertEquals(10L, lastPage.transactions().get(0).id());
+        assertNull(lastPage.nextCursor());
+    }
+
+    @Test
+    public void testGetAccountTransactions_InvalidCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> accountServiceImpl.getAccountTransactions(1L, "not-a-cursor", 10));
+        verify(transactionRepository, never()).findPageAfter(any(), any(), any(), any());
+    }
+
+    @Test
+    public void testGetAllAccounts_KeysetCursor() {
+        // Given
+        when(accountRepository.findAllAsDtoAfter(0L, Limit.of(2)))
+                .thenReturn(List.of(new AccountDto(1L, "John Doe", Money.of("500.00")), new AccountDto(4L, "Jane Doe", Money.of("20.00"))));
+        when(accountRepository.findAllAsDtoAfter(4L, Limit.of(2)))
+                .thenReturn(List.of(new AccountDto(7L, "Max Doe", Money.of("0.00"))));
+
+        // When
+        AccountSliceDto firstPage = accountServiceImpl.getAllAccounts(null, 2);
+        AccountSliceDto lastPage = accountServiceImpl.getAllAccounts(firstPage.nextCursor(), 2);
+
+        // Then
+        assertEquals("4", firstPage.nextCursor());
+        assertEquals(1, lastPage.accounts().size());
+        assertNull(lastPage.nextCursor());
+        verify(accountRepository, never()).findAll();
+    }
+
+    @Test
+    public void testGetAllAccounts_UnknownSortProperty() {
+        assertThrows(IllegalArgumentException.class,
+                () -> accountServiceImpl.getAllAccounts(PageRequest.of(0, 20, Sort.by("password"))));
+        verify(accountRepository, never()).findAllAsDto(any());
+    }
+
+    @Test
+    public void testGetStatement_FromRollupsAddingUpSlots() {
+        // Given
+        LocalDate from = LocalDate.of(2024, 3, 1);
+        LocalDate to = LocalDate.of(2024, 3, 31);
+        when(accountRepository.existsById(1L)).thenReturn(true);
+        when(dailyRollupRepository.findByAccountIdAndBookingDateBetweenOrderByBookingDate(1L, from, to))
+                .thenReturn(List.of(new DailyRollup(1L, LocalDate.of(2024, 3, 5), 0, 1, 10000, 1, 2500, 0, 0, 0, 0),
+                        new DailyRollup(1L, LocalDate.of(2024, 3, 5), 3, 1, 5000, 0, 0, 0, 0, 0, 0)));
+
+        // When
+        StatementDto statement = accountServiceImpl.getStatement(1L, from, to);
+
+        // Then
+        assertEquals("2024-03-01", statement.from());
+        assertEquals("2024-03-31", statement.to());
+        assertEquals(1, statement.days().size());
+        assertEquals("2024-03-05", statement.days().get(0).date());
+        assertEquals(2, statement.days().get(0).depositCount());
+        assertEquals(Money.of("150.00"), statement.days().get(0).depositAmount());
+        assertEquals(Money.of("25.00"), statement.days().get(0).withdrawAmount());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    public void testGetStatement_InvalidRange() {
+        assertThrows(IllegalArgumentException.class,
+                () -> accountServiceImpl.getStatement(1L, LocalDate.of(2024, 3, 2), LocalDate.of(2024, 3, 1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> accountServiceImpl.getStatement(1L, LocalDate.of(2020, 1, 1), LocalDate.of(2024, 1, 1)));
+        verifyNoInteractions(dailyRollupRepository);
+    }
+
+    @Test
+    public void testGetStatement_AccountNotFound() {
+        when(accountRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(AccountException.class, () -> accountServiceImpl.getStatement(1L, null, null));
+        verifyNoInteractions(dailyRollupRepository);
+    }
 }
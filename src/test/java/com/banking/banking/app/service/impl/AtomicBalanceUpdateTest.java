@@ -0,0 +1,106 @@
+package com.banking.banking.app.service.impl;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.exception.AccountException;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.repository.AccountRepository;
+import com.banking.banking.app.service.AccountService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:atomic_balance;DB_CLOSE_DELAY=-1"
+})
+public class AtomicBalanceUpdateTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void testDepositAndWithdraw_NoEntityLoadOrDirtyCheck() {
+        // Given
+        long id = accountService.createAccount(new AccountDto(0, "John Doe", Money.of("100.00"))).getId();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // When
+        statistics.clear();
+        AccountDto deposited = null;
+        for (int n = 0; n < 10; n++) {
+            deposited = accountService.deposit(id, Money.of("2.50"));
+        }
+        long depositStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        AccountDto withdrawn = null;
+        for (int n = 0; n < 10; n++) {
+            withdrawn = accountService.withdraw(id, Money.of("0.50"));
+        }
+        long withdrawStatements = statistics.getPrepareStatementCount();
+
+        // Then: Hibernate only inserts the ledger rows, plus the pooled sequence fetches (two on first
+        // use, then one per 50 rows); the balance UPDATE and the response read are plain JDBC
+        assertEquals(Money.of("125.00"), deposited.getBalance());
+        assertEquals(Money.of("120.00"), withdrawn.getBalance());
+        assertTrue(depositStatements <= 10 + 2, "statements: " + depositStatements);
+        assertTrue(withdrawStatements <= 10 + 2, "statements: " + withdrawStatements);
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getEntityUpdateCount());
+    }
+
+    @Test
+    public void testConcurrentWithdrawals_GuardNeverOverdraws() throws Exception {
+        // Given: ten withdrawals' worth of funds and eighty attempts
+        long id = accountService.createAccount(new AccountDto(0, "John Doe", Money.of("10.00"))).getId();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch done = new CountDownLatch(16);
+        for (int t = 0; t < 16; t++) {
+            executor.execute(() -> {
+                for (int n = 0; n < 5; n++) {
+                    try {
+                        accountService.withdraw(id, Money.of("1.00"));
+                        succeeded.incrementAndGet();
+                    } catch (AccountException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(1, TimeUnit.MINUTES));
+        executor.shutdown();
+
+        // Then
+        assertEquals(10, succeeded.get());
+        assertEquals(70, rejected.get());
+        assertEquals(0, accountRepository.findById(id).orElseThrow().getBalance());
+    }
+
+    @Test
+    public void testWithdraw_MissingAccountTellsApartFromInsufficientFunds() {
+        AccountException e = assertThrows(AccountException.class, () -> accountService.withdraw(987_654L, Money.of("1.00")));
+        assertEquals("Account does not exist.", e.getMessage());
+    }
+}
@@ -0,0 +1,177 @@
+package com.banking.banking.app.service.impl;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.dto.TransferFundDto;
+import com.banking.banking.app.hotaccount.BalanceSlots;
+import com.banking.banking.app.ledger.LedgerWriter;
+import com.banking.banking.app.metrics.BankingMetrics;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.outbox.AccountOutbox;
+import com.banking.banking.app.repository.AccountRepository;
+import com.banking.banking.app.repository.DailyRollupRepository;
+import com.banking.banking.app.repository.TransactionRepository;
+import com.banking.banking.app.service.AccountService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(properties = {
+        "banking.contention.hot-threshold=3",
+        "spring.datasource.url=jdbc:h2:mem:optimistic_hammer;DB_CLOSE_DELAY=-1"
+})
+public class OptimisticLockingHammerTest {
+
+    private static final Logger log = LoggerFactory.getLogger(OptimisticLockingHammerTest.class);
+
+    private static final int THREADS = 16;
+    private static final int OPS_PER_THREAD = 50;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private DailyRollupRepository dailyRollupRepository;
+
+    @Autowired
+    private LedgerWriter ledgerWriter;
+
+    @Autowired
+    private AccountOutbox accountOutbox;
+
+    @Autowired
+    private BalanceSlots balanceSlots;
+
+    @Autowired
+    private BankingMetrics bankingMetrics;
+
+    @Autowired
+    private OptimisticRetryPolicy optimisticRetryPolicy;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testConcurrentDepositsAndTransfers_NoLostUpdates() throws Exception {
+        // Given: one hot account that every thread writes to
+        long hot = accountService.createAccount(new AccountDto(0, "Hot", Money.of("0.00"))).getId();
+        long other = accountService.createAccount(new AccountDto(0, "Other", Money.of("10000.00"))).getId();
+
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int n = 0; n < OPS_PER_THREAD; n++) {
+                        if (n % 2 == 0) {
+                            accountService.deposit(hot, Money.of("1.00"));
+                        } else {
+                            accountService.transferFunds(new TransferFundDto(other, hot, Money.of("1.00")));
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        assertTrue(done.await(2, TimeUnit.MINUTES));
+        executor.shutdown();
+
+        // Then: every operation landed exactly once
+        long operations = (long) THREADS * OPS_PER_THREAD;
+        long transfers = operations / 2;
+        assertEquals(operations * 100, accountRepository.findById(hot).orElseThrow().getBalance());
+        assertEquals(1_000_000 - transfers * 100, accountRepository.findById(other).orElseThrow().getBalance());
+
+        log.info("{} operations: {} conflicts, {} retries, {} pessimistic",
+                operations, (long) count("conflict"), (long) count("retry"), (long) count("pessimistic"));
+    }
+
+    @Test
+    public void testStaleReads_RetriedThenHotAccountLocksRows() throws Exception {
+        // Given: a repository that holds the first two reads of the source account of each round
+        // at a barrier, so two transfers always read the same version and exactly one of them conflicts
+        long source = accountService.createAccount(new AccountDto(0, "Source", Money.of("100.00"))).getId();
+        long target = accountService.createAccount(new AccountDto(0, "Target", Money.of("0.00"))).getId();
+        AtomicInteger gatedReads = new AtomicInteger();
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        AccountRepository staleReads = mock(AccountRepository.class, delegatesTo(accountRepository));
+        doAnswer(invocation -> {
+            Object account = accountRepository.findById(source);
+            if (gatedReads.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                barrier.await(10, TimeUnit.SECONDS);
+            }
+            return account;
+        }).when(staleReads).findById(source);
+        AccountService service = new AccountServiceImpl(staleReads, transactionRepository, dailyRollupRepository, ledgerWriter,
+                null, accountOutbox, balanceSlots, bankingMetrics, optimisticRetryPolicy, transactionManager, null);
+        double conflicts = count("conflict");
+        double retries = count("retry");
+        double pessimistic = count("pessimistic");
+
+        // When: one round per conflict the hot threshold (3) needs, then one more transfer
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 3; round++) {
+                gatedReads.set(2);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < 2; t++) {
+                    futures.add(executor.submit(() ->
+                            service.transferFunds(new TransferFundDto(source, target, Money.of("1.00")))));
+                }
+                for (Future<?> future : futures) {
+                    future.get(30, TimeUnit.SECONDS);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(optimisticRetryPolicy.isHot(source));
+        service.transferFunds(new TransferFundDto(source, target, Money.of("1.00")));
+
+        // Then: each round's loser retried, and the hot account went to row locks
+        assertEquals(3, count("conflict") - conflicts);
+        assertEquals(3, count("retry") - retries);
+        assertEquals(1, count("pessimistic") - pessimistic);
+        assertEquals(9300, accountRepository.findById(source).orElseThrow().getBalance());
+        assertEquals(700, accountRepository.findById(target).orElseThrow().getBalance());
+    }
+
+    private double count(String event) {
+        return meterRegistry.find(BankingMetrics.CONTENTION).tag("event", event).counters().stream()
+                .mapToDouble(Counter::count).sum();
+    }
+}
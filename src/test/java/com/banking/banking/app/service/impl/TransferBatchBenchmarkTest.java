@@ -0,0 +1,62 @@
+package com.banking.banking.app.service.impl;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.dto.TransferFundDto;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.service.AccountService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Run with: mvn test -Pperf
+@Tag("perf")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:transfer_batch;DB_CLOSE_DELAY=-1")
+public class TransferBatchBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferBatchBenchmarkTest.class);
+
+    private static final int ACCOUNTS = 500;
+    private static final int TRANSFERS = 5_000;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Test
+    public void testBatchVersusOneByOne() {
+        long[] ids = new long[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            ids[i] = accountService.createAccount(new AccountDto(0, "Holder " + i, Money.of("1000000.00"))).getId();
+        }
+        List<TransferFundDto> transfers = new ArrayList<>(TRANSFERS);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < TRANSFERS; i++) {
+            int from = random.nextInt(ACCOUNTS);
+            int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+            transfers.add(new TransferFundDto(ids[from], ids[to], Money.ofMinor((1 + random.nextInt(100)) * Money.MINOR_PER_MAJOR)));
+        }
+
+        // warm up both paths
+        accountService.transferFundsBatch(transfers.subList(0, 500));
+        transfers.subList(0, 500).forEach(accountService::transferFunds);
+
+        long began = System.nanoTime();
+        for (TransferFundDto transfer : transfers) {
+            accountService.transferFunds(transfer);
+        }
+        double oneByOne = TRANSFERS / ((System.nanoTime() - began) / 1_000_000_000.0);
+
+        began = System.nanoTime();
+        accountService.transferFundsBatch(transfers);
+        double batched = TRANSFERS / ((System.nanoTime() - began) / 1_000_000_000.0);
+
+        log.info(String.format("transferFunds one by one: %,10.0f transfers/sec", oneByOne));
+        log.info(String.format("transferFundsBatch:       %,10.0f transfers/sec (%.1fx)", batched, batched / oneByOne));
+    }
+}
@@ -0,0 +1,115 @@
+package com.banking.banking.app.service.impl;
+
+import com.banking.banking.app.dto.AccountDto;
+import com.banking.banking.app.dto.TransferFundDto;
+import com.banking.banking.app.dto.TransferResultDto;
+import com.banking.banking.app.money.Money;
+import com.banking.banking.app.repository.AccountRepository;
+import com.banking.banking.app.repository.TransactionRepository;
+import com.banking.banking.app.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class TransferBatchProcessorTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testTransferFundsBatch_PerItemResults() {
+        long a = accountService.createAccount(new AccountDto(0, "John Doe", Money.of("100.00"))).getId();
+        long b = accountService.createAccount(new AccountDto(0, "Jane Doe", Money.of("50.00"))).getId();
+        long ledgerBefore = transactionRepository.count();
+
+        List<TransferResultDto> results = accountService.transferFundsBatch(List.of(
+                new TransferFundDto(a, b, Money.of("60.00")),
+                new TransferFundDto(a, b, Money.of("60.00")),        // a only has 40 left
+                new TransferFundDto(b, a, Money.of("110.00")),
+                new TransferFundDto(a, 999_999L, Money.of("1.00")),
+                new TransferFundDto(a, b, Money.of("-5.00"))));
+
+        assertEquals(TransferResultDto.APPLIED, results.get(0).status());
+        assertEquals("Insufficient amount", results.get(1).message());
+        assertEquals(TransferResultDto.APPLIED, results.get(2).status());
+        assertEquals("Account does not exist.", results.get(3).message());
+        assertEquals(TransferResultDto.REJECTED, results.get(4).status());
+
+        assertEquals(15000, accountRepository.findById(a).orElseThrow().getBalance());
+        assertEquals(0, accountRepository.findById(b).orElseThrow().getBalance());
+        // a debit and a credit row per applied transfer
+        assertEquals(ledgerBefore + 4, transactionRepository.count());
+    }
+
+    @Test
+    public void testTransferFundsBatch_IncompleteItemsRejected() throws Exception {
+        long a = accountService.createAccount(new AccountDto(0, "John Doe", Money.of("100.00"))).getId();
+        long b = accountService.createAccount(new AccountDto(0, "Jane Doe", Money.of("0.00"))).getId();
+        String body = "[{\"fromAccountId\":" + a + ",\"toAccountId\":" + b + ",\"amount\":10.0},"
+                + "{\"fromAccountId\":" + a + ",\"toAccountId\":" + b + "},"
+                + "{\"toAccountId\":" + b + ",\"amount\":5.0},"
+                + "null,"
+                + "{\"fromAccountId\":" + a + ",\"toAccountId\":" + b + ",\"amount\":2.5}]";
+
+        mockMvc.perform(post("/api/accounts/transfers/batch").contentType("application/json").content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[0].status").value(TransferResultDto.APPLIED))
+                .andExpect(jsonPath("$[1].status").value(TransferResultDto.REJECTED))
+                .andExpect(jsonPath("$[1].message").value(TransferFundDto.INCOMPLETE))
+                .andExpect(jsonPath("$[2].status").value(TransferResultDto.REJECTED))
+                .andExpect(jsonPath("$[3].status").value(TransferResultDto.REJECTED))
+                .andExpect(jsonPath("$[4].status").value(TransferResultDto.APPLIED));
+
+        assertEquals(1250, accountRepository.findById(b).orElseThrow().getBalance());
+    }
+
+    @Test
+    public void testTransferFundsBatch_NdjsonBody() throws Exception {
+        long a = accountService.createAccount(new AccountDto(0, "John Doe", Money.of("100.00"))).getId();
+        long b = accountService.createAccount(new AccountDto(0, "Jane Doe", Money.of("0.00"))).getId();
+        String body = "{\"fromAccountId\":" + a + ",\"toAccountId\":" + b + ",\"amount\":10.0}\n"
+                + "{\"fromAccountId\":" + a + ",\"toAccountId\":" + b + ",\"amount\":15.5}\n";
+
+        mockMvc.perform(post("/api/accounts/transfers/batch").contentType("application/x-ndjson").content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].status").value(TransferResultDto.APPLIED));
+
+        assertEquals(2550, accountRepository.findById(b).orElseThrow().getBalance());
+    }
+
+    @Test
+    public void testTransferFundsBatch_NdjsonBodyOverTheLimitRejected() throws Exception {
+        long a = accountService.createAccount(new AccountDto(0, "John Doe", Money.of("100.00"))).getId();
+        long b = accountService.createAccount(new AccountDto(0, "Jane Doe", Money.of("0.00"))).getId();
+        String line = "{\"fromAccountId\":" + a + ",\"toAccountId\":" + b + ",\"amount\":0.01}\n";
+
+        mockMvc.perform(post("/api/accounts/transfers/batch").contentType("application/x-ndjson")
+                        .content(line.repeat(10_001)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("At most 10000 transfers per batch"));
+
+        assertEquals(0, accountRepository.findById(b).orElseThrow().getBalance());
+    }
+}